@@ -0,0 +1,47 @@
+/*
+ * Copyright 2026 Uppsala University Library
+ *
+ * This file is part of Cora.
+ *
+ *     Cora is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     Cora is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with Cora.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package se.uu.ub.cora.metadatastorage.benchmark;
+
+import java.util.List;
+
+import se.uu.ub.cora.bookkeeper.text.TextElement;
+import se.uu.ub.cora.bookkeeper.text.TextElementImp;
+import se.uu.ub.cora.data.DataAttribute;
+import se.uu.ub.cora.data.DataGroup;
+import se.uu.ub.cora.data.DataRecordGroup;
+
+/**
+ * LookupsByNameTextConverter converts a text record in the same way as
+ * DataToTextElementConverterImp did before it traversed the children of the record in a single
+ * pass. It is kept unchanged as the baseline of {@link TextConversionBenchmark} and is not used
+ * outside of the benchmarks.
+ */
+final class LookupsByNameTextConverter {
+
+	TextElement convert(DataRecordGroup dataRecordGroup) {
+		TextElement textElement = TextElementImp.withId(dataRecordGroup.getId());
+		List<DataGroup> textParts = dataRecordGroup.getAllGroupsWithNameInData("textPart");
+		for (DataGroup textPart : textParts) {
+			DataAttribute attribute = textPart.getAttribute("lang");
+			String text = textPart.getFirstAtomicValueWithNameInData("text");
+			textElement.addTranslation(attribute.getValue(), text);
+		}
+		return textElement;
+	}
+}
@@ -0,0 +1,140 @@
+/*
+ * Copyright 2026 Uppsala University Library
+ *
+ * This file is part of Cora.
+ *
+ *     Cora is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     Cora is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with Cora.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package se.uu.ub.cora.metadatastorage.benchmark;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import se.uu.ub.cora.bookkeeper.metadata.CollectTermHolder;
+import se.uu.ub.cora.bookkeeper.metadata.MetadataElement;
+import se.uu.ub.cora.bookkeeper.text.TextElement;
+import se.uu.ub.cora.bookkeeper.storage.MetadataStorageViewException;
+import se.uu.ub.cora.bookkeeper.validator.ValidationType;
+import se.uu.ub.cora.data.DataRecordGroup;
+import se.uu.ub.cora.metadatastorage.MetadataStorageViewImp;
+import se.uu.ub.cora.metadatastorage.converter.datatotextelement.DataToTextElementConverterFactoryImp;
+import se.uu.ub.cora.metadatastorage.converter.datatotextelement.DataToTextElementConverter;
+import se.uu.ub.cora.metadatastorage.converter.datatotextelement.DataToTextElementConverterImp;
+
+/**
+ * MetadataStorageViewBenchmark measures the hot paths of {@link MetadataStorageViewImp} against
+ * a {@link SyntheticRecordStorage} holding the given number of records in total. Throughput and
+ * sampled latency, with percentiles, are reported for each benchmark. Run with the gc profiler to
+ * also get the allocation rate, see the benchmark profile in the pom.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({ Mode.Throughput, Mode.SampleTime })
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class MetadataStorageViewBenchmark {
+
+	@Param({ "10000", "50000", "200000" })
+	public int numberOfRecords;
+
+	private MetadataStorageViewImp metadataStorageView;
+	private List<String> metadataIds;
+	private DataRecordGroup textRecordGroup;
+	private DataToTextElementConverter textConverter;
+
+	@Setup(Level.Trial)
+	public void setUp() {
+		SyntheticRecordStorage storage = SyntheticRecords
+				.createStorageWithNumberOfRecords(numberOfRecords);
+		metadataStorageView = MetadataStorageViewImp.usingRecordStorageAndTextConverterFactory(
+				storage, new DataToTextElementConverterFactoryImp());
+		metadataIds = storage.getIds("metadata");
+		textRecordGroup = SyntheticRecords.createText(0).asRecordGroup();
+		textConverter = new DataToTextElementConverterImp();
+	}
+
+	@State(Scope.Thread)
+	public static class IdCursor {
+		private int position;
+
+		int next(int size) {
+			position = (position + 1) % size;
+			return position;
+		}
+	}
+
+	@Benchmark
+	public CollectTermHolder getCollectTermHolder() {
+		return metadataStorageView.getCollectTermHolder();
+	}
+
+	@Benchmark
+	public void getTextElements(Blackhole blackhole) {
+		for (TextElement textElement : metadataStorageView.getTextElements()) {
+			blackhole.consume(textElement);
+		}
+	}
+
+	@Benchmark
+	public void getValidationTypes(Blackhole blackhole) {
+		for (ValidationType validationType : metadataStorageView.getValidationTypes()) {
+			blackhole.consume(validationType);
+		}
+	}
+
+	@Benchmark
+	@OutputTimeUnit(TimeUnit.MICROSECONDS)
+	public MetadataElement getMetadataElement(IdCursor cursor) {
+		String id = metadataIds.get(cursor.next(metadataIds.size()));
+		return metadataStorageView.getMetadataElement(id);
+	}
+
+	@Benchmark
+	@OutputTimeUnit(TimeUnit.MICROSECONDS)
+	public Object getMissingMetadataElement() {
+		try {
+			return metadataStorageView.getMetadataElement("someMissingId");
+		} catch (MetadataStorageViewException e) {
+			return e;
+		}
+	}
+
+	@Benchmark
+	@OutputTimeUnit(TimeUnit.MICROSECONDS)
+	public Optional<MetadataElement> findMissingMetadataElement() {
+		return metadataStorageView.findMetadataElement("someMissingId");
+	}
+
+	@Benchmark
+	@OutputTimeUnit(TimeUnit.MICROSECONDS)
+	public TextElement convertTextElement() {
+		return textConverter.convert(textRecordGroup);
+	}
+}
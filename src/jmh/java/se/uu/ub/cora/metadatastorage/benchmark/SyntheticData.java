@@ -0,0 +1,91 @@
+/*
+ * Copyright 2026 Uppsala University Library
+ *
+ * This file is part of Cora.
+ *
+ *     Cora is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     Cora is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with Cora.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package se.uu.ub.cora.metadatastorage.benchmark;
+
+import se.uu.ub.cora.data.DataGroup;
+import se.uu.ub.cora.data.DataProvider;
+import se.uu.ub.cora.data.DataRecordGroup;
+
+/**
+ * SyntheticData builds generated records for the benchmarks as real coradata objects, created
+ * through {@link DataProvider}, so that the benchmarks measure the same data implementation as a
+ * running system. A coradata implementation must be on the benchmark classpath, see the benchmark
+ * profile in the pom.
+ */
+final class SyntheticData {
+	private final DataGroup dataGroup;
+	private final String recordId;
+	private DataRecordGroup recordGroup;
+
+	private SyntheticData(DataGroup dataGroup, String recordId) {
+		this.dataGroup = dataGroup;
+		this.recordId = recordId;
+	}
+
+	static SyntheticData record(String recordType, String recordId) {
+		SyntheticData data = new SyntheticData(DataProvider.createGroupUsingNameInData(recordType),
+				recordId);
+		SyntheticData recordInfo = group("recordInfo");
+		recordInfo.atomic("id", recordId);
+		recordInfo.link("type", "recordType", recordType);
+		data.addChild(recordInfo);
+		return data;
+	}
+
+	static SyntheticData group(String nameInData) {
+		return new SyntheticData(DataProvider.createGroupUsingNameInData(nameInData), null);
+	}
+
+	SyntheticData attribute(String name, String attributeValue) {
+		dataGroup.addAttributeByIdWithValue(name, attributeValue);
+		return this;
+	}
+
+	SyntheticData atomic(String childNameInData, String atomicValue) {
+		dataGroup.addChild(
+				DataProvider.createAtomicUsingNameInDataAndValue(childNameInData, atomicValue));
+		return this;
+	}
+
+	SyntheticData link(String childNameInData, String linkedType, String linkedId) {
+		dataGroup.addChild(DataProvider.createRecordLinkUsingNameInDataAndTypeAndId(
+				childNameInData, linkedType, linkedId));
+		return this;
+	}
+
+	SyntheticData addChild(SyntheticData child) {
+		dataGroup.addChild(child.dataGroup);
+		return this;
+	}
+
+	String recordId() {
+		return recordId;
+	}
+
+	DataRecordGroup asRecordGroup() {
+		if (recordGroup == null) {
+			recordGroup = DataProvider.createRecordGroupFromDataGroup(dataGroup);
+		}
+		return recordGroup;
+	}
+
+	DataGroup asGroup() {
+		return dataGroup;
+	}
+}
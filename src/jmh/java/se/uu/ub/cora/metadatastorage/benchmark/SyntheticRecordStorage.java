@@ -0,0 +1,107 @@
+/*
+ * Copyright 2026 Uppsala University Library
+ *
+ * This file is part of Cora.
+ *
+ *     Cora is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     Cora is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with Cora.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package se.uu.ub.cora.metadatastorage.benchmark;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import se.uu.ub.cora.data.DataGroup;
+import se.uu.ub.cora.data.DataRecordGroup;
+import se.uu.ub.cora.storage.Filter;
+import se.uu.ub.cora.storage.RecordNotFoundException;
+import se.uu.ub.cora.storage.RecordStorage;
+import se.uu.ub.cora.storage.StorageReadResult;
+import se.uu.ub.cora.storage.spies.RecordStorageSpy;
+
+/**
+ * SyntheticRecordStorage is an in memory {@link RecordStorage} holding generated records, used by
+ * the benchmarks. It implements read, recordExists and readList, including paging using the from
+ * and to numbers in {@link Filter}, as plain methods. The other methods of the storage are not
+ * used by the benchmarks and are left to {@link RecordStorageSpy}.
+ */
+final class SyntheticRecordStorage extends RecordStorageSpy {
+	private final Map<String, Map<String, DataRecordGroup>> recordGroupsById = new HashMap<>();
+	private final Map<String, List<DataRecordGroup>> recordGroupsByType = new HashMap<>();
+	private final Map<String, List<DataGroup>> groupsByType = new HashMap<>();
+
+	void add(String recordType, SyntheticData data) {
+		DataRecordGroup recordGroup = data.asRecordGroup();
+		recordGroupsById.computeIfAbsent(recordType, key -> new HashMap<>())
+				.put(data.recordId(), recordGroup);
+		recordGroupsByType.computeIfAbsent(recordType, key -> new ArrayList<>()).add(recordGroup);
+		groupsByType.computeIfAbsent(recordType, key -> new ArrayList<>()).add(data.asGroup());
+	}
+
+	List<String> getIds(String recordType) {
+		List<String> ids = new ArrayList<>();
+		for (DataRecordGroup recordGroup : recordGroupsByType.getOrDefault(recordType,
+				List.of())) {
+			ids.add(recordGroup.getId());
+		}
+		return ids;
+	}
+
+	@Override
+	public DataRecordGroup read(String recordType, String recordId) {
+		DataRecordGroup recordGroup = recordGroupsById.getOrDefault(recordType, Map.of())
+				.get(recordId);
+		if (recordGroup == null) {
+			throw RecordNotFoundException
+					.withMessage("No record exists with type: " + recordType + " and id: "
+							+ recordId);
+		}
+		return recordGroup;
+	}
+
+	@Override
+	public boolean recordExists(List<String> recordTypes, String recordId) {
+		for (String recordType : recordTypes) {
+			if (recordGroupsById.getOrDefault(recordType, Map.of()).containsKey(recordId)) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	@Override
+	public StorageReadResult readList(String recordType, Filter filter) {
+		return readList(List.of(recordType), filter);
+	}
+
+	@Override
+	public StorageReadResult readList(List<String> recordTypes, Filter filter) {
+		List<DataRecordGroup> recordGroups = new ArrayList<>();
+		List<DataGroup> groups = new ArrayList<>();
+		for (String recordType : recordTypes) {
+			recordGroups.addAll(recordGroupsByType.getOrDefault(recordType, List.of()));
+			groups.addAll(groupsByType.getOrDefault(recordType, List.of()));
+		}
+		int fromIndex = (int) Math.min(Math.max(filter.fromNo - 1, 0), recordGroups.size());
+		int toIndex = (int) Math.min(Math.max(filter.toNo, fromIndex), recordGroups.size());
+		StorageReadResult readResult = new StorageReadResult();
+		readResult.start = fromIndex;
+		readResult.totalNumberOfMatches = recordGroups.size();
+		readResult.listOfDataRecordGroups = new ArrayList<>(
+				recordGroups.subList(fromIndex, toIndex));
+		readResult.listOfDataGroups = new ArrayList<>(groups.subList(fromIndex, toIndex));
+		return readResult;
+	}
+}
@@ -0,0 +1,119 @@
+/*
+ * Copyright 2026 Uppsala University Library
+ *
+ * This file is part of Cora.
+ *
+ *     Cora is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     Cora is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with Cora.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package se.uu.ub.cora.metadatastorage.benchmark;
+
+/**
+ * SyntheticRecords fills a {@link SyntheticRecordStorage} with generated metadata related records.
+ * The number of records per type follows a typical system, where metadata and texts make up most
+ * of the records.
+ */
+final class SyntheticRecords {
+	private static final String[] COLLECT_TERM_TYPES = { "index", "permission", "storage" };
+
+	private SyntheticRecords() {
+	}
+
+	static SyntheticRecordStorage createStorageWithNumberOfRecords(int numberOfRecords) {
+		SyntheticRecordStorage storage = new SyntheticRecordStorage();
+		int numberOfTexts = numberOfRecords * 2 / 5;
+		int numberOfMetadata = numberOfRecords * 2 / 5;
+		int numberOfPresentations = numberOfRecords / 10;
+		int numberOfCollectTerms = numberOfRecords / 20;
+		int numberOfValidationTypes = Math.max(1, numberOfRecords / 40);
+		int numberOfRecordTypes = Math.max(1, numberOfRecords / 40);
+		for (int i = 0; i < numberOfTexts; i++) {
+			storage.add("text", createText(i));
+		}
+		for (int i = 0; i < numberOfMetadata; i++) {
+			storage.add("metadata", createTextVariable(i));
+		}
+		for (int i = 0; i < numberOfPresentations; i++) {
+			storage.add("presentation", createPresentation(i));
+		}
+		for (int i = 0; i < numberOfCollectTerms; i++) {
+			storage.add("collectTerm", createCollectTerm(i));
+		}
+		for (int i = 0; i < numberOfValidationTypes; i++) {
+			storage.add("validationType", createValidationType(i, numberOfRecordTypes));
+		}
+		for (int i = 0; i < numberOfRecordTypes; i++) {
+			storage.add("recordType", createRecordType(i));
+		}
+		return storage;
+	}
+
+	static SyntheticData createText(int number) {
+		SyntheticData text = SyntheticData.record("text", "someText" + number + "Text");
+		text.addChild(SyntheticData.group("textPart").attribute("type", "default")
+				.attribute("lang", "sv").atomic("text", "En svensk text nummer " + number));
+		text.addChild(SyntheticData.group("textPart").attribute("type", "alternative")
+				.attribute("lang", "en").atomic("text", "An english text number " + number));
+		return text;
+	}
+
+	static SyntheticData createTextWithNumberOfTranslations(int number, int numberOfTranslations) {
+		SyntheticData text = SyntheticData.record("text", "someText" + number + "Text");
+		for (int i = 0; i < numberOfTranslations; i++) {
+			text.addChild(SyntheticData.group("textPart").attribute("type", "alternative")
+					.attribute("lang", "lang" + i).atomic("text", "A text in language " + i));
+		}
+		return text;
+	}
+
+	private static SyntheticData createTextVariable(int number) {
+		String id = "someMetadata" + number + "TextVar";
+		return SyntheticData.record("metadata", id).attribute("type", "textVariable")
+				.atomic("nameInData", "someNameInData" + number)
+				.link("textId", "text", id + "Text").link("defTextId", "text", id + "DefText")
+				.atomic("regEx", ".+");
+	}
+
+	private static SyntheticData createPresentation(int number) {
+		return SyntheticData.record("presentation", "somePresentation" + number + "PVar")
+				.attribute("type", "pVar")
+				.link("presentationOf", "metadata", "someMetadata" + number + "TextVar")
+				.atomic("mode", "input");
+	}
+
+	private static SyntheticData createCollectTerm(int number) {
+		String type = COLLECT_TERM_TYPES[number % COLLECT_TERM_TYPES.length];
+		SyntheticData extraData = SyntheticData.group("extraData")
+				.atomic("indexFieldName", "someIndexField" + number)
+				.atomic("indexType", "indexTypeString")
+				.atomic("permissionKey", "somePermissionKey" + number).atomic("mode", "state")
+				.atomic("storageKey", "someStorageKey" + number);
+		return SyntheticData.record("collectTerm", "someCollectTerm" + number)
+				.attribute("type", type).atomic("nameInData", "someNameInData" + number)
+				.addChild(extraData);
+	}
+
+	private static SyntheticData createValidationType(int number, int numberOfRecordTypes) {
+		String validatedRecordType = "someRecordType" + number % numberOfRecordTypes;
+		return SyntheticData.record("validationType", "someValidationType" + number)
+				.link("validatesRecordType", "recordType", validatedRecordType)
+				.link("newMetadataId", "metadata", validatedRecordType + "NewGroup" + number)
+				.link("metadataId", "metadata", validatedRecordType + "Group" + number);
+	}
+
+	private static SyntheticData createRecordType(int number) {
+		String id = "someRecordType" + number;
+		return SyntheticData.record("recordType", id)
+				.link("metadataId", "metadata", id + "Group").atomic("public", "false");
+	}
+}
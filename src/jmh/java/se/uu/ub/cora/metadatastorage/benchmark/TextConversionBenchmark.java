@@ -0,0 +1,82 @@
+/*
+ * Copyright 2026 Uppsala University Library
+ *
+ * This file is part of Cora.
+ *
+ *     Cora is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     Cora is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with Cora.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package se.uu.ub.cora.metadatastorage.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import se.uu.ub.cora.bookkeeper.text.TextElement;
+import se.uu.ub.cora.data.DataRecordGroup;
+import se.uu.ub.cora.metadatastorage.converter.datatotextelement.DataToTextElementConverter;
+import se.uu.ub.cora.metadatastorage.converter.datatotextelement.DataToTextElementConverterImp;
+
+/**
+ * TextConversionBenchmark compares the single pass child traversal of
+ * {@link DataToTextElementConverterImp} with the traversal it replaced, kept unchanged in
+ * {@link LookupsByNameTextConverter}, where textParts were first collected using
+ * getAllGroupsWithNameInData and the language and text of each was then looked up by name. Both
+ * convert the same text record, built as real coradata objects by {@link SyntheticData}, into a
+ * text element. Run with the gc profiler to get the allocation per conversion, see the benchmark
+ * profile in the pom.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class TextConversionBenchmark {
+
+	@Param({ "2", "10" })
+	public int numberOfTranslations;
+
+	private DataRecordGroup textRecordGroup;
+	private DataToTextElementConverter textConverter;
+	private LookupsByNameTextConverter lookupsByNameConverter;
+
+	@Setup(Level.Trial)
+	public void setUp() {
+		textRecordGroup = SyntheticRecords
+				.createTextWithNumberOfTranslations(0, numberOfTranslations).asRecordGroup();
+		textConverter = new DataToTextElementConverterImp();
+		lookupsByNameConverter = new LookupsByNameTextConverter();
+	}
+
+	@Benchmark
+	public TextElement convertUsingSinglePass() {
+		return textConverter.convert(textRecordGroup);
+	}
+
+	@Benchmark
+	public TextElement convertUsingLookupsByName() {
+		return lookupsByNameConverter.convert(textRecordGroup);
+	}
+}
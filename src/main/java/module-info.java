@@ -3,5 +3,15 @@ module se.uu.ub.cora.metadatastorage {
 	requires se.uu.ub.cora.gatekeeper;
 	requires se.uu.ub.cora.logger;
 	// requires se.uu.ub.cora.spider;
-	requires se.uu.ub.cora.storage;
+	requires transitive se.uu.ub.cora.storage;
+	requires transitive java.management;
+
+	exports se.uu.ub.cora.metadatastorage;
+	exports se.uu.ub.cora.metadatastorage.cache;
+	exports se.uu.ub.cora.metadatastorage.converter;
+	exports se.uu.ub.cora.metadatastorage.converter.datatotextelement;
+	exports se.uu.ub.cora.metadatastorage.converter.pipeline;
+	exports se.uu.ub.cora.metadatastorage.metrics;
+	exports se.uu.ub.cora.metadatastorage.recordtype;
+	exports se.uu.ub.cora.metadatastorage.validationtype;
 }
\ No newline at end of file
@@ -0,0 +1,74 @@
+/*
+ * Copyright 2026 Uppsala University Library
+ *
+ * This file is part of Cora.
+ *
+ *     Cora is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     Cora is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with Cora.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package se.uu.ub.cora.metadatastorage;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+/**
+ * BatchReadResult holds the result of reading several elements by id in one call. Elements that
+ * were found and could be converted are in found, keyed by id and in the order the ids were
+ * requested. Ids that were not found in storage are in notFound. Ids whose records were found but
+ * could not be converted are in failed, together with the exception thrown by the conversion.
+ */
+public record BatchReadResult<T>(Map<String, T> found, Set<String> notFound,
+		Map<String, Exception> failed) {
+
+	public BatchReadResult {
+		found = Collections.unmodifiableMap(new LinkedHashMap<>(found));
+		notFound = Collections.unmodifiableSet(new LinkedHashSet<>(notFound));
+		failed = Collections.unmodifiableMap(new LinkedHashMap<>(failed));
+	}
+
+	/**
+	 * Creates a BatchReadResult where no conversion failed.
+	 * 
+	 * @param found
+	 *            The found elements keyed by id
+	 * @param notFound
+	 *            The ids that were not found
+	 */
+	public BatchReadResult(Map<String, T> found, Set<String> notFound) {
+		this(found, notFound, Collections.emptyMap());
+	}
+
+	/**
+	 * get returns the element with the specified id if it was found.
+	 * 
+	 * @param id
+	 *            The id of the element
+	 * @return An Optional with the element, empty if it was not found
+	 */
+	public Optional<T> get(String id) {
+		return Optional.ofNullable(found.get(id));
+	}
+
+	/**
+	 * allFound returns true if every requested id was found and converted.
+	 * 
+	 * @return true if no id is in notFound or failed
+	 */
+	public boolean allFound() {
+		return notFound.isEmpty() && failed.isEmpty();
+	}
+}
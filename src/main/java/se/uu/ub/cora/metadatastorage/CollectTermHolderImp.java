@@ -1,5 +1,5 @@
 /*
- * Copyright 2017, 2024 Uppsala University Library
+ * Copyright 2017, 2024, 2026 Uppsala University Library
  *
  * This file is part of Cora.
  *
@@ -18,21 +18,148 @@
  */
 package se.uu.ub.cora.metadatastorage;
 
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.Map.Entry;
 
 import se.uu.ub.cora.bookkeeper.metadata.CollectTerm;
 import se.uu.ub.cora.bookkeeper.metadata.CollectTermHolder;
+import se.uu.ub.cora.bookkeeper.metadata.IndexTerm;
+import se.uu.ub.cora.bookkeeper.metadata.PermissionTerm;
+import se.uu.ub.cora.bookkeeper.metadata.StorageTerm;
 
+/**
+ * CollectTermHolderImp is an immutable holder of collect terms. All lookups are indexed when the
+ * holder is created so that one instance can be shared between threads and used on the hot path
+ * without any scanning or filtering of the collect terms.
+ * <p>
+ * The lists of terms keep the order the collect terms were given in. A holder created by
+ * {@link #withCollectTerm(CollectTerm)} or {@link #withoutCollectTerm(String)} keeps the order of
+ * the holder it is created from, a changed collect term keeps its position and a new one is added
+ * last.
+ */
 public final class CollectTermHolderImp implements CollectTermHolder {
-	private Map<String, CollectTerm> collectTerm = new HashMap<>();
+	private final Map<String, CollectTerm> collectTermsById;
+	private final List<StorageTerm> storageTerms;
+	private final List<IndexTerm> indexTerms;
+	private final List<PermissionTerm> permissionTerms;
+	private final Map<String, List<IndexTerm>> indexTermsByIndexFieldName;
+	private final Map<String, List<PermissionTerm>> permissionTermsByPermissionKey;
+
+	public static CollectTermHolderImp usingCollectTerms(Collection<CollectTerm> collectTerms) {
+		return new CollectTermHolderImp(collectTerms);
+	}
+
+	private CollectTermHolderImp(Collection<CollectTerm> collectTerms) {
+		Map<String, CollectTerm> byId = new LinkedHashMap<>(collectTerms.size());
+		List<StorageTerm> storage = new ArrayList<>();
+		List<IndexTerm> index = new ArrayList<>();
+		List<PermissionTerm> permission = new ArrayList<>();
+		Map<String, List<IndexTerm>> byIndexFieldName = new HashMap<>();
+		Map<String, List<PermissionTerm>> byPermissionKey = new HashMap<>();
+		for (CollectTerm collectTerm : collectTerms) {
+			byId.put(collectTerm.id, collectTerm);
+			if (collectTerm instanceof StorageTerm storageTerm) {
+				storage.add(storageTerm);
+			} else if (collectTerm instanceof IndexTerm indexTerm) {
+				index.add(indexTerm);
+				byIndexFieldName.computeIfAbsent(indexTerm.indexFieldName, k -> new ArrayList<>())
+						.add(indexTerm);
+			} else if (collectTerm instanceof PermissionTerm permissionTerm) {
+				permission.add(permissionTerm);
+				byPermissionKey
+						.computeIfAbsent(permissionTerm.permissionKey, k -> new ArrayList<>())
+						.add(permissionTerm);
+			}
+		}
+		collectTermsById = Collections.unmodifiableMap(byId);
+		storageTerms = List.copyOf(storage);
+		indexTerms = List.copyOf(index);
+		permissionTerms = List.copyOf(permission);
+		indexTermsByIndexFieldName = copyOfMapOfLists(byIndexFieldName);
+		permissionTermsByPermissionKey = copyOfMapOfLists(byPermissionKey);
+	}
 
-	public void addCollectTerm(CollectTerm storageTerm) {
-		collectTerm.put(storageTerm.id, storageTerm);
+	/**
+	 * withCollectTerm returns a new holder where the collect term with the same id as the
+	 * specified collect term is replaced by it, or where it is added if no such collect term
+	 * exists.
+	 * 
+	 * @param collectTerm
+	 *            The new or changed CollectTerm
+	 * @return A new CollectTermHolderImp
+	 */
+	public CollectTermHolderImp withCollectTerm(CollectTerm collectTerm) {
+		Map<String, CollectTerm> changed = new LinkedHashMap<>(collectTermsById);
+		changed.put(collectTerm.id, collectTerm);
+		return new CollectTermHolderImp(changed.values());
+	}
+
+	/**
+	 * withoutCollectTerm returns a new holder without the collect term with the specified id.
+	 * 
+	 * @param collectTermId
+	 *            The id of the collect term to leave out
+	 * @return A new CollectTermHolderImp
+	 */
+	public CollectTermHolderImp withoutCollectTerm(String collectTermId) {
+		Map<String, CollectTerm> changed = new LinkedHashMap<>(collectTermsById);
+		changed.remove(collectTermId);
+		return new CollectTermHolderImp(changed.values());
+	}
+
+	private static <T> Map<String, List<T>> copyOfMapOfLists(Map<String, List<T>> mapOfLists) {
+		Map<String, List<T>> copy = new HashMap<>(mapOfLists.size());
+		for (Entry<String, List<T>> entry : mapOfLists.entrySet()) {
+			copy.put(entry.getKey(), List.copyOf(entry.getValue()));
+		}
+		return Map.copyOf(copy);
 	}
 
 	@Override
 	public CollectTerm getCollectTermById(String collectTermId) {
-		return collectTerm.get(collectTermId);
+		return collectTermsById.get(collectTermId);
+	}
+
+	public List<StorageTerm> getStorageTerms() {
+		return storageTerms;
+	}
+
+	public List<IndexTerm> getIndexTerms() {
+		return indexTerms;
+	}
+
+	public List<PermissionTerm> getPermissionTerms() {
+		return permissionTerms;
+	}
+
+	/**
+	 * getIndexTermsByIndexFieldName returns all index terms that index into the field with the
+	 * specified name.
+	 * 
+	 * @param indexFieldName
+	 *            The name of the index field
+	 * @return A List with the matching IndexTerms, an empty list if none matches
+	 */
+	public List<IndexTerm> getIndexTermsByIndexFieldName(String indexFieldName) {
+		return indexTermsByIndexFieldName.getOrDefault(indexFieldName, Collections.emptyList());
+	}
+
+	/**
+	 * getPermissionTermsByPermissionKey returns all permission terms that use the specified
+	 * permission key.
+	 * 
+	 * @param permissionKey
+	 *            The permission key
+	 * @return A List with the matching PermissionTerms, an empty list if none matches
+	 */
+	public List<PermissionTerm> getPermissionTermsByPermissionKey(String permissionKey) {
+		return permissionTermsByPermissionKey.getOrDefault(permissionKey,
+				Collections.emptyList());
 	}
 }
@@ -19,18 +19,29 @@
  */
 package se.uu.ub.cora.metadatastorage;
 
+import java.time.Duration;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.function.ToIntFunction;
+import java.util.stream.Stream;
 
 import se.uu.ub.cora.bookkeeper.metadata.CollectTerm;
-import se.uu.ub.cora.bookkeeper.metadata.CollectTermHolder;
 import se.uu.ub.cora.bookkeeper.metadata.IndexTerm;
 import se.uu.ub.cora.bookkeeper.metadata.MetadataElement;
 import se.uu.ub.cora.bookkeeper.metadata.PermissionTerm;
 import se.uu.ub.cora.bookkeeper.metadata.StorageTerm;
-import se.uu.ub.cora.bookkeeper.metadata.converter.DataToMetadataConverter;
 import se.uu.ub.cora.bookkeeper.metadata.converter.DataToMetadataConverterProvider;
 import se.uu.ub.cora.bookkeeper.storage.MetadataStorageView;
 import se.uu.ub.cora.bookkeeper.storage.MetadataStorageViewException;
@@ -38,17 +49,59 @@ import se.uu.ub.cora.bookkeeper.text.TextElement;
 import se.uu.ub.cora.bookkeeper.validator.ValidationType;
 import se.uu.ub.cora.data.DataAttribute;
 import se.uu.ub.cora.data.DataGroup;
+import se.uu.ub.cora.data.DataProvider;
 import se.uu.ub.cora.data.DataRecordGroup;
 import se.uu.ub.cora.data.DataRecordLink;
-import se.uu.ub.cora.metadatastorage.converter.datatotextelement.DataToTextElementConverter;
+import se.uu.ub.cora.metadatastorage.cache.CacheStatistics;
+import se.uu.ub.cora.metadatastorage.cache.ConvertedElementCache;
+import se.uu.ub.cora.metadatastorage.cache.IndexedDataGroupList;
+import se.uu.ub.cora.metadatastorage.cache.MetadataSnapshot;
+import se.uu.ub.cora.metadatastorage.cache.MetadataSnapshotLoader;
+import se.uu.ub.cora.metadatastorage.cache.MissingIdCache;
+import se.uu.ub.cora.metadatastorage.converter.StringInterner;
 import se.uu.ub.cora.metadatastorage.converter.datatotextelement.DataToTextElementConverterFactory;
+import se.uu.ub.cora.metadatastorage.converter.datatotextelement.LazyTextElementList;
+import se.uu.ub.cora.metadatastorage.converter.datatotextelement.PackedTextStore;
+import se.uu.ub.cora.metadatastorage.converter.pipeline.ConversionPipeline;
+import se.uu.ub.cora.metadatastorage.converter.pipeline.SequentialConversionPipeline;
+import se.uu.ub.cora.metadatastorage.metrics.MetadataStorageViewMetrics;
+import se.uu.ub.cora.metadatastorage.metrics.NoOpMetadataStorageViewMetrics;
+import se.uu.ub.cora.metadatastorage.paging.RecordPageIterator;
+import se.uu.ub.cora.metadatastorage.paging.RecordPageReader;
+import se.uu.ub.cora.metadatastorage.recordtype.RecordType;
+import se.uu.ub.cora.metadatastorage.recordtype.RecordTypeRegistry;
+import se.uu.ub.cora.metadatastorage.validationtype.ValidationTypeRegistry;
 import se.uu.ub.cora.storage.Filter;
+import se.uu.ub.cora.storage.RecordNotFoundException;
 import se.uu.ub.cora.storage.RecordStorage;
 import se.uu.ub.cora.storage.StorageReadResult;
 
-public class MetadataStorageViewImp implements MetadataStorageView {
+public class MetadataStorageViewImp implements MetadataStorageView, MetadataSnapshotLoader {
+	private static final int DEFAULT_PAGE_SIZE = 1000;
+	private static final int DEFAULT_BATCH_READ_CHUNK_SIZE = 100;
+	private static final List<String> SNAPSHOT_RECORD_TYPES = List.of("metadata", "presentation",
+			"text", "recordType", "collectTerm", "validationType");
+	private static final Executor VIRTUAL_THREAD_EXECUTOR = Executors
+			.newVirtualThreadPerTaskExecutor();
 	private RecordStorage recordStorage;
 	private DataToTextElementConverterFactory dataToTextConverterFactory;
+	private ConversionPipeline conversionPipeline = new SequentialConversionPipeline();
+	private boolean convertTextsWhenLoadingSnapshot = false;
+	private boolean packTextsWhenLoadingSnapshot = false;
+	private int pageSize = DEFAULT_PAGE_SIZE;
+	private boolean readListsInPages = false;
+	private boolean readSnapshotInOneRead = false;
+	private Executor prefetchExecutor;
+	private Executor asyncExecutor = VIRTUAL_THREAD_EXECUTOR;
+	private int elementCacheSize = 0;
+	private int batchReadChunkSize = DEFAULT_BATCH_READ_CHUNK_SIZE;
+	private ConvertedElementCache<MetadataElement> metadataElementCache = ConvertedElementCache
+			.usingMaxSize(0);
+	private ConvertedElementCache<TextElement> textElementCache = ConvertedElementCache
+			.usingMaxSize(0);
+	private MissingIdCache missingIdCache = MissingIdCache.usingMaxSizeAndTimeToLive(0,
+			Duration.ZERO);
+	private volatile MetadataStorageViewMetrics metrics = new NoOpMetadataStorageViewMetrics();
 
 	public static MetadataStorageViewImp usingRecordStorageAndTextConverterFactory(
 			RecordStorage recordStorage,
@@ -62,9 +115,226 @@ public class MetadataStorageViewImp implements MetadataStorageView {
 		this.dataToTextConverterFactory = dataToTextConverterFactory;
 	}
 
+	/**
+	 * useConversionPipeline sets the pipeline used to convert validation types and collect terms.
+	 * When a pipeline is set are also all text elements converted through it when a snapshot is
+	 * loaded, so that the conversion work is done during warm-up instead of by the first callers.
+	 * <p>
+	 * The pipeline must be set before the view is shared between threads.
+	 * 
+	 * @param conversionPipeline
+	 *            The ConversionPipeline to use for bulk conversions
+	 */
+	public void useConversionPipeline(ConversionPipeline conversionPipeline) {
+		this.conversionPipeline = conversionPipeline;
+		convertTextsWhenLoadingSnapshot = true;
+	}
+
+	/**
+	 * usePackedTextStore makes loaded snapshots keep the translations of their text elements
+	 * packed off-heap in a {@link PackedTextStore} instead of as one object per text and
+	 * translation on the heap. All texts are converted when a snapshot is loaded, using the
+	 * conversion pipeline, and then packed. The text ids stay on the heap, and so do the text
+	 * DataGroups as they are returned by {@link #getTexts()}, only the converted text elements are
+	 * replaced by the packed store.
+	 * <p>
+	 * The packed text store must be turned on before the view is shared between threads.
+	 */
+	public void usePackedTextStore() {
+		packTextsWhenLoadingSnapshot = true;
+	}
+
+	/**
+	 * usePageSize sets the number of records read from storage in each call when records are read
+	 * page by page, the default is 1000.
+	 * <p>
+	 * The page size must be set before the view is shared between threads.
+	 * 
+	 * @param pageSize
+	 *            The number of records to read in each page
+	 */
+	public void usePageSize(int pageSize) {
+		if (pageSize < 1) {
+			throw new IllegalArgumentException("Page size must be at least 1, was: " + pageSize);
+		}
+		this.pageSize = pageSize;
+	}
+
+	/**
+	 * usePagedReads makes all reads of lists of records from storage use pages of the configured
+	 * page size instead of reading all records of a type in one call, capping the size of each
+	 * result set.
+	 * <p>
+	 * Paged reads require that storage lists records in a stable order, as each page is read as
+	 * a separate window using fromNo and toNo. Records created or removed during the reads shift
+	 * the windows and can be skipped or read twice.
+	 * <p>
+	 * Paged reads must be turned on before the view is shared between threads.
+	 */
+	public void usePagedReads() {
+		readListsInPages = true;
+	}
+
+	/**
+	 * usePagedReadsWithPrefetch works as {@link #usePagedReads()}, and also reads the next page on
+	 * the prefetch executor while the records in the current page are consumed, so that storage
+	 * reads overlap with the conversion of records. The prefetch executor is also used by the
+	 * stream methods.
+	 * 
+	 * @param prefetchExecutor
+	 *            The Executor to read the next page on
+	 */
+	public void usePagedReadsWithPrefetch(Executor prefetchExecutor) {
+		readListsInPages = true;
+		this.prefetchExecutor = prefetchExecutor;
+	}
+
+	/**
+	 * useAsyncExecutor sets the executor that the async methods, such as
+	 * {@link #getRecordTypesAsync()}, run their blocking counterparts on. The default executor
+	 * starts a new virtual thread for each call, so that many storage reads can wait at the same
+	 * time without holding on to platform threads.
+	 * 
+	 * @param asyncExecutor
+	 *            The Executor to run async calls on
+	 */
+	public void useAsyncExecutor(Executor asyncExecutor) {
+		this.asyncExecutor = asyncExecutor;
+	}
+
+	/**
+	 * useOneReadForSnapshot makes {@link #loadSnapshot(long)} read the records of all record
+	 * types held by a snapshot using one call to storage, instead of one call per record type. The
+	 * read records are routed to their record type in a single pass before they are converted.
+	 * Paged reads, if turned on, are used also for the combined read.
+	 */
+	public void useOneReadForSnapshot() {
+		readSnapshotInOneRead = true;
+	}
+
+	/**
+	 * useElementCacheSize turns on caching of the elements converted by
+	 * {@link #getMetadataElement(String)} and {@link #getTextElement(String)}, keeping at most
+	 * maxSize elements of each kind. The same size is used for the metadata element cache in
+	 * snapshots loaded by this view. The default size is 0, which turns caching off.
+	 * <p>
+	 * The cache size must be set before the view is shared between threads.
+	 * 
+	 * @param maxSize
+	 *            The maximum number of elements of each kind to keep in the cache
+	 */
+	public void useElementCacheSize(int maxSize) {
+		elementCacheSize = maxSize;
+		metadataElementCache = ConvertedElementCache.usingMaxSize(maxSize);
+		textElementCache = ConvertedElementCache.usingMaxSize(maxSize);
+	}
+
+	/**
+	 * useBatchReadChunkSize sets how many ids, not already in the element cache, a call to
+	 * {@link #getMetadataElements(Collection)} or {@link #getTextElements(Collection)} reads and
+	 * converts at a time. The records of one chunk are read by id and converted before the next
+	 * chunk is read, so that a large batch never holds more than one chunk of unconverted records
+	 * and never reads records that were not asked for. The default is 100.
+	 * <p>
+	 * The size must be set before the view is shared between threads.
+	 * 
+	 * @param chunkSize
+	 *            The number of ids to read and convert at a time
+	 */
+	public void useBatchReadChunkSize(int chunkSize) {
+		batchReadChunkSize = chunkSize;
+	}
+
+	/**
+	 * useMissingIdCache turns on remembering of metadata, text and validation type ids that were
+	 * not found in storage, so that repeated lookups of a missing id are answered without reading
+	 * from storage until the time to live has passed. {@link #recordCreated(String, String)} must
+	 * be called when a record is created so that it is not reported as missing.
+	 * <p>
+	 * The cache must be set up before the view is shared between threads.
+	 * 
+	 * @param maxSize
+	 *            The maximum number of missing ids to remember
+	 * @param timeToLive
+	 *            How long a missing id is remembered
+	 */
+	public void useMissingIdCache(int maxSize, Duration timeToLive) {
+		missingIdCache = MissingIdCache.usingMaxSizeAndTimeToLive(maxSize, timeToLive);
+	}
+
+	/**
+	 * recordCreated must be called when a record is created, so that a previous lookup of the id
+	 * that found nothing does not hide the new record.
+	 * 
+	 * @param recordType
+	 *            The type of the created record
+	 * @param recordId
+	 *            The id of the created record
+	 */
+	public void recordCreated(String recordType, String recordId) {
+		missingIdCache.recordCreated(recordType, recordId);
+	}
+
+	/**
+	 * useMetrics sets the metrics that calls to the view, reads from storage and conversions of
+	 * records are reported to, and registers the element caches with it. The default metrics
+	 * ignores all measurements.
+	 * <p>
+	 * The metrics can be set while the view is in use, calls already started report to the
+	 * previous metrics.
+	 * 
+	 * @param metrics
+	 *            The MetadataStorageViewMetrics to report to
+	 */
+	public void useMetrics(MetadataStorageViewMetrics metrics) {
+		this.metrics = metrics;
+		metrics.registerCache("metadataElement", this::getMetadataElementCacheStatistics);
+		metrics.registerCache("textElement", this::getTextElementCacheStatistics);
+	}
+
+	/**
+	 * invalidateMetadataElement removes the cached metadata element with the specified id, it must
+	 * be called when the metadata record with that id is updated.
+	 * 
+	 * @param elementId
+	 *            The id of the metadata record that has changed
+	 */
+	public void invalidateMetadataElement(String elementId) {
+		metadataElementCache.invalidate(elementId);
+	}
+
+	/**
+	 * invalidateTextElement removes the cached text element with the specified id, it must be
+	 * called when the text record with that id is updated.
+	 * 
+	 * @param elementId
+	 *            The id of the text record that has changed
+	 */
+	public void invalidateTextElement(String elementId) {
+		textElementCache.invalidate(elementId);
+	}
+
+	public CacheStatistics getMetadataElementCacheStatistics() {
+		return metadataElementCache.getStatistics();
+	}
+
+	public CacheStatistics getTextElementCacheStatistics() {
+		return textElementCache.getStatistics();
+	}
+
 	@Override
 	public Collection<DataRecordGroup> getMetadataElements() {
-		return readMetadataElementsFromStorageForType("metadata");
+		return measureCall("getMetadataElements",
+				() -> readMetadataElementsFromStorageForType("metadata"), Collection::size);
+	}
+
+	private <T> T measureCall(String methodName, Supplier<T> call,
+			ToIntFunction<T> numberOfRecords) {
+		long start = System.nanoTime();
+		T result = call.get();
+		metrics.recordCall(methodName, System.nanoTime() - start,
+				numberOfRecords.applyAsInt(result));
+		return result;
 	}
 
 	private Collection<DataRecordGroup> readMetadataElementsFromStorageForType(String recordType) {
@@ -81,26 +351,170 @@ public class MetadataStorageViewImp implements MetadataStorageView {
 	}
 
 	private List<DataRecordGroup> readListOfElementsFromStorage(String recordType) {
-		StorageReadResult readResult = recordStorage.readList(recordType, new Filter());
-		return readResult.listOfDataRecordGroups;
+		if (readListsInPages) {
+			return createPageIterator(
+					(fromNo, toNo) -> readPageOfRecordGroups(recordType, fromNo, toNo)).toList();
+		}
+		return readRecordGroupsUsingFilter(recordType, new Filter());
+	}
+
+	private List<DataRecordGroup> readPageOfRecordGroups(String recordType, long fromNo,
+			long toNo) {
+		Filter filter = createFilterForPage(fromNo, toNo);
+		return readRecordGroupsUsingFilter(recordType, filter);
+	}
+
+	private List<DataRecordGroup> readRecordGroupsUsingFilter(String recordType, Filter filter) {
+		long start = System.nanoTime();
+		StorageReadResult readResult = recordStorage.readList(recordType, filter);
+		List<DataRecordGroup> recordGroups = readResult.listOfDataRecordGroups;
+		metrics.recordStorageRead(recordType, System.nanoTime() - start, recordGroups.size());
+		return recordGroups;
+	}
+
+	private List<DataGroup> readPageOfDataGroups(String recordType, long fromNo, long toNo) {
+		Filter filter = createFilterForPage(fromNo, toNo);
+		return readDataGroupsUsingFilter(recordType, filter);
+	}
+
+	private List<DataGroup> readDataGroupsUsingFilter(String recordType, Filter filter) {
+		return readDataGroupsOfTypesUsingFilter(List.of(recordType), filter);
+	}
+
+	private List<DataGroup> readDataGroupsOfTypesUsingFilter(List<String> recordTypes,
+			Filter filter) {
+		long start = System.nanoTime();
+		StorageReadResult readResult = recordStorage.readList(recordTypes, filter);
+		List<DataGroup> dataGroups = readResult.listOfDataGroups;
+		metrics.recordStorageRead(String.join(",", recordTypes), System.nanoTime() - start,
+				dataGroups.size());
+		return dataGroups;
+	}
+
+	private <T> RecordPageIterator<T> createPageIterator(RecordPageReader<T> pageReader) {
+		if (prefetchExecutor == null) {
+			return RecordPageIterator.usingPageReaderAndPageSize(pageReader, pageSize);
+		}
+		return RecordPageIterator.usingPageReaderAndPageSizeAndPrefetchExecutor(pageReader,
+				pageSize, prefetchExecutor);
 	}
 
 	@Override
 	public MetadataElement getMetadataElement(String elementId) {
+		return measureCall("getMetadataElement", () -> metadataElementCache
+				.getOrConvert(elementId, this::readMetadataElementFromStorage), element -> 1);
+	}
+
+	private MetadataElement readMetadataElementFromStorage(String elementId) {
+		if (missingIdCache.isKnownMissing("metadata", elementId)) {
+			throw createMetadataNotFoundException(elementId);
+		}
+		try {
+			DataRecordGroup dataRecordGroup = readRecordRememberingMissing("metadata", elementId);
+			return convertOne("metadata", dataRecordGroup,
+					group -> DataToMetadataConverterProvider.getConverter(group).toMetadata());
+		} catch (Exception e) {
+			throw createMetadataNotFoundException(elementId);
+		}
+	}
+
+	/**
+	 * findMetadataElement returns the metadata element with the specified id, or an empty Optional
+	 * if no metadata record with the id exists. Unlike {@link #getMetadataElement(String)} is a
+	 * missing id answered without any exception being created, it is found to be missing by the
+	 * missing id cache or by asking storage if the record exists, before it is read. The extra
+	 * round-trip to storage for an existing id is accepted here as find is meant for lookups where
+	 * a missing id is expected. {@link #getValidationType(String)}, where the id is expected to
+	 * exist, reads the record directly and handles it not being found.
+	 * <p>
+	 * Errors other than the record not existing, such as storage errors or records that can not
+	 * be converted, are thrown as a MetadataStorageViewException.
+	 * 
+	 * @param elementId
+	 *            The id of the metadata element to find
+	 * @return An Optional with the MetadataElement, or an empty Optional if it does not exist
+	 */
+	public Optional<MetadataElement> findMetadataElement(String elementId) {
+		return measureCall("findMetadataElement",
+				() -> findElement("metadata", elementId, metadataElementCache,
+						group -> DataToMetadataConverterProvider.getConverter(group).toMetadata()),
+				element -> element.isPresent() ? 1 : 0);
+	}
+
+	private <T> Optional<T> findElement(String recordType, String elementId,
+			ConvertedElementCache<T> cache, Function<DataRecordGroup, T> converter) {
+		Optional<T> cached = cache.getIfCached(elementId);
+		if (cached.isPresent()) {
+			return cached;
+		}
 		try {
-			DataRecordGroup dataRecordGroup = recordStorage.read("metadata", elementId);
-			DataToMetadataConverter converter = DataToMetadataConverterProvider
-					.getConverter(dataRecordGroup);
-			return converter.toMetadata();
+			return findRecordGroupCheckingExistsFirst(recordType, elementId).map(group -> cache
+					.getOrConvert(elementId, id -> convertOne(recordType, group, converter)));
 		} catch (Exception e) {
-			throw MetadataStorageViewException
-					.usingMessage("Metadata with id: " + elementId + ", not found in storage.");
+			throw createMetadataStorageException(e);
+		}
+	}
+
+	private Optional<DataRecordGroup> findRecordGroupCheckingExistsFirst(String recordType,
+			String recordId) {
+		if (missingIdCache.isKnownMissing(recordType, recordId)) {
+			return Optional.empty();
+		}
+		if (!recordExistsInStorage(recordType, recordId)) {
+			missingIdCache.markMissing(recordType, recordId);
+			return Optional.empty();
+		}
+		return findRecordGroupReadingById(recordType, recordId);
+	}
+
+	private boolean recordExistsInStorage(String recordType, String recordId) {
+		long start = System.nanoTime();
+		boolean exists = recordStorage.recordExists(List.of(recordType), recordId);
+		metrics.recordStorageRead(recordType, System.nanoTime() - start, exists ? 1 : 0);
+		return exists;
+	}
+
+	private Optional<DataRecordGroup> findRecordGroupUsingOneRead(String recordType,
+			String recordId) {
+		if (missingIdCache.isKnownMissing(recordType, recordId)) {
+			return Optional.empty();
 		}
+		return findRecordGroupReadingById(recordType, recordId);
+	}
+
+	private MetadataStorageViewException createMetadataNotFoundException(String elementId) {
+		return MetadataStorageViewException
+				.usingMessage("Metadata with id: " + elementId + ", not found in storage.");
+	}
+
+	private <T> T convertOne(String recordType, DataRecordGroup dataRecordGroup,
+			Function<DataRecordGroup, T> converter) {
+		long start = System.nanoTime();
+		T converted = converter.apply(dataRecordGroup);
+		metrics.recordConversion(recordType, System.nanoTime() - start, 1);
+		return converted;
+	}
+
+	private DataRecordGroup readRecordRememberingMissing(String recordType, String recordId) {
+		try {
+			return readRecordFromStorage(recordType, recordId);
+		} catch (RecordNotFoundException e) {
+			missingIdCache.markMissing(recordType, recordId);
+			throw e;
+		}
+	}
+
+	private DataRecordGroup readRecordFromStorage(String recordType, String recordId) {
+		long start = System.nanoTime();
+		DataRecordGroup dataRecordGroup = recordStorage.read(recordType, recordId);
+		metrics.recordStorageRead(recordType, System.nanoTime() - start, 1);
+		return dataRecordGroup;
 	}
 
 	@Override
 	public Collection<DataGroup> getPresentationElements() {
-		return readDataGroupsFromStorageForType("presentation");
+		return measureCall("getPresentationElements",
+				() -> readDataGroupsFromStorageForType("presentation"), Collection::size);
 	}
 
 	private Collection<DataGroup> readDataGroupsFromStorageForType(String recordType) {
@@ -117,44 +531,209 @@ public class MetadataStorageViewImp implements MetadataStorageView {
 	}
 
 	private List<DataGroup> readListOfElementsFromStorageGroup(String recordType) {
-		StorageReadResult readResult = recordStorage.readList(List.of(recordType), new Filter());
-		return readResult.listOfDataGroups;
+		if (readListsInPages) {
+			return createPageIterator(
+					(fromNo, toNo) -> readPageOfDataGroups(recordType, fromNo, toNo)).toList();
+		}
+		return readDataGroupsUsingFilter(recordType, new Filter());
 	}
 
 	@Override
 	public Collection<DataGroup> getTexts() {
-		return readDataGroupsFromStorageForType("text");
+		return measureCall("getTexts", () -> readDataGroupsFromStorageForType("text"),
+				Collection::size);
 	}
 
 	@Override
 	public Collection<TextElement> getTextElements() {
-		List<TextElement> textElements = new ArrayList<>();
-		StorageReadResult readResult = recordStorage.readList("text", new Filter());
-		List<DataRecordGroup> listOfDataRecordGroups = readResult.listOfDataRecordGroups;
+		return measureCall("getTextElements", this::readTextElementsFromStorage,
+				Collection::size);
+	}
 
-		for (DataRecordGroup dataRecordGroup : listOfDataRecordGroups) {
-			DataToTextElementConverter converter = dataToTextConverterFactory
-					.factor(dataRecordGroup);
-			textElements.add(converter.convert());
-		}
-		return textElements;
+	private LazyTextElementList readTextElementsFromStorage() {
+		return LazyTextElementList.usingTextRecordGroupsAndConverterFactory(
+				readListOfElementsFromStorage("text"), dataToTextConverterFactory);
 	}
 
 	@Override
 	public TextElement getTextElement(String elementId) {
+		return measureCall("getTextElement",
+				() -> textElementCache.getOrConvert(elementId, this::readTextElementFromStorage),
+				element -> 1);
+	}
+
+	private TextElement readTextElementFromStorage(String elementId) {
+		if (missingIdCache.isKnownMissing("text", elementId)) {
+			throw createTextNotFoundException(elementId);
+		}
+		try {
+			DataRecordGroup dataRecordGroup = readRecordRememberingMissing("text", elementId);
+			return convertOne("text", dataRecordGroup,
+					dataToTextConverterFactory.factor()::convert);
+		} catch (Exception e) {
+			throw createTextNotFoundException(elementId);
+		}
+	}
+
+	/**
+	 * findTextElement returns the text element with the specified id, or an empty Optional if no
+	 * text record with the id exists, in the same way as {@link #findMetadataElement(String)}.
+	 * 
+	 * @param elementId
+	 *            The id of the text element to find
+	 * @return An Optional with the TextElement, or an empty Optional if it does not exist
+	 */
+	public Optional<TextElement> findTextElement(String elementId) {
+		return measureCall("findTextElement",
+				() -> findElement("text", elementId, textElementCache,
+						dataToTextConverterFactory.factor()::convert),
+				element -> element.isPresent() ? 1 : 0);
+	}
+
+	private MetadataStorageViewException createTextNotFoundException(String elementId) {
+		return MetadataStorageViewException
+				.usingMessage("Text with id: " + elementId + ", not found in storage.");
+	}
+
+	/**
+	 * getMetadataElements returns the metadata elements with the specified ids. Elements already
+	 * in the element cache are returned from it and all other ids are read from storage by id, in
+	 * chunks of the size set by {@link #useBatchReadChunkSize(int)}, using the conversion pipeline.
+	 * The read records are converted using the conversion pipeline and added to the element cache.
+	 * <p>
+	 * An id that is not found in storage is reported in notFound of the result, and an id whose
+	 * record can not be converted is reported in failed of the result. Neither stops the other
+	 * elements from being returned. An error reading from storage is thrown as a
+	 * MetadataStorageViewException.
+	 * 
+	 * @param elementIds
+	 *            The ids of the metadata elements to get
+	 * @return A BatchReadResult with the found elements and the ids that were not found
+	 */
+	public BatchReadResult<MetadataElement> getMetadataElements(Collection<String> elementIds) {
+		return measureCall("getMetadataElementsById",
+				() -> readElementsById("metadata", elementIds, metadataElementCache,
+						group -> DataToMetadataConverterProvider.getConverter(group).toMetadata()),
+				result -> result.found().size());
+	}
+
+	/**
+	 * getTextElements returns the text elements with the specified ids, read and converted in the
+	 * same way as by {@link #getMetadataElements(Collection)}.
+	 * 
+	 * @param elementIds
+	 *            The ids of the text elements to get
+	 * @return A BatchReadResult with the found elements and the ids that were not found
+	 */
+	public BatchReadResult<TextElement> getTextElements(Collection<String> elementIds) {
+		return measureCall("getTextElementsById",
+				() -> readElementsById("text", elementIds, textElementCache,
+						dataToTextConverterFactory.factor()::convert),
+				result -> result.found().size());
+	}
+
+	private <T> BatchReadResult<T> readElementsById(String recordType,
+			Collection<String> elementIds, ConvertedElementCache<T> cache,
+			Function<DataRecordGroup, T> converter) {
+		Set<String> requestedIds = new LinkedHashSet<>(elementIds);
+		Map<String, T> elements = new HashMap<>();
+		Map<String, Exception> failed = new HashMap<>();
+		List<String> idsToRead = new ArrayList<>();
+		for (String elementId : requestedIds) {
+			Optional<T> cached = cache.getIfCached(elementId);
+			if (cached.isPresent()) {
+				elements.put(elementId, cached.get());
+			} else if (!missingIdCache.isKnownMissing(recordType, elementId)) {
+				idsToRead.add(elementId);
+			}
+		}
+		for (int fromIndex = 0; fromIndex < idsToRead.size(); fromIndex += batchReadChunkSize) {
+			int toIndex = Math.min(fromIndex + batchReadChunkSize, idsToRead.size());
+			readAndConvertChunk(recordType, idsToRead.subList(fromIndex, toIndex), cache,
+					converter, elements, failed);
+		}
+		return createBatchReadResult(requestedIds, elements, failed);
+	}
+
+	private <T> void readAndConvertChunk(String recordType, List<String> chunkOfIds,
+			ConvertedElementCache<T> cache, Function<DataRecordGroup, T> converter,
+			Map<String, T> elements, Map<String, Exception> failed) {
+		List<DataRecordGroup> recordGroups = readRecordGroupsOneByOne(recordType, chunkOfIds);
+		List<Conversion<T>> conversions = convertAllUsingPipeline(recordType, recordGroups,
+				group -> convertKeepingError(converter, group));
+		for (int i = 0; i < recordGroups.size(); i++) {
+			String elementId = recordGroups.get(i).getId();
+			Conversion<T> conversion = conversions.get(i);
+			if (conversion.error() != null) {
+				failed.put(elementId, conversion.error());
+			} else {
+				elements.put(elementId,
+						cache.getOrConvert(elementId, id -> conversion.element()));
+			}
+		}
+	}
+
+	private List<DataRecordGroup> readRecordGroupsOneByOne(String recordType,
+			List<String> idsToRead) {
+		try {
+			return conversionPipeline
+					.convert(idsToRead, id -> findRecordGroupReadingById(recordType, id)).stream()
+					.flatMap(Optional::stream).toList();
+		} catch (Exception e) {
+			throw createMetadataStorageException(e);
+		}
+	}
+
+	private Optional<DataRecordGroup> findRecordGroupReadingById(String recordType,
+			String recordId) {
+		try {
+			return Optional.of(readRecordFromStorage(recordType, recordId));
+		} catch (RecordNotFoundException e) {
+			missingIdCache.markMissing(recordType, recordId);
+			return Optional.empty();
+		}
+	}
+
+	/**
+	 * Conversion holds the outcome of converting one record of a batch read, either the converted
+	 * element or the error thrown when converting it.
+	 */
+	private record Conversion<T>(T element, Exception error) {
+	}
+
+	private <T> Conversion<T> convertKeepingError(Function<DataRecordGroup, T> converter,
+			DataRecordGroup dataRecordGroup) {
 		try {
-			DataRecordGroup dataRecordGroup = recordStorage.read("text", elementId);
-			DataToTextElementConverter converter = dataToTextConverterFactory
-					.factor(dataRecordGroup);
-			return converter.convert();
+			return new Conversion<>(converter.apply(dataRecordGroup), null);
 		} catch (Exception e) {
-			throw MetadataStorageViewException
-					.usingMessage("Text with id: " + elementId + ", not found in storage.");
+			return new Conversion<>(null, e);
+		}
+	}
+
+	private <T> BatchReadResult<T> createBatchReadResult(Set<String> requestedIds,
+			Map<String, T> elements, Map<String, Exception> failed) {
+		Map<String, T> found = new LinkedHashMap<>();
+		Set<String> notFound = new LinkedHashSet<>();
+		Map<String, Exception> failedInRequestedOrder = new LinkedHashMap<>();
+		for (String elementId : requestedIds) {
+			T element = elements.get(elementId);
+			if (element != null) {
+				found.put(elementId, element);
+			} else if (failed.containsKey(elementId)) {
+				failedInRequestedOrder.put(elementId, failed.get(elementId));
+			} else {
+				notFound.add(elementId);
+			}
 		}
+		return new BatchReadResult<>(found, notFound, failedInRequestedOrder);
 	}
 
 	@Override
 	public Collection<DataGroup> getRecordTypes() {
+		return measureCall("getRecordTypes", this::readRecordTypesFromStorage, Collection::size);
+	}
+
+	private Collection<DataGroup> readRecordTypesFromStorage() {
 		try {
 			return readListOfElementsFromStorageGroup("recordType");
 		} catch (Exception e) {
@@ -169,7 +748,8 @@ public class MetadataStorageViewImp implements MetadataStorageView {
 
 	@Override
 	public Collection<DataGroup> getCollectTermsAsDataGroup() {
-		return readDataGroupsFromStorageForType("collectTerm");
+		return measureCall("getCollectTermsAsDataGroup",
+				() -> readDataGroupsFromStorageForType("collectTerm"), Collection::size);
 	}
 
 	public RecordStorage onlyForTestGetRecordStorage() {
@@ -178,101 +758,122 @@ public class MetadataStorageViewImp implements MetadataStorageView {
 
 	@Override
 	public Collection<ValidationType> getValidationTypes() {
-		StorageReadResult readList = recordStorage.readList("validationType", new Filter());
-		return convertToCollectionOfValidationTypes(readList);
+		return measureCall("getValidationTypes",
+				() -> convertToListOfValidationTypes(
+						readListOfElementsFromStorage("validationType")),
+				Collection::size);
 	}
 
-	private List<ValidationType> convertToCollectionOfValidationTypes(StorageReadResult readList) {
-		List<ValidationType> listOfValidationTypes = new ArrayList<>();
-		for (DataRecordGroup dataRecordGroup : readList.listOfDataRecordGroups) {
-			ValidationType validationType = createValidationTypeFromDataGroup(dataRecordGroup);
-			listOfValidationTypes.add(validationType);
-		}
-		return listOfValidationTypes;
+	private List<ValidationType> convertToListOfValidationTypes(
+			List<DataRecordGroup> validationTypeGroups) {
+		return convertAllUsingPipeline("validationType", validationTypeGroups,
+				createValidationTypeConverter());
+	}
+
+	private <T> List<T> convertAllUsingPipeline(String recordType,
+			List<DataRecordGroup> dataRecordGroups, Function<DataRecordGroup, T> converter) {
+		long start = System.nanoTime();
+		List<T> converted = conversionPipeline.convert(dataRecordGroups, converter);
+		metrics.recordConversion(recordType, System.nanoTime() - start, converted.size());
+		return converted;
+	}
+
+	/**
+	 * createValidationTypeConverter returns a converter that interns the validated record type,
+	 * the only value repeated across validation types, using a StringInterner that only lives as
+	 * long as the returned converter. Interned values are therefore only shared within one read of
+	 * validation types and are released together with the converted list.
+	 */
+	private Function<DataRecordGroup, ValidationType> createValidationTypeConverter() {
+		StringInterner stringInterner = new StringInterner();
+		return validationTypeDG -> createValidationTypeFromDataGroup(validationTypeDG,
+				stringInterner);
 	}
 
-	private ValidationType createValidationTypeFromDataGroup(DataRecordGroup validationTypeDG) {
-		String validatesRecordTypeId = getLinkedRecordIdForLinkByName(validationTypeDG,
-				"validatesRecordType");
+	private ValidationType createValidationTypeFromDataGroup(DataRecordGroup validationTypeDG,
+			StringInterner stringInterner) {
+		String validatesRecordTypeId = stringInterner.intern(
+				getLinkedRecordIdForLinkByName(validationTypeDG, "validatesRecordType"));
 		String createDefinitionId = getLinkedRecordIdForLinkByName(validationTypeDG,
 				"newMetadataId");
 		String updateDefinitionId = getLinkedRecordIdForLinkByName(validationTypeDG, "metadataId");
 		return new ValidationType(validatesRecordTypeId, createDefinitionId, updateDefinitionId);
 	}
 
-	private String getLinkedRecordIdForLinkByName(DataRecordGroup validationTypeDG, String name) {
-		DataRecordLink firstChildOfTypeAndName = validationTypeDG
+	private String getLinkedRecordIdForLinkByName(DataRecordGroup dataRecordGroup, String name) {
+		DataRecordLink firstChildOfTypeAndName = dataRecordGroup
 				.getFirstChildOfTypeAndName(DataRecordLink.class, name);
 		return firstChildOfTypeAndName.getLinkedRecordId();
 	}
 
 	@Override
 	public Optional<ValidationType> getValidationType(String validationId) {
+		return measureCall("getValidationType", () -> readValidationType(validationId),
+				validationType -> validationType.isPresent() ? 1 : 0);
+	}
+
+	private Optional<ValidationType> readValidationType(String validationId) {
 		try {
-			return readValidationTypeFromStorageById(validationId);
+			return findRecordGroupUsingOneRead("validationType", validationId).map(
+					group -> convertOne("validationType", group,
+							createValidationTypeConverter()));
 		} catch (Exception e) {
 			return Optional.empty();
 		}
 	}
 
-	private Optional<ValidationType> readValidationTypeFromStorageById(String validationId) {
-		DataRecordGroup validationTypeDG = recordStorage.read("validationType", validationId);
-		ValidationType validationType = createValidationTypeFromDataGroup(validationTypeDG);
-		return Optional.of(validationType);
-	}
-
 	@Override
-	public CollectTermHolder getCollectTermHolder() {
+	public CollectTermHolderImp getCollectTermHolder() {
+		long start = System.nanoTime();
 		List<DataRecordGroup> collectTermsList = readCollectTermsFromStorage();
-		if (noCollectTermsExistInStorage(collectTermsList)) {
-			return new CollectTermHolderImp();
-		}
-		return convertDataRecordGroupToCollectTerms(collectTermsList);
+		CollectTermHolderImp collectTermHolder = createCollectTermHolder(collectTermsList);
+		metrics.recordCall("getCollectTermHolder", System.nanoTime() - start,
+				collectTermsList.size());
+		return collectTermHolder;
 	}
 
-	private List<DataRecordGroup> readCollectTermsFromStorage() {
-		StorageReadResult readList = recordStorage.readList("collectTerm", new Filter());
-		return readList.listOfDataRecordGroups;
+	private CollectTermHolderImp createCollectTermHolder(List<DataRecordGroup> collectTermsList) {
+		return CollectTermHolderImp
+				.usingCollectTerms(convertDataRecordGroupToCollectTerms(collectTermsList));
 	}
 
-	private boolean noCollectTermsExistInStorage(List<DataRecordGroup> collectTermsList) {
-		return collectTermsList.isEmpty();
+	private List<DataRecordGroup> readCollectTermsFromStorage() {
+		return readListOfElementsFromStorage("collectTerm");
 	}
 
-	private CollectTermHolderImp convertDataRecordGroupToCollectTerms(
+	private List<CollectTerm> convertDataRecordGroupToCollectTerms(
 			List<DataRecordGroup> collectTermsList) {
-		CollectTermHolderImp collectTermHolder = new CollectTermHolderImp();
-		for (DataRecordGroup collecTermsAsRecordGroup : collectTermsList) {
-			convertDataRecordGroupToCollectTerm(collectTermHolder, collecTermsAsRecordGroup);
-		}
-		return collectTermHolder;
+		return convertAllUsingPipeline("collectTerm", collectTermsList,
+				createCollectTermConverter());
 	}
 
-	private void convertDataRecordGroupToCollectTerm(CollectTermHolderImp collectTermHolder,
-			DataRecordGroup collecTermsAsRecordGroup) {
+	/**
+	 * createCollectTermConverter returns a converter that interns nameInData and index type, the
+	 * values repeated across collect terms, using a StringInterner that only lives as long as the
+	 * returned converter. Ids, keys and index field names are unique to each collect term and are
+	 * not interned.
+	 */
+	private Function<DataRecordGroup, CollectTerm> createCollectTermConverter() {
+		StringInterner stringInterner = new StringInterner();
+		return collectTermDG -> convertDataRecordGroupToCollectTerm(collectTermDG,
+				stringInterner);
+	}
+
+	private CollectTerm convertDataRecordGroupToCollectTerm(
+			DataRecordGroup collecTermsAsRecordGroup, StringInterner stringInterner) {
 		DataAttribute typeAttibute = collecTermsAsRecordGroup.getAttribute("type");
 		String type = typeAttibute.getValue();
 		String id = collecTermsAsRecordGroup.getId();
-		CollectTerm collectTerm = createCollectTerm(type, id, collecTermsAsRecordGroup);
-		collectTermHolder.addCollectTerm(collectTerm);
-	}
-
-	private CollectTerm createCollectTerm(String type, String id,
-			DataRecordGroup collecTermsAsRecordGroup) {
 		DataGroup extraData = collecTermsAsRecordGroup.getFirstGroupWithNameInData("extraData");
 		if ("storage".equals(type)) {
 			return createStorageTerm(id, extraData);
 		}
+		String nameInData = stringInterner
+				.intern(collecTermsAsRecordGroup.getFirstAtomicValueWithNameInData("nameInData"));
 		if ("index".equals(type)) {
-			return createIndexTerm(id, getNameInDataFromRecordGroup(collecTermsAsRecordGroup),
-					extraData);
+			return createIndexTerm(id, nameInData, extraData, stringInterner);
 		}
-		return createPermissionTerm(id, getNameInDataFromRecordGroup(collecTermsAsRecordGroup),
-				extraData);
-	}
-
-	private String getNameInDataFromRecordGroup(DataRecordGroup collecTermsAsRecordGroup) {
-		return collecTermsAsRecordGroup.getFirstAtomicValueWithNameInData("nameInData");
+		return createPermissionTerm(id, nameInData, extraData);
 	}
 
 	private CollectTerm createStorageTerm(String id, DataGroup extraData) {
@@ -280,9 +881,11 @@ public class MetadataStorageViewImp implements MetadataStorageView {
 		return StorageTerm.usingIdAndStorageKey(id, storageKey);
 	}
 
-	private CollectTerm createIndexTerm(String id, String nameInData, DataGroup extraData) {
+	private CollectTerm createIndexTerm(String id, String nameInData, DataGroup extraData,
+			StringInterner stringInterner) {
 		String indexFieldName = extraData.getFirstAtomicValueWithNameInData("indexFieldName");
-		String indexType = extraData.getFirstAtomicValueWithNameInData("indexType");
+		String indexType = stringInterner
+				.intern(extraData.getFirstAtomicValueWithNameInData("indexType"));
 		return IndexTerm.usingIdAndNameInDataAndIndexFieldNameAndIndexType(id, nameInData,
 				indexFieldName, indexType);
 	}
@@ -298,7 +901,362 @@ public class MetadataStorageViewImp implements MetadataStorageView {
 				permissionKey, PermissionTerm.Mode.STATE);
 	}
 
+	/**
+	 * getMetadataElementsAsync runs {@link #getMetadataElements()} on the async executor. As for
+	 * all async methods in this class is the returned future completed exceptionally with the
+	 * exception the blocking method throws, wrapped in a CompletionException.
+	 * <p>
+	 * Async calls started one after another overlap their storage reads, so a caller needing
+	 * several independent sets, for instance record types, validation types and collect terms,
+	 * waits about as long as the slowest of the reads instead of the sum of them.
+	 * 
+	 * @return A CompletableFuture with all metadata records
+	 */
+	public CompletableFuture<Collection<DataRecordGroup>> getMetadataElementsAsync() {
+		return supplyAsync(this::getMetadataElements);
+	}
+
+	private <T> CompletableFuture<T> supplyAsync(Supplier<T> call) {
+		return CompletableFuture.supplyAsync(call, asyncExecutor);
+	}
+
+	public CompletableFuture<MetadataElement> getMetadataElementAsync(String elementId) {
+		return supplyAsync(() -> getMetadataElement(elementId));
+	}
+
+	public CompletableFuture<Optional<MetadataElement>> findMetadataElementAsync(
+			String elementId) {
+		return supplyAsync(() -> findMetadataElement(elementId));
+	}
+
+	public CompletableFuture<BatchReadResult<MetadataElement>> getMetadataElementsAsync(
+			Collection<String> elementIds) {
+		return supplyAsync(() -> getMetadataElements(elementIds));
+	}
+
+	public CompletableFuture<Collection<DataGroup>> getPresentationElementsAsync() {
+		return supplyAsync(this::getPresentationElements);
+	}
+
+	public CompletableFuture<Collection<DataGroup>> getTextsAsync() {
+		return supplyAsync(this::getTexts);
+	}
+
+	public CompletableFuture<Collection<TextElement>> getTextElementsAsync() {
+		return supplyAsync(this::getTextElements);
+	}
+
+	public CompletableFuture<TextElement> getTextElementAsync(String elementId) {
+		return supplyAsync(() -> getTextElement(elementId));
+	}
+
+	public CompletableFuture<Optional<TextElement>> findTextElementAsync(String elementId) {
+		return supplyAsync(() -> findTextElement(elementId));
+	}
+
+	public CompletableFuture<BatchReadResult<TextElement>> getTextElementsAsync(
+			Collection<String> elementIds) {
+		return supplyAsync(() -> getTextElements(elementIds));
+	}
+
+	public CompletableFuture<Collection<DataGroup>> getRecordTypesAsync() {
+		return supplyAsync(this::getRecordTypes);
+	}
+
+	public CompletableFuture<Collection<DataGroup>> getCollectTermsAsDataGroupAsync() {
+		return supplyAsync(this::getCollectTermsAsDataGroup);
+	}
+
+	public CompletableFuture<Collection<ValidationType>> getValidationTypesAsync() {
+		return supplyAsync(this::getValidationTypes);
+	}
+
+	public CompletableFuture<Optional<ValidationType>> getValidationTypeAsync(
+			String validationId) {
+		return supplyAsync(() -> getValidationType(validationId));
+	}
+
+	public CompletableFuture<CollectTermHolderImp> getCollectTermHolderAsync() {
+		return supplyAsync(this::getCollectTermHolder);
+	}
+
+	/**
+	 * streamMetadataElements returns a Stream with all metadata records. Records are read from
+	 * storage one page at a time as the stream is consumed, so that memory use stays bounded by
+	 * the page size no matter how many records there are.
+	 * <p>
+	 * Pages are read as windows using fromNo and toNo, so storage must list the records in a
+	 * stable order. Records created or removed while the stream is consumed can be skipped or
+	 * repeated. A stream that is not consumed to the end should be closed, so that a prefetched
+	 * page is cancelled, this applies to all stream methods of the view.
+	 * 
+	 * @return A Stream with all metadata records
+	 */
+	public Stream<DataRecordGroup> streamMetadataElements() {
+		return streamRecordGroupsFromStorage("metadata");
+	}
+
+	/**
+	 * streamTextElements returns a Stream with all texts converted to TextElements. Records are
+	 * read from storage one page at a time and converted as the stream is consumed.
+	 * 
+	 * @return A Stream with all TextElements
+	 */
+	public Stream<TextElement> streamTextElements() {
+		return streamRecordGroupsFromStorage("text")
+				.map(dataToTextConverterFactory.factor()::convert);
+	}
+
+	/**
+	 * streamValidationTypes returns a Stream with all validation types. Records are read from
+	 * storage one page at a time and converted as the stream is consumed.
+	 * 
+	 * @return A Stream with all ValidationTypes
+	 */
+	public Stream<ValidationType> streamValidationTypes() {
+		return streamRecordGroupsFromStorage("validationType")
+				.map(createValidationTypeConverter());
+	}
+
+	private Stream<DataRecordGroup> streamRecordGroupsFromStorage(String recordType) {
+		return createPageIterator(
+				(fromNo, toNo) -> readPageFromStorage(recordType, fromNo, toNo)).toStream();
+	}
+
+	private List<DataRecordGroup> readPageFromStorage(String recordType, long fromNo,
+			long toNo) {
+		try {
+			return readPageOfRecordGroups(recordType, fromNo, toNo);
+		} catch (Exception e) {
+			throw createMetadataStorageException(e);
+		}
+	}
+
+	private Filter createFilterForPage(long fromNo, long toNo) {
+		Filter filter = new Filter();
+		filter.fromNo = fromNo;
+		filter.toNo = toNo;
+		return filter;
+	}
+
+	@Override
+	public MetadataSnapshot loadSnapshot(long version) {
+		if (readSnapshotInOneRead) {
+			return loadSnapshotUsingOneRead(version);
+		}
+		return loadSnapshotReadingEachTypeOnce(version);
+	}
+
+	/**
+	 * loadSnapshotReadingEachTypeOnce reads each record type held by the snapshot once, and
+	 * creates both the lists and the registries and holders of the snapshot from that one read, so
+	 * that they all reflect the same state of storage. Texts, record types and collect terms are
+	 * read as DataRecordGroups and the DataGroups kept in the snapshot are created from them.
+	 */
+	private MetadataSnapshot loadSnapshotReadingEachTypeOnce(long version) {
+		List<DataRecordGroup> metadataElements = readListOfElementsFromStorage("metadata");
+		List<DataRecordGroup> texts = readListOfElementsFromStorage("text");
+		List<DataRecordGroup> recordTypes = readListOfElementsFromStorage("recordType");
+		List<DataRecordGroup> collectTerms = readListOfElementsFromStorage("collectTerm");
+		LazyTextElementList textElements = prepareTextElementsForSnapshot(
+				LazyTextElementList.usingTextRecordGroupsAndConverterFactory(texts,
+						dataToTextConverterFactory));
+		return new MetadataSnapshot(version, metadataElements,
+				indexRecordGroupsById(metadataElements),
+				IndexedDataGroupList.copyOf(readListOfElementsFromStorageGroup("presentation")),
+				createDataGroups(texts), textElements, createDataGroups(recordTypes),
+				createRecordTypeRegistry(recordTypes), createDataGroups(collectTerms),
+				createCollectTermHolder(collectTerms), loadValidationTypeRegistry(),
+				ConvertedElementCache.usingMaxSize(elementCacheSize));
+	}
+
+	private IndexedDataGroupList createDataGroups(List<DataRecordGroup> dataRecordGroups) {
+		List<DataGroup> dataGroups = new ArrayList<>(dataRecordGroups.size());
+		for (DataRecordGroup dataRecordGroup : dataRecordGroups) {
+			dataGroups.add(DataProvider.createGroupFromRecordGroup(dataRecordGroup));
+		}
+		return IndexedDataGroupList.copyOf(dataGroups);
+	}
+
+	private LazyTextElementList prepareTextElementsForSnapshot(LazyTextElementList textElements) {
+		if (packTextsWhenLoadingSnapshot) {
+			return textElements.withElementsPacked(conversionPipeline);
+		}
+		if (convertTextsWhenLoadingSnapshot) {
+			textElements.convertAll(conversionPipeline);
+		}
+		return textElements;
+	}
+
+	private MetadataSnapshot loadSnapshotUsingOneRead(long version) {
+		RecordsByType records = RecordsByType.usingDataGroups(readAllSnapshotRecordsFromStorage());
+		List<DataRecordGroup> metadataElements = records.getRecordGroups("metadata");
+		LazyTextElementList textElements = prepareTextElementsForSnapshot(
+				LazyTextElementList.usingTextRecordGroupsAndConverterFactory(
+						records.getRecordGroups("text"), dataToTextConverterFactory));
+		return new MetadataSnapshot(version, metadataElements,
+				indexRecordGroupsById(metadataElements),
+				IndexedDataGroupList.copyOf(records.getDataGroups("presentation")),
+				IndexedDataGroupList.copyOf(records.getDataGroups("text")), textElements,
+				IndexedDataGroupList.copyOf(records.getDataGroups("recordType")),
+				createRecordTypeRegistry(records.getRecordGroups("recordType")),
+				IndexedDataGroupList.copyOf(records.getDataGroups("collectTerm")),
+				createCollectTermHolder(records.getRecordGroups("collectTerm")),
+				createValidationTypeRegistry(records.getRecordGroups("validationType")),
+				ConvertedElementCache.usingMaxSize(elementCacheSize));
+	}
+
+	private List<DataGroup> readAllSnapshotRecordsFromStorage() {
+		try {
+			return tryToReadAllSnapshotRecordsFromStorage();
+		} catch (Exception e) {
+			throw createMetadataStorageException(e);
+		}
+	}
+
+	private List<DataGroup> tryToReadAllSnapshotRecordsFromStorage() {
+		if (readListsInPages) {
+			return createPageIterator((fromNo, toNo) -> readDataGroupsOfTypesUsingFilter(
+					SNAPSHOT_RECORD_TYPES, createFilterForPage(fromNo, toNo))).toList();
+		}
+		return readDataGroupsOfTypesUsingFilter(SNAPSHOT_RECORD_TYPES, new Filter());
+	}
+
+	private Map<String, DataRecordGroup> indexRecordGroupsById(
+			List<DataRecordGroup> dataRecordGroups) {
+		Map<String, DataRecordGroup> byId = new HashMap<>(dataRecordGroups.size());
+		for (DataRecordGroup dataRecordGroup : dataRecordGroups) {
+			byId.put(dataRecordGroup.getId(), dataRecordGroup);
+		}
+		return byId;
+	}
+
+	@Override
+	public MetadataSnapshot loadChangedRecord(MetadataSnapshot snapshot, long version,
+			String recordType, String recordId) {
+		if (!MetadataSnapshot.holdsRecordType(recordType)) {
+			return snapshot;
+		}
+		try {
+			return loadChangedRecordFromStorage(snapshot, version, recordType, recordId);
+		} catch (RecordNotFoundException e) {
+			return snapshot.withoutRecord(version, recordType, recordId);
+		}
+	}
+
+	private MetadataSnapshot loadChangedRecordFromStorage(MetadataSnapshot snapshot, long version,
+			String recordType, String recordId) {
+		DataRecordGroup changed = readRecordFromStorage(recordType, recordId);
+		return switch (recordType) {
+		case "metadata" -> snapshot.withMetadataElement(version, changed);
+		case "presentation" -> snapshot.withPresentationElement(version,
+				DataProvider.createGroupFromRecordGroup(changed));
+		case "text" -> snapshot.withText(version, changed,
+				DataProvider.createGroupFromRecordGroup(changed));
+		case "recordType" -> snapshot.withRecordType(version,
+				DataProvider.createGroupFromRecordGroup(changed),
+				convertOne(recordType, changed, createRecordTypeConverter()));
+		case "collectTerm" -> snapshot.withCollectTerm(version,
+				DataProvider.createGroupFromRecordGroup(changed),
+				convertOne(recordType, changed, createCollectTermConverter()));
+		default -> snapshot.withValidationType(version, recordId,
+				convertOne(recordType, changed, createValidationTypeConverter()));
+		};
+	}
+
+	@Override
+	public ValidationTypeRegistry loadValidationTypeRegistry() {
+		return createValidationTypeRegistry(readListOfElementsFromStorage("validationType"));
+	}
+
+	private ValidationTypeRegistry createValidationTypeRegistry(
+			List<DataRecordGroup> validationTypeGroups) {
+		List<ValidationType> validationTypes = convertToListOfValidationTypes(
+				validationTypeGroups);
+		Map<String, ValidationType> byId = new LinkedHashMap<>(validationTypeGroups.size());
+		for (int i = 0; i < validationTypeGroups.size(); i++) {
+			byId.put(validationTypeGroups.get(i).getId(), validationTypes.get(i));
+		}
+		return ValidationTypeRegistry.usingValidationTypesById(byId);
+	}
+
+	private RecordTypeRegistry createRecordTypeRegistry(List<DataRecordGroup> recordTypeGroups) {
+		List<RecordType> recordTypes = convertAllUsingPipeline("recordType", recordTypeGroups,
+				createRecordTypeConverter());
+		Map<String, RecordType> byId = new LinkedHashMap<>(recordTypes.size());
+		for (RecordType recordType : recordTypes) {
+			byId.put(recordType.id(), recordType);
+		}
+		return RecordTypeRegistry.usingRecordTypesById(byId);
+	}
+
+	/**
+	 * createRecordTypeConverter returns a converter that interns the parent id, the only value
+	 * repeated across record types, using a StringInterner that only lives as long as the returned
+	 * converter.
+	 */
+	private Function<DataRecordGroup, RecordType> createRecordTypeConverter() {
+		StringInterner stringInterner = new StringInterner();
+		return recordTypeDG -> createRecordTypeFromDataGroup(recordTypeDG, stringInterner);
+	}
+
+	private RecordType createRecordTypeFromDataGroup(DataRecordGroup recordTypeDG,
+			StringInterner stringInterner) {
+		return new RecordType(recordTypeDG.getId(),
+				getLinkedRecordIdForLinkByName(recordTypeDG, "metadataId"),
+				isPublicRecordType(recordTypeDG),
+				stringInterner.intern(getParentIdOrNull(recordTypeDG)));
+	}
+
+	private boolean isPublicRecordType(DataRecordGroup recordTypeDG) {
+		return recordTypeDG.containsChildWithNameInData("public")
+				&& "true".equals(recordTypeDG.getFirstAtomicValueWithNameInData("public"));
+	}
+
+	private String getParentIdOrNull(DataRecordGroup recordTypeDG) {
+		if (recordTypeDG.containsChildWithNameInData("parentId")) {
+			return getLinkedRecordIdForLinkByName(recordTypeDG, "parentId");
+		}
+		return null;
+	}
+
 	public DataToTextElementConverterFactory onlyForTestGetDataToTextElementConverterFactory() {
 		return dataToTextConverterFactory;
 	}
+
+	public MetadataStorageViewMetrics onlyForTestGetMetrics() {
+		return metrics;
+	}
+
+	public boolean onlyForTestGetPackTextsWhenLoadingSnapshot() {
+		return packTextsWhenLoadingSnapshot;
+	}
+
+	public ConversionPipeline onlyForTestGetConversionPipeline() {
+		return conversionPipeline;
+	}
+
+	public boolean onlyForTestGetReadSnapshotInOneRead() {
+		return readSnapshotInOneRead;
+	}
+
+	public int onlyForTestGetPageSize() {
+		return pageSize;
+	}
+
+	public Executor onlyForTestGetAsyncExecutor() {
+		return asyncExecutor;
+	}
+
+	public Executor onlyForTestGetPrefetchExecutor() {
+		return prefetchExecutor;
+	}
+
+	public int onlyForTestGetElementCacheSize() {
+		return elementCacheSize;
+	}
+
+	public MissingIdCache onlyForTestGetMissingIdCache() {
+		return missingIdCache;
+	}
 }
\ No newline at end of file
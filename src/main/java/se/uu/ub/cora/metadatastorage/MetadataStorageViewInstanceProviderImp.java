@@ -18,23 +18,328 @@
  */
 package se.uu.ub.cora.metadatastorage;
 
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
 import se.uu.ub.cora.bookkeeper.storage.MetadataStorageView;
 import se.uu.ub.cora.bookkeeper.storage.MetadataStorageViewInstanceProvider;
+import se.uu.ub.cora.metadatastorage.cache.CachedMetadataStorageView;
+import se.uu.ub.cora.metadatastorage.cache.SnapshotFile;
+import se.uu.ub.cora.metadatastorage.cache.SnapshotRefresher;
+import se.uu.ub.cora.metadatastorage.converter.datatotextelement.DataToTextElementConverterFactory;
 import se.uu.ub.cora.metadatastorage.converter.datatotextelement.DataToTextElementConverterFactoryImp;
+import se.uu.ub.cora.metadatastorage.metrics.MetadataStorageViewMetrics;
+import se.uu.ub.cora.metadatastorage.metrics.NoOpMetadataStorageViewMetrics;
 import se.uu.ub.cora.storage.RecordStorage;
 import se.uu.ub.cora.storage.RecordStorageProvider;
 
+/**
+ * MetadataStorageViewInstanceProviderImp creates a new {@link MetadataStorageViewImp} reading
+ * directly from storage on every call to {@link #getStorageView()}, so that callers always see the
+ * records as they are in storage.
+ * <p>
+ * The provider can also hand out one shared, thread safe {@link CachedMetadataStorageView} serving
+ * all calls from a snapshot of the records in storage. The shared view is only used by callers
+ * that ask for it using {@link #getSharedStorageView()}, or by all callers of getStorageView if
+ * the provider is configured to do so using {@link #useSharedView()}. The shared view is created
+ * on first use and its lifecycle is controlled through {@link #warmUp()}, {@link #refresh()} and
+ * {@link #close()}.
+ * <p>
+ * If a snapshot file is set using {@link #useSnapshotFile(Path)} before the shared view is
+ * created, does warmUp start the view from the file and load from storage in the background.
+ * <p>
+ * When the shared view is created is a periodic reload in the background started, using
+ * {@link #DEFAULT_REFRESH_INTERVAL} and {@link #DEFAULT_STALENESS_ALARM}. The reload can be
+ * changed using {@link #startPeriodicRefresh(Duration, Duration)} or stopped using
+ * {@link #stopPeriodicRefresh()}, if all changes are reported using
+ * {@link #recordChanged(String, String)} and {@link #recordDeleted(String, String)} instead.
+ * <p>
+ * Reading the snapshot file and writing new snapshots to it is done on one background thread
+ * owned by the provider, named metadataSnapshotBackgroundTask, which is shut down by close.
+ * <p>
+ * Metrics for the shared view, and for the loading of its snapshots from storage, are reported to
+ * the {@link MetadataStorageViewMetrics} set using {@link #useMetrics(MetadataStorageViewMetrics)}.
+ */
 public class MetadataStorageViewInstanceProviderImp implements MetadataStorageViewInstanceProvider {
+	public static final Duration DEFAULT_REFRESH_INTERVAL = Duration.ofMinutes(1);
+	public static final Duration DEFAULT_STALENESS_ALARM = Duration.ofMinutes(5);
+	private static final int ELEMENT_CACHE_SIZE = 10000;
+	private final Object createLock = new Object();
+	private volatile boolean useSharedView = false;
+	private volatile CachedMetadataStorageView sharedView;
+	private MetadataStorageViewImp sharedSnapshotLoader;
+	private ExecutorService backgroundExecutor;
+	private MetadataStorageViewMetrics metrics = new NoOpMetadataStorageViewMetrics();
+	private Path snapshotFilePath;
+	private SnapshotRefresher refresher;
 
 	@Override
 	public int getOrderToSelectImplementionsBy() {
 		return 0;
 	}
 
+	/**
+	 * getStorageView returns a new view reading directly from storage, unless the provider is
+	 * configured to return the shared view using {@link #useSharedView()}, see
+	 * {@link #getSharedStorageView()}.
+	 * 
+	 * @return A MetadataStorageView
+	 */
 	@Override
 	public MetadataStorageView getStorageView() {
+		if (useSharedView) {
+			return getSharedStorageView();
+		}
 		RecordStorage recordStorage = RecordStorageProvider.getRecordStorage();
 		return MetadataStorageViewImp.usingRecordStorageAndTextConverterFactory(recordStorage,
 				new DataToTextElementConverterFactoryImp());
 	}
+
+	/**
+	 * useSharedView configures the provider to return the shared view from
+	 * {@link #getStorageView()} instead of a new view reading directly from storage.
+	 */
+	public void useSharedView() {
+		useSharedView = true;
+	}
+
+	/**
+	 * getSharedStorageView returns the shared view. The view serves all calls from a snapshot of
+	 * the metadata, presentation, text, recordType, collectTerm and validationType records in
+	 * storage, so a record created, changed or deleted in storage is not seen by callers until the
+	 * snapshot is reloaded. Unless the periodic reload is stopped is a change seen within the
+	 * interval of the reload, by default {@link #DEFAULT_REFRESH_INTERVAL}, as long as the reloads
+	 * succeed. While reloads fail are calls served from the last loaded snapshot, see
+	 * {@link #isStalenessAlarmRaised()}. A change reported using
+	 * {@link #recordChanged(String, String)} or {@link #recordDeleted(String, String)}, or followed
+	 * by a call to {@link #refresh()}, is seen as soon as the call returns.
+	 * 
+	 * @return The shared CachedMetadataStorageView
+	 */
+	public CachedMetadataStorageView getSharedStorageView() {
+		CachedMetadataStorageView view = sharedView;
+		if (view == null) {
+			return createSharedViewIfMissing();
+		}
+		return view;
+	}
+
+	private CachedMetadataStorageView createSharedViewIfMissing() {
+		synchronized (createLock) {
+			if (sharedView == null) {
+				backgroundExecutor = createBackgroundExecutor();
+				sharedView = createSharedView();
+				startRefresher(DEFAULT_REFRESH_INTERVAL, DEFAULT_STALENESS_ALARM);
+			}
+			return sharedView;
+		}
+	}
+
+	private ExecutorService createBackgroundExecutor() {
+		return Executors.newSingleThreadExecutor(runnable -> {
+			Thread thread = new Thread(runnable, "metadataSnapshotBackgroundTask");
+			thread.setDaemon(true);
+			return thread;
+		});
+	}
+
+	private CachedMetadataStorageView createSharedView() {
+		RecordStorage recordStorage = RecordStorageProvider.getRecordStorage();
+		DataToTextElementConverterFactory textConverterFactory =
+				new DataToTextElementConverterFactoryImp();
+		MetadataStorageViewImp storageView = MetadataStorageViewImp
+				.usingRecordStorageAndTextConverterFactory(recordStorage, textConverterFactory);
+		storageView.useElementCacheSize(ELEMENT_CACHE_SIZE);
+		storageView.useOneReadForSnapshot();
+		storageView.useMetrics(metrics);
+		sharedSnapshotLoader = storageView;
+		CachedMetadataStorageView view = CachedMetadataStorageView
+				.usingSnapshotLoader(storageView);
+		view.useMetrics(metrics);
+		if (snapshotFilePath != null) {
+			view.useSnapshotFile(SnapshotFile.usingPathAndTextConverterFactoryAndElementCacheSize(
+					snapshotFilePath, textConverterFactory, ELEMENT_CACHE_SIZE),
+					backgroundExecutor);
+		}
+		return view;
+	}
+
+	/**
+	 * useSnapshotFile sets the path of a local file that the shared view stores its snapshot in,
+	 * so that it can be started from the file on the next startup. It must be called before the
+	 * shared view is created to have effect.
+	 * 
+	 * @param path
+	 *            The Path of the snapshot file
+	 */
+	public void useSnapshotFile(Path path) {
+		synchronized (createLock) {
+			snapshotFilePath = path;
+		}
+	}
+
+	/**
+	 * useMetrics sets the metrics that the shared view and the loader of its snapshots report to.
+	 * The view reports calls and the hit ratio of the element cache in its snapshot, the loader
+	 * reports reads from storage and conversions of records. The metrics are applied to the
+	 * shared view directly if it is already created, and to every shared view created after this.
+	 * 
+	 * @param metricsToUse
+	 *            The MetadataStorageViewMetrics to report to
+	 */
+	public void useMetrics(MetadataStorageViewMetrics metricsToUse) {
+		synchronized (createLock) {
+			metrics = metricsToUse;
+			if (sharedView != null) {
+				sharedSnapshotLoader.useMetrics(metricsToUse);
+				sharedView.useMetrics(metricsToUse);
+			}
+		}
+	}
+
+	/**
+	 * warmUp creates the shared view and loads its snapshot from storage, it is intended to be
+	 * called at startup so that no request has to wait for the first load. If a snapshot file is
+	 * used is the view started from the file and the snapshot loaded from storage in the
+	 * background.
+	 */
+	public void warmUp() {
+		CachedMetadataStorageView view = getSharedStorageView();
+		view.warmUpFromSnapshotFile(getBackgroundExecutor());
+	}
+
+	private ExecutorService getBackgroundExecutor() {
+		synchronized (createLock) {
+			return backgroundExecutor;
+		}
+	}
+
+	/**
+	 * refresh loads a new snapshot from storage into the shared view. Requests are served from the
+	 * previous snapshot until the new one is fully loaded.
+	 */
+	public void refresh() {
+		getSharedStorageView().invalidate();
+	}
+
+	/**
+	 * startPeriodicRefresh starts reloading the snapshot of the shared view from storage in the
+	 * background at the specified interval, replacing the periodic refresh already started. See
+	 * {@link SnapshotRefresher} for how failed reloads and staleness are handled.
+	 * 
+	 * @param interval
+	 *            The time between the end of one reload and the start of the next
+	 * @param stalenessAlarm
+	 *            The age of the snapshot at which {@link #isStalenessAlarmRaised()} returns true,
+	 *            must not be shorter than the interval
+	 */
+	public void startPeriodicRefresh(Duration interval, Duration stalenessAlarm) {
+		synchronized (createLock) {
+			getSharedStorageView();
+			startRefresher(interval, stalenessAlarm);
+		}
+	}
+
+	private void startRefresher(Duration interval, Duration stalenessAlarm) {
+		stopRefresher();
+		refresher = SnapshotRefresher.usingViewAndIntervalAndStalenessAlarm(sharedView, interval,
+				stalenessAlarm);
+		refresher.start();
+	}
+
+	/**
+	 * stopPeriodicRefresh stops the periodic reload of the shared view. After this is the snapshot
+	 * only reloaded when {@link #refresh()} is called, and changes in storage must be reported
+	 * using {@link #recordChanged(String, String)} and {@link #recordDeleted(String, String)} to
+	 * be seen by callers.
+	 */
+	public void stopPeriodicRefresh() {
+		synchronized (createLock) {
+			stopRefresher();
+		}
+	}
+
+	private void stopRefresher() {
+		if (refresher != null) {
+			refresher.stop();
+			refresher = null;
+		}
+	}
+
+	/**
+	 * isStalenessAlarmRaised returns true if the snapshot of the shared view is older than the
+	 * staleness alarm of the periodic refresh. The shared view keeps serving calls from the
+	 * snapshot also when the alarm is raised. If the periodic refresh is stopped, or the shared
+	 * view is not created yet, is the snapshot only reloaded on demand and false is returned.
+	 * 
+	 * @return true if the snapshot of the shared view is too old, false otherwise
+	 */
+	public boolean isStalenessAlarmRaised() {
+		synchronized (createLock) {
+			return refresher != null && refresher.isStalenessAlarmRaised();
+		}
+	}
+
+	/**
+	 * recordChanged updates the shared view with one new or changed record, reading only that
+	 * record from storage.
+	 * 
+	 * @param recordType
+	 *            The type of the changed record
+	 * @param recordId
+	 *            The id of the changed record
+	 */
+	public void recordChanged(String recordType, String recordId) {
+		getSharedStorageView().recordChanged(recordType, recordId);
+	}
+
+	/**
+	 * recordDeleted removes one deleted record from the shared view.
+	 * 
+	 * @param recordType
+	 *            The type of the deleted record
+	 * @param recordId
+	 *            The id of the deleted record
+	 */
+	public void recordDeleted(String recordType, String recordId) {
+		getSharedStorageView().recordDeleted(recordType, recordId);
+	}
+
+	/**
+	 * close stops any periodic refresh, shuts down the background thread and releases the shared
+	 * view and the snapshot it holds. A snapshot file write already started is finished. The next
+	 * call to {@link #getSharedStorageView()} creates a new shared view.
+	 */
+	public void close() {
+		synchronized (createLock) {
+			stopRefresher();
+			if (sharedView != null) {
+				sharedView.close();
+				sharedView = null;
+				sharedSnapshotLoader = null;
+				backgroundExecutor.shutdown();
+				backgroundExecutor = null;
+			}
+		}
+	}
+
+	public MetadataStorageViewMetrics onlyForTestGetMetrics() {
+		synchronized (createLock) {
+			return metrics;
+		}
+	}
+
+	public ExecutorService onlyForTestGetBackgroundExecutor() {
+		synchronized (createLock) {
+			return backgroundExecutor;
+		}
+	}
+
+	public SnapshotRefresher onlyForTestGetRefresher() {
+		synchronized (createLock) {
+			return refresher;
+		}
+	}
 }
@@ -0,0 +1,78 @@
+/*
+ * Copyright 2026 Uppsala University Library
+ *
+ * This file is part of Cora.
+ *
+ *     Cora is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     Cora is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with Cora.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package se.uu.ub.cora.metadatastorage;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import se.uu.ub.cora.data.DataGroup;
+import se.uu.ub.cora.data.DataProvider;
+import se.uu.ub.cora.data.DataRecordGroup;
+import se.uu.ub.cora.data.DataRecordLink;
+
+/**
+ * RecordsByType splits the records returned by one read of several record types into one list
+ * per record type, in the order they were read. The records are routed in a single pass using the
+ * type link in the recordInfo of each DataGroup read from storage.
+ * <p>
+ * Records are only converted to DataRecordGroups for the record types they are requested for
+ * using {@link #getRecordGroups(String)}, so that record types only needed as DataGroups, such as
+ * presentations, are never converted.
+ */
+final class RecordsByType {
+	private final Map<String, List<DataGroup>> dataGroupsByType = new HashMap<>();
+	private final Map<String, List<DataRecordGroup>> recordGroupsByType = new HashMap<>();
+
+	static RecordsByType usingDataGroups(List<DataGroup> dataGroups) {
+		return new RecordsByType(dataGroups);
+	}
+
+	private RecordsByType(List<DataGroup> dataGroups) {
+		for (DataGroup dataGroup : dataGroups) {
+			dataGroupsByType.computeIfAbsent(getRecordType(dataGroup), type -> new ArrayList<>())
+					.add(dataGroup);
+		}
+	}
+
+	private static String getRecordType(DataGroup dataGroup) {
+		DataGroup recordInfo = dataGroup.getFirstGroupWithNameInData("recordInfo");
+		return recordInfo.getFirstChildOfTypeAndName(DataRecordLink.class, "type")
+				.getLinkedRecordId();
+	}
+
+	List<DataGroup> getDataGroups(String recordType) {
+		return dataGroupsByType.getOrDefault(recordType, Collections.emptyList());
+	}
+
+	List<DataRecordGroup> getRecordGroups(String recordType) {
+		return recordGroupsByType.computeIfAbsent(recordType, this::createRecordGroups);
+	}
+
+	private List<DataRecordGroup> createRecordGroups(String recordType) {
+		List<DataGroup> dataGroups = getDataGroups(recordType);
+		List<DataRecordGroup> recordGroups = new ArrayList<>(dataGroups.size());
+		for (DataGroup dataGroup : dataGroups) {
+			recordGroups.add(DataProvider.createRecordGroupFromDataGroup(dataGroup));
+		}
+		return recordGroups;
+	}
+}
@@ -0,0 +1,36 @@
+/*
+ * Copyright 2026 Uppsala University Library
+ *
+ * This file is part of Cora.
+ *
+ *     Cora is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     Cora is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with Cora.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package se.uu.ub.cora.metadatastorage.cache;
+
+/**
+ * CacheStatistics holds the number of hits, misses and evictions a cache has had since it was
+ * created, together with its current size.
+ */
+public record CacheStatistics(long hits, long misses, long evictions, int size) {
+
+	/**
+	 * hitRatio returns the share of lookups that were served from the cache.
+	 * 
+	 * @return The hit ratio between 0 and 1, or 0 if the cache has not been used
+	 */
+	public double hitRatio() {
+		long lookups = hits + misses;
+		return lookups == 0 ? 0 : (double) hits / lookups;
+	}
+}
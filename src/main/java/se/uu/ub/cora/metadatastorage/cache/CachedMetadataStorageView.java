@@ -0,0 +1,629 @@
+/*
+ * Copyright 2026 Uppsala University Library
+ *
+ * This file is part of Cora.
+ *
+ *     Cora is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     Cora is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with Cora.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package se.uu.ub.cora.metadatastorage.cache;
+
+import java.time.Instant;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Function;
+import java.util.function.LongSupplier;
+import java.util.function.Supplier;
+import java.util.function.ToIntFunction;
+
+import se.uu.ub.cora.bookkeeper.metadata.CollectTermHolder;
+import se.uu.ub.cora.bookkeeper.metadata.MetadataElement;
+import se.uu.ub.cora.bookkeeper.metadata.converter.DataToMetadataConverter;
+import se.uu.ub.cora.bookkeeper.metadata.converter.DataToMetadataConverterProvider;
+import se.uu.ub.cora.bookkeeper.storage.MetadataStorageView;
+import se.uu.ub.cora.bookkeeper.storage.MetadataStorageViewException;
+import se.uu.ub.cora.bookkeeper.text.TextElement;
+import se.uu.ub.cora.bookkeeper.validator.ValidationType;
+import se.uu.ub.cora.data.DataGroup;
+import se.uu.ub.cora.data.DataRecordGroup;
+import se.uu.ub.cora.logger.LoggerProvider;
+import se.uu.ub.cora.metadatastorage.BatchReadResult;
+import se.uu.ub.cora.metadatastorage.converter.datatotextelement.LazyTextElementList;
+import se.uu.ub.cora.metadatastorage.metrics.MetadataStorageViewMetrics;
+import se.uu.ub.cora.metadatastorage.metrics.NoOpMetadataStorageViewMetrics;
+import se.uu.ub.cora.metadatastorage.recordtype.RecordTypeRegistry;
+import se.uu.ub.cora.metadatastorage.validationtype.ValidationTypeRegistry;
+
+/**
+ * CachedMetadataStorageView is a {@link MetadataStorageView} that serves all calls from an
+ * immutable {@link MetadataSnapshot}. The snapshot is loaded on first use and is replaced
+ * atomically by a new version when {@link #invalidate()} is called, readers always see either
+ * the old or the new snapshot and never one that is partially built.
+ * <p>
+ * The view keeps the time the current snapshot was loaded from storage, see
+ * {@link #getSnapshotLoadedAt()}. A snapshot started from a snapshot file keeps the load time
+ * stored in the file, and a snapshot updated for one changed or deleted record keeps the load time
+ * of the snapshot it was updated from, as the rest of its records are as old as before.
+ * <p>
+ * Calls to the view, and loads of new snapshots, are reported to the
+ * {@link MetadataStorageViewMetrics} set using {@link #useMetrics(MetadataStorageViewMetrics)}.
+ * <p>
+ * The collections returned by {@link #getMetadataElements()}, {@link #getPresentationElements()},
+ * {@link #getTexts()}, {@link #getRecordTypes()} and {@link #getCollectTermsAsDataGroup()} are
+ * unmodifiable, and the data groups in them are the ones held by the current snapshot, shared
+ * with all other callers of the view. They are not copied for each call, as that would cost as
+ * much as reading them from storage, so callers must treat them as read only. A caller that
+ * needs to change one must change a copy of it.
+ */
+public final class CachedMetadataStorageView implements MetadataStorageView {
+	private final MetadataSnapshotLoader snapshotLoader;
+	private final AtomicReference<MetadataSnapshot> currentSnapshot = new AtomicReference<>();
+	private final AtomicLong versionCounter = new AtomicLong();
+	private final Object loadLock = new Object();
+	private final Object writeLock = new Object();
+	private final AtomicReference<StoredSnapshot> snapshotToWrite = new AtomicReference<>();
+	private final LongSupplier millisClock;
+	private volatile Instant snapshotLoadedAt;
+	private SnapshotFile snapshotFile;
+	private Executor writeExecutor;
+	private volatile MetadataStorageViewMetrics metrics = new NoOpMetadataStorageViewMetrics();
+
+	public static CachedMetadataStorageView usingSnapshotLoader(
+			MetadataSnapshotLoader snapshotLoader) {
+		return new CachedMetadataStorageView(snapshotLoader, System::currentTimeMillis);
+	}
+
+	static CachedMetadataStorageView usingSnapshotLoaderAndMillisClock(
+			MetadataSnapshotLoader snapshotLoader, LongSupplier millisClock) {
+		return new CachedMetadataStorageView(snapshotLoader, millisClock);
+	}
+
+	private CachedMetadataStorageView(MetadataSnapshotLoader snapshotLoader,
+			LongSupplier millisClock) {
+		this.snapshotLoader = snapshotLoader;
+		this.millisClock = millisClock;
+	}
+
+	/**
+	 * warmUp loads the first snapshot if no snapshot is loaded yet, so that the cost of loading is
+	 * not paid by the first caller of the view.
+	 */
+	public void warmUp() {
+		getSnapshot();
+	}
+
+	/**
+	 * useSnapshotFile sets a {@link SnapshotFile} that each snapshot fully loaded from storage is
+	 * written to, and that {@link #warmUpFromSnapshotFile(Executor)} starts from.
+	 * <p>
+	 * The file is written using the specified executor after the loaded snapshot is made the
+	 * current snapshot, so that neither callers of the view nor the next load wait for the file.
+	 * Writes are made one at a time, and if more snapshots are loaded while a write is in progress
+	 * is only the latest of them written. Failing to write the file is logged and does not affect
+	 * the loaded snapshot.
+	 * 
+	 * @param snapshotFile
+	 *            The SnapshotFile to use
+	 * @param writeExecutor
+	 *            The Executor to write the file with
+	 */
+	public void useSnapshotFile(SnapshotFile snapshotFile, Executor writeExecutor) {
+		this.snapshotFile = snapshotFile;
+		this.writeExecutor = writeExecutor;
+	}
+
+	/**
+	 * useMetrics sets the metrics that calls to the view and loads of new snapshots are reported
+	 * to, and registers the metadata element cache of the current snapshot with it as
+	 * "snapshotMetadataElement". Each snapshot has its own cache, so the registered statistics
+	 * start over when a new snapshot is loaded. The default metrics ignores all measurements.
+	 * <p>
+	 * The metrics can be set while the view is in use, calls already started report to the
+	 * previous metrics.
+	 * 
+	 * @param metrics
+	 *            The MetadataStorageViewMetrics to report to
+	 */
+	public void useMetrics(MetadataStorageViewMetrics metrics) {
+		this.metrics = metrics;
+		metrics.registerCache("snapshotMetadataElement", this::getCurrentCacheStatistics);
+	}
+
+	private CacheStatistics getCurrentCacheStatistics() {
+		MetadataSnapshot snapshot = currentSnapshot.get();
+		if (snapshot == null) {
+			return new CacheStatistics(0, 0, 0, 0);
+		}
+		return snapshot.metadataElementCache().getStatistics();
+	}
+
+	/**
+	 * warmUpFromSnapshotFile makes the snapshot stored in the snapshot file the current snapshot,
+	 * if no snapshot is loaded yet, and then loads a new snapshot from storage in the background
+	 * using the specified executor. The view serves calls from the file snapshot until the
+	 * snapshot from storage is loaded. If no snapshot file is set or the file can not be used is
+	 * the snapshot loaded from storage directly, as in {@link #warmUp()}.
+	 * 
+	 * @param backgroundExecutor
+	 *            The Executor to load the snapshot from storage with
+	 */
+	public void warmUpFromSnapshotFile(Executor backgroundExecutor) {
+		synchronized (loadLock) {
+			if (currentSnapshot.get() != null) {
+				return;
+			}
+			Optional<StoredSnapshot> fromFile = readSnapshotFile();
+			if (fromFile.isEmpty()) {
+				loadAndSetNewSnapshot();
+				return;
+			}
+			snapshotLoadedAt = fromFile.get().loadedAt();
+			currentSnapshot.set(fromFile.get().snapshot());
+		}
+		backgroundExecutor.execute(this::invalidateLoggingErrors);
+	}
+
+	private Optional<StoredSnapshot> readSnapshotFile() {
+		if (snapshotFile == null) {
+			return Optional.empty();
+		}
+		return snapshotFile.read(versionCounter.incrementAndGet());
+	}
+
+	private void invalidateLoggingErrors() {
+		try {
+			invalidate();
+		} catch (Exception e) {
+			LoggerProvider.getLoggerForClass(CachedMetadataStorageView.class)
+					.logErrorUsingMessageAndException(
+							"Could not load snapshot from storage after starting from file.", e);
+		}
+	}
+
+	/**
+	 * close drops the current snapshot so that the memory it holds can be reclaimed. A call to the
+	 * view after close loads a new snapshot.
+	 */
+	public void close() {
+		synchronized (loadLock) {
+			currentSnapshot.set(null);
+			snapshotLoadedAt = null;
+		}
+	}
+
+	/**
+	 * invalidate loads a new snapshot from storage and makes it the current snapshot. Calls to the
+	 * view made while the new snapshot is loading are served from the previous snapshot. If
+	 * loading fails is the previous snapshot kept and the exception rethrown.
+	 */
+	public void invalidate() {
+		synchronized (loadLock) {
+			loadAndSetNewSnapshot();
+		}
+	}
+
+	/**
+	 * invalidateValidationTypes reads all validation types from storage and makes a snapshot
+	 * with the new {@link ValidationTypeRegistry} the current snapshot, the rest of the current
+	 * snapshot is kept. Readers see either the old or the new registry. If loading fails is the
+	 * current snapshot kept and the exception rethrown.
+	 */
+	public void invalidateValidationTypes() {
+		synchronized (loadLock) {
+			ValidationTypeRegistry registry = snapshotLoader.loadValidationTypeRegistry();
+			MetadataSnapshot snapshot = getSnapshot();
+			currentSnapshot.set(snapshot.withVersionAndValidationTypeRegistry(
+					versionCounter.incrementAndGet(), registry));
+		}
+	}
+
+	/**
+	 * recordChanged reads the new or changed record from storage and makes a snapshot where only
+	 * that record is added or replaced the current snapshot. All other records, and the elements
+	 * already converted from them, are shared with the previous snapshot. Changes to records of
+	 * types that are not part of the snapshot, and changes made before the first snapshot is
+	 * loaded, are ignored. If loading fails is the current snapshot kept and the exception
+	 * rethrown.
+	 * 
+	 * @param recordType
+	 *            The type of the changed record
+	 * @param recordId
+	 *            The id of the changed record
+	 */
+	public void recordChanged(String recordType, String recordId) {
+		synchronized (loadLock) {
+			MetadataSnapshot snapshot = currentSnapshot.get();
+			if (snapshot != null && MetadataSnapshot.holdsRecordType(recordType)) {
+				currentSnapshot.set(snapshotLoader.loadChangedRecord(snapshot,
+						versionCounter.incrementAndGet(), recordType, recordId));
+			}
+		}
+	}
+
+	/**
+	 * recordDeleted makes a snapshot without the deleted record the current snapshot, without
+	 * reading from storage. Deletions of records of types that are not part of the snapshot, and
+	 * deletions made before the first snapshot is loaded, are ignored.
+	 * 
+	 * @param recordType
+	 *            The type of the deleted record
+	 * @param recordId
+	 *            The id of the deleted record
+	 */
+	public void recordDeleted(String recordType, String recordId) {
+		synchronized (loadLock) {
+			MetadataSnapshot snapshot = currentSnapshot.get();
+			if (snapshot != null && MetadataSnapshot.holdsRecordType(recordType)) {
+				currentSnapshot.set(snapshot.withoutRecord(versionCounter.incrementAndGet(),
+						recordType, recordId));
+			}
+		}
+	}
+
+	private MetadataSnapshot loadAndSetNewSnapshot() {
+		Instant loadedAt = Instant.ofEpochMilli(millisClock.getAsLong());
+		long start = System.nanoTime();
+		MetadataSnapshot snapshot = snapshotLoader
+				.loadSnapshot(versionCounter.incrementAndGet());
+		metrics.recordCall("loadSnapshot", System.nanoTime() - start,
+				snapshot.metadataElements().size());
+		snapshotLoadedAt = loadedAt;
+		currentSnapshot.set(snapshot);
+		scheduleSnapshotFileWrite(new StoredSnapshot(snapshot, loadedAt));
+		return snapshot;
+	}
+
+	private void scheduleSnapshotFileWrite(StoredSnapshot storedSnapshot) {
+		if (snapshotFile == null) {
+			return;
+		}
+		if (snapshotToWrite.getAndSet(storedSnapshot) == null) {
+			writeExecutor.execute(this::writeLatestSnapshotFile);
+		}
+	}
+
+	private void writeLatestSnapshotFile() {
+		synchronized (writeLock) {
+			StoredSnapshot storedSnapshot = snapshotToWrite.getAndSet(null);
+			if (storedSnapshot != null) {
+				writeSnapshotFile(storedSnapshot);
+			}
+		}
+	}
+
+	private void writeSnapshotFile(StoredSnapshot storedSnapshot) {
+		try {
+			snapshotFile.write(storedSnapshot.snapshot(), storedSnapshot.loadedAt());
+		} catch (Exception e) {
+			LoggerProvider.getLoggerForClass(CachedMetadataStorageView.class)
+					.logErrorUsingMessageAndException("Could not write snapshot file.", e);
+		}
+	}
+
+	/**
+	 * getCurrentVersion returns the version of the snapshot currently in use, or 0 if no snapshot
+	 * has been loaded yet.
+	 * 
+	 * @return The version of the current snapshot
+	 */
+	public long getCurrentVersion() {
+		MetadataSnapshot snapshot = currentSnapshot.get();
+		return snapshot == null ? 0 : snapshot.version();
+	}
+
+	/**
+	 * getSnapshotLoadedAt returns the time the current snapshot started to load from storage. For
+	 * a snapshot started from a snapshot file is the time stored in the file returned.
+	 * 
+	 * @return An Optional with the load time of the current snapshot, or an empty Optional if no
+	 *         snapshot has been loaded yet
+	 */
+	public Optional<Instant> getSnapshotLoadedAt() {
+		return Optional.ofNullable(snapshotLoadedAt);
+	}
+
+	MetadataSnapshot getSnapshot() {
+		MetadataSnapshot snapshot = currentSnapshot.get();
+		if (snapshot == null) {
+			return loadFirstSnapshot();
+		}
+		return snapshot;
+	}
+
+	private MetadataSnapshot loadFirstSnapshot() {
+		synchronized (loadLock) {
+			MetadataSnapshot snapshot = currentSnapshot.get();
+			if (snapshot == null) {
+				return loadAndSetNewSnapshot();
+			}
+			return snapshot;
+		}
+	}
+
+	private <T> T measureCall(String methodName, Supplier<T> call,
+			ToIntFunction<T> numberOfRecords) {
+		long start = System.nanoTime();
+		T result = call.get();
+		metrics.recordCall(methodName, System.nanoTime() - start,
+				numberOfRecords.applyAsInt(result));
+		return result;
+	}
+
+	/**
+	 * getMetadataElements returns the metadata records of the current snapshot. The returned
+	 * collection is unmodifiable and its data groups are shared with all other callers, they must
+	 * not be changed.
+	 */
+	@Override
+	public Collection<DataRecordGroup> getMetadataElements() {
+		return measureCall("getMetadataElements", () -> getSnapshot().metadataElements(),
+				Collection::size);
+	}
+
+	@Override
+	public MetadataElement getMetadataElement(String elementId) {
+		return measureCall("getMetadataElement", () -> getMetadataElementFromSnapshot(elementId),
+				element -> 1);
+	}
+
+	private MetadataElement getMetadataElementFromSnapshot(String elementId) {
+		MetadataSnapshot snapshot = getSnapshot();
+		return snapshot.metadataElementCache().getOrConvert(elementId,
+				id -> convertMetadataElementFromSnapshot(snapshot, id));
+	}
+
+	/**
+	 * findMetadataElement returns the metadata element with the specified id from the current
+	 * snapshot, or an empty Optional if the snapshot has no metadata record with the id. A missing
+	 * id is answered from the index of the snapshot without any exception being created.
+	 * 
+	 * @param elementId
+	 *            The id of the metadata element to find
+	 * @return An Optional with the MetadataElement, or an empty Optional if it does not exist
+	 */
+	public Optional<MetadataElement> findMetadataElement(String elementId) {
+		return measureCall("findMetadataElement",
+				() -> findMetadataElementInSnapshot(getSnapshot(), elementId),
+				element -> element.isPresent() ? 1 : 0);
+	}
+
+	private Optional<MetadataElement> findMetadataElementInSnapshot(MetadataSnapshot snapshot,
+			String elementId) {
+		if (!snapshot.metadataElementsById().containsKey(elementId)) {
+			return Optional.empty();
+		}
+		return Optional.of(snapshot.metadataElementCache().getOrConvert(elementId,
+				id -> convertMetadataElementFromSnapshot(snapshot, id)));
+	}
+
+	private MetadataElement convertMetadataElementFromSnapshot(MetadataSnapshot snapshot,
+			String elementId) {
+		DataRecordGroup dataRecordGroup = snapshot.metadataElementsById().get(elementId);
+		if (dataRecordGroup == null) {
+			throw MetadataStorageViewException
+					.usingMessage("Metadata with id: " + elementId + ", not found in storage.");
+		}
+		DataToMetadataConverter converter = DataToMetadataConverterProvider
+				.getConverter(dataRecordGroup);
+		return converter.toMetadata();
+	}
+
+	/**
+	 * getPresentationElements returns the presentation records of the current snapshot. The
+	 * returned collection is unmodifiable and its data groups are shared with all other callers,
+	 * they must not be changed.
+	 */
+	@Override
+	public Collection<DataGroup> getPresentationElements() {
+		return measureCall("getPresentationElements",
+				() -> getSnapshot().presentationElements(), Collection::size);
+	}
+
+	/**
+	 * getTexts returns the text records of the current snapshot. The returned collection is
+	 * unmodifiable and its data groups are shared with all other callers, they must not be changed.
+	 */
+	@Override
+	public Collection<DataGroup> getTexts() {
+		return measureCall("getTexts", () -> getSnapshot().texts(), Collection::size);
+	}
+
+	@Override
+	public Collection<TextElement> getTextElements() {
+		return measureCall("getTextElements", () -> getSnapshot().textElements(),
+				Collection::size);
+	}
+
+	@Override
+	public TextElement getTextElement(String elementId) {
+		return measureCall("getTextElement", () -> getTextElementFromSnapshot(elementId),
+				element -> 1);
+	}
+
+	private TextElement getTextElementFromSnapshot(String elementId) {
+		Optional<TextElement> textElement = getSnapshot().textElements().findById(elementId);
+		if (textElement.isEmpty()) {
+			throw MetadataStorageViewException
+					.usingMessage("Text with id: " + elementId + ", not found in storage.");
+		}
+		return textElement.get();
+	}
+
+	/**
+	 * findTextElement returns the text element with the specified id from the current snapshot,
+	 * or an empty Optional if the snapshot has no text with the id.
+	 * 
+	 * @param elementId
+	 *            The id of the text element to find
+	 * @return An Optional with the TextElement, or an empty Optional if it does not exist
+	 */
+	public Optional<TextElement> findTextElement(String elementId) {
+		return measureCall("findTextElement",
+				() -> getSnapshot().textElements().findById(elementId),
+				element -> element.isPresent() ? 1 : 0);
+	}
+
+	/**
+	 * getMetadataElements returns the metadata elements with the specified ids from the current
+	 * snapshot. All ids are looked up in the same snapshot, so the result is consistent even if
+	 * the snapshot is replaced during the call.
+	 * <p>
+	 * An id that is not in the snapshot is reported in notFound of the result, and an id whose
+	 * record can not be converted is reported in failed of the result. Neither stops the other
+	 * elements from being returned.
+	 * 
+	 * @param elementIds
+	 *            The ids of the metadata elements to get
+	 * @return A BatchReadResult with the found elements and the ids that were not found
+	 */
+	public BatchReadResult<MetadataElement> getMetadataElements(Collection<String> elementIds) {
+		return measureCall("getMetadataElementsById", () -> {
+			MetadataSnapshot snapshot = getSnapshot();
+			return readElementsById(elementIds,
+					id -> findMetadataElementInSnapshot(snapshot, id));
+		}, result -> result.found().size());
+	}
+
+	/**
+	 * getTextElements returns the text elements with the specified ids from the current snapshot,
+	 * in the same way as {@link #getMetadataElements(Collection)}.
+	 * 
+	 * @param elementIds
+	 *            The ids of the text elements to get
+	 * @return A BatchReadResult with the found elements and the ids that were not found
+	 */
+	public BatchReadResult<TextElement> getTextElements(Collection<String> elementIds) {
+		return measureCall("getTextElementsById", () -> {
+			LazyTextElementList textElements = getSnapshot().textElements();
+			return readElementsById(elementIds, textElements::findById);
+		}, result -> result.found().size());
+	}
+
+	private <T> BatchReadResult<T> readElementsById(Collection<String> elementIds,
+			Function<String, Optional<T>> lookup) {
+		Map<String, T> found = new LinkedHashMap<>();
+		Set<String> notFound = new LinkedHashSet<>();
+		Map<String, Exception> failed = new LinkedHashMap<>();
+		for (String elementId : new LinkedHashSet<>(elementIds)) {
+			try {
+				lookup.apply(elementId).ifPresentOrElse(element -> found.put(elementId, element),
+						() -> notFound.add(elementId));
+			} catch (Exception e) {
+				failed.put(elementId, e);
+			}
+		}
+		return new BatchReadResult<>(found, notFound, failed);
+	}
+
+	/**
+	 * getRecordTypes returns the recordType records of the current snapshot. The returned
+	 * collection is unmodifiable and its data groups are shared with all other callers, they must
+	 * not be changed.
+	 */
+	@Override
+	public Collection<DataGroup> getRecordTypes() {
+		return measureCall("getRecordTypes", () -> getSnapshot().recordTypes(),
+				Collection::size);
+	}
+
+	/**
+	 * getCollectTermsAsDataGroup returns the collectTerm records of the current snapshot. The
+	 * returned collection is unmodifiable and its data groups are shared with all other callers,
+	 * they must not be changed.
+	 */
+	@Override
+	public Collection<DataGroup> getCollectTermsAsDataGroup() {
+		return measureCall("getCollectTermsAsDataGroup",
+				() -> getSnapshot().collectTermsAsDataGroup(), Collection::size);
+	}
+
+	@Override
+	public Collection<ValidationType> getValidationTypes() {
+		return measureCall("getValidationTypes",
+				() -> getSnapshot().validationTypeRegistry().getValidationTypes(),
+				Collection::size);
+	}
+
+	@Override
+	public Optional<ValidationType> getValidationType(String validationId) {
+		return measureCall("getValidationType",
+				() -> getSnapshot().validationTypeRegistry().getValidationType(validationId),
+				validationType -> validationType.isPresent() ? 1 : 0);
+	}
+
+	/**
+	 * getValidationTypesForRecordType returns all validation types that validate the specified
+	 * record type.
+	 * 
+	 * @param recordType
+	 *            The id of the validated record type
+	 * @return A List with the ValidationTypes, empty if none validate the record type
+	 */
+	public List<ValidationType> getValidationTypesForRecordType(String recordType) {
+		return measureCall("getValidationTypesForRecordType",
+				() -> getSnapshot().validationTypeRegistry()
+						.getValidationTypesForRecordType(recordType),
+				List::size);
+	}
+
+	public ValidationTypeRegistry getValidationTypeRegistry() {
+		return getSnapshot().validationTypeRegistry();
+	}
+
+	/**
+	 * getRecordTypeRegistry returns the record types parsed from the recordType records in the
+	 * current snapshot. The same registry is returned to all callers until the snapshot is
+	 * replaced, so callers should use it instead of parsing the data returned by
+	 * {@link #getRecordTypes()}.
+	 * 
+	 * @return The RecordTypeRegistry of the current snapshot
+	 */
+	public RecordTypeRegistry getRecordTypeRegistry() {
+		return getSnapshot().recordTypeRegistry();
+	}
+
+	@Override
+	public CollectTermHolder getCollectTermHolder() {
+		MetadataSnapshot snapshot = getSnapshot();
+		return measureCall("getCollectTermHolder", snapshot::collectTermHolder,
+				holder -> snapshot.collectTermsAsDataGroup().size());
+	}
+
+	public CacheStatistics getMetadataElementCacheStatistics() {
+		return getSnapshot().metadataElementCache().getStatistics();
+	}
+
+	public MetadataSnapshotLoader onlyForTestGetSnapshotLoader() {
+		return snapshotLoader;
+	}
+
+	public MetadataStorageViewMetrics onlyForTestGetMetrics() {
+		return metrics;
+	}
+
+	public SnapshotFile onlyForTestGetSnapshotFile() {
+		return snapshotFile;
+	}
+
+	public Executor onlyForTestGetWriteExecutor() {
+		return writeExecutor;
+	}
+}
@@ -0,0 +1,286 @@
+/*
+ * Copyright 2026 Uppsala University Library
+ *
+ * This file is part of Cora.
+ *
+ *     Cora is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     Cora is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with Cora.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package se.uu.ub.cora.metadatastorage.cache;
+
+import java.util.Map;
+import java.util.Optional;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+
+/**
+ * ConvertedElementCache is a thread safe, size bounded cache of converted elements keyed by id. A
+ * cache with max size 0 stores nothing and converts on every call.
+ * <p>
+ * Lookups are served from a {@link ConcurrentHashMap} without taking any lock, so readers on
+ * different threads do not wait for each other. A hit only marks the element as used. When the
+ * cache is full is an element evicted using the CLOCK algorithm, the elements are visited in the
+ * order they were added, a used element gets its mark cleared and is moved last, and the first
+ * element not used since it was last visited is evicted. This is an approximation of evicting the
+ * least recently used element. Only threads adding elements to a full cache take the lock
+ * guarding eviction.
+ * <p>
+ * Conversions are done outside of any lock, so a slow conversion does not block lookups of other
+ * ids. If two threads convert the same id at the same time is the first stored element kept and
+ * returned to both. Each id belongs to one of a fixed number of generations that
+ * {@link #invalidate(String)} increases, an element converted while its generation was increased
+ * is returned to the caller but never kept in the cache, as it might be converted from the record
+ * as it was before the change.
+ * <p>
+ * Invalidated elements are only removed from the lookup map, their places in the clock are dropped
+ * when the clock reaches them or, if many elements are invalidated between evictions, when the
+ * clock is swept for removed elements.
+ */
+public final class ConvertedElementCache<T> {
+	private static final int NUMBER_OF_GENERATIONS = 64;
+	private final int maxSize;
+	private final Map<String, CachedElement<T>> elements = new ConcurrentHashMap<>();
+	private final Queue<CachedElement<T>> clock = new ConcurrentLinkedQueue<>();
+	private final ReentrantLock evictionLock = new ReentrantLock();
+	private final AtomicLongArray generations = new AtomicLongArray(NUMBER_OF_GENERATIONS);
+	private final AtomicInteger removedSinceSweep = new AtomicInteger();
+	private final LongAdder hits = new LongAdder();
+	private final LongAdder misses = new LongAdder();
+	private final LongAdder evictions = new LongAdder();
+
+	public static <T> ConvertedElementCache<T> usingMaxSize(int maxSize) {
+		return new ConvertedElementCache<>(maxSize);
+	}
+
+	private ConvertedElementCache(int maxSize) {
+		if (maxSize < 0) {
+			throw new IllegalArgumentException("Max size must not be negative, was: " + maxSize);
+		}
+		this.maxSize = maxSize;
+	}
+
+	/**
+	 * getOrConvert returns the cached element for the id, or converts it using the specified
+	 * conversion and caches the result if it is not in the cache. Exceptions thrown by the
+	 * conversion are passed on to the caller and nothing is cached.
+	 * 
+	 * @param id
+	 *            The id of the element
+	 * @param conversion
+	 *            The conversion to use to create the element if it is not in the cache
+	 * @return The cached or converted element
+	 */
+	public T getOrConvert(String id, Function<String, T> conversion) {
+		T cached = getFromCache(id);
+		if (cached != null) {
+			hits.increment();
+			return cached;
+		}
+		misses.increment();
+		long generation = getGeneration(id);
+		T converted = conversion.apply(id);
+		return putIfAbsentAndStillCurrent(id, generation, converted);
+	}
+
+	private long getGeneration(String id) {
+		return generations.get(generationIndex(id));
+	}
+
+	private static int generationIndex(String id) {
+		return Math.floorMod(id.hashCode(), NUMBER_OF_GENERATIONS);
+	}
+
+	/**
+	 * getIfCached returns the cached element for the id without converting it if it is not in
+	 * the cache. A found element is counted as a hit, nothing is counted for a missing element, as
+	 * the caller is expected to convert and add it using {@link #getOrConvert(String, Function)}.
+	 * 
+	 * @param id
+	 *            The id of the element
+	 * @return An Optional with the cached element, empty if the element is not in the cache
+	 */
+	public Optional<T> getIfCached(String id) {
+		T cached = getFromCache(id);
+		if (cached != null) {
+			hits.increment();
+		}
+		return Optional.ofNullable(cached);
+	}
+
+	private T getFromCache(String id) {
+		CachedElement<T> cachedElement = elements.get(id);
+		if (cachedElement == null) {
+			return null;
+		}
+		cachedElement.markUsed();
+		return cachedElement.element;
+	}
+
+	private T putIfAbsentAndStillCurrent(String id, long generation, T converted) {
+		if (maxSize == 0 || getGeneration(id) != generation) {
+			return converted;
+		}
+		CachedElement<T> cachedElement = new CachedElement<>(id, converted);
+		CachedElement<T> existing = elements.putIfAbsent(id, cachedElement);
+		if (existing != null) {
+			return existing.element;
+		}
+		if (getGeneration(id) != generation) {
+			removeInvalidated(cachedElement);
+			return converted;
+		}
+		clock.offer(cachedElement);
+		evictIfFullOrSweepIfManyRemoved();
+		return converted;
+	}
+
+	private void removeInvalidated(CachedElement<T> cachedElement) {
+		elements.remove(cachedElement.id, cachedElement);
+	}
+
+	private void putCopied(CachedElement<T> original) {
+		CachedElement<T> cachedElement = new CachedElement<>(original.id, original.element);
+		elements.put(cachedElement.id, cachedElement);
+		clock.offer(cachedElement);
+	}
+
+	private void evictIfFullOrSweepIfManyRemoved() {
+		if (elements.size() <= maxSize && removedSinceSweep.get() <= maxSize) {
+			return;
+		}
+		evictionLock.lock();
+		try {
+			sweepIfManyRemoved();
+			evictUntilWithinMaxSize();
+		} finally {
+			evictionLock.unlock();
+		}
+	}
+
+	private void sweepIfManyRemoved() {
+		if (removedSinceSweep.get() > maxSize) {
+			removedSinceSweep.set(0);
+			clock.removeIf(this::isRemoved);
+		}
+	}
+
+	private boolean isRemoved(CachedElement<T> candidate) {
+		return elements.get(candidate.id) != candidate;
+	}
+
+	private void evictUntilWithinMaxSize() {
+		while (elements.size() > maxSize) {
+			CachedElement<T> candidate = clock.poll();
+			if (candidate == null) {
+				return;
+			}
+			evictOrGiveSecondChance(candidate);
+		}
+	}
+
+	private void evictOrGiveSecondChance(CachedElement<T> candidate) {
+		if (isRemoved(candidate)) {
+			return;
+		}
+		if (candidate.clearUsed()) {
+			clock.offer(candidate);
+		} else if (elements.remove(candidate.id, candidate)) {
+			evictions.increment();
+		}
+	}
+
+	/**
+	 * invalidate removes the element with the specified id from the cache, it is intended to be
+	 * called when the record the element is converted from is changed. Conversions of the id that
+	 * are running when invalidate is called do not put their element into the cache.
+	 * 
+	 * @param id
+	 *            The id of the element to remove
+	 */
+	public void invalidate(String id) {
+		generations.incrementAndGet(generationIndex(id));
+		if (elements.remove(id) != null) {
+			removedSinceSweep.incrementAndGet();
+		}
+	}
+
+	/**
+	 * copyWithout returns a new cache with the same max size holding all elements in this cache
+	 * except the one with the specified id. It is used when a new snapshot is created for a
+	 * changed record, so that readers of the previous snapshot can not put the old element into
+	 * the cache used by the new snapshot. Statistics are not copied.
+	 * 
+	 * @param id
+	 *            The id of the element to leave out
+	 * @return A new ConvertedElementCache
+	 */
+	public ConvertedElementCache<T> copyWithout(String id) {
+		ConvertedElementCache<T> copy = new ConvertedElementCache<>(maxSize);
+		for (CachedElement<T> cachedElement : clock) {
+			if (!cachedElement.id.equals(id) && !isRemoved(cachedElement)) {
+				copy.putCopied(cachedElement);
+			}
+		}
+		return copy;
+	}
+
+	public void invalidateAll() {
+		for (int i = 0; i < NUMBER_OF_GENERATIONS; i++) {
+			generations.incrementAndGet(i);
+		}
+		elements.clear();
+		clock.clear();
+		removedSinceSweep.set(0);
+	}
+
+	public CacheStatistics getStatistics() {
+		return new CacheStatistics(hits.sum(), misses.sum(), evictions.sum(), elements.size());
+	}
+
+	public int onlyForTestGetMaxSize() {
+		return maxSize;
+	}
+
+	int onlyForTestGetClockSize() {
+		return clock.size();
+	}
+
+	private static final class CachedElement<T> {
+		private final String id;
+		private final T element;
+		private volatile boolean used;
+
+		private CachedElement(String id, T element) {
+			this.id = id;
+			this.element = element;
+		}
+
+		private void markUsed() {
+			if (!used) {
+				used = true;
+			}
+		}
+
+		private boolean clearUsed() {
+			boolean wasUsed = used;
+			used = false;
+			return wasUsed;
+		}
+	}
+}
@@ -0,0 +1,157 @@
+/*
+ * Copyright 2026 Uppsala University Library
+ *
+ * This file is part of Cora.
+ *
+ *     Cora is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     Cora is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with Cora.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package se.uu.ub.cora.metadatastorage.cache;
+
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.RandomAccess;
+
+import se.uu.ub.cora.data.DataGroup;
+
+/**
+ * IndexedDataGroupList is an unmodifiable list of record DataGroups that knows the position of
+ * each record by its id, so that a new list with one record replaced, added or removed can be
+ * created without reading the id from the recordInfo of every other record in the list.
+ * <p>
+ * A new list created for one changed record is a full copy of the references in this list, so
+ * creating it takes time and memory in proportion to the size of the list, the records themselves
+ * are shared. The positions are indexed the first time they are needed, as most lists are never
+ * changed. A replaced record shares the positions with this list, an added or removed record
+ * copies them.
+ */
+public final class IndexedDataGroupList extends AbstractList<DataGroup>
+		implements RandomAccess {
+	private final List<DataGroup> dataGroups;
+	private volatile Map<String, Integer> positionsById;
+
+	/**
+	 * copyOf returns an IndexedDataGroupList with the records in the specified list. If the list
+	 * already is an IndexedDataGroupList is it returned, as it is immutable.
+	 * 
+	 * @param dataGroups
+	 *            The record DataGroups to hold
+	 * @return An IndexedDataGroupList with the records
+	 */
+	public static IndexedDataGroupList copyOf(List<DataGroup> dataGroups) {
+		if (dataGroups instanceof IndexedDataGroupList indexedDataGroups) {
+			return indexedDataGroups;
+		}
+		return new IndexedDataGroupList(List.copyOf(dataGroups), null);
+	}
+
+	private IndexedDataGroupList(List<DataGroup> dataGroups, Map<String, Integer> positionsById) {
+		this.dataGroups = dataGroups;
+		this.positionsById = positionsById;
+	}
+
+	@Override
+	public DataGroup get(int index) {
+		return dataGroups.get(index);
+	}
+
+	@Override
+	public int size() {
+		return dataGroups.size();
+	}
+
+	/**
+	 * withDataGroup returns a new list where the record with the same id as the specified record
+	 * is replaced by it, or where it is added last if no such record exists. All references in
+	 * this list are copied to the new list.
+	 * 
+	 * @param changed
+	 *            The new or changed record
+	 * @return A new IndexedDataGroupList
+	 */
+	IndexedDataGroupList withDataGroup(DataGroup changed) {
+		String id = getIdFromDataGroup(changed);
+		Map<String, Integer> positions = getPositionsById();
+		List<DataGroup> copy = new ArrayList<>(dataGroups);
+		Integer position = positions.get(id);
+		if (position != null) {
+			copy.set(position, changed);
+			return new IndexedDataGroupList(Collections.unmodifiableList(copy), positions);
+		}
+		Map<String, Integer> newPositions = new HashMap<>(positions);
+		newPositions.put(id, copy.size());
+		copy.add(changed);
+		return new IndexedDataGroupList(Collections.unmodifiableList(copy),
+				Map.copyOf(newPositions));
+	}
+
+	/**
+	 * withoutDataGroup returns a new list without the record with the specified id. All other
+	 * references in this list are copied to the new list.
+	 * 
+	 * @param id
+	 *            The id of the record to leave out
+	 * @return A new IndexedDataGroupList, or this list if no record with the id exists
+	 */
+	IndexedDataGroupList withoutDataGroup(String id) {
+		Map<String, Integer> positions = getPositionsById();
+		Integer position = positions.get(id);
+		if (position == null) {
+			return this;
+		}
+		List<DataGroup> copy = new ArrayList<>(dataGroups);
+		copy.remove((int) position);
+		return new IndexedDataGroupList(Collections.unmodifiableList(copy),
+				positionsWithout(positions, id, position));
+	}
+
+	private static Map<String, Integer> positionsWithout(Map<String, Integer> positions,
+			String removedId, int removedPosition) {
+		Map<String, Integer> newPositions = new HashMap<>(positions.size());
+		for (Entry<String, Integer> entry : positions.entrySet()) {
+			int position = entry.getValue();
+			if (!entry.getKey().equals(removedId)) {
+				newPositions.put(entry.getKey(),
+						position > removedPosition ? position - 1 : position);
+			}
+		}
+		return Map.copyOf(newPositions);
+	}
+
+	private Map<String, Integer> getPositionsById() {
+		Map<String, Integer> positions = positionsById;
+		if (positions == null) {
+			positions = indexPositionsById();
+			positionsById = positions;
+		}
+		return positions;
+	}
+
+	private Map<String, Integer> indexPositionsById() {
+		Map<String, Integer> positions = new HashMap<>(dataGroups.size());
+		for (int i = 0; i < dataGroups.size(); i++) {
+			positions.put(getIdFromDataGroup(dataGroups.get(i)), i);
+		}
+		return Map.copyOf(positions);
+	}
+
+	private static String getIdFromDataGroup(DataGroup dataGroup) {
+		DataGroup recordInfo = dataGroup.getFirstGroupWithNameInData("recordInfo");
+		return recordInfo.getFirstAtomicValueWithNameInData("id");
+	}
+}
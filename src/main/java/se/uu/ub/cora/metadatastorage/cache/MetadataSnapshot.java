@@ -0,0 +1,222 @@
+/*
+ * Copyright 2026 Uppsala University Library
+ *
+ * This file is part of Cora.
+ *
+ *     Cora is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     Cora is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with Cora.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package se.uu.ub.cora.metadatastorage.cache;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import se.uu.ub.cora.bookkeeper.metadata.CollectTerm;
+import se.uu.ub.cora.bookkeeper.metadata.MetadataElement;
+import se.uu.ub.cora.bookkeeper.validator.ValidationType;
+import se.uu.ub.cora.data.DataGroup;
+import se.uu.ub.cora.data.DataRecordGroup;
+import se.uu.ub.cora.metadatastorage.CollectTermHolderImp;
+import se.uu.ub.cora.metadatastorage.converter.datatotextelement.LazyTextElementList;
+import se.uu.ub.cora.metadatastorage.recordtype.RecordType;
+import se.uu.ub.cora.metadatastorage.recordtype.RecordTypeRegistry;
+import se.uu.ub.cora.metadatastorage.validationtype.ValidationTypeRegistry;
+
+/**
+ * MetadataSnapshot is an immutable, versioned copy of all metadata related records read from
+ * storage at one point in time. A snapshot is never changed after it has been created, a change
+ * in storage is instead handled by creating a new snapshot with a higher version.
+ * <p>
+ * Text elements are converted lazily by {@link LazyTextElementList}, the first time each of them
+ * is used. Metadata elements are converted when requested and kept in a size bounded
+ * {@link ConvertedElementCache} that belongs to the snapshot, so that a new snapshot always starts
+ * with an empty cache. Validation types are held in a {@link ValidationTypeRegistry} and record
+ * types, parsed from the recordType records, in a {@link RecordTypeRegistry}.
+ * <p>
+ * The with and without methods create a new snapshot for one changed or deleted record. The
+ * parts of the snapshot that hold the record type of the record are copied as a whole, so a
+ * change takes time and memory in proportion to the number of records of its type, not to the
+ * size of the change. The parts holding other record types, converted text elements and cached
+ * metadata elements for other records are shared with this snapshot. A snapshot is therefore
+ * suited for records that change seldom compared to how often they are read, and a burst of many
+ * changes to one type is better handled by loading a new snapshot.
+ */
+public record MetadataSnapshot(long version, List<DataRecordGroup> metadataElements,
+		Map<String, DataRecordGroup> metadataElementsById,
+		IndexedDataGroupList presentationElements, IndexedDataGroupList texts,
+		LazyTextElementList textElements, IndexedDataGroupList recordTypes,
+		RecordTypeRegistry recordTypeRegistry, IndexedDataGroupList collectTermsAsDataGroup,
+		CollectTermHolderImp collectTermHolder,
+		ValidationTypeRegistry validationTypeRegistry,
+		ConvertedElementCache<MetadataElement> metadataElementCache) {
+
+	private static final Set<String> RECORD_TYPES_IN_SNAPSHOT = Set.of("metadata", "presentation",
+			"text", "recordType", "collectTerm", "validationType");
+
+	public MetadataSnapshot {
+		metadataElements = List.copyOf(metadataElements);
+		metadataElementsById = Map.copyOf(metadataElementsById);
+	}
+
+	/**
+	 * holdsRecordType returns true if records of the specified type are part of a snapshot.
+	 * 
+	 * @param recordType
+	 *            The record type to check
+	 * @return true if records of the type are held in snapshots, false otherwise
+	 */
+	public static boolean holdsRecordType(String recordType) {
+		return RECORD_TYPES_IN_SNAPSHOT.contains(recordType);
+	}
+
+	/**
+	 * withVersionAndValidationTypeRegistry returns a new snapshot with the same content as this
+	 * snapshot, except for the version and the validation type registry.
+	 * 
+	 * @param newVersion
+	 *            The version to set in the new snapshot
+	 * @param newValidationTypeRegistry
+	 *            The ValidationTypeRegistry to set in the new snapshot
+	 * @return A new MetadataSnapshot
+	 */
+	public MetadataSnapshot withVersionAndValidationTypeRegistry(long newVersion,
+			ValidationTypeRegistry newValidationTypeRegistry) {
+		return new MetadataSnapshot(newVersion, metadataElements, metadataElementsById,
+				presentationElements, texts, textElements, recordTypes, recordTypeRegistry,
+				collectTermsAsDataGroup, collectTermHolder, newValidationTypeRegistry,
+				metadataElementCache);
+	}
+
+	public MetadataSnapshot withMetadataElement(long newVersion, DataRecordGroup metadataElement) {
+		String id = metadataElement.getId();
+		Map<String, DataRecordGroup> byId = new HashMap<>(metadataElementsById);
+		byId.put(id, metadataElement);
+		return new MetadataSnapshot(newVersion,
+				replaceOrAddRecordGroup(metadataElements, metadataElement), byId,
+				presentationElements, texts, textElements, recordTypes, recordTypeRegistry,
+				collectTermsAsDataGroup, collectTermHolder, validationTypeRegistry,
+				metadataElementCache.copyWithout(id));
+	}
+
+	public MetadataSnapshot withPresentationElement(long newVersion, DataGroup presentation) {
+		return new MetadataSnapshot(newVersion, metadataElements, metadataElementsById,
+				presentationElements.withDataGroup(presentation), texts, textElements,
+				recordTypes, recordTypeRegistry, collectTermsAsDataGroup, collectTermHolder,
+				validationTypeRegistry, metadataElementCache);
+	}
+
+	public MetadataSnapshot withText(long newVersion, DataRecordGroup textRecordGroup,
+			DataGroup text) {
+		return new MetadataSnapshot(newVersion, metadataElements, metadataElementsById,
+				presentationElements, texts.withDataGroup(text),
+				textElements.withTextRecordGroup(textRecordGroup), recordTypes, recordTypeRegistry,
+				collectTermsAsDataGroup, collectTermHolder, validationTypeRegistry,
+				metadataElementCache);
+	}
+
+	public MetadataSnapshot withRecordType(long newVersion, DataGroup recordTypeAsDataGroup,
+			RecordType recordType) {
+		return new MetadataSnapshot(newVersion, metadataElements, metadataElementsById,
+				presentationElements, texts, textElements,
+				recordTypes.withDataGroup(recordTypeAsDataGroup),
+				recordTypeRegistry.withRecordType(recordType.id(), recordType),
+				collectTermsAsDataGroup, collectTermHolder, validationTypeRegistry,
+				metadataElementCache);
+	}
+
+	public MetadataSnapshot withCollectTerm(long newVersion, DataGroup collectTermAsDataGroup,
+			CollectTerm collectTerm) {
+		return new MetadataSnapshot(newVersion, metadataElements, metadataElementsById,
+				presentationElements, texts, textElements, recordTypes, recordTypeRegistry,
+				collectTermsAsDataGroup.withDataGroup(collectTermAsDataGroup),
+				collectTermHolder.withCollectTerm(collectTerm), validationTypeRegistry,
+				metadataElementCache);
+	}
+
+	public MetadataSnapshot withValidationType(long newVersion, String validationId,
+			ValidationType validationType) {
+		return withVersionAndValidationTypeRegistry(newVersion,
+				validationTypeRegistry.withValidationType(validationId, validationType));
+	}
+
+	/**
+	 * withoutRecord returns a new snapshot without the record with the specified type and id.
+	 * 
+	 * @param newVersion
+	 *            The version to set in the new snapshot
+	 * @param recordType
+	 *            The type of the deleted record
+	 * @param recordId
+	 *            The id of the deleted record
+	 * @return A new MetadataSnapshot, or this snapshot if records of the type are not held in
+	 *         snapshots
+	 */
+	public MetadataSnapshot withoutRecord(long newVersion, String recordType, String recordId) {
+		return switch (recordType) {
+		case "metadata" -> withoutMetadataElement(newVersion, recordId);
+		case "presentation" -> new MetadataSnapshot(newVersion, metadataElements,
+				metadataElementsById, presentationElements.withoutDataGroup(recordId), texts,
+				textElements, recordTypes, recordTypeRegistry, collectTermsAsDataGroup,
+				collectTermHolder, validationTypeRegistry, metadataElementCache);
+		case "text" -> new MetadataSnapshot(newVersion, metadataElements, metadataElementsById,
+				presentationElements, texts.withoutDataGroup(recordId),
+				textElements.withoutTextRecord(recordId), recordTypes, recordTypeRegistry,
+				collectTermsAsDataGroup, collectTermHolder, validationTypeRegistry,
+				metadataElementCache);
+		case "recordType" -> new MetadataSnapshot(newVersion, metadataElements,
+				metadataElementsById, presentationElements, texts, textElements,
+				recordTypes.withoutDataGroup(recordId),
+				recordTypeRegistry.withoutRecordType(recordId), collectTermsAsDataGroup,
+				collectTermHolder, validationTypeRegistry, metadataElementCache);
+		case "collectTerm" -> new MetadataSnapshot(newVersion, metadataElements,
+				metadataElementsById, presentationElements, texts, textElements, recordTypes,
+				recordTypeRegistry, collectTermsAsDataGroup.withoutDataGroup(recordId),
+				collectTermHolder.withoutCollectTerm(recordId), validationTypeRegistry,
+				metadataElementCache);
+		case "validationType" -> withVersionAndValidationTypeRegistry(newVersion,
+				validationTypeRegistry.withoutValidationType(recordId));
+		default -> this;
+		};
+	}
+
+	private MetadataSnapshot withoutMetadataElement(long newVersion, String recordId) {
+		Map<String, DataRecordGroup> byId = new HashMap<>(metadataElementsById);
+		byId.remove(recordId);
+		List<DataRecordGroup> elements = new ArrayList<>(metadataElements);
+		elements.removeIf(element -> recordId.equals(element.getId()));
+		return new MetadataSnapshot(newVersion, elements, byId, presentationElements, texts,
+				textElements, recordTypes, recordTypeRegistry, collectTermsAsDataGroup,
+				collectTermHolder, validationTypeRegistry,
+				metadataElementCache.copyWithout(recordId));
+	}
+
+	private List<DataRecordGroup> replaceOrAddRecordGroup(List<DataRecordGroup> recordGroups,
+			DataRecordGroup changed) {
+		List<DataRecordGroup> copy = new ArrayList<>(recordGroups);
+		if (!metadataElementsById.containsKey(changed.getId())) {
+			copy.add(changed);
+			return copy;
+		}
+		for (int i = 0; i < copy.size(); i++) {
+			if (changed.getId().equals(copy.get(i).getId())) {
+				copy.set(i, changed);
+				return copy;
+			}
+		}
+		copy.add(changed);
+		return copy;
+	}
+}
@@ -0,0 +1,62 @@
+/*
+ * Copyright 2026 Uppsala University Library
+ *
+ * This file is part of Cora.
+ *
+ *     Cora is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     Cora is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with Cora.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package se.uu.ub.cora.metadatastorage.cache;
+
+import se.uu.ub.cora.metadatastorage.validationtype.ValidationTypeRegistry;
+
+public interface MetadataSnapshotLoader {
+
+	/**
+	 * loadSnapshot reads all metadata related records from storage and returns them as a new
+	 * {@link MetadataSnapshot}.
+	 * 
+	 * @param version
+	 *            The version to set in the created snapshot
+	 * @return A new, fully built MetadataSnapshot
+	 */
+	MetadataSnapshot loadSnapshot(long version);
+
+	/**
+	 * loadChangedRecord reads one new or changed record from storage and returns a new snapshot
+	 * where the record is added or replaced. Everything else in the new snapshot is shared with the
+	 * specified snapshot. If the record no longer exists in storage is it removed from the new
+	 * snapshot.
+	 * 
+	 * @param snapshot
+	 *            The snapshot to base the new snapshot on
+	 * @param version
+	 *            The version to set in the new snapshot
+	 * @param recordType
+	 *            The type of the changed record
+	 * @param recordId
+	 *            The id of the changed record
+	 * @return A new MetadataSnapshot, or the specified snapshot if records of the type are not
+	 *         held in snapshots
+	 */
+	MetadataSnapshot loadChangedRecord(MetadataSnapshot snapshot, long version, String recordType,
+			String recordId);
+
+	/**
+	 * loadValidationTypeRegistry reads all validation types from storage and returns them as a
+	 * new {@link ValidationTypeRegistry}.
+	 * 
+	 * @return A new, fully built ValidationTypeRegistry
+	 */
+	ValidationTypeRegistry loadValidationTypeRegistry();
+}
@@ -0,0 +1,169 @@
+/*
+ * Copyright 2026 Uppsala University Library
+ *
+ * This file is part of Cora.
+ *
+ *     Cora is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     Cora is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with Cora.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package se.uu.ub.cora.metadatastorage.cache;
+
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.LongSupplier;
+
+/**
+ * MissingIdCache remembers ids that were not found in storage for a limited time, so that
+ * repeated lookups of the same missing id can be answered without reading from storage.
+ * <p>
+ * The cache holds at most maxSize ids. The ids are also kept in the order they were marked as
+ * missing, which is the order they expire in, so that expired ids are removed from the oldest end
+ * when a new id is marked. When the cache is full is the oldest id removed to make room for the
+ * new one, so marking an id as missing never has to look at more than the ids it removes. An id
+ * must be removed with {@link #recordCreated(String, String)} when a record with that id is
+ * created.
+ */
+public final class MissingIdCache {
+	private final int maxSize;
+	private final long timeToLiveNanos;
+	private final LongSupplier nanoClock;
+	private final Map<RecordKey, Long> expiryByKey = new ConcurrentHashMap<>();
+	private final Deque<MarkedKey> keysInExpiryOrder = new ArrayDeque<>();
+
+	private record RecordKey(String type, String id) {
+	}
+
+	private record MarkedKey(RecordKey key, long expiry) {
+	}
+
+	public static MissingIdCache usingMaxSizeAndTimeToLive(int maxSize, Duration timeToLive) {
+		return new MissingIdCache(maxSize, timeToLive, System::nanoTime);
+	}
+
+	static MissingIdCache usingMaxSizeAndTimeToLiveAndNanoClock(int maxSize,
+			Duration timeToLive, LongSupplier nanoClock) {
+		return new MissingIdCache(maxSize, timeToLive, nanoClock);
+	}
+
+	private MissingIdCache(int maxSize, Duration timeToLive, LongSupplier nanoClock) {
+		if (maxSize < 0) {
+			throw new IllegalArgumentException("Max size must not be negative, was: " + maxSize);
+		}
+		this.maxSize = maxSize;
+		this.timeToLiveNanos = timeToLive.toNanos();
+		this.nanoClock = nanoClock;
+	}
+
+	/**
+	 * isKnownMissing returns true if the record was recently found to be missing in storage.
+	 * 
+	 * @param type
+	 *            The type of the record
+	 * @param id
+	 *            The id of the record
+	 * @return true if the record is known to be missing, false otherwise
+	 */
+	public boolean isKnownMissing(String type, String id) {
+		if (maxSize == 0) {
+			return false;
+		}
+		RecordKey key = new RecordKey(type, id);
+		Long expiry = expiryByKey.get(key);
+		if (expiry == null) {
+			return false;
+		}
+		if (hasExpired(expiry, nanoClock.getAsLong())) {
+			expiryByKey.remove(key, expiry);
+			return false;
+		}
+		return true;
+	}
+
+	private static boolean hasExpired(long expiry, long now) {
+		return now - expiry >= 0;
+	}
+
+	/**
+	 * markMissing remembers that the record was not found in storage. Expired ids are removed
+	 * first, and if the cache still is full is the oldest id removed to make room for the new one.
+	 * 
+	 * @param type
+	 *            The type of the record
+	 * @param id
+	 *            The id of the record
+	 */
+	public void markMissing(String type, String id) {
+		if (maxSize == 0) {
+			return;
+		}
+		synchronized (keysInExpiryOrder) {
+			long now = nanoClock.getAsLong();
+			removeExpiredOldest(now);
+			removeOldestUntilRoomForOneMore();
+			addKey(new RecordKey(type, id), now + timeToLiveNanos);
+		}
+	}
+
+	private void removeExpiredOldest(long now) {
+		while (!keysInExpiryOrder.isEmpty() && hasExpired(keysInExpiryOrder.peekFirst().expiry,
+				now)) {
+			removeOldest();
+		}
+	}
+
+	private void removeOldestUntilRoomForOneMore() {
+		while (expiryByKey.size() >= maxSize || keysInExpiryOrder.size() >= 2 * maxSize) {
+			removeOldest();
+		}
+	}
+
+	private void removeOldest() {
+		MarkedKey oldest = keysInExpiryOrder.pollFirst();
+		expiryByKey.remove(oldest.key, oldest.expiry);
+	}
+
+	private void addKey(RecordKey key, long expiry) {
+		expiryByKey.put(key, expiry);
+		keysInExpiryOrder.addLast(new MarkedKey(key, expiry));
+	}
+
+	/**
+	 * recordCreated forgets that the record was missing, it must be called when a record is
+	 * created so that the new record is found by the next lookup.
+	 * 
+	 * @param type
+	 *            The type of the created record
+	 * @param id
+	 *            The id of the created record
+	 */
+	public void recordCreated(String type, String id) {
+		expiryByKey.remove(new RecordKey(type, id));
+	}
+
+	public int size() {
+		return expiryByKey.size();
+	}
+
+	public int onlyForTestGetMaxSize() {
+		return maxSize;
+	}
+
+	int onlyForTestGetNumberOfKeysInExpiryOrder() {
+		synchronized (keysInExpiryOrder) {
+			return keysInExpiryOrder.size();
+		}
+	}
+}
@@ -0,0 +1,253 @@
+/*
+ * Copyright 2026 Uppsala University Library
+ *
+ * This file is part of Cora.
+ *
+ *     Cora is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     Cora is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with Cora.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package se.uu.ub.cora.metadatastorage.cache;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Instant;
+import java.util.Optional;
+
+import se.uu.ub.cora.bookkeeper.storage.MetadataStorageViewException;
+import se.uu.ub.cora.logger.LoggerProvider;
+import se.uu.ub.cora.metadatastorage.converter.datatotextelement.DataToTextElementConverterFactory;
+
+/**
+ * SnapshotFile stores a fully converted {@link MetadataSnapshot} in a binary file on local disk,
+ * so that a node can start serving metadata from the file without reading all metadata records
+ * from storage first.
+ * <p>
+ * The file starts with a header holding a magic number, the format version, the time the
+ * snapshot was loaded from storage, the length of the payload and a SHA-256 hash of the payload.
+ * When the file is read is it read into memory in one read and the header and hash are validated
+ * before the payload is decoded, a file that is missing, written in another format version or has
+ * a payload that does not match its hash is not used. The whole payload is decoded when the file
+ * is read, so the file is not memory mapped, as a mapping would not be used after the read.
+ * <p>
+ * Metadata elements are stored as their record data and are converted when requested, as in a
+ * snapshot read from storage. Collect terms, validation types and record types are stored
+ * converted, and so are the text elements that were converted when the file was written.
+ * <p>
+ * The load time is not part of the hashed payload, so that a snapshot with unchanged content only
+ * updates the load time in the header of the existing file.
+ */
+public final class SnapshotFile {
+	static final int MAGIC = 0x434D5346;
+	static final int FORMAT_VERSION = 4;
+	static final int HEADER_SIZE = 56;
+	private static final int LOADED_AT_POSITION = 8;
+	private static final int HASH_SIZE = 32;
+
+	private final Path path;
+	private final DataToTextElementConverterFactory textConverterFactory;
+	private final int elementCacheSize;
+
+	public static SnapshotFile usingPathAndTextConverterFactoryAndElementCacheSize(Path path,
+			DataToTextElementConverterFactory textConverterFactory, int elementCacheSize) {
+		return new SnapshotFile(path, textConverterFactory, elementCacheSize);
+	}
+
+	private SnapshotFile(Path path, DataToTextElementConverterFactory textConverterFactory,
+			int elementCacheSize) {
+		this.path = path;
+		this.textConverterFactory = textConverterFactory;
+		this.elementCacheSize = elementCacheSize;
+	}
+
+	/**
+	 * read reads the snapshot stored in the file. Problems with the file are logged as warnings,
+	 * and result in an empty Optional, so that the caller can load the snapshot from storage
+	 * instead.
+	 * 
+	 * @param version
+	 *            The version to set in the read snapshot
+	 * @return An Optional with the read StoredSnapshot, or an empty Optional if the file does not
+	 *         exist or could not be used
+	 */
+	public Optional<StoredSnapshot> read(long version) {
+		if (!Files.isRegularFile(path)) {
+			return Optional.empty();
+		}
+		try {
+			return Optional.of(tryToRead(version));
+		} catch (Exception e) {
+			LoggerProvider.getLoggerForClass(SnapshotFile.class).logWarnUsingMessage(
+					"Snapshot file: " + path + ", could not be used. " + e.getMessage());
+			return Optional.empty();
+		}
+	}
+
+	private StoredSnapshot tryToRead(long version) throws IOException {
+		ByteBuffer content = ByteBuffer.wrap(Files.readAllBytes(path));
+		ByteBuffer payload = validateAndGetPayload(content);
+		Instant loadedAt = Instant.ofEpochMilli(content.getLong(LOADED_AT_POSITION));
+		MetadataSnapshot snapshot = SnapshotFileDecoder.decode(payload, version,
+				textConverterFactory, elementCacheSize);
+		return new StoredSnapshot(snapshot, loadedAt);
+	}
+
+	private ByteBuffer validateAndGetPayload(ByteBuffer content) {
+		byte[] storedHash = readAndValidateHeader(content);
+		ByteBuffer payload = content.slice();
+		if (!MessageDigest.isEqual(storedHash, hash(payload.duplicate()))) {
+			throw MetadataStorageViewException
+					.usingMessage("Content hash does not match the stored hash.");
+		}
+		return payload;
+	}
+
+	private byte[] readAndValidateHeader(ByteBuffer content) {
+		if (content.remaining() < HEADER_SIZE || content.getInt() != MAGIC) {
+			throw MetadataStorageViewException.usingMessage("Not a snapshot file.");
+		}
+		int formatVersion = content.getInt();
+		if (formatVersion != FORMAT_VERSION) {
+			throw MetadataStorageViewException.usingMessage("Format version " + formatVersion
+					+ " is not supported, expected " + FORMAT_VERSION + ".");
+		}
+		content.getLong();
+		long payloadLength = content.getLong();
+		byte[] storedHash = readHash(content);
+		if (payloadLength != content.remaining()) {
+			throw MetadataStorageViewException.usingMessage("Payload length " + payloadLength
+					+ " does not match the file, " + content.remaining() + " bytes found.");
+		}
+		return storedHash;
+	}
+
+	/**
+	 * write writes the snapshot to the file, replacing an existing file atomically. If the
+	 * existing file already holds the same content, as decided by comparing content hashes, is
+	 * only the load time in the header of the file updated.
+	 * 
+	 * @param snapshot
+	 *            The MetadataSnapshot to write, only its text elements converted so far are
+	 *            written
+	 * @param loadedAt
+	 *            The time the snapshot was loaded from storage
+	 * @return true if the file was written, false if it already held the same content
+	 * @throws MetadataStorageViewException
+	 *             if the file could not be written
+	 */
+	public boolean write(MetadataSnapshot snapshot, Instant loadedAt) {
+		byte[] payload = SnapshotFileEncoder.encode(snapshot);
+		byte[] contentHash = hash(ByteBuffer.wrap(payload));
+		try {
+			if (fileHasContentHash(contentHash)) {
+				writeLoadedAt(loadedAt);
+				return false;
+			}
+			writeToTemporaryFileAndMove(payload, contentHash, loadedAt);
+			return true;
+		} catch (IOException e) {
+			throw MetadataStorageViewException
+					.usingMessageAndException("Could not write snapshot file: " + path, e);
+		}
+	}
+
+	private boolean fileHasContentHash(byte[] contentHash) throws IOException {
+		if (!Files.isRegularFile(path)) {
+			return false;
+		}
+		try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+			ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+			while (header.hasRemaining() && channel.read(header) != -1) {
+				// read until the header is full or the file ends
+			}
+			header.flip();
+			return headerHasContentHash(header, contentHash);
+		}
+	}
+
+	private static boolean headerHasContentHash(ByteBuffer header, byte[] contentHash) {
+		if (header.remaining() < HEADER_SIZE || header.getInt() != MAGIC
+				|| header.getInt() != FORMAT_VERSION) {
+			return false;
+		}
+		header.getLong();
+		header.getLong();
+		return MessageDigest.isEqual(contentHash, readHash(header));
+	}
+
+	private void writeLoadedAt(Instant loadedAt) throws IOException {
+		try (FileChannel channel = FileChannel.open(path, StandardOpenOption.WRITE)) {
+			ByteBuffer buffer = ByteBuffer.allocate(Long.BYTES).putLong(loadedAt.toEpochMilli());
+			buffer.flip();
+			channel.write(buffer, LOADED_AT_POSITION);
+			channel.force(true);
+		}
+	}
+
+	private static byte[] readHash(ByteBuffer header) {
+		byte[] storedHash = new byte[HASH_SIZE];
+		header.get(storedHash);
+		return storedHash;
+	}
+
+	private void writeToTemporaryFileAndMove(byte[] payload, byte[] contentHash,
+			Instant loadedAt) throws IOException {
+		Path temporaryFile = path.resolveSibling(path.getFileName() + ".tmp");
+		try (FileChannel channel = FileChannel.open(temporaryFile, StandardOpenOption.CREATE,
+				StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+			ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+			header.putInt(MAGIC).putInt(FORMAT_VERSION).putLong(loadedAt.toEpochMilli())
+					.putLong(payload.length).put(contentHash);
+			header.flip();
+			writeFully(channel, header);
+			writeFully(channel, ByteBuffer.wrap(payload));
+			channel.force(true);
+		}
+		Files.move(temporaryFile, path, StandardCopyOption.REPLACE_EXISTING,
+				StandardCopyOption.ATOMIC_MOVE);
+	}
+
+	private static void writeFully(FileChannel channel, ByteBuffer buffer) throws IOException {
+		while (buffer.hasRemaining()) {
+			channel.write(buffer);
+		}
+	}
+
+	private static byte[] hash(ByteBuffer content) {
+		try {
+			MessageDigest digest = MessageDigest.getInstance("SHA-256");
+			digest.update(content);
+			return digest.digest();
+		} catch (NoSuchAlgorithmException e) {
+			throw MetadataStorageViewException.usingMessageAndException(e.getMessage(), e);
+		}
+	}
+
+	public Path onlyForTestGetPath() {
+		return path;
+	}
+
+	public DataToTextElementConverterFactory onlyForTestGetTextConverterFactory() {
+		return textConverterFactory;
+	}
+
+	public int onlyForTestGetElementCacheSize() {
+		return elementCacheSize;
+	}
+}
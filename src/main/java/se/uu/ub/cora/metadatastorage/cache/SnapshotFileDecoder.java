@@ -0,0 +1,281 @@
+/*
+ * Copyright 2026 Uppsala University Library
+ *
+ * This file is part of Cora.
+ *
+ *     Cora is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     Cora is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with Cora.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package se.uu.ub.cora.metadatastorage.cache;
+
+import static se.uu.ub.cora.metadatastorage.cache.SnapshotFileEncoder.ATOMIC;
+import static se.uu.ub.cora.metadatastorage.cache.SnapshotFileEncoder.GROUP;
+import static se.uu.ub.cora.metadatastorage.cache.SnapshotFileEncoder.INDEX_TERM;
+import static se.uu.ub.cora.metadatastorage.cache.SnapshotFileEncoder.RECORD_LINK;
+import static se.uu.ub.cora.metadatastorage.cache.SnapshotFileEncoder.RESOURCE_LINK;
+import static se.uu.ub.cora.metadatastorage.cache.SnapshotFileEncoder.STORAGE_TERM;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import se.uu.ub.cora.bookkeeper.metadata.CollectTerm;
+import se.uu.ub.cora.bookkeeper.metadata.IndexTerm;
+import se.uu.ub.cora.bookkeeper.metadata.PermissionTerm;
+import se.uu.ub.cora.bookkeeper.metadata.StorageTerm;
+import se.uu.ub.cora.bookkeeper.storage.MetadataStorageViewException;
+import se.uu.ub.cora.bookkeeper.text.TextElement;
+import se.uu.ub.cora.bookkeeper.text.TextElementImp;
+import se.uu.ub.cora.bookkeeper.validator.ValidationType;
+import se.uu.ub.cora.data.DataChild;
+import se.uu.ub.cora.data.DataGroup;
+import se.uu.ub.cora.data.DataProvider;
+import se.uu.ub.cora.data.DataRecordGroup;
+import se.uu.ub.cora.data.DataRecordLink;
+import se.uu.ub.cora.metadatastorage.CollectTermHolderImp;
+import se.uu.ub.cora.metadatastorage.converter.datatotextelement.DataToTextElementConverterFactory;
+import se.uu.ub.cora.metadatastorage.converter.datatotextelement.LazyTextElementList;
+import se.uu.ub.cora.metadatastorage.recordtype.RecordType;
+import se.uu.ub.cora.metadatastorage.recordtype.RecordTypeRegistry;
+import se.uu.ub.cora.metadatastorage.validationtype.ValidationTypeRegistry;
+
+/**
+ * SnapshotFileDecoder creates a {@link MetadataSnapshot} from a payload written by
+ * {@link SnapshotFileEncoder}. Data is recreated using {@link DataProvider}, converted collect
+ * terms, validation types, record types and text elements are recreated directly without
+ * conversion.
+ */
+final class SnapshotFileDecoder {
+	private final ByteBuffer payload;
+	private String[] strings;
+
+	static MetadataSnapshot decode(ByteBuffer payload, long version,
+			DataToTextElementConverterFactory textConverterFactory, int elementCacheSize) {
+		SnapshotFileDecoder decoder = new SnapshotFileDecoder(payload);
+		return decoder.readSnapshot(version, textConverterFactory, elementCacheSize);
+	}
+
+	private SnapshotFileDecoder(ByteBuffer payload) {
+		this.payload = payload;
+	}
+
+	private MetadataSnapshot readSnapshot(long version,
+			DataToTextElementConverterFactory textConverterFactory, int elementCacheSize) {
+		readStringTable();
+		List<DataRecordGroup> metadataElements = readRecordGroups();
+		IndexedDataGroupList presentationElements = readIndexedDataGroups();
+		IndexedDataGroupList texts = readIndexedDataGroups();
+		IndexedDataGroupList recordTypes = readIndexedDataGroups();
+		IndexedDataGroupList collectTermsAsDataGroup = readIndexedDataGroups();
+		List<CollectTerm> collectTerms = readCollectTerms();
+		Map<String, ValidationType> validationTypesById = readValidationTypes();
+		Map<String, RecordType> recordTypesById = readRecordTypes();
+		Map<String, TextElement> textElementsById = readTextElements();
+		LazyTextElementList textElements = LazyTextElementList
+				.usingTextRecordGroupsAndConvertedElements(toRecordGroups(texts),
+						textElementsById, textConverterFactory);
+		return new MetadataSnapshot(version, metadataElements, indexById(metadataElements),
+				presentationElements, texts, textElements, recordTypes,
+				RecordTypeRegistry.usingRecordTypesById(recordTypesById), collectTermsAsDataGroup,
+				CollectTermHolderImp.usingCollectTerms(collectTerms),
+				ValidationTypeRegistry.usingValidationTypesById(validationTypesById),
+				ConvertedElementCache.usingMaxSize(elementCacheSize));
+	}
+
+	private void readStringTable() {
+		int numberOfStrings = readNumber();
+		strings = new String[numberOfStrings + 1];
+		for (int i = 1; i <= numberOfStrings; i++) {
+			byte[] bytes = new byte[readNumber()];
+			payload.get(bytes);
+			strings[i] = new String(bytes, StandardCharsets.UTF_8);
+		}
+	}
+
+	private List<DataRecordGroup> readRecordGroups() {
+		return toRecordGroups(readDataGroups());
+	}
+
+	private static List<DataRecordGroup> toRecordGroups(List<DataGroup> dataGroups) {
+		List<DataRecordGroup> recordGroups = new ArrayList<>(dataGroups.size());
+		for (DataGroup dataGroup : dataGroups) {
+			recordGroups.add(DataProvider.createRecordGroupFromDataGroup(dataGroup));
+		}
+		return recordGroups;
+	}
+
+	private static Map<String, DataRecordGroup> indexById(List<DataRecordGroup> recordGroups) {
+		Map<String, DataRecordGroup> byId = new HashMap<>(recordGroups.size());
+		for (DataRecordGroup recordGroup : recordGroups) {
+			byId.put(recordGroup.getId(), recordGroup);
+		}
+		return byId;
+	}
+
+	private IndexedDataGroupList readIndexedDataGroups() {
+		return IndexedDataGroupList.copyOf(readDataGroups());
+	}
+
+	private List<DataGroup> readDataGroups() {
+		int numberOfGroups = readNumber();
+		List<DataGroup> dataGroups = new ArrayList<>(numberOfGroups);
+		for (int i = 0; i < numberOfGroups; i++) {
+			dataGroups.add((DataGroup) readChild());
+		}
+		return dataGroups;
+	}
+
+	private DataChild readChild() {
+		int childType = payload.get();
+		String nameInData = readString();
+		String repeatId = readString();
+		Map<String, String> attributes = readAttributes();
+		DataChild child = createChild(childType, nameInData);
+		if (repeatId != null) {
+			child.setRepeatId(repeatId);
+		}
+		attributes.forEach(child::addAttributeByIdWithValue);
+		return child;
+	}
+
+	private DataChild createChild(int childType, String nameInData) {
+		if (childType == GROUP) {
+			DataGroup group = DataProvider.createGroupUsingNameInData(nameInData);
+			int numberOfChildren = readNumber();
+			for (int i = 0; i < numberOfChildren; i++) {
+				group.addChild(readChild());
+			}
+			return group;
+		}
+		if (childType == ATOMIC) {
+			return DataProvider.createAtomicUsingNameInDataAndValue(nameInData, readString());
+		}
+		if (childType == RECORD_LINK) {
+			return readRecordLink(nameInData);
+		}
+		if (childType == RESOURCE_LINK) {
+			return DataProvider.createResourceLinkUsingNameInDataAndTypeAndIdAndMimeType(
+					nameInData, readString(), readString(), readString());
+		}
+		throw MetadataStorageViewException.usingMessage("Unknown data type: " + childType);
+	}
+
+	private DataRecordLink readRecordLink(String nameInData) {
+		String linkedRecordType = readString();
+		String linkedRecordId = readString();
+		DataRecordLink recordLink = DataProvider.createRecordLinkUsingNameInDataAndTypeAndId(
+				nameInData, linkedRecordType, linkedRecordId);
+		int numberOfChildren = readNumber();
+		for (int i = 0; i < numberOfChildren; i++) {
+			addChildToLink(recordLink, readChild());
+		}
+		return recordLink;
+	}
+
+	private static void addChildToLink(DataRecordLink recordLink, DataChild child) {
+		if (!(recordLink instanceof DataGroup linkAsGroup)) {
+			throw MetadataStorageViewException.usingMessage("Record link: "
+					+ recordLink.getNameInData() + ", can not hold child: "
+					+ child.getNameInData() + ".");
+		}
+		linkAsGroup.addChild(child);
+	}
+
+	private Map<String, String> readAttributes() {
+		int numberOfAttributes = readNumber();
+		Map<String, String> attributes = new LinkedHashMap<>(numberOfAttributes);
+		for (int i = 0; i < numberOfAttributes; i++) {
+			attributes.put(readString(), readString());
+		}
+		return attributes;
+	}
+
+	private List<CollectTerm> readCollectTerms() {
+		int numberOfTerms = readNumber();
+		List<CollectTerm> collectTerms = new ArrayList<>(numberOfTerms);
+		for (int i = 0; i < numberOfTerms; i++) {
+			collectTerms.add(readCollectTerm());
+		}
+		return collectTerms;
+	}
+
+	private CollectTerm readCollectTerm() {
+		int termType = payload.get();
+		String id = readString();
+		if (termType == STORAGE_TERM) {
+			return StorageTerm.usingIdAndStorageKey(id, readString());
+		}
+		if (termType == INDEX_TERM) {
+			return IndexTerm.usingIdAndNameInDataAndIndexFieldNameAndIndexType(id, readString(),
+					readString(), readString());
+		}
+		return PermissionTerm.usingIdAndNameInDataAndPermissionKeyAndMode(id, readString(),
+				readString(), PermissionTerm.Mode.valueOf(readString()));
+	}
+
+	private Map<String, ValidationType> readValidationTypes() {
+		int numberOfValidationTypes = readNumber();
+		Map<String, ValidationType> validationTypesById = new LinkedHashMap<>(
+				numberOfValidationTypes);
+		for (int i = 0; i < numberOfValidationTypes; i++) {
+			validationTypesById.put(readString(),
+					new ValidationType(readString(), readString(), readString()));
+		}
+		return validationTypesById;
+	}
+
+	private Map<String, RecordType> readRecordTypes() {
+		int numberOfRecordTypes = readNumber();
+		Map<String, RecordType> recordTypesById = new LinkedHashMap<>(numberOfRecordTypes);
+		for (int i = 0; i < numberOfRecordTypes; i++) {
+			RecordType recordType = new RecordType(readString(), readString(), readNumber() == 1,
+					readString());
+			recordTypesById.put(recordType.id(), recordType);
+		}
+		return recordTypesById;
+	}
+
+	private Map<String, TextElement> readTextElements() {
+		int numberOfTextElements = readNumber();
+		Map<String, TextElement> textElementsById = new HashMap<>(numberOfTextElements);
+		for (int i = 0; i < numberOfTextElements; i++) {
+			TextElement textElement = TextElementImp.withId(readString());
+			int numberOfTranslations = readNumber();
+			for (int j = 0; j < numberOfTranslations; j++) {
+				textElement.addTranslation(readString(), readString());
+			}
+			textElementsById.put(textElement.getId(), textElement);
+		}
+		return textElementsById;
+	}
+
+	private String readString() {
+		return strings[readNumber()];
+	}
+
+	private int readNumber() {
+		long number = 0;
+		int shift = 0;
+		byte current;
+		do {
+			current = payload.get();
+			number |= (long) (current & 0x7F) << shift;
+			shift += 7;
+		} while ((current & 0x80) != 0);
+		return Math.toIntExact(number);
+	}
+}
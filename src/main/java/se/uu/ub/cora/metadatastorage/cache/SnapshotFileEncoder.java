@@ -0,0 +1,272 @@
+/*
+ * Copyright 2026 Uppsala University Library
+ *
+ * This file is part of Cora.
+ *
+ *     Cora is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     Cora is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with Cora.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package se.uu.ub.cora.metadatastorage.cache;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Set;
+
+import se.uu.ub.cora.bookkeeper.metadata.CollectTerm;
+import se.uu.ub.cora.bookkeeper.metadata.IndexTerm;
+import se.uu.ub.cora.bookkeeper.metadata.PermissionTerm;
+import se.uu.ub.cora.bookkeeper.metadata.StorageTerm;
+import se.uu.ub.cora.bookkeeper.storage.MetadataStorageViewException;
+import se.uu.ub.cora.bookkeeper.text.TextElement;
+import se.uu.ub.cora.bookkeeper.text.Translation;
+import se.uu.ub.cora.bookkeeper.validator.ValidationType;
+import se.uu.ub.cora.data.DataAtomic;
+import se.uu.ub.cora.data.DataAttribute;
+import se.uu.ub.cora.data.DataChild;
+import se.uu.ub.cora.data.DataGroup;
+import se.uu.ub.cora.data.DataParent;
+import se.uu.ub.cora.data.DataProvider;
+import se.uu.ub.cora.data.DataRecordGroup;
+import se.uu.ub.cora.data.DataRecordLink;
+import se.uu.ub.cora.data.DataResourceLink;
+import se.uu.ub.cora.metadatastorage.CollectTermHolderImp;
+import se.uu.ub.cora.metadatastorage.recordtype.RecordType;
+
+/**
+ * SnapshotFileEncoder writes the content of a {@link MetadataSnapshot} in the binary format read
+ * by {@link SnapshotFileDecoder}. Every distinct string is written once to a string table first in
+ * the payload, and is then referred to by its position in the table.
+ * <p>
+ * The payload is, in order, the string table, the metadata, presentation, text, recordType and
+ * collectTerm records as data, the converted collect terms, the validation types, the parsed record
+ * types and the text elements converted so far. Text elements that are not converted yet are not
+ * converted for the file, they are converted from the stored text records when first used after
+ * the file is read. Numbers are written as variable length unsigned integers.
+ * <p>
+ * Record data is written as groups, atomics, record links and resource links, the child types of
+ * the data API. A record link is written with its linked type and id, followed by the children of
+ * the link other than linkedRecordType and linkedRecordId, such as linkedPath, when the link is a
+ * {@link DataParent}. A resource link is written with its type, id and mime type.
+ */
+final class SnapshotFileEncoder {
+	static final int GROUP = 1;
+	static final int ATOMIC = 2;
+	static final int RECORD_LINK = 3;
+	static final int RESOURCE_LINK = 4;
+	static final int STORAGE_TERM = 1;
+	static final int INDEX_TERM = 2;
+	static final int PERMISSION_TERM = 3;
+
+	private static final Set<String> LINK_TYPE_AND_ID = Set.of("linkedRecordType",
+			"linkedRecordId");
+
+	private final Map<String, Integer> stringPositions = new LinkedHashMap<>();
+	private final ByteArrayOutputStream body = new ByteArrayOutputStream();
+
+	static byte[] encode(MetadataSnapshot snapshot) {
+		SnapshotFileEncoder encoder = new SnapshotFileEncoder();
+		encoder.writeSnapshot(snapshot);
+		return encoder.toByteArray();
+	}
+
+	private SnapshotFileEncoder() {
+	}
+
+	private void writeSnapshot(MetadataSnapshot snapshot) {
+		writeRecordGroups(snapshot.metadataElements());
+		writeDataGroups(snapshot.presentationElements());
+		writeDataGroups(snapshot.texts());
+		writeDataGroups(snapshot.recordTypes());
+		writeDataGroups(snapshot.collectTermsAsDataGroup());
+		writeCollectTerms(snapshot.collectTermHolder());
+		writeValidationTypes(snapshot.validationTypeRegistry().getValidationTypesById());
+		writeRecordTypes(snapshot.recordTypeRegistry().getRecordTypes());
+		writeTextElements(snapshot.textElements().getConvertedElements());
+	}
+
+	private void writeRecordGroups(List<DataRecordGroup> recordGroups) {
+		writeNumber(body, recordGroups.size());
+		for (DataRecordGroup recordGroup : recordGroups) {
+			writeChild(DataProvider.createGroupFromRecordGroup(recordGroup));
+		}
+	}
+
+	private void writeDataGroups(List<DataGroup> dataGroups) {
+		writeNumber(body, dataGroups.size());
+		for (DataGroup dataGroup : dataGroups) {
+			writeChild(dataGroup);
+		}
+	}
+
+	private void writeChild(DataChild child) {
+		if (child instanceof DataRecordLink recordLink) {
+			writeChildStart(RECORD_LINK, child);
+			writeString(recordLink.getLinkedRecordType());
+			writeString(recordLink.getLinkedRecordId());
+			writeChildren(getLinkChildrenOtherThanTypeAndId(recordLink));
+		} else if (child instanceof DataResourceLink resourceLink) {
+			writeChildStart(RESOURCE_LINK, child);
+			writeString(resourceLink.getType());
+			writeString(resourceLink.getId());
+			writeString(resourceLink.getMimeType());
+		} else if (child instanceof DataAtomic atomic) {
+			writeChildStart(ATOMIC, child);
+			writeString(atomic.getValue());
+		} else if (child instanceof DataGroup group) {
+			writeChildStart(GROUP, child);
+			writeChildren(group.getChildren());
+		} else {
+			throw MetadataStorageViewException.usingMessage("Data of type "
+					+ child.getClass().getSimpleName() + " can not be written to a snapshot file.");
+		}
+	}
+
+	private static List<DataChild> getLinkChildrenOtherThanTypeAndId(DataRecordLink recordLink) {
+		if (!(recordLink instanceof DataParent linkAsParent)) {
+			return Collections.emptyList();
+		}
+		List<DataChild> children = new ArrayList<>();
+		for (DataChild child : linkAsParent.getChildren()) {
+			if (!LINK_TYPE_AND_ID.contains(child.getNameInData())) {
+				children.add(child);
+			}
+		}
+		return children;
+	}
+
+	private void writeChildStart(int childType, DataChild child) {
+		body.write(childType);
+		writeString(child.getNameInData());
+		writeString(child.getRepeatId());
+		writeAttributes(child);
+	}
+
+	private void writeAttributes(DataChild child) {
+		if (!child.hasAttributes()) {
+			writeNumber(body, 0);
+			return;
+		}
+		Collection<DataAttribute> attributes = child.getAttributes();
+		writeNumber(body, attributes.size());
+		for (DataAttribute attribute : attributes) {
+			writeString(attribute.getNameInData());
+			writeString(attribute.getValue());
+		}
+	}
+
+	private void writeChildren(List<DataChild> children) {
+		writeNumber(body, children.size());
+		for (DataChild child : children) {
+			writeChild(child);
+		}
+	}
+
+	private void writeCollectTerms(CollectTermHolderImp collectTermHolder) {
+		List<StorageTerm> storageTerms = collectTermHolder.getStorageTerms();
+		List<IndexTerm> indexTerms = collectTermHolder.getIndexTerms();
+		List<PermissionTerm> permissionTerms = collectTermHolder.getPermissionTerms();
+		writeNumber(body, storageTerms.size() + indexTerms.size() + permissionTerms.size());
+		for (StorageTerm storageTerm : storageTerms) {
+			writeCollectTermStart(STORAGE_TERM, storageTerm);
+			writeString(storageTerm.storageKey);
+		}
+		for (IndexTerm indexTerm : indexTerms) {
+			writeCollectTermStart(INDEX_TERM, indexTerm);
+			writeString(indexTerm.nameInData);
+			writeString(indexTerm.indexFieldName);
+			writeString(indexTerm.indexType);
+		}
+		for (PermissionTerm permissionTerm : permissionTerms) {
+			writeCollectTermStart(PERMISSION_TERM, permissionTerm);
+			writeString(permissionTerm.nameInData);
+			writeString(permissionTerm.permissionKey);
+			writeString(permissionTerm.mode.name());
+		}
+	}
+
+	private void writeCollectTermStart(int termType, CollectTerm collectTerm) {
+		body.write(termType);
+		writeString(collectTerm.id);
+	}
+
+	private void writeValidationTypes(Map<String, ValidationType> validationTypesById) {
+		writeNumber(body, validationTypesById.size());
+		for (Entry<String, ValidationType> entry : validationTypesById.entrySet()) {
+			ValidationType validationType = entry.getValue();
+			writeString(entry.getKey());
+			writeString(validationType.validatesRecordType());
+			writeString(validationType.createDefinitionId());
+			writeString(validationType.updateDefinitionId());
+		}
+	}
+
+	private void writeRecordTypes(List<RecordType> recordTypes) {
+		writeNumber(body, recordTypes.size());
+		for (RecordType recordType : recordTypes) {
+			writeString(recordType.id());
+			writeString(recordType.metadataId());
+			writeNumber(body, recordType.publicRecordType() ? 1 : 0);
+			writeString(recordType.parentId());
+		}
+	}
+
+	private void writeTextElements(List<TextElement> textElements) {
+		writeNumber(body, textElements.size());
+		for (TextElement textElement : textElements) {
+			writeString(textElement.getId());
+			writeNumber(body, textElement.getTranslations().size());
+			for (Translation translation : textElement.getTranslations()) {
+				writeString(translation.language());
+				writeString(translation.text());
+			}
+		}
+	}
+
+	private void writeString(String value) {
+		if (value == null) {
+			writeNumber(body, 0);
+			return;
+		}
+		Integer position = stringPositions.computeIfAbsent(value,
+				key -> stringPositions.size() + 1);
+		writeNumber(body, position);
+	}
+
+	private static void writeNumber(ByteArrayOutputStream out, long number) {
+		long remaining = number;
+		while ((remaining & ~0x7FL) != 0) {
+			out.write((int) ((remaining & 0x7F) | 0x80));
+			remaining >>>= 7;
+		}
+		out.write((int) remaining);
+	}
+
+	private byte[] toByteArray() {
+		ByteArrayOutputStream payload = new ByteArrayOutputStream(body.size() * 2);
+		writeNumber(payload, stringPositions.size());
+		for (String value : stringPositions.keySet()) {
+			byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+			writeNumber(payload, bytes.length);
+			payload.writeBytes(bytes);
+		}
+		payload.writeBytes(body.toByteArray());
+		return payload.toByteArray();
+	}
+}
@@ -0,0 +1,174 @@
+/*
+ * Copyright 2026 Uppsala University Library
+ *
+ * This file is part of Cora.
+ *
+ *     Cora is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     Cora is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with Cora.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package se.uu.ub.cora.metadatastorage.cache;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+
+import se.uu.ub.cora.logger.Logger;
+import se.uu.ub.cora.logger.LoggerProvider;
+
+/**
+ * SnapshotRefresher keeps a {@link CachedMetadataStorageView} fresh by loading a new snapshot from
+ * storage at a fixed interval on a background thread. Each new snapshot is swapped in atomically
+ * by the view, so request threads never wait for a reload. If a reload fails is the previous
+ * snapshot kept, the failure logged and a new attempt made at the next interval.
+ * <p>
+ * The staleness of the view is the time since its current snapshot started to load from storage,
+ * as reported by {@link CachedMetadataStorageView#getSnapshotLoadedAt()}. A view started from a
+ * snapshot file is as stale as the snapshot in the file. As long as reloads succeed is the
+ * staleness at most the interval plus the time one reload takes.
+ * <p>
+ * The staleness is not bounded by the refresher. Reads are never blocked or failed, so while
+ * reloads fail are callers served from the last loaded snapshot, however old it is. The staleness
+ * alarm set for the refresher is the age at which the snapshot is considered too old, callers and
+ * monitoring can check it using {@link #isStalenessAlarmRaised()}. Failed reloads are logged as
+ * warnings until the alarm is raised and as errors after that.
+ */
+public final class SnapshotRefresher {
+	private final CachedMetadataStorageView view;
+	private final Duration interval;
+	private final Duration stalenessAlarm;
+	private final LongSupplier millisClock;
+	private ScheduledExecutorService scheduler;
+
+	public static SnapshotRefresher usingViewAndIntervalAndStalenessAlarm(
+			CachedMetadataStorageView view, Duration interval, Duration stalenessAlarm) {
+		return new SnapshotRefresher(view, interval, stalenessAlarm, System::currentTimeMillis);
+	}
+
+	static SnapshotRefresher usingViewAndIntervalAndStalenessAlarmAndMillisClock(
+			CachedMetadataStorageView view, Duration interval, Duration stalenessAlarm,
+			LongSupplier millisClock) {
+		return new SnapshotRefresher(view, interval, stalenessAlarm, millisClock);
+	}
+
+	private SnapshotRefresher(CachedMetadataStorageView view, Duration interval,
+			Duration stalenessAlarm, LongSupplier millisClock) {
+		if (interval.isNegative() || interval.isZero()) {
+			throw new IllegalArgumentException("Interval must be positive, was: " + interval);
+		}
+		if (stalenessAlarm.compareTo(interval) < 0) {
+			throw new IllegalArgumentException("Staleness alarm must not be shorter than the "
+					+ "interval, was: " + stalenessAlarm + " with interval: " + interval);
+		}
+		this.view = view;
+		this.interval = interval;
+		this.stalenessAlarm = stalenessAlarm;
+		this.millisClock = millisClock;
+	}
+
+	/**
+	 * start schedules the periodic reloads on a daemon thread, the first reload is made one
+	 * interval after start. Calling start on a started refresher has no effect.
+	 */
+	public synchronized void start() {
+		if (scheduler != null) {
+			return;
+		}
+		scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+			Thread thread = new Thread(runnable, "metadataSnapshotRefresher");
+			thread.setDaemon(true);
+			return thread;
+		});
+		long intervalNanos = interval.toNanos();
+		scheduler.scheduleWithFixedDelay(this::refresh, intervalNanos, intervalNanos,
+				TimeUnit.NANOSECONDS);
+	}
+
+	/**
+	 * stop cancels the periodic reloads. A reload in progress is interrupted. The refresher can
+	 * be started again after it is stopped.
+	 */
+	public synchronized void stop() {
+		if (scheduler != null) {
+			scheduler.shutdownNow();
+			scheduler = null;
+		}
+	}
+
+	/**
+	 * refresh reloads the snapshot of the view from storage once, it is called by the scheduled
+	 * task and can also be called directly. Failures are logged and never thrown, so that one
+	 * failed reload does not stop the periodic reloads.
+	 */
+	public void refresh() {
+		try {
+			view.invalidate();
+		} catch (Exception e) {
+			logFailedRefresh(e);
+		}
+	}
+
+	private void logFailedRefresh(Exception e) {
+		Logger logger = LoggerProvider.getLoggerForClass(SnapshotRefresher.class);
+		String message = "Could not refresh metadata snapshot, the previous snapshot is kept.";
+		if (isStalenessAlarmRaised()) {
+			logger.logErrorUsingMessageAndException(message + " The snapshot is older than "
+					+ "the staleness alarm of " + stalenessAlarm + ".", e);
+		} else {
+			logger.logWarnUsingMessageAndException(message, e);
+		}
+	}
+
+	/**
+	 * getStaleness returns the time since the current snapshot of the view started to load from
+	 * storage. A view that has not loaded a snapshot yet loads one on its next call and is not
+	 * stale.
+	 * 
+	 * @return The staleness of the view as a Duration
+	 */
+	public Duration getStaleness() {
+		return view.getSnapshotLoadedAt().map(this::getTimeSince).orElse(Duration.ZERO);
+	}
+
+	private Duration getTimeSince(Instant loadedAt) {
+		return Duration.ofMillis(millisClock.getAsLong() - loadedAt.toEpochMilli());
+	}
+
+	/**
+	 * isStalenessAlarmRaised returns true if the staleness of the view is longer than the
+	 * staleness alarm set for the refresher.
+	 * 
+	 * @return true if the snapshot of the view is older than the alarm, false otherwise
+	 */
+	public boolean isStalenessAlarmRaised() {
+		return getStaleness().compareTo(stalenessAlarm) > 0;
+	}
+
+	public Duration getStalenessAlarm() {
+		return stalenessAlarm;
+	}
+
+	public Duration onlyForTestGetInterval() {
+		return interval;
+	}
+
+	public CachedMetadataStorageView onlyForTestGetView() {
+		return view;
+	}
+
+	public synchronized boolean onlyForTestIsStarted() {
+		return scheduler != null;
+	}
+}
@@ -0,0 +1,33 @@
+/*
+ * Copyright 2026 Uppsala University Library
+ *
+ * This file is part of Cora.
+ *
+ *     Cora is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     Cora is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with Cora.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package se.uu.ub.cora.metadatastorage.cache;
+
+import java.time.Instant;
+
+/**
+ * StoredSnapshot is a {@link MetadataSnapshot} read from a {@link SnapshotFile}, together with the
+ * time the content of the snapshot was loaded from storage.
+ * 
+ * @param snapshot
+ *            The MetadataSnapshot read from the file
+ * @param loadedAt
+ *            The time the snapshot was loaded from storage, before it was written to the file
+ */
+public record StoredSnapshot(MetadataSnapshot snapshot, Instant loadedAt) {
+}
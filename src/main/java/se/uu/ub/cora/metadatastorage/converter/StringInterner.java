@@ -0,0 +1,61 @@
+/*
+ * Copyright 2026 Uppsala University Library
+ *
+ * This file is part of Cora.
+ *
+ *     Cora is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     Cora is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with Cora.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package se.uu.ub.cora.metadatastorage.converter;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * StringInterner is a pool of canonical strings used when data is converted, so that values
+ * repeated across many records, such as nameInData, index types and linked record types, are kept
+ * as one shared String instance instead of one instance per converted record.
+ * <p>
+ * The pool is thread safe and can be shared between converters running in parallel. Only values
+ * that are expected to repeat should be interned, as the pool keeps every interned value for as
+ * long as the pool itself is used. A pool should therefore only be used for one load of records
+ * and then be dropped, so that values of changed or deleted records are not kept.
+ */
+public final class StringInterner {
+	private final ConcurrentMap<String, String> pool = new ConcurrentHashMap<>();
+
+	/**
+	 * intern returns the canonical instance of the specified value, the first instance interned
+	 * with an equal value.
+	 * 
+	 * @param value
+	 *            The String to intern, may be null
+	 * @return The canonical String equal to the value, or null if the value is null
+	 */
+	public String intern(String value) {
+		if (value == null) {
+			return null;
+		}
+		String canonical = pool.putIfAbsent(value, value);
+		return canonical == null ? value : canonical;
+	}
+
+	/**
+	 * size returns the number of distinct values in the pool.
+	 * 
+	 * @return The number of interned values
+	 */
+	public int size() {
+		return pool.size();
+	}
+}
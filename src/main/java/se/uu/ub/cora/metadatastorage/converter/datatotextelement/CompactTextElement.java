@@ -0,0 +1,101 @@
+/*
+ * Copyright 2026 Uppsala University Library
+ *
+ * This file is part of Cora.
+ *
+ *     Cora is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     Cora is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with Cora.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package se.uu.ub.cora.metadatastorage.converter.datatotextelement;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+import se.uu.ub.cora.bookkeeper.text.TextElement;
+import se.uu.ub.cora.bookkeeper.text.Translation;
+
+/**
+ * CompactTextElement is a {@link TextElement} that keeps its translations in two primitive arrays
+ * and one packed String instead of in a set of {@link Translation} objects.
+ * <p>
+ * The languages are held as indexes into the {@link LanguageDictionary} of the converter that
+ * created the element, and the texts of all translations are concatenated into one String, where
+ * the end of the text of each translation is kept in textEnds. Translations keep the order they
+ * were entered in.
+ * <p>
+ * Adding a translation replaces the arrays and the packed String with extended copies. As with
+ * TextElementImp is the element not thread safe while translations are added, elements shared
+ * through a snapshot must be treated as read only.
+ */
+final class CompactTextElement implements TextElement {
+	private final String id;
+	private final LanguageDictionary languageDictionary;
+	private short[] languageIndexes;
+	private int[] textEnds;
+	private String packedTexts;
+
+	CompactTextElement(String id, LanguageDictionary languageDictionary, short[] languageIndexes,
+			int[] textEnds, String packedTexts) {
+		this.id = id;
+		this.languageDictionary = languageDictionary;
+		this.languageIndexes = languageIndexes;
+		this.textEnds = textEnds;
+		this.packedTexts = packedTexts;
+	}
+
+	@Override
+	public String getId() {
+		return id;
+	}
+
+	@Override
+	public Set<Translation> getTranslations() {
+		Set<Translation> translations = new LinkedHashSet<>(languageIndexes.length * 2);
+		for (int i = 0; i < languageIndexes.length; i++) {
+			translations.add(new Translation(languageDictionary.languageAt(languageIndexes[i]),
+					readText(i)));
+		}
+		return Collections.unmodifiableSet(translations);
+	}
+
+	@Override
+	public String getTranslationByLanguage(String language) {
+		int languageIndex = languageDictionary.findIndexOf(language);
+		for (int i = 0; i < languageIndexes.length; i++) {
+			if (languageIndexes[i] == languageIndex) {
+				return readText(i);
+			}
+		}
+		return null;
+	}
+
+	private String readText(int translation) {
+		int start = translation == 0 ? 0 : textEnds[translation - 1];
+		return packedTexts.substring(start, textEnds[translation]);
+	}
+
+	@Override
+	public void addTranslation(String language, String text) {
+		int numberOfTranslations = languageIndexes.length;
+		short[] extendedLanguageIndexes = Arrays.copyOf(languageIndexes, numberOfTranslations + 1);
+		extendedLanguageIndexes[numberOfTranslations] = languageDictionary.indexOf(language);
+		String extendedPackedTexts = packedTexts + text;
+		int[] extendedTextEnds = Arrays.copyOf(textEnds, numberOfTranslations + 1);
+		extendedTextEnds[numberOfTranslations] = extendedPackedTexts.length();
+		languageIndexes = extendedLanguageIndexes;
+		textEnds = extendedTextEnds;
+		packedTexts = extendedPackedTexts;
+	}
+}
@@ -21,13 +21,41 @@
 package se.uu.ub.cora.metadatastorage.converter.datatotextelement;
 
 import se.uu.ub.cora.bookkeeper.text.TextElement;
+import se.uu.ub.cora.data.DataRecordGroup;
 
+/**
+ * DataToTextElementConverter converts text records to TextElements. Implementations must be
+ * thread safe, so that one instance can convert all texts of a snapshot.
+ * <p>
+ * Up to version 1.14 was a converter created for one text record, and converted it through
+ * {@link #convert()}. Implementations written for that version must implement
+ * {@link #convert(DataRecordGroup)} instead.
+ */
 public interface DataToTextElementConverter {
 
 	/**
 	 * convert converts from data to a TextElement
 	 * 
+	 * @param dataRecordGroup
+	 *            The text record to convert
+	 * @return A TextElement with the converted data
+	 */
+	TextElement convert(DataRecordGroup dataRecordGroup);
+
+	/**
+	 * convert converts the text record the converter was created for, and is only supported by
+	 * converters returned from the deprecated
+	 * {@link DataToTextElementConverterFactory#factor(DataRecordGroup)}.
+	 * 
 	 * @return A TextElement with the converted data
+	 * @deprecated Get a converter from {@link DataToTextElementConverterFactory#factor()} and use
+	 *             {@link #convert(DataRecordGroup)}. This method will be removed in the next
+	 *             release.
 	 */
-	TextElement convert();
+	@Deprecated(since = "1.15", forRemoval = true)
+	default TextElement convert() {
+		throw new UnsupportedOperationException(
+				"convert without a text record is only supported by converters created for one "
+						+ "text record, use convert(DataRecordGroup) instead.");
+	}
 }
@@ -22,6 +22,30 @@ import se.uu.ub.cora.data.DataRecordGroup;
 
 public interface DataToTextElementConverterFactory {
 
-	DataToTextElementConverter factor(DataRecordGroup dataRecordGroup);
+	/**
+	 * factor returns a new converter to convert text records with. Texts converted by one
+	 * converter share its language dictionary, so one converter is meant to convert all texts of
+	 * a snapshot, or of one batch read, and is released with them.
+	 * 
+	 * @return A DataToTextElementConverter
+	 */
+	DataToTextElementConverter factor();
 
+	/**
+	 * factor returns a converter created for the specified text record, that converts it when
+	 * {@link DataToTextElementConverter#convert()} is called. The conversion is done by a
+	 * converter from {@link #factor()}.
+	 * 
+	 * @param dataRecordGroup
+	 *            The text record to convert
+	 * @return A DataToTextElementConverter for the text record
+	 * @deprecated Use {@link #factor()} and pass the text record to
+	 *             {@link DataToTextElementConverter#convert(DataRecordGroup)}, so that one
+	 *             converter can convert many texts. This method will be removed in the next
+	 *             release.
+	 */
+	@Deprecated(since = "1.15", forRemoval = true)
+	default DataToTextElementConverter factor(DataRecordGroup dataRecordGroup) {
+		return new RecordBoundTextElementConverter(factor(), dataRecordGroup);
+	}
 }
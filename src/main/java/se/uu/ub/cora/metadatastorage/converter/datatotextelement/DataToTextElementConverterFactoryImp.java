@@ -18,12 +18,10 @@
  */
 package se.uu.ub.cora.metadatastorage.converter.datatotextelement;
 
-import se.uu.ub.cora.data.DataRecordGroup;
-
 public class DataToTextElementConverterFactoryImp implements DataToTextElementConverterFactory {
 
 	@Override
-	public DataToTextElementConverter factor(DataRecordGroup dataRecordGroup) {
-		return new DataToTextElementConverterImp(dataRecordGroup);
+	public DataToTextElementConverter factor() {
+		return new DataToTextElementConverterImp();
 	}
 }
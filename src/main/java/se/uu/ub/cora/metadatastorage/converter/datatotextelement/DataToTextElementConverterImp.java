@@ -19,27 +19,43 @@
 package se.uu.ub.cora.metadatastorage.converter.datatotextelement;
 
 import java.text.MessageFormat;
+import java.util.Arrays;
 import java.util.List;
 
 import se.uu.ub.cora.bookkeeper.text.TextElement;
-import se.uu.ub.cora.bookkeeper.text.TextElementImp;
+import se.uu.ub.cora.data.DataAtomic;
 import se.uu.ub.cora.data.DataAttribute;
+import se.uu.ub.cora.data.DataChild;
 import se.uu.ub.cora.data.DataGroup;
 import se.uu.ub.cora.data.DataRecordGroup;
 import se.uu.ub.cora.metadatastorage.converter.DataConversionException;
 
 public class DataToTextElementConverterImp implements DataToTextElementConverter {
+	private static final String TEXT_PART = "textPart";
+	private static final String TEXT = "text";
 
-	private DataRecordGroup dataRecordGroup;
+	private final LanguageDictionary languageDictionary;
 
-	public DataToTextElementConverterImp(DataRecordGroup dataRecordGroup) {
-		this.dataRecordGroup = dataRecordGroup;
+	/**
+	 * Creates a converter with a new {@link LanguageDictionary}, through which language codes are
+	 * shared between all texts converted by the converter. Text ids are unique to each text and
+	 * are not interned.
+	 * <p>
+	 * The converter keeps no state between conversions other than the languages it has seen, one
+	 * instance can be shared by all threads converting the texts of one snapshot.
+	 */
+	public DataToTextElementConverterImp() {
+		this(new LanguageDictionary());
+	}
+
+	DataToTextElementConverterImp(LanguageDictionary languageDictionary) {
+		this.languageDictionary = languageDictionary;
 	}
 
 	@Override
-	public TextElement convert() {
+	public TextElement convert(DataRecordGroup dataRecordGroup) {
 		try {
-			return tryToConvert();
+			return tryToConvert(dataRecordGroup);
 		} catch (Exception e) {
 			String message = "Data to textElement converter failed for record: {0} due to: {1}";
 			String errorMessage = MessageFormat.format(message, dataRecordGroup.getId(),
@@ -48,19 +64,51 @@ public class DataToTextElementConverterImp implements DataToTextElementConverter
 		}
 	}
 
-	private TextElement tryToConvert() {
-		TextElement textElement = TextElementImp.withId(dataRecordGroup.getId());
-		List<DataGroup> textParts = dataRecordGroup.getAllGroupsWithNameInData("textPart");
-		for (DataGroup textPart : textParts) {
-			DataAttribute attribute = textPart.getAttribute("lang");
-			String text = textPart.getFirstAtomicValueWithNameInData("text");
-			textElement.addTranslation(attribute.getValue(), text);
+	/**
+	 * tryToConvert walks the children of the text record once, picking out the textParts as they
+	 * come, instead of first collecting them in a list and then looking up the attribute and text
+	 * of each by name.
+	 */
+	private TextElement tryToConvert(DataRecordGroup dataRecordGroup) {
+		String id = dataRecordGroup.getId();
+		List<DataChild> children = dataRecordGroup.getChildren();
+		short[] languageIndexes = new short[children.size()];
+		int[] textEnds = new int[children.size()];
+		StringBuilder packedTexts = new StringBuilder();
+		int numberOfTranslations = 0;
+		for (int i = 0; i < children.size(); i++) {
+			DataChild child = children.get(i);
+			if (isTextPart(child)) {
+				DataAttribute attribute = child.getAttribute("lang");
+				languageIndexes[numberOfTranslations] = languageDictionary
+						.indexOf(attribute.getValue());
+				packedTexts.append(getText((DataGroup) child));
+				textEnds[numberOfTranslations] = packedTexts.length();
+				numberOfTranslations++;
+			}
+		}
+		return new CompactTextElement(id, languageDictionary,
+				Arrays.copyOf(languageIndexes, numberOfTranslations),
+				Arrays.copyOf(textEnds, numberOfTranslations), packedTexts.toString());
+	}
+
+	private boolean isTextPart(DataChild child) {
+		return child instanceof DataGroup && TEXT_PART.equals(child.getNameInData());
+	}
+
+	private String getText(DataGroup textPart) {
+		List<DataChild> children = textPart.getChildren();
+		for (int i = 0; i < children.size(); i++) {
+			DataChild child = children.get(i);
+			if (child instanceof DataAtomic atomic && TEXT.equals(child.getNameInData())) {
+				return atomic.getValue();
+			}
 		}
-		return textElement;
+		throw DataConversionException.withMessage("No text found in textPart.");
 	}
 
-	public DataRecordGroup onlyForTestGetDataRecordGroup() {
-		return dataRecordGroup;
+	LanguageDictionary onlyForTestGetLanguageDictionary() {
+		return languageDictionary;
 	}
 
 }
@@ -0,0 +1,98 @@
+/*
+ * Copyright 2026 Uppsala University Library
+ *
+ * This file is part of Cora.
+ *
+ *     Cora is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     Cora is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with Cora.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package se.uu.ub.cora.metadatastorage.converter.datatotextelement;
+
+import java.util.Arrays;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * LanguageDictionary gives each language code used in texts a small index, so that
+ * {@link CompactTextElement}s can refer to their languages using one short per translation instead
+ * of holding a String for each.
+ * <p>
+ * Languages are only ever added to a dictionary, an index once given to a language always refers
+ * to that language. The dictionary is thread safe.
+ * <p>
+ * There is no shared dictionary. Each {@link DataToTextElementConverterImp} and each
+ * {@link PackedTextStore} has its own, and the text elements they create refer to it, so that a
+ * dictionary is released together with the snapshot whose texts use it.
+ */
+final class LanguageDictionary {
+	static final int NOT_FOUND = -1;
+
+	private final ConcurrentMap<String, Integer> indexes = new ConcurrentHashMap<>();
+	private volatile String[] languages = new String[0];
+
+	/**
+	 * indexOf returns the index of the specified language, adding the language to the dictionary
+	 * if it is not already in it.
+	 * 
+	 * @param language
+	 *            The language code to get the index for
+	 * @return The index of the language
+	 */
+	short indexOf(String language) {
+		Integer index = indexes.get(language);
+		if (index == null) {
+			index = addLanguage(language);
+		}
+		return index.shortValue();
+	}
+
+	private synchronized Integer addLanguage(String language) {
+		Integer index = indexes.get(language);
+		if (index != null) {
+			return index;
+		}
+		if (languages.length == Short.MAX_VALUE) {
+			throw new IllegalStateException(
+					"Language dictionary is full, could not add language: " + language);
+		}
+		String[] extended = Arrays.copyOf(languages, languages.length + 1);
+		extended[languages.length] = language;
+		languages = extended;
+		indexes.put(language, languages.length - 1);
+		return languages.length - 1;
+	}
+
+	/**
+	 * findIndexOf returns the index of the specified language without adding it to the dictionary.
+	 * 
+	 * @param language
+	 *            The language code to find the index for
+	 * @return The index of the language, or {@link #NOT_FOUND} if the language is not in the
+	 *         dictionary
+	 */
+	int findIndexOf(String language) {
+		if (language == null) {
+			return NOT_FOUND;
+		}
+		Integer index = indexes.get(language);
+		return index == null ? NOT_FOUND : index;
+	}
+
+	String languageAt(int index) {
+		return languages[index];
+	}
+
+	int size() {
+		return languages.length;
+	}
+}
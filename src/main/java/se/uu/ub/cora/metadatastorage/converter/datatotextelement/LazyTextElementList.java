@@ -0,0 +1,390 @@
+/*
+ * Copyright 2026 Uppsala University Library
+ *
+ * This file is part of Cora.
+ *
+ *     Cora is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     Cora is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with Cora.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package se.uu.ub.cora.metadatastorage.converter.datatotextelement;
+
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.RandomAccess;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+import se.uu.ub.cora.bookkeeper.text.TextElement;
+import se.uu.ub.cora.data.DataRecordGroup;
+import se.uu.ub.cora.metadatastorage.converter.pipeline.ConversionPipeline;
+
+/**
+ * LazyTextElementList is an unmodifiable list of {@link TextElement} that converts each text
+ * record the first time its element is accessed and then keeps the converted element. Elements
+ * that are never accessed are never converted.
+ * <p>
+ * The list keeps the id of each text and the text record only until its element is converted, so
+ * a list where all elements are converted holds no text records.
+ * <p>
+ * The list gets one converter from the factory, the first time an element is converted, and uses
+ * it for all conversions. Lists created from this list by {@link #withTextRecordGroup} and
+ * {@link #withoutTextRecord} use the same converter, so all texts of a snapshot, and the snapshots
+ * derived from it, share the language dictionary of that converter.
+ * <p>
+ * A list created by {@link #withElementsPacked(ConversionPipeline)} keeps no converted elements,
+ * only the position of each text in a {@link PackedTextStore}, and creates a new view of the
+ * text in the store each time its element is accessed. Translations added to such a view are not
+ * kept by the list.
+ * <p>
+ * The list is thread safe, if two threads convert the same element at the same time is one of the
+ * results kept and returned to both.
+ */
+public final class LazyTextElementList extends AbstractList<TextElement>
+		implements RandomAccess {
+	private static final int NOT_PACKED = -1;
+
+	private final String[] ids;
+	private final AtomicReferenceArray<DataRecordGroup> recordGroupsToConvert;
+	private final DataToTextElementConverterFactory converterFactory;
+	private final AtomicReference<DataToTextElementConverter> converter;
+	private final AtomicReferenceArray<TextElement> convertedElements;
+	private final PackedTextStore packedStore;
+	private final int[] packedPositions;
+	private volatile Map<String, Integer> positionsById;
+
+	public static LazyTextElementList usingTextRecordGroupsAndConverterFactory(
+			List<DataRecordGroup> textRecordGroups,
+			DataToTextElementConverterFactory converterFactory) {
+		return usingTextRecordGroupsAndConvertedElements(textRecordGroups, Map.of(),
+				converterFactory);
+	}
+
+	/**
+	 * usingTextRecordGroupsAndConvertedElements creates a list where the elements found in the
+	 * entered map are already converted. Text records without an element in the map are converted
+	 * the first time they are accessed, using the converter factory.
+	 * 
+	 * @param textRecordGroups
+	 *            The text records in the list
+	 * @param convertedElementsById
+	 *            A Map with text id as key and an already converted TextElement as value
+	 * @param converterFactory
+	 *            The DataToTextElementConverterFactory used for text records not in the map
+	 * @return A new LazyTextElementList
+	 */
+	public static LazyTextElementList usingTextRecordGroupsAndConvertedElements(
+			List<DataRecordGroup> textRecordGroups, Map<String, TextElement> convertedElementsById,
+			DataToTextElementConverterFactory converterFactory) {
+		int size = textRecordGroups.size();
+		String[] ids = new String[size];
+		AtomicReferenceArray<DataRecordGroup> toConvert = new AtomicReferenceArray<>(size);
+		AtomicReferenceArray<TextElement> converted = new AtomicReferenceArray<>(size);
+		for (int i = 0; i < size; i++) {
+			DataRecordGroup textRecordGroup = textRecordGroups.get(i);
+			ids[i] = textRecordGroup.getId();
+			TextElement textElement = convertedElementsById.get(ids[i]);
+			converted.set(i, textElement);
+			if (textElement == null) {
+				toConvert.set(i, textRecordGroup);
+			}
+		}
+		return new LazyTextElementList(ids, toConvert, converterFactory, new AtomicReference<>(),
+				converted, null, null);
+	}
+
+	private LazyTextElementList(String[] ids,
+			AtomicReferenceArray<DataRecordGroup> recordGroupsToConvert,
+			DataToTextElementConverterFactory converterFactory,
+			AtomicReference<DataToTextElementConverter> converter,
+			AtomicReferenceArray<TextElement> convertedElements, PackedTextStore packedStore,
+			int[] packedPositions) {
+		this.ids = ids;
+		this.recordGroupsToConvert = recordGroupsToConvert;
+		this.converterFactory = converterFactory;
+		this.converter = converter;
+		this.convertedElements = convertedElements;
+		this.packedStore = packedStore;
+		this.packedPositions = packedPositions;
+	}
+
+	@Override
+	public TextElement get(int index) {
+		TextElement textElement = convertedElements.get(index);
+		if (textElement != null) {
+			return textElement;
+		}
+		if (isPacked(index)) {
+			return packedStore.getTextElement(packedPositions[index]);
+		}
+		return convertAndKeep(index, getConverter());
+	}
+
+	private DataToTextElementConverter getConverter() {
+		DataToTextElementConverter current = converter.get();
+		if (current == null) {
+			converter.compareAndSet(null, converterFactory.factor());
+			current = converter.get();
+		}
+		return current;
+	}
+
+	private boolean isPacked(int index) {
+		return packedPositions != null && packedPositions[index] != NOT_PACKED;
+	}
+
+	private TextElement convertAndKeep(int index, DataToTextElementConverter textConverter) {
+		DataRecordGroup textRecordGroup = recordGroupsToConvert.get(index);
+		if (textRecordGroup == null) {
+			return convertedElements.get(index);
+		}
+		return keep(index, textConverter.convert(textRecordGroup));
+	}
+
+	private TextElement keep(int index, TextElement converted) {
+		if (convertedElements.compareAndSet(index, null, converted)) {
+			recordGroupsToConvert.set(index, null);
+			return converted;
+		}
+		return convertedElements.get(index);
+	}
+
+	@Override
+	public int size() {
+		return ids.length;
+	}
+
+	/**
+	 * findById returns the TextElement for the text record with the specified id, converting it if
+	 * it has not been converted before.
+	 * 
+	 * @param textId
+	 *            The id of the text record
+	 * @return An Optional with the TextElement, or an empty Optional if no text record with the
+	 *         id exists in the list
+	 */
+	public Optional<TextElement> findById(String textId) {
+		Integer position = getPositionsById().get(textId);
+		if (position == null) {
+			return Optional.empty();
+		}
+		return Optional.of(get(position));
+	}
+
+	private Map<String, Integer> getPositionsById() {
+		Map<String, Integer> positions = positionsById;
+		if (positions == null) {
+			positions = indexPositionsById();
+			positionsById = positions;
+		}
+		return positions;
+	}
+
+	private Map<String, Integer> indexPositionsById() {
+		Map<String, Integer> positions = new HashMap<>(ids.length);
+		for (int i = 0; i < ids.length; i++) {
+			positions.put(ids[i], i);
+		}
+		return Map.copyOf(positions);
+	}
+
+	/**
+	 * withTextRecordGroup returns a new list where the text record with the same id as the
+	 * specified record is replaced by it, or where it is added last if no such record exists. All
+	 * other elements already converted in this list are kept as converted in the new list.
+	 * 
+	 * @param textRecordGroup
+	 *            The new or changed text record
+	 * @return A new LazyTextElementList
+	 */
+	public LazyTextElementList withTextRecordGroup(DataRecordGroup textRecordGroup) {
+		String textId = textRecordGroup.getId();
+		Integer position = getPositionsById().get(textId);
+		int newSize = position == null ? ids.length + 1 : ids.length;
+		int changedPosition = position == null ? ids.length : position;
+		String[] newIds = Arrays.copyOf(ids, newSize);
+		newIds[changedPosition] = textId;
+		AtomicReferenceArray<DataRecordGroup> toConvert = copySkipping(recordGroupsToConvert, -1,
+				newSize);
+		toConvert.set(changedPosition, textRecordGroup);
+		AtomicReferenceArray<TextElement> converted = copySkipping(convertedElements, -1,
+				newSize);
+		converted.set(changedPosition, null);
+		int[] newPackedPositions = copyPackedPositionsSkipping(-1, newSize);
+		if (newPackedPositions != null) {
+			newPackedPositions[changedPosition] = NOT_PACKED;
+		}
+		return new LazyTextElementList(newIds, toConvert, converterFactory, converter, converted,
+				packedStore, newPackedPositions);
+	}
+
+	/**
+	 * withoutTextRecord returns a new list without the text record with the specified id. All
+	 * other elements already converted in this list are kept as converted in the new list.
+	 * 
+	 * @param textId
+	 *            The id of the text record to leave out
+	 * @return A new LazyTextElementList, or this list if no text record with the id exists
+	 */
+	public LazyTextElementList withoutTextRecord(String textId) {
+		Integer position = getPositionsById().get(textId);
+		if (position == null) {
+			return this;
+		}
+		int newSize = ids.length - 1;
+		String[] newIds = new String[newSize];
+		System.arraycopy(ids, 0, newIds, 0, position);
+		System.arraycopy(ids, position + 1, newIds, position, newSize - position);
+		return new LazyTextElementList(newIds,
+				copySkipping(recordGroupsToConvert, position, newSize), converterFactory, converter,
+				copySkipping(convertedElements, position, newSize), packedStore,
+				copyPackedPositionsSkipping(position, newSize));
+	}
+
+	private int[] copyPackedPositionsSkipping(int skippedPosition, int newSize) {
+		if (packedPositions == null) {
+			return null;
+		}
+		int[] copy = new int[newSize];
+		Arrays.fill(copy, NOT_PACKED);
+		int target = 0;
+		for (int i = 0; i < packedPositions.length; i++) {
+			if (i != skippedPosition) {
+				copy[target] = packedPositions[i];
+				target++;
+			}
+		}
+		return copy;
+	}
+
+	private static <T> AtomicReferenceArray<T> copySkipping(AtomicReferenceArray<T> original,
+			int skippedPosition, int newSize) {
+		AtomicReferenceArray<T> copy = new AtomicReferenceArray<>(newSize);
+		int target = 0;
+		for (int i = 0; i < original.length(); i++) {
+			if (i != skippedPosition) {
+				copy.set(target, original.get(i));
+				target++;
+			}
+		}
+		return copy;
+	}
+
+	/**
+	 * convertAll converts all elements that have not yet been converted using the specified
+	 * pipeline, so that the conversion work can be done up front, for instance in parallel during
+	 * warm-up.
+	 * 
+	 * @param conversionPipeline
+	 *            The ConversionPipeline to convert the elements with
+	 */
+	public void convertAll(ConversionPipeline conversionPipeline) {
+		List<Integer> positions = findUnconvertedPositions();
+		if (positions.isEmpty()) {
+			return;
+		}
+		DataToTextElementConverter textConverter = getConverter();
+		List<TextElement> converted = conversionPipeline.convert(positions,
+				position -> convertAndKeep(position, textConverter));
+		for (int i = 0; i < positions.size(); i++) {
+			keep(positions.get(i), converted.get(i));
+		}
+	}
+
+	/**
+	 * withElementsPacked converts all elements that have not yet been converted using the
+	 * specified pipeline, and returns a new list where the translations of every element are held
+	 * in one {@link PackedTextStore}. The new list keeps only the position of each text in the
+	 * store, no TextElement objects, and returns a new view of the text each time an element is
+	 * accessed. Neither the converted elements nor the text records of this list are referenced by
+	 * the new list, so that the heap they use can be reclaimed when this list is no longer used.
+	 * The new list shares its ids with the store.
+	 * 
+	 * @param conversionPipeline
+	 *            The ConversionPipeline to convert the elements with
+	 * @return A new LazyTextElementList with all elements packed
+	 */
+	public LazyTextElementList withElementsPacked(ConversionPipeline conversionPipeline) {
+		convertAll(conversionPipeline);
+		PackedTextStore store = PackedTextStore.usingTextElements(this);
+		String[] packedIds = new String[store.size()];
+		int[] positionsInStore = new int[store.size()];
+		for (int i = 0; i < store.size(); i++) {
+			packedIds[i] = store.getId(i);
+			positionsInStore[i] = i;
+		}
+		return new LazyTextElementList(packedIds, new AtomicReferenceArray<>(store.size()),
+				converterFactory, converter, new AtomicReferenceArray<>(store.size()), store,
+				positionsInStore);
+	}
+
+	private List<Integer> findUnconvertedPositions() {
+		List<Integer> positions = new ArrayList<>();
+		for (int i = 0; i < convertedElements.length(); i++) {
+			if (!isConverted(i)) {
+				positions.add(i);
+			}
+		}
+		return positions;
+	}
+
+	private boolean isConverted(int index) {
+		return convertedElements.get(index) != null || isPacked(index);
+	}
+
+	/**
+	 * getConvertedElements returns the elements that have been converted so far, in list order,
+	 * without converting any element. Packed elements are returned as views of the store.
+	 * 
+	 * @return A List with the converted TextElements
+	 */
+	public List<TextElement> getConvertedElements() {
+		List<TextElement> converted = new ArrayList<>();
+		for (int i = 0; i < convertedElements.length(); i++) {
+			if (isConverted(i)) {
+				converted.add(get(i));
+			}
+		}
+		return converted;
+	}
+
+	/**
+	 * numberOfConvertedElements returns how many of the elements in the list that have been
+	 * converted so far.
+	 * 
+	 * @return The number of converted elements
+	 */
+	public int numberOfConvertedElements() {
+		int converted = 0;
+		for (int i = 0; i < convertedElements.length(); i++) {
+			if (isConverted(i)) {
+				converted++;
+			}
+		}
+		return converted;
+	}
+
+	int onlyForTestNumberOfTextRecordsKept() {
+		int kept = 0;
+		for (int i = 0; i < recordGroupsToConvert.length(); i++) {
+			if (recordGroupsToConvert.get(i) != null) {
+				kept++;
+			}
+		}
+		return kept;
+	}
+}
@@ -0,0 +1,84 @@
+/*
+ * Copyright 2026 Uppsala University Library
+ *
+ * This file is part of Cora.
+ *
+ *     Cora is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     Cora is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with Cora.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package se.uu.ub.cora.metadatastorage.converter.datatotextelement;
+
+import java.util.Set;
+
+import se.uu.ub.cora.bookkeeper.text.TextElement;
+import se.uu.ub.cora.bookkeeper.text.TextElementImp;
+import se.uu.ub.cora.bookkeeper.text.Translation;
+
+/**
+ * PackedTextElement is a view of one text element in a {@link PackedTextStore}. It only holds the
+ * store and its position in the store, translations are decoded from the store each time they are
+ * asked for.
+ * <p>
+ * The store is never changed through the view. The first call to
+ * {@link #addTranslation(String, String)} copies the translations of the text from the store into
+ * a TextElement that only this view holds, and from then on are all reads and added translations
+ * handled by that copy. An added translation is therefore only seen through the view it was added
+ * to, a new view of the same text in the store does not have it.
+ */
+final class PackedTextElement implements TextElement {
+	private final PackedTextStore store;
+	private final int position;
+	private TextElement modifiedCopy;
+
+	PackedTextElement(PackedTextStore store, int position) {
+		this.store = store;
+		this.position = position;
+	}
+
+	@Override
+	public String getId() {
+		return store.getId(position);
+	}
+
+	@Override
+	public Set<Translation> getTranslations() {
+		if (modifiedCopy != null) {
+			return modifiedCopy.getTranslations();
+		}
+		return store.readTranslations(position);
+	}
+
+	@Override
+	public String getTranslationByLanguage(String language) {
+		if (modifiedCopy != null) {
+			return modifiedCopy.getTranslationByLanguage(language);
+		}
+		return store.readTranslation(position, language);
+	}
+
+	@Override
+	public void addTranslation(String language, String text) {
+		if (modifiedCopy == null) {
+			modifiedCopy = copyFromStore();
+		}
+		modifiedCopy.addTranslation(language, text);
+	}
+
+	private TextElement copyFromStore() {
+		TextElement copy = TextElementImp.withId(getId());
+		for (Translation translation : store.readTranslations(position)) {
+			copy.addTranslation(translation.language(), translation.text());
+		}
+		return copy;
+	}
+}
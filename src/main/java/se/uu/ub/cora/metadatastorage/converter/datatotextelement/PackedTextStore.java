@@ -0,0 +1,225 @@
+/*
+ * Copyright 2026 Uppsala University Library
+ *
+ * This file is part of Cora.
+ *
+ *     Cora is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     Cora is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with Cora.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package se.uu.ub.cora.metadatastorage.converter.datatotextelement;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+
+import se.uu.ub.cora.bookkeeper.text.TextElement;
+import se.uu.ub.cora.bookkeeper.text.Translation;
+
+/**
+ * PackedTextStore holds the translations of many {@link TextElement}s packed as UTF-8 in one
+ * direct, off-heap, buffer. The store is indexed by text id and hands out {@link TextElement}
+ * views that decode a translation from the buffer when it is asked for. The store itself is never
+ * changed, translations added to a view are kept in a copy held by that view only.
+ * <p>
+ * The ids are kept as Strings, as they are needed for every lookup, and languages are kept as
+ * indexes into a {@link LanguageDictionary} owned by the store. Apart from the ids and the buffer
+ * does the store only keep primitive arrays, so the heap retained by translations does not grow in
+ * number of objects with the number of texts and translations, and the garbage collector has no
+ * translation strings to scan. Decoding a translation allocates the returned String and a
+ * temporary byte array, as a String can not be created directly from off-heap memory.
+ * <p>
+ * The store is immutable and thread safe.
+ */
+public final class PackedTextStore {
+	private static final int NO_TEXT = -1;
+
+	private final LanguageDictionary languageDictionary = new LanguageDictionary();
+	private final String[] ids;
+	private final int[] firstTranslations;
+	private final short[] translationLanguages;
+	private final int[] translationOffsets;
+	private final int[] translationLengths;
+	private final ByteBuffer data;
+	private final int[] textsByIdHash;
+
+	/**
+	 * usingTextElements packs the ids and translations of the entered text elements into a new
+	 * store. The order of the text elements is kept, so that the text element at a position in
+	 * the entered list is found at the same position in the store.
+	 * 
+	 * @param textElements
+	 *            The TextElements to pack
+	 * @return A new PackedTextStore
+	 */
+	public static PackedTextStore usingTextElements(List<TextElement> textElements) {
+		return new PackedTextStore(textElements);
+	}
+
+	private PackedTextStore(List<TextElement> textElements) {
+		int numberOfTexts = textElements.size();
+		ids = new String[numberOfTexts];
+		firstTranslations = new int[numberOfTexts + 1];
+		List<Translation> translations = collectIdsAndTranslations(textElements);
+		translationLanguages = new short[translations.size()];
+		translationOffsets = new int[translations.size()];
+		translationLengths = new int[translations.size()];
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		for (int i = 0; i < translations.size(); i++) {
+			Translation translation = translations.get(i);
+			translationLanguages[i] = languageDictionary.indexOf(translation.language());
+			translationOffsets[i] = bytes.size();
+			translationLengths[i] = writeUtf8(bytes, translation.text());
+		}
+		data = toReadOnlyDirectBuffer(bytes.toByteArray());
+		textsByIdHash = indexByIdHash(ids);
+	}
+
+	private List<Translation> collectIdsAndTranslations(List<TextElement> textElements) {
+		List<Translation> translations = new ArrayList<>();
+		for (int i = 0; i < textElements.size(); i++) {
+			TextElement textElement = textElements.get(i);
+			ids[i] = textElement.getId();
+			firstTranslations[i] = translations.size();
+			translations.addAll(textElement.getTranslations());
+		}
+		firstTranslations[textElements.size()] = translations.size();
+		return translations;
+	}
+
+	private static int writeUtf8(ByteArrayOutputStream bytes, String value) {
+		byte[] encoded = value.getBytes(StandardCharsets.UTF_8);
+		bytes.writeBytes(encoded);
+		return encoded.length;
+	}
+
+	private static ByteBuffer toReadOnlyDirectBuffer(byte[] bytes) {
+		ByteBuffer buffer = ByteBuffer.allocateDirect(bytes.length);
+		buffer.put(bytes);
+		buffer.flip();
+		return buffer.asReadOnlyBuffer();
+	}
+
+	private static int[] indexByIdHash(String[] ids) {
+		int[] table = new int[tableSizeFor(ids.length)];
+		Arrays.fill(table, NO_TEXT);
+		int mask = table.length - 1;
+		for (int i = 0; i < ids.length; i++) {
+			int slot = spread(ids[i].hashCode()) & mask;
+			while (table[slot] != NO_TEXT) {
+				slot = (slot + 1) & mask;
+			}
+			table[slot] = i;
+		}
+		return table;
+	}
+
+	private static int tableSizeFor(int numberOfTexts) {
+		return Integer.highestOneBit(Math.max(1, numberOfTexts * 2 - 1)) << 1;
+	}
+
+	private static int spread(int hash) {
+		return hash ^ (hash >>> 16);
+	}
+
+	public int size() {
+		return ids.length;
+	}
+
+	/**
+	 * getTextElement returns a view of the text element at the specified position.
+	 * 
+	 * @param position
+	 *            The position of the text element, as in the list the store was created from
+	 * @return A new TextElement view
+	 */
+	public TextElement getTextElement(int position) {
+		return new PackedTextElement(this, position);
+	}
+
+	/**
+	 * findById returns a view of the text element with the specified id.
+	 * 
+	 * @param textId
+	 *            The id of the text
+	 * @return An Optional with a new TextElement view, or an empty Optional if no text with the
+	 *         id is in the store
+	 */
+	public Optional<TextElement> findById(String textId) {
+		int position = findPosition(textId);
+		if (position == NO_TEXT) {
+			return Optional.empty();
+		}
+		return Optional.of(getTextElement(position));
+	}
+
+	private int findPosition(String textId) {
+		int mask = textsByIdHash.length - 1;
+		int slot = spread(textId.hashCode()) & mask;
+		while (textsByIdHash[slot] != NO_TEXT) {
+			int position = textsByIdHash[slot];
+			if (textId.equals(ids[position])) {
+				return position;
+			}
+			slot = (slot + 1) & mask;
+		}
+		return NO_TEXT;
+	}
+
+	String getId(int position) {
+		return ids[position];
+	}
+
+	String readTranslation(int position, String language) {
+		int languageIndex = languageDictionary.findIndexOf(language);
+		if (languageIndex == LanguageDictionary.NOT_FOUND) {
+			return null;
+		}
+		for (int i = firstTranslations[position]; i < firstTranslations[position + 1]; i++) {
+			if (translationLanguages[i] == languageIndex) {
+				return readString(translationOffsets[i], translationLengths[i]);
+			}
+		}
+		return null;
+	}
+
+	Set<Translation> readTranslations(int position) {
+		Set<Translation> translations = new LinkedHashSet<>();
+		for (int i = firstTranslations[position]; i < firstTranslations[position + 1]; i++) {
+			translations.add(new Translation(languageDictionary.languageAt(translationLanguages[i]),
+					readString(translationOffsets[i], translationLengths[i])));
+		}
+		return translations;
+	}
+
+	private String readString(int offset, int length) {
+		byte[] bytes = new byte[length];
+		data.get(offset, bytes);
+		return new String(bytes, StandardCharsets.UTF_8);
+	}
+
+	/**
+	 * getPackedSizeInBytes returns the size of the off-heap buffer holding the packed
+	 * translations.
+	 * 
+	 * @return The size of the buffer in bytes
+	 */
+	public int getPackedSizeInBytes() {
+		return data.capacity();
+	}
+}
@@ -0,0 +1,50 @@
+/*
+ * Copyright 2026 Uppsala University Library
+ *
+ * This file is part of Cora.
+ *
+ *     Cora is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     Cora is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with Cora.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package se.uu.ub.cora.metadatastorage.converter.datatotextelement;
+
+import se.uu.ub.cora.bookkeeper.text.TextElement;
+import se.uu.ub.cora.data.DataRecordGroup;
+
+/**
+ * RecordBoundTextElementConverter is the converter returned by the deprecated
+ * {@link DataToTextElementConverterFactory#factor(DataRecordGroup)}. It holds the text record it
+ * was created for, so that the deprecated {@link #convert()} can convert it, and hands all
+ * conversions to a converter from {@link DataToTextElementConverterFactory#factor()}.
+ */
+@SuppressWarnings("removal")
+final class RecordBoundTextElementConverter implements DataToTextElementConverter {
+	private final DataToTextElementConverter converter;
+	private final DataRecordGroup dataRecordGroup;
+
+	RecordBoundTextElementConverter(DataToTextElementConverter converter,
+			DataRecordGroup dataRecordGroup) {
+		this.converter = converter;
+		this.dataRecordGroup = dataRecordGroup;
+	}
+
+	@Override
+	public TextElement convert() {
+		return converter.convert(dataRecordGroup);
+	}
+
+	@Override
+	public TextElement convert(DataRecordGroup textRecordGroup) {
+		return converter.convert(textRecordGroup);
+	}
+}
@@ -0,0 +1,38 @@
+/*
+ * Copyright 2026 Uppsala University Library
+ *
+ * This file is part of Cora.
+ *
+ *     Cora is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     Cora is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with Cora.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package se.uu.ub.cora.metadatastorage.converter.pipeline;
+
+import java.util.List;
+import java.util.function.Function;
+
+public interface ConversionPipeline {
+
+	/**
+	 * convert converts all items in the list using the specified conversion and returns the
+	 * results in the same order as the items. If the conversion of any item throws an exception
+	 * is that exception thrown from this method.
+	 * 
+	 * @param items
+	 *            A List with the items to convert
+	 * @param conversion
+	 *            The conversion to apply to each item
+	 * @return A List with the converted items in the same order as the items
+	 */
+	<T, R> List<R> convert(List<T> items, Function<T, R> conversion);
+}
@@ -0,0 +1,127 @@
+/*
+ * Copyright 2026 Uppsala University Library
+ *
+ * This file is part of Cora.
+ *
+ *     Cora is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     Cora is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with Cora.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package se.uu.ub.cora.metadatastorage.converter.pipeline;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.function.Function;
+
+/**
+ * ParallelConversionPipeline splits the items to convert into chunks and converts the chunks
+ * concurrently using an {@link ExecutorService}, such as a ForkJoinPool or a virtual thread per
+ * task executor. The results are always returned in the same order as the items, and an exception
+ * thrown while converting an item is rethrown unchanged to the caller.
+ * <p>
+ * Lists that are not larger than one chunk are converted on the calling thread.
+ */
+public final class ParallelConversionPipeline implements ConversionPipeline {
+	private final ExecutorService executor;
+	private final int chunkSize;
+
+	public static ParallelConversionPipeline usingExecutorAndChunkSize(ExecutorService executor,
+			int chunkSize) {
+		return new ParallelConversionPipeline(executor, chunkSize);
+	}
+
+	private ParallelConversionPipeline(ExecutorService executor, int chunkSize) {
+		if (chunkSize < 1) {
+			throw new IllegalArgumentException("Chunk size must be at least 1, was: " + chunkSize);
+		}
+		this.executor = executor;
+		this.chunkSize = chunkSize;
+	}
+
+	@Override
+	public <T, R> List<R> convert(List<T> items, Function<T, R> conversion) {
+		if (items.size() <= chunkSize) {
+			return convertChunk(items, conversion);
+		}
+		List<Future<List<R>>> chunks = submitChunks(items, conversion);
+		return collectChunksInOrder(chunks, items.size());
+	}
+
+	private <T, R> List<Future<List<R>>> submitChunks(List<T> items,
+			Function<T, R> conversion) {
+		List<Future<List<R>>> chunks = new ArrayList<>();
+		for (int start = 0; start < items.size(); start += chunkSize) {
+			List<T> chunk = items.subList(start, Math.min(start + chunkSize, items.size()));
+			chunks.add(executor.submit(() -> convertChunk(chunk, conversion)));
+		}
+		return chunks;
+	}
+
+	private static <T, R> List<R> convertChunk(List<T> chunk, Function<T, R> conversion) {
+		List<R> converted = new ArrayList<>(chunk.size());
+		for (T item : chunk) {
+			converted.add(conversion.apply(item));
+		}
+		return converted;
+	}
+
+	private <R> List<R> collectChunksInOrder(List<Future<List<R>>> chunks, int numberOfItems) {
+		List<R> converted = new ArrayList<>(numberOfItems);
+		try {
+			for (Future<List<R>> chunk : chunks) {
+				converted.addAll(waitForChunk(chunk));
+			}
+			return converted;
+		} finally {
+			cancelUnfinishedChunks(chunks);
+		}
+	}
+
+	private <R> List<R> waitForChunk(Future<List<R>> chunk) {
+		try {
+			return chunk.get();
+		} catch (ExecutionException e) {
+			throw rethrowCause(e);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new IllegalStateException("Interrupted while waiting for conversion", e);
+		}
+	}
+
+	private RuntimeException rethrowCause(ExecutionException e) {
+		Throwable cause = e.getCause();
+		if (cause instanceof RuntimeException runtimeException) {
+			return runtimeException;
+		}
+		if (cause instanceof Error error) {
+			throw error;
+		}
+		return new IllegalStateException("Conversion failed", cause);
+	}
+
+	private <R> void cancelUnfinishedChunks(List<Future<List<R>>> chunks) {
+		for (Future<List<R>> chunk : chunks) {
+			chunk.cancel(true);
+		}
+	}
+
+	public ExecutorService onlyForTestGetExecutor() {
+		return executor;
+	}
+
+	public int onlyForTestGetChunkSize() {
+		return chunkSize;
+	}
+}
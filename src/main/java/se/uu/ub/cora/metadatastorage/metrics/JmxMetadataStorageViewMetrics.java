@@ -0,0 +1,231 @@
+/*
+ * Copyright 2026 Uppsala University Library
+ *
+ * This file is part of Cora.
+ *
+ *     Cora is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     Cora is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with Cora.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package se.uu.ub.cora.metadatastorage.metrics;
+
+import java.lang.management.ManagementFactory;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+import java.util.function.ToDoubleFunction;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+import se.uu.ub.cora.bookkeeper.storage.MetadataStorageViewException;
+import se.uu.ub.cora.metadatastorage.cache.CacheStatistics;
+
+/**
+ * JmxMetadataStorageViewMetrics collects measurements in memory and exposes them as an MXBean in
+ * the platform MBean server, see {@link MetadataStorageViewMetricsMXBean} for the exposed
+ * attributes.
+ */
+public final class JmxMetadataStorageViewMetrics
+		implements MetadataStorageViewMetrics, MetadataStorageViewMetricsMXBean {
+	private static final String CALL = "call.";
+	private static final String STORAGE_READ = "storageRead.";
+	private static final String CONVERSION = "conversion.";
+	private static final double NANOS_PER_MICRO = 1_000d;
+	private static final double NANOS_PER_MILLI = 1_000_000d;
+	private final MBeanServer mBeanServer;
+	private final ObjectName objectName;
+	private final Map<String, OperationStatistics> operations = new ConcurrentHashMap<>();
+	private final Map<String, Supplier<CacheStatistics>> caches = new ConcurrentHashMap<>();
+
+	/**
+	 * registerUsingObjectName creates a new metrics and registers it in the platform MBean server
+	 * using the specified object name.
+	 * 
+	 * @param objectName
+	 *            The object name to register the metrics with, for example
+	 *            "se.uu.ub.cora.metadatastorage:type=MetadataStorageViewMetrics"
+	 * @return The registered JmxMetadataStorageViewMetrics
+	 */
+	public static JmxMetadataStorageViewMetrics registerUsingObjectName(String objectName) {
+		JmxMetadataStorageViewMetrics metrics = new JmxMetadataStorageViewMetrics(
+				ManagementFactory.getPlatformMBeanServer(), objectName);
+		metrics.register();
+		return metrics;
+	}
+
+	private JmxMetadataStorageViewMetrics(MBeanServer mBeanServer, String objectName) {
+		this.mBeanServer = mBeanServer;
+		this.objectName = createObjectName(objectName);
+	}
+
+	private ObjectName createObjectName(String name) {
+		try {
+			return new ObjectName(name);
+		} catch (JMException e) {
+			throw MetadataStorageViewException
+					.usingMessageAndException("Invalid metrics object name: " + name, e);
+		}
+	}
+
+	private void register() {
+		try {
+			mBeanServer.registerMBean(this, objectName);
+		} catch (JMException e) {
+			throw MetadataStorageViewException.usingMessageAndException(
+					"Could not register metrics with object name: " + objectName, e);
+		}
+	}
+
+	/**
+	 * unregister removes the metrics from the platform MBean server.
+	 */
+	public void unregister() {
+		try {
+			mBeanServer.unregisterMBean(objectName);
+		} catch (JMException e) {
+			throw MetadataStorageViewException.usingMessageAndException(
+					"Could not unregister metrics with object name: " + objectName, e);
+		}
+	}
+
+	@Override
+	public void recordCall(String methodName, long durationNanos, int numberOfRecords) {
+		getStatisticsForOperation(CALL + methodName).record(durationNanos, numberOfRecords);
+	}
+
+	@Override
+	public void recordStorageRead(String recordType, long durationNanos, int numberOfRecords) {
+		getStatisticsForOperation(STORAGE_READ + recordType).record(durationNanos,
+				numberOfRecords);
+	}
+
+	@Override
+	public void recordConversion(String recordType, long durationNanos, int numberOfRecords) {
+		getStatisticsForOperation(CONVERSION + recordType).record(durationNanos, numberOfRecords);
+	}
+
+	private OperationStatistics getStatisticsForOperation(String operation) {
+		OperationStatistics statistics = operations.get(operation);
+		if (statistics == null) {
+			return operations.computeIfAbsent(operation,
+					key -> new OperationStatistics());
+		}
+		return statistics;
+	}
+
+	@Override
+	public void registerCache(String cacheName, Supplier<CacheStatistics> statistics) {
+		caches.put(cacheName, statistics);
+	}
+
+	@Override
+	public Map<String, Long> getCounts() {
+		Map<String, Long> counts = new TreeMap<>();
+		operations.forEach((operation, statistics) -> counts.put(operation,
+				statistics.count()));
+		return counts;
+	}
+
+	@Override
+	public Map<String, Long> getRecordCounts() {
+		Map<String, Long> records = new TreeMap<>();
+		operations.forEach((operation, statistics) -> records.put(operation,
+				statistics.records()));
+		return records;
+	}
+
+	@Override
+	public Map<String, Double> getTotalTimeMillis() {
+		return collectForAllOperations(
+				statistics -> statistics.totalNanos() / NANOS_PER_MILLI);
+	}
+
+	@Override
+	public Map<String, Double> getMeanTimeMicros() {
+		return collectForAllOperations(this::calculateMeanMicros);
+	}
+
+	private double calculateMeanMicros(OperationStatistics statistics) {
+		long count = statistics.count();
+		if (count == 0) {
+			return 0;
+		}
+		return statistics.totalNanos() / NANOS_PER_MICRO / count;
+	}
+
+	@Override
+	public Map<String, Double> getP50TimeMicros() {
+		return collectForAllOperations(
+				statistics -> statistics.histogram().percentileNanos(50) / NANOS_PER_MICRO);
+	}
+
+	@Override
+	public Map<String, Double> getP99TimeMicros() {
+		return collectForAllOperations(
+				statistics -> statistics.histogram().percentileNanos(99) / NANOS_PER_MICRO);
+	}
+
+	@Override
+	public Map<String, Double> getMaxTimeMicros() {
+		return collectForAllOperations(
+				statistics -> statistics.histogram().maxNanos() / NANOS_PER_MICRO);
+	}
+
+	private Map<String, Double> collectForAllOperations(
+			ToDoubleFunction<OperationStatistics> valueFunction) {
+		Map<String, Double> values = new TreeMap<>();
+		operations.forEach((operation, statistics) -> values.put(operation,
+				valueFunction.applyAsDouble(statistics)));
+		return values;
+	}
+
+	@Override
+	public double getTotalStorageReadTimeMillis() {
+		return sumTotalNanosForOperationsStartingWith(STORAGE_READ) / NANOS_PER_MILLI;
+	}
+
+	@Override
+	public double getTotalConversionTimeMillis() {
+		return sumTotalNanosForOperationsStartingWith(CONVERSION) / NANOS_PER_MILLI;
+	}
+
+	private long sumTotalNanosForOperationsStartingWith(String prefix) {
+		long total = 0;
+		for (Entry<String, OperationStatistics> entry : operations.entrySet()) {
+			if (entry.getKey().startsWith(prefix)) {
+				total += entry.getValue().totalNanos();
+			}
+		}
+		return total;
+	}
+
+	@Override
+	public Map<String, Double> getCacheHitRatios() {
+		Map<String, Double> hitRatios = new TreeMap<>();
+		caches.forEach(
+				(cacheName, statistics) -> hitRatios.put(cacheName, statistics.get().hitRatio()));
+		return hitRatios;
+	}
+
+	@Override
+	public void reset() {
+		operations.values().forEach(OperationStatistics::reset);
+	}
+
+	public ObjectName onlyForTestGetObjectName() {
+		return objectName;
+	}
+}
@@ -0,0 +1,89 @@
+/*
+ * Copyright 2026 Uppsala University Library
+ *
+ * This file is part of Cora.
+ *
+ *     Cora is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     Cora is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with Cora.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package se.uu.ub.cora.metadatastorage.metrics;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAccumulator;
+
+/**
+ * LatencyHistogram counts durations in buckets with power of two boundaries, bucket n holds
+ * durations of at least 2^(n-1) and less than 2^n nanoseconds. Percentiles are answered with the
+ * upper boundary of the bucket holding the percentile, which is at most a factor two above the
+ * exact value. In return is recording lock free and uses a fixed amount of memory.
+ */
+final class LatencyHistogram {
+	private static final int NUMBER_OF_BUCKETS = 64;
+	private final AtomicLongArray buckets = new AtomicLongArray(NUMBER_OF_BUCKETS);
+	private final LongAccumulator max = new LongAccumulator(Math::max, 0);
+
+	void record(long durationNanos) {
+		long duration = Math.max(durationNanos, 0);
+		buckets.incrementAndGet(bucketFor(duration));
+		max.accumulate(duration);
+	}
+
+	private int bucketFor(long durationNanos) {
+		return Math.min(NUMBER_OF_BUCKETS - Long.numberOfLeadingZeros(durationNanos),
+				NUMBER_OF_BUCKETS - 1);
+	}
+
+	/**
+	 * percentileNanos returns an upper bound for the duration below which the given percentage of
+	 * the recorded durations fall, or 0 if nothing has been recorded.
+	 * 
+	 * @param percentile
+	 *            The percentile, between 0 and 100
+	 * @return The upper bound in nanoseconds
+	 */
+	long percentileNanos(double percentile) {
+		long[] counts = new long[NUMBER_OF_BUCKETS];
+		long total = 0;
+		for (int i = 0; i < NUMBER_OF_BUCKETS; i++) {
+			counts[i] = buckets.get(i);
+			total += counts[i];
+		}
+		if (total == 0) {
+			return 0;
+		}
+		long rank = (long) Math.ceil(total * percentile / 100);
+		long seen = 0;
+		for (int i = 0; i < NUMBER_OF_BUCKETS; i++) {
+			seen += counts[i];
+			if (seen >= rank && counts[i] > 0) {
+				return Math.min(upperBoundOfBucket(i), maxNanos());
+			}
+		}
+		return maxNanos();
+	}
+
+	private long upperBoundOfBucket(int bucket) {
+		return bucket == 0 ? 0 : 1L << Math.min(bucket, 62);
+	}
+
+	long maxNanos() {
+		return max.get();
+	}
+
+	void reset() {
+		for (int i = 0; i < NUMBER_OF_BUCKETS; i++) {
+			buckets.set(i, 0);
+		}
+		max.reset();
+	}
+}
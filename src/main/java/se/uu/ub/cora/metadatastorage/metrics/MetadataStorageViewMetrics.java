@@ -0,0 +1,81 @@
+/*
+ * Copyright 2026 Uppsala University Library
+ *
+ * This file is part of Cora.
+ *
+ *     Cora is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     Cora is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with Cora.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package se.uu.ub.cora.metadatastorage.metrics;
+
+import java.util.function.Supplier;
+
+import se.uu.ub.cora.metadatastorage.cache.CacheStatistics;
+
+/**
+ * MetadataStorageViewMetrics receives measurements from a metadata storage view. Time spent in
+ * calls to the view is reported separately from time spent reading from storage and time spent
+ * converting records, so that it is possible to tell which of them dominates.
+ * <p>
+ * Implementations must be thread safe and fast, as they are called on every call to the view.
+ */
+public interface MetadataStorageViewMetrics {
+
+	/**
+	 * recordCall is called when a call to a method in the view has completed successfully.
+	 * 
+	 * @param methodName
+	 *            The name of the called method
+	 * @param durationNanos
+	 *            The time the call took, in nanoseconds
+	 * @param numberOfRecords
+	 *            The number of records or elements returned by the call
+	 */
+	void recordCall(String methodName, long durationNanos, int numberOfRecords);
+
+	/**
+	 * recordStorageRead is called when a read from storage has completed successfully.
+	 * 
+	 * @param recordType
+	 *            The type of the read records
+	 * @param durationNanos
+	 *            The time the read took, in nanoseconds
+	 * @param numberOfRecords
+	 *            The number of records read
+	 */
+	void recordStorageRead(String recordType, long durationNanos, int numberOfRecords);
+
+	/**
+	 * recordConversion is called when records have been converted to their bookkeeper
+	 * representation.
+	 * 
+	 * @param recordType
+	 *            The type of the converted records
+	 * @param durationNanos
+	 *            The time the conversion took, in nanoseconds
+	 * @param numberOfRecords
+	 *            The number of converted records
+	 */
+	void recordConversion(String recordType, long durationNanos, int numberOfRecords);
+
+	/**
+	 * registerCache makes the statistics of a cache available through the metrics. The statistics
+	 * supplier is called each time the metrics are read.
+	 * 
+	 * @param cacheName
+	 *            The name of the cache
+	 * @param statistics
+	 *            A Supplier returning the current statistics of the cache
+	 */
+	void registerCache(String cacheName, Supplier<CacheStatistics> statistics);
+}
@@ -0,0 +1,52 @@
+/*
+ * Copyright 2026 Uppsala University Library
+ *
+ * This file is part of Cora.
+ *
+ *     Cora is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     Cora is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with Cora.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package se.uu.ub.cora.metadatastorage.metrics;
+
+import java.util.Map;
+
+/**
+ * MetadataStorageViewMetricsMXBean is the management interface of
+ * {@link JmxMetadataStorageViewMetrics}. All maps are keyed by operation, named as the kind of
+ * operation followed by a dot and the method name or record type, for example
+ * "call.getTextElements", "storageRead.text" or "conversion.collectTerm".
+ */
+public interface MetadataStorageViewMetricsMXBean {
+
+	Map<String, Long> getCounts();
+
+	Map<String, Long> getRecordCounts();
+
+	Map<String, Double> getTotalTimeMillis();
+
+	Map<String, Double> getMeanTimeMicros();
+
+	Map<String, Double> getP50TimeMicros();
+
+	Map<String, Double> getP99TimeMicros();
+
+	Map<String, Double> getMaxTimeMicros();
+
+	double getTotalStorageReadTimeMillis();
+
+	double getTotalConversionTimeMillis();
+
+	Map<String, Double> getCacheHitRatios();
+
+	void reset();
+}
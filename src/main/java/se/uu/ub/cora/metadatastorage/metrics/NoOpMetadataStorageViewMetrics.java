@@ -0,0 +1,50 @@
+/*
+ * Copyright 2026 Uppsala University Library
+ *
+ * This file is part of Cora.
+ *
+ *     Cora is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     Cora is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with Cora.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package se.uu.ub.cora.metadatastorage.metrics;
+
+import java.util.function.Supplier;
+
+import se.uu.ub.cora.metadatastorage.cache.CacheStatistics;
+
+/**
+ * NoOpMetadataStorageViewMetrics ignores all measurements, it is the default metrics of the
+ * metadata storage view.
+ */
+public final class NoOpMetadataStorageViewMetrics implements MetadataStorageViewMetrics {
+
+	@Override
+	public void recordCall(String methodName, long durationNanos, int numberOfRecords) {
+		// metrics are not collected
+	}
+
+	@Override
+	public void recordStorageRead(String recordType, long durationNanos, int numberOfRecords) {
+		// metrics are not collected
+	}
+
+	@Override
+	public void recordConversion(String recordType, long durationNanos, int numberOfRecords) {
+		// metrics are not collected
+	}
+
+	@Override
+	public void registerCache(String cacheName, Supplier<CacheStatistics> statistics) {
+		// metrics are not collected
+	}
+}
@@ -0,0 +1,62 @@
+/*
+ * Copyright 2026 Uppsala University Library
+ *
+ * This file is part of Cora.
+ *
+ *     Cora is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     Cora is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with Cora.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package se.uu.ub.cora.metadatastorage.metrics;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * OperationStatistics holds the counters for one measured operation, such as calls to one method
+ * or reads of one record type from storage.
+ */
+final class OperationStatistics {
+	private final LongAdder count = new LongAdder();
+	private final LongAdder totalNanos = new LongAdder();
+	private final LongAdder records = new LongAdder();
+	private final LatencyHistogram histogram = new LatencyHistogram();
+
+	void record(long durationNanos, int numberOfRecords) {
+		count.increment();
+		totalNanos.add(durationNanos);
+		records.add(numberOfRecords);
+		histogram.record(durationNanos);
+	}
+
+	long count() {
+		return count.sum();
+	}
+
+	long totalNanos() {
+		return totalNanos.sum();
+	}
+
+	long records() {
+		return records.sum();
+	}
+
+	LatencyHistogram histogram() {
+		return histogram;
+	}
+
+	void reset() {
+		count.reset();
+		totalNanos.reset();
+		records.reset();
+		histogram.reset();
+	}
+}
@@ -0,0 +1,175 @@
+/*
+ * Copyright 2026 Uppsala University Library
+ *
+ * This file is part of Cora.
+ *
+ *     Cora is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     Cora is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with Cora.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package se.uu.ub.cora.metadatastorage.paging;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * RecordPageIterator iterates over all records of a type by reading them one page at a time
+ * through a {@link RecordPageReader}. Without prefetching is a new page read first when all
+ * records in the previous page have been consumed, so at most one page of records is held by the
+ * iterator. With prefetching is the next page read on the prefetch executor while the current page
+ * is consumed, so that storage reads overlap with the work done on each record.
+ * <p>
+ * Reading stops when a page does not contain exactly pageSize records, as that page is the last
+ * one, or when storage ignored the requested window and returned more records than asked for.
+ * <p>
+ * Each page is read as a separate window of records, so the {@link RecordPageReader} must return
+ * the records in the same order for every window, and fill every page but the last. Records
+ * created or removed in storage while the pages are read shift the windows, which can make the
+ * iterator skip or repeat records.
+ * <p>
+ * An iterator, or a stream from {@link #toStream()}, that is not consumed to the end should be
+ * closed, so that a page being prefetched is cancelled and no further pages are read.
+ */
+public final class RecordPageIterator<T> implements Iterator<T>, AutoCloseable {
+	private final RecordPageReader<T> pageReader;
+	private final int pageSize;
+	private final Executor prefetchExecutor;
+	private long nextFromNo = 1;
+	private Iterator<T> currentPage = Collections.emptyIterator();
+	private CompletableFuture<List<T>> prefetchedPage;
+	private boolean lastPageRead = false;
+
+	public static <T> RecordPageIterator<T> usingPageReaderAndPageSize(
+			RecordPageReader<T> pageReader, int pageSize) {
+		return new RecordPageIterator<>(pageReader, pageSize, null);
+	}
+
+	public static <T> RecordPageIterator<T> usingPageReaderAndPageSizeAndPrefetchExecutor(
+			RecordPageReader<T> pageReader, int pageSize, Executor prefetchExecutor) {
+		return new RecordPageIterator<>(pageReader, pageSize, prefetchExecutor);
+	}
+
+	private RecordPageIterator(RecordPageReader<T> pageReader, int pageSize,
+			Executor prefetchExecutor) {
+		if (pageSize < 1) {
+			throw new IllegalArgumentException("Page size must be at least 1, was: " + pageSize);
+		}
+		this.pageReader = pageReader;
+		this.pageSize = pageSize;
+		this.prefetchExecutor = prefetchExecutor;
+	}
+
+	@Override
+	public boolean hasNext() {
+		while (!currentPage.hasNext() && !lastPageRead) {
+			readNextPage();
+		}
+		return currentPage.hasNext();
+	}
+
+	private void readNextPage() {
+		List<T> page = getPrefetchedPageOrReadPage(nextFromNo, calculateToNo(nextFromNo));
+		nextFromNo += pageSize;
+		lastPageRead = page.size() != pageSize;
+		currentPage = page.iterator();
+		if (!lastPageRead && prefetchExecutor != null) {
+			prefetchPage(nextFromNo, calculateToNo(nextFromNo));
+		}
+	}
+
+	private long calculateToNo(long fromNo) {
+		return fromNo + pageSize - 1;
+	}
+
+	private List<T> getPrefetchedPageOrReadPage(long fromNo, long toNo) {
+		if (prefetchedPage == null) {
+			return pageReader.readPage(fromNo, toNo);
+		}
+		CompletableFuture<List<T>> page = prefetchedPage;
+		prefetchedPage = null;
+		return waitForPrefetchedPage(page);
+	}
+
+	private List<T> waitForPrefetchedPage(CompletableFuture<List<T>> page) {
+		try {
+			return page.join();
+		} catch (CompletionException e) {
+			if (e.getCause() instanceof RuntimeException runtimeException) {
+				throw runtimeException;
+			}
+			throw e;
+		}
+	}
+
+	private void prefetchPage(long fromNo, long toNo) {
+		prefetchedPage = CompletableFuture.supplyAsync(() -> pageReader.readPage(fromNo, toNo),
+				prefetchExecutor);
+	}
+
+	@Override
+	public T next() {
+		if (!hasNext()) {
+			throw new NoSuchElementException("No more records to read");
+		}
+		return currentPage.next();
+	}
+
+	/**
+	 * close stops the iterator from reading more pages. A page being prefetched is cancelled, if
+	 * its read has already started in storage is its result dropped when the read is done. After
+	 * close is called has the iterator no more records.
+	 */
+	@Override
+	public void close() {
+		lastPageRead = true;
+		currentPage = Collections.emptyIterator();
+		if (prefetchedPage != null) {
+			prefetchedPage.cancel(true);
+			prefetchedPage = null;
+		}
+	}
+
+	/**
+	 * toList reads all remaining records into a List.
+	 * 
+	 * @return A List with all remaining records
+	 */
+	public List<T> toList() {
+		List<T> records = new ArrayList<>();
+		forEachRemaining(records::add);
+		return records;
+	}
+
+	/**
+	 * toStream returns a sequential Stream over all remaining records, pages are read as the
+	 * stream is consumed. Closing the stream closes this iterator, so a stream that may not be
+	 * consumed to the end, for instance by findFirst or limit, should be closed, preferably using
+	 * try-with-resources.
+	 * 
+	 * @return A Stream with all remaining records
+	 */
+	public Stream<T> toStream() {
+		Spliterator<T> spliterator = Spliterators.spliteratorUnknownSize(this,
+				Spliterator.ORDERED | Spliterator.NONNULL);
+		return StreamSupport.stream(spliterator, false).onClose(this::close);
+	}
+}
@@ -0,0 +1,42 @@
+/*
+ * Copyright 2026 Uppsala University Library
+ *
+ * This file is part of Cora.
+ *
+ *     Cora is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     Cora is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with Cora.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package se.uu.ub.cora.metadatastorage.paging;
+
+import java.util.List;
+
+/**
+ * RecordPageReader reads records one page at a time for a {@link RecordPageIterator}.
+ * <p>
+ * Implementations must return the records in a stable order, the same for every page, so that
+ * consecutive pages neither overlap nor leave gaps. Every page but the last must be full, as a
+ * page with fewer records than asked for ends the reading.
+ */
+public interface RecordPageReader<T> {
+
+	/**
+	 * readPage reads one page of records from storage.
+	 * 
+	 * @param fromNo
+	 *            The number of the first record in the page, the first record has number 1
+	 * @param toNo
+	 *            The number of the last record in the page
+	 * @return A List with the records in the page, an empty list if there are no more records
+	 */
+	List<T> readPage(long fromNo, long toNo);
+}
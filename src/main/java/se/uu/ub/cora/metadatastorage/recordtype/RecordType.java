@@ -0,0 +1,46 @@
+/*
+ * Copyright 2026 Uppsala University Library
+ *
+ * This file is part of Cora.
+ *
+ *     Cora is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     Cora is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with Cora.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package se.uu.ub.cora.metadatastorage.recordtype;
+
+/**
+ * RecordType holds the parts of a recordType record that are used when handling records of the
+ * type, parsed once from the record so that they can be read without parsing the record again.
+ * 
+ * @param id
+ *            The id of the record type
+ * @param metadataId
+ *            The id of the metadata group that defines records of the type
+ * @param publicRecordType
+ *            true if records of the type are public, false otherwise
+ * @param parentId
+ *            The id of the record type this record type implements, or null if it does not
+ *            implement another record type
+ */
+public record RecordType(String id, String metadataId, boolean publicRecordType,
+		String parentId) {
+
+	/**
+	 * hasParent returns true if this record type implements another record type.
+	 * 
+	 * @return true if the record type has a parent, false otherwise
+	 */
+	public boolean hasParent() {
+		return parentId != null;
+	}
+}
@@ -0,0 +1,128 @@
+/*
+ * Copyright 2026 Uppsala University Library
+ *
+ * This file is part of Cora.
+ *
+ *     Cora is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     Cora is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with Cora.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package se.uu.ub.cora.metadatastorage.recordtype;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import se.uu.ub.cora.metadatastorage.registry.IndexedRegistry;
+
+/**
+ * RecordTypeRegistry is an immutable registry of all {@link RecordType}s, built once from the
+ * recordType records in storage. It answers lookups by record type id and by the parent record
+ * type a record type implements in constant time, without reading from storage or parsing the
+ * recordType records again.
+ * <p>
+ * The registry is never changed after it has been created, a change in storage is instead handled
+ * by creating a new registry and replacing the old one.
+ */
+public final class RecordTypeRegistry {
+	private final IndexedRegistry<RecordType> registry;
+
+	/**
+	 * usingRecordTypesById creates a new registry, the order of the record types returned by
+	 * {@link #getRecordTypes()} is the iteration order of the entered map.
+	 * 
+	 * @param recordTypesById
+	 *            A Map with record type id as key and the RecordType as value
+	 * @return A new RecordTypeRegistry
+	 */
+	public static RecordTypeRegistry usingRecordTypesById(Map<String, RecordType> recordTypesById) {
+		return new RecordTypeRegistry(IndexedRegistry.usingElementsByIdAndGroupingKey(
+				recordTypesById, RecordType::parentId));
+	}
+
+	private RecordTypeRegistry(IndexedRegistry<RecordType> registry) {
+		this.registry = registry;
+	}
+
+	/**
+	 * getRecordTypes returns all record types in the registry.
+	 * 
+	 * @return An unmodifiable List with all RecordTypes
+	 */
+	public List<RecordType> getRecordTypes() {
+		return registry.getElements();
+	}
+
+	/**
+	 * getRecordTypesById returns all record types in the registry by their id, in the same order
+	 * as {@link #getRecordTypes()}.
+	 * 
+	 * @return An unmodifiable Map with record type id as key and the RecordType as value
+	 */
+	public Map<String, RecordType> getRecordTypesById() {
+		return registry.getElementsById();
+	}
+
+	/**
+	 * getRecordType returns the record type with the specified id.
+	 * 
+	 * @param recordTypeId
+	 *            The id of the record type
+	 * @return An Optional with the RecordType, or an empty Optional if no record type with the id
+	 *         exists
+	 */
+	public Optional<RecordType> getRecordType(String recordTypeId) {
+		return registry.getElement(recordTypeId);
+	}
+
+	/**
+	 * getImplementingRecordTypes returns all record types that implement the specified parent
+	 * record type.
+	 * 
+	 * @param parentId
+	 *            The id of the parent record type
+	 * @return An unmodifiable List with the implementing RecordTypes, empty if no record type
+	 *         implements the parent record type
+	 */
+	public List<RecordType> getImplementingRecordTypes(String parentId) {
+		return registry.getElementsGroupedBy(parentId);
+	}
+
+	/**
+	 * withRecordType returns a new registry where the record type with the specified id is
+	 * replaced, or added last if it does not exist in this registry.
+	 * 
+	 * @param recordTypeId
+	 *            The id of the record type
+	 * @param recordType
+	 *            The new or changed RecordType
+	 * @return A new RecordTypeRegistry
+	 */
+	public RecordTypeRegistry withRecordType(String recordTypeId, RecordType recordType) {
+		return new RecordTypeRegistry(registry.withElement(recordTypeId, recordType));
+	}
+
+	/**
+	 * withoutRecordType returns a new registry without the record type with the specified id.
+	 * 
+	 * @param recordTypeId
+	 *            The id of the record type to leave out
+	 * @return A new RecordTypeRegistry
+	 */
+	public RecordTypeRegistry withoutRecordType(String recordTypeId) {
+		return new RecordTypeRegistry(registry.withoutElement(recordTypeId));
+	}
+
+	public int size() {
+		return registry.size();
+	}
+}
@@ -0,0 +1,160 @@
+/*
+ * Copyright 2026 Uppsala University Library
+ *
+ * This file is part of Cora.
+ *
+ *     Cora is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     Cora is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with Cora.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package se.uu.ub.cora.metadatastorage.registry;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Function;
+
+/**
+ * IndexedRegistry is an immutable registry of elements indexed by id and by a grouping key read
+ * from each element. It is the shared implementation behind the registries of record types and
+ * validation types, which only differ in the type of element and in which key they are grouped
+ * by.
+ * <p>
+ * The registry is never changed after it has been created, {@link #withElement(String, Object)}
+ * and {@link #withoutElement(String)} instead return a new registry.
+ * 
+ * @param <T>
+ *            The type of the elements in the registry
+ */
+public final class IndexedRegistry<T> {
+	private final Map<String, T> elementsById;
+	private final List<T> elements;
+	private final Function<T, String> groupingKey;
+	private final Map<String, List<T>> elementsByGroupingKey;
+
+	/**
+	 * usingElementsByIdAndGroupingKey creates a new registry, the order of the elements returned
+	 * by {@link #getElements()} is the iteration order of the entered map.
+	 * 
+	 * @param elementsById
+	 *            A Map with element id as key and the element as value
+	 * @param groupingKey
+	 *            A Function returning the key an element is grouped by, or null if the element
+	 *            should not be part of any group
+	 * @return A new IndexedRegistry
+	 */
+	public static <T> IndexedRegistry<T> usingElementsByIdAndGroupingKey(
+			Map<String, T> elementsById, Function<T, String> groupingKey) {
+		return new IndexedRegistry<>(elementsById, groupingKey);
+	}
+
+	private IndexedRegistry(Map<String, T> elementsById, Function<T, String> groupingKey) {
+		this.elementsById = Collections.unmodifiableMap(new LinkedHashMap<>(elementsById));
+		this.elements = List.copyOf(elementsById.values());
+		this.groupingKey = groupingKey;
+		this.elementsByGroupingKey = indexByGroupingKey();
+	}
+
+	private Map<String, List<T>> indexByGroupingKey() {
+		Map<String, List<T>> byKey = new HashMap<>();
+		for (T element : elements) {
+			String key = groupingKey.apply(element);
+			if (key != null) {
+				byKey.computeIfAbsent(key, k -> new ArrayList<>()).add(element);
+			}
+		}
+		byKey.replaceAll((key, list) -> List.copyOf(list));
+		return Map.copyOf(byKey);
+	}
+
+	/**
+	 * getElements returns all elements in the registry.
+	 * 
+	 * @return An unmodifiable List with all elements
+	 */
+	public List<T> getElements() {
+		return elements;
+	}
+
+	/**
+	 * getElementsById returns all elements in the registry by their id, in the same order as
+	 * {@link #getElements()}.
+	 * 
+	 * @return An unmodifiable Map with element id as key and the element as value
+	 */
+	public Map<String, T> getElementsById() {
+		return elementsById;
+	}
+
+	/**
+	 * getElement returns the element with the specified id.
+	 * 
+	 * @param id
+	 *            The id of the element
+	 * @return An Optional with the element, or an empty Optional if no element with the id exists
+	 */
+	public Optional<T> getElement(String id) {
+		return Optional.ofNullable(elementsById.get(id));
+	}
+
+	/**
+	 * getElementsGroupedBy returns all elements with the specified grouping key.
+	 * 
+	 * @param key
+	 *            The grouping key
+	 * @return An unmodifiable List with the elements, empty if no element has the grouping key
+	 */
+	public List<T> getElementsGroupedBy(String key) {
+		return elementsByGroupingKey.getOrDefault(key, Collections.emptyList());
+	}
+
+	/**
+	 * withElement returns a new registry where the element with the specified id is replaced, or
+	 * added last if it does not exist in this registry.
+	 * 
+	 * @param id
+	 *            The id of the element
+	 * @param element
+	 *            The new or changed element
+	 * @return A new IndexedRegistry
+	 */
+	public IndexedRegistry<T> withElement(String id, T element) {
+		Map<String, T> changed = new LinkedHashMap<>(elementsById);
+		changed.put(id, element);
+		return new IndexedRegistry<>(changed, groupingKey);
+	}
+
+	/**
+	 * withoutElement returns a new registry without the element with the specified id. If no
+	 * element with the id exists is this registry returned, as it is immutable.
+	 * 
+	 * @param id
+	 *            The id of the element to leave out
+	 * @return An IndexedRegistry without the element
+	 */
+	public IndexedRegistry<T> withoutElement(String id) {
+		if (!elementsById.containsKey(id)) {
+			return this;
+		}
+		Map<String, T> changed = new LinkedHashMap<>(elementsById);
+		changed.remove(id);
+		return new IndexedRegistry<>(changed, groupingKey);
+	}
+
+	public int size() {
+		return elements.size();
+	}
+}
@@ -0,0 +1,131 @@
+/*
+ * Copyright 2026 Uppsala University Library
+ *
+ * This file is part of Cora.
+ *
+ *     Cora is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     Cora is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with Cora.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package se.uu.ub.cora.metadatastorage.validationtype;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import se.uu.ub.cora.bookkeeper.validator.ValidationType;
+import se.uu.ub.cora.metadatastorage.registry.IndexedRegistry;
+
+/**
+ * ValidationTypeRegistry is an immutable registry of all {@link ValidationType}s, built once from
+ * the validationType records in storage. It answers lookups by validation type id and by the
+ * record type a validation type validates in constant time, without reading from storage.
+ * <p>
+ * The registry is never changed after it has been created, a change in storage is instead handled
+ * by creating a new registry and replacing the old one.
+ */
+public final class ValidationTypeRegistry {
+	private final IndexedRegistry<ValidationType> registry;
+
+	/**
+	 * usingValidationTypesById creates a new registry, the order of the validation types returned
+	 * by {@link #getValidationTypes()} is the iteration order of the entered map.
+	 * 
+	 * @param validationTypesById
+	 *            A Map with validation type id as key and the ValidationType as value
+	 * @return A new ValidationTypeRegistry
+	 */
+	public static ValidationTypeRegistry usingValidationTypesById(
+			Map<String, ValidationType> validationTypesById) {
+		return new ValidationTypeRegistry(IndexedRegistry.usingElementsByIdAndGroupingKey(
+				validationTypesById, ValidationType::validatesRecordType));
+	}
+
+	private ValidationTypeRegistry(IndexedRegistry<ValidationType> registry) {
+		this.registry = registry;
+	}
+
+	/**
+	 * getValidationTypes returns all validation types in the registry.
+	 * 
+	 * @return An unmodifiable List with all ValidationTypes
+	 */
+	public List<ValidationType> getValidationTypes() {
+		return registry.getElements();
+	}
+
+	/**
+	 * getValidationTypesById returns all validation types in the registry by their id, in the same
+	 * order as {@link #getValidationTypes()}.
+	 * 
+	 * @return An unmodifiable Map with validation type id as key and the ValidationType as value
+	 */
+	public Map<String, ValidationType> getValidationTypesById() {
+		return registry.getElementsById();
+	}
+
+	/**
+	 * getValidationType returns the validation type with the specified id.
+	 * 
+	 * @param validationId
+	 *            The id of the validation type
+	 * @return An Optional with the ValidationType, or an empty Optional if no validation type
+	 *         with the id exists
+	 */
+	public Optional<ValidationType> getValidationType(String validationId) {
+		return registry.getElement(validationId);
+	}
+
+	/**
+	 * getValidationTypesForRecordType returns all validation types that validate the specified
+	 * record type.
+	 * 
+	 * @param recordType
+	 *            The id of the validated record type
+	 * @return An unmodifiable List with the ValidationTypes, empty if none validate the record
+	 *         type
+	 */
+	public List<ValidationType> getValidationTypesForRecordType(String recordType) {
+		return registry.getElementsGroupedBy(recordType);
+	}
+
+	/**
+	 * withValidationType returns a new registry where the validation type with the specified id
+	 * is replaced, or added last if it does not exist in this registry.
+	 * 
+	 * @param validationId
+	 *            The id of the validation type
+	 * @param validationType
+	 *            The new or changed ValidationType
+	 * @return A new ValidationTypeRegistry
+	 */
+	public ValidationTypeRegistry withValidationType(String validationId,
+			ValidationType validationType) {
+		return new ValidationTypeRegistry(registry.withElement(validationId, validationType));
+	}
+
+	/**
+	 * withoutValidationType returns a new registry without the validation type with the
+	 * specified id.
+	 * 
+	 * @param validationId
+	 *            The id of the validation type to leave out
+	 * @return A new ValidationTypeRegistry
+	 */
+	public ValidationTypeRegistry withoutValidationType(String validationId) {
+		return new ValidationTypeRegistry(registry.withoutElement(validationId));
+	}
+
+	public int size() {
+		return registry.size();
+	}
+}
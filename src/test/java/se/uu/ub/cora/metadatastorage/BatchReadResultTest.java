@@ -0,0 +1,116 @@
+/*
+ * Copyright 2026 Uppsala University Library
+ *
+ * This file is part of Cora.
+ *
+ *     Cora is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     Cora is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with Cora.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package se.uu.ub.cora.metadatastorage;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertSame;
+import static org.testng.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+import org.testng.annotations.Test;
+
+public class BatchReadResultTest {
+
+	@Test
+	public void testFoundAndNotFoundKeepOrder() {
+		Map<String, String> found = new LinkedHashMap<>();
+		found.put("id2", "element2");
+		found.put("id1", "element1");
+		Set<String> notFound = new LinkedHashSet<>(List.of("id4", "id3"));
+
+		BatchReadResult<String> result = new BatchReadResult<>(found, notFound);
+
+		assertEquals(new ArrayList<>(result.found().keySet()), List.of("id2", "id1"));
+		assertEquals(new ArrayList<>(result.notFound()), List.of("id4", "id3"));
+	}
+
+	@Test
+	public void testResultIsNotChangedByChangesToInput() {
+		Map<String, String> found = new LinkedHashMap<>();
+		Set<String> notFound = new LinkedHashSet<>();
+
+		BatchReadResult<String> result = new BatchReadResult<>(found, notFound);
+		found.put("id1", "element1");
+		notFound.add("id2");
+
+		assertTrue(result.found().isEmpty());
+		assertTrue(result.notFound().isEmpty());
+	}
+
+	@Test
+	public void testFailedKeepsOrderAndIsEmptyByDefault() {
+		Map<String, Exception> failed = new LinkedHashMap<>();
+		RuntimeException error2 = new RuntimeException("someError2");
+		RuntimeException error1 = new RuntimeException("someError1");
+		failed.put("id2", error2);
+		failed.put("id1", error1);
+
+		BatchReadResult<String> result = new BatchReadResult<>(Map.of(), Set.of(), failed);
+
+		assertEquals(new ArrayList<>(result.failed().keySet()), List.of("id2", "id1"));
+		assertSame(result.failed().get("id1"), error1);
+		assertTrue(new BatchReadResult<>(Map.of(), Set.of()).failed().isEmpty());
+	}
+
+	@Test(expectedExceptions = UnsupportedOperationException.class)
+	public void testFailedIsUnmodifiable() {
+		BatchReadResult<String> result = new BatchReadResult<>(Map.of(), Set.of());
+
+		result.failed().put("id1", new RuntimeException());
+	}
+
+	@Test(expectedExceptions = UnsupportedOperationException.class)
+	public void testFoundIsUnmodifiable() {
+		BatchReadResult<String> result = new BatchReadResult<>(Map.of(), Set.of());
+
+		result.found().put("id1", "element1");
+	}
+
+	@Test(expectedExceptions = UnsupportedOperationException.class)
+	public void testNotFoundIsUnmodifiable() {
+		BatchReadResult<String> result = new BatchReadResult<>(Map.of(), Set.of());
+
+		result.notFound().add("id1");
+	}
+
+	@Test
+	public void testGet() {
+		BatchReadResult<String> result = new BatchReadResult<>(Map.of("id1", "element1"),
+				Set.of("id2"));
+
+		assertEquals(result.get("id1"), Optional.of("element1"));
+		assertEquals(result.get("id2"), Optional.empty());
+	}
+
+	@Test
+	public void testAllFound() {
+		assertTrue(new BatchReadResult<>(Map.of("id1", "element1"), Set.of()).allFound());
+		assertFalse(new BatchReadResult<>(Map.of("id1", "element1"), Set.of("id2")).allFound());
+		assertFalse(new BatchReadResult<>(Map.of("id1", "element1"), Set.of(),
+				Map.of("id2", new RuntimeException())).allFound());
+	}
+}
@@ -1,5 +1,5 @@
 /*
- * Copyright 2017, 2019, 2024 Uppsala University Library
+ * Copyright 2017, 2019, 2024, 2026 Uppsala University Library
  *
  * This file is part of Cora.
  *
@@ -19,8 +19,13 @@
 package se.uu.ub.cora.metadatastorage;
 
 import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertNull;
+import static org.testng.Assert.assertTrue;
+import static org.testng.Assert.fail;
+
+import java.util.Collections;
+import java.util.List;
 
-import org.testng.annotations.BeforeMethod;
 import org.testng.annotations.Test;
 
 import se.uu.ub.cora.bookkeeper.metadata.CollectTerm;
@@ -29,39 +34,152 @@ import se.uu.ub.cora.bookkeeper.metadata.PermissionTerm;
 import se.uu.ub.cora.bookkeeper.metadata.StorageTerm;
 
 public class CollectTermHolderTest {
-	CollectTermHolderImp holder;
+	private StorageTerm storageTerm = StorageTerm.usingIdAndStorageKey("someStorageId",
+			"someStorageKey");
+	private PermissionTerm permissionTerm = PermissionTerm
+			.usingIdAndNameInDataAndPermissionKeyAndMode("somePermissionId", "someNameInData",
+					"somePermissionKey", PermissionTerm.Mode.STANDARD);
+	private IndexTerm indexTerm = IndexTerm.usingIdAndNameInDataAndIndexFieldNameAndIndexType(
+			"someIndexId", "someNameInData", "someFieldName", "someIndexType");
+	private IndexTerm otherIndexTerm = IndexTerm
+			.usingIdAndNameInDataAndIndexFieldNameAndIndexType("someOtherIndexId",
+					"someOtherNameInData", "someFieldName", "someIndexType");
+
+	private CollectTermHolderImp createHolder(CollectTerm... collectTerms) {
+		return CollectTermHolderImp.usingCollectTerms(List.of(collectTerms));
+	}
 
-	@BeforeMethod
-	public void beforeMethod() {
-		holder = new CollectTermHolderImp();
+	@Test
+	public void testEmptyHolder() {
+		CollectTermHolderImp holder = CollectTermHolderImp
+				.usingCollectTerms(Collections.emptyList());
+
+		assertNull(holder.getCollectTermById("someId"));
+		assertTrue(holder.getStorageTerms().isEmpty());
+		assertTrue(holder.getIndexTerms().isEmpty());
+		assertTrue(holder.getPermissionTerms().isEmpty());
 	}
 
 	@Test
 	public void testAddAndReadStorageTerm() {
-		StorageTerm storageTerm = StorageTerm.usingIdAndStorageKey("someId",
-				"someStorageKey");
+		CollectTermHolderImp holder = createHolder(storageTerm);
 
-		holder.addCollectTerm(storageTerm);
-		CollectTerm collectTerm = holder.getCollectTermById("someId");
+		CollectTerm collectTerm = holder.getCollectTermById("someStorageId");
 		assertEquals(collectTerm, storageTerm);
 	}
 
 	@Test
 	public void testAddAndReadPermissionTerm() {
-		PermissionTerm permissionTerm = PermissionTerm.usingIdAndNameInDataAndPermissionKeyAndMode(
-				"someId", "someNameInData", "somePermissionKey", PermissionTerm.Mode.STANDARD);
+		CollectTermHolderImp holder = createHolder(permissionTerm);
 
-		holder.addCollectTerm(permissionTerm);
-		assertEquals(holder.getCollectTermById("someId"), permissionTerm);
+		assertEquals(holder.getCollectTermById("somePermissionId"), permissionTerm);
 	}
 
 	@Test
 	public void testAddAndReadIndexTerm() {
-		IndexTerm indexTerm = IndexTerm.usingIdAndNameInDataAndIndexFieldNameAndIndexType(
-				"someId", "someNameInData", "someFiledName", "someIndexType");
+		CollectTermHolderImp holder = createHolder(indexTerm);
+
+		assertEquals(holder.getCollectTermById("someIndexId"), indexTerm);
+	}
+
+	@Test
+	public void testTermsAreGroupedByType() {
+		CollectTermHolderImp holder = createHolder(indexTerm, storageTerm, permissionTerm,
+				otherIndexTerm);
+
+		assertEquals(holder.getStorageTerms(), List.of(storageTerm));
+		assertEquals(holder.getIndexTerms(), List.of(indexTerm, otherIndexTerm));
+		assertEquals(holder.getPermissionTerms(), List.of(permissionTerm));
+	}
+
+	@Test
+	public void testGetIndexTermsByIndexFieldName() {
+		CollectTermHolderImp holder = createHolder(indexTerm, storageTerm, otherIndexTerm);
+
+		assertEquals(holder.getIndexTermsByIndexFieldName("someFieldName"),
+				List.of(indexTerm, otherIndexTerm));
+		assertTrue(holder.getIndexTermsByIndexFieldName("someMissingFieldName").isEmpty());
+	}
+
+	@Test
+	public void testGetPermissionTermsByPermissionKey() {
+		CollectTermHolderImp holder = createHolder(permissionTerm, indexTerm);
+
+		assertEquals(holder.getPermissionTermsByPermissionKey("somePermissionKey"),
+				List.of(permissionTerm));
+		assertTrue(holder.getPermissionTermsByPermissionKey("someMissingKey").isEmpty());
+	}
+
+	@Test
+	public void testHolderIsImmutable() {
+		CollectTermHolderImp holder = createHolder(storageTerm);
 
-		holder.addCollectTerm(indexTerm);
-		assertEquals(holder.getCollectTermById("someId"), indexTerm);
+		try {
+			holder.getStorageTerms().add(storageTerm);
+			fail();
+		} catch (UnsupportedOperationException e) {
+			assertEquals(holder.getStorageTerms().size(), 1);
+		}
 	}
 
-}
\ No newline at end of file
+	@Test
+	public void testWithCollectTermReplacesTermWithSameId() {
+		CollectTermHolderImp holder = createHolder(indexTerm, storageTerm);
+		IndexTerm changedIndexTerm = IndexTerm.usingIdAndNameInDataAndIndexFieldNameAndIndexType(
+				"someIndexId", "someNameInData", "someChangedFieldName", "someIndexType");
+
+		CollectTermHolderImp changed = holder.withCollectTerm(changedIndexTerm);
+
+		assertEquals(changed.getCollectTermById("someIndexId"), changedIndexTerm);
+		assertEquals(changed.getIndexTerms(), List.of(changedIndexTerm));
+		assertTrue(changed.getIndexTermsByIndexFieldName("someFieldName").isEmpty());
+		assertEquals(changed.getStorageTerms(), List.of(storageTerm));
+		assertEquals(holder.getCollectTermById("someIndexId"), indexTerm);
+	}
+
+	@Test
+	public void testWithCollectTermAddsNewTerm() {
+		CollectTermHolderImp holder = createHolder(storageTerm);
+
+		CollectTermHolderImp changed = holder.withCollectTerm(permissionTerm);
+
+		assertEquals(changed.getPermissionTerms(), List.of(permissionTerm));
+		assertEquals(changed.getStorageTerms(), List.of(storageTerm));
+	}
+
+	@Test
+	public void testWithAndWithoutCollectTermKeepOrder() {
+		IndexTerm thirdIndexTerm = createIndexTermWithIdAndFieldName("someThirdIndexId",
+				"someFieldName");
+		IndexTerm changedOtherIndexTerm = createIndexTermWithIdAndFieldName("someOtherIndexId",
+				"someFieldName");
+		IndexTerm addedIndexTerm = createIndexTermWithIdAndFieldName("someAddedIndexId",
+				"someFieldName");
+		CollectTermHolderImp holder = createHolder(indexTerm, otherIndexTerm, thirdIndexTerm);
+
+		CollectTermHolderImp changed = holder.withCollectTerm(changedOtherIndexTerm)
+				.withCollectTerm(addedIndexTerm).withoutCollectTerm("someIndexId");
+
+		List<IndexTerm> expectedOrder = List.of(changedOtherIndexTerm, thirdIndexTerm,
+				addedIndexTerm);
+		assertEquals(changed.getIndexTerms(), expectedOrder);
+		assertEquals(changed.getIndexTermsByIndexFieldName("someFieldName"), expectedOrder);
+	}
+
+	private IndexTerm createIndexTermWithIdAndFieldName(String id, String indexFieldName) {
+		return IndexTerm.usingIdAndNameInDataAndIndexFieldNameAndIndexType(id, "someNameInData",
+				indexFieldName, "someIndexType");
+	}
+
+	@Test
+	public void testWithoutCollectTerm() {
+		CollectTermHolderImp holder = createHolder(indexTerm, otherIndexTerm);
+
+		CollectTermHolderImp changed = holder.withoutCollectTerm("someIndexId");
+
+		assertNull(changed.getCollectTermById("someIndexId"));
+		assertEquals(changed.getIndexTermsByIndexFieldName("someFieldName"),
+				List.of(otherIndexTerm));
+		assertEquals(holder.getIndexTerms().size(), 2);
+	}
+}
@@ -18,7 +18,6 @@
  */
 package se.uu.ub.cora.metadatastorage;
 
-import se.uu.ub.cora.data.DataRecordGroup;
 import se.uu.ub.cora.metadatastorage.converter.datatotextelement.DataToTextElementConverter;
 import se.uu.ub.cora.metadatastorage.converter.datatotextelement.DataToTextElementConverterFactory;
 import se.uu.ub.cora.testutils.mcr.MethodCallRecorder;
@@ -31,12 +30,12 @@ public class DataToTextElementConverterFactorySpy implements DataToTextElementCo
 
 	public DataToTextElementConverterFactorySpy() {
 		MCR.useMRV(MRV);
-		MRV.setDefaultReturnValuesSupplier("factor", DataToTextElementConverterSpy::new);
+		DataToTextElementConverterSpy converter = new DataToTextElementConverterSpy();
+		MRV.setDefaultReturnValuesSupplier("factor", () -> converter);
 	}
 
 	@Override
-	public DataToTextElementConverter factor(DataRecordGroup dataRecordGroup) {
-		return (DataToTextElementConverter) MCR.addCallAndReturnFromMRV("dataRecordGroup",
-				dataRecordGroup);
+	public DataToTextElementConverter factor() {
+		return (DataToTextElementConverter) MCR.addCallAndReturnFromMRV();
 	}
 }
@@ -19,6 +19,7 @@
 package se.uu.ub.cora.metadatastorage;
 
 import se.uu.ub.cora.bookkeeper.text.TextElement;
+import se.uu.ub.cora.data.DataRecordGroup;
 import se.uu.ub.cora.metadatastorage.converter.datatotextelement.DataToTextElementConverter;
 import se.uu.ub.cora.testutils.mcr.MethodCallRecorder;
 import se.uu.ub.cora.testutils.mrv.MethodReturnValues;
@@ -34,8 +35,8 @@ public class DataToTextElementConverterSpy implements DataToTextElementConverter
 	}
 
 	@Override
-	public TextElement convert() {
-		return (TextElement) MCR.addCallAndReturnFromMRV();
+	public TextElement convert(DataRecordGroup dataRecordGroup) {
+		return (TextElement) MCR.addCallAndReturnFromMRV("dataRecordGroup", dataRecordGroup);
 	}
 
 }
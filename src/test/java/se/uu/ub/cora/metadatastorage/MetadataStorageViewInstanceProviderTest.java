@@ -19,22 +19,36 @@
 package se.uu.ub.cora.metadatastorage;
 
 import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertNotSame;
+import static org.testng.Assert.assertNull;
+import static org.testng.Assert.assertSame;
 import static org.testng.Assert.assertTrue;
 
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.concurrent.ExecutorService;
+
+import org.testng.annotations.AfterMethod;
 import org.testng.annotations.BeforeMethod;
 import org.testng.annotations.Test;
 
-import se.uu.ub.cora.bookkeeper.storage.MetadataStorageViewInstanceProvider;
+import se.uu.ub.cora.bookkeeper.storage.MetadataStorageView;
 import se.uu.ub.cora.logger.LoggerProvider;
 import se.uu.ub.cora.logger.spies.LoggerFactorySpy;
+import se.uu.ub.cora.metadatastorage.cache.CachedMetadataStorageView;
+import se.uu.ub.cora.metadatastorage.cache.SnapshotFile;
+import se.uu.ub.cora.metadatastorage.cache.SnapshotRefresher;
 import se.uu.ub.cora.metadatastorage.converter.datatotextelement.DataToTextElementConverterFactoryImp;
+import se.uu.ub.cora.metadatastorage.metrics.MetadataStorageViewMetricsSpy;
+import se.uu.ub.cora.metadatastorage.metrics.NoOpMetadataStorageViewMetrics;
 import se.uu.ub.cora.storage.RecordStorageProvider;
 import se.uu.ub.cora.storage.spies.RecordStorageInstanceProviderSpy;
 
 public class MetadataStorageViewInstanceProviderTest {
 	LoggerFactorySpy loggerFactorySpy = new LoggerFactorySpy();
 	RecordStorageInstanceProviderSpy recordStorageInstanceProvider;
-	private MetadataStorageViewInstanceProvider instanceProvider;
+	private MetadataStorageViewInstanceProviderImp provider;
 
 	@BeforeMethod
 	public void beforeMethod() {
@@ -42,23 +56,295 @@ public class MetadataStorageViewInstanceProviderTest {
 		recordStorageInstanceProvider = new RecordStorageInstanceProviderSpy();
 		RecordStorageProvider
 				.onlyForTestSetRecordStorageInstanceProvider(recordStorageInstanceProvider);
-		instanceProvider = new MetadataStorageViewInstanceProviderImp();
+		provider = new MetadataStorageViewInstanceProviderImp();
+	}
+
+	@AfterMethod
+	public void afterMethod() {
+		provider.close();
 	}
 
 	@Test
 	public void testGetStorageView() {
-		MetadataStorageViewImp metadataStorageView = (MetadataStorageViewImp) instanceProvider
-				.getStorageView();
+		MetadataStorageView storageView = provider.getStorageView();
 
-		assertTrue(metadataStorageView instanceof MetadataStorageViewImp);
+		MetadataStorageViewImp metadataStorageView = (MetadataStorageViewImp) storageView;
 		recordStorageInstanceProvider.MCR.assertReturn("getRecordStorage", 0,
 				metadataStorageView.onlyForTestGetRecordStorage());
 		assertTrue(metadataStorageView
 				.onlyForTestGetDataToTextElementConverterFactory() instanceof DataToTextElementConverterFactoryImp);
 	}
 
+	@Test
+	public void testGetStorageViewReturnsNewViewReadingFromStorageOnEachCall() {
+		MetadataStorageView firstView = provider.getStorageView();
+		MetadataStorageView secondView = provider.getStorageView();
+
+		assertNotSame(secondView, firstView);
+		recordStorageInstanceProvider.MCR.assertNumberOfCallsToMethod("getRecordStorage", 2);
+		assertNull(provider.onlyForTestGetRefresher());
+	}
+
+	@Test
+	public void testUseSharedViewMakesGetStorageViewReturnSharedView() {
+		provider.useSharedView();
+
+		MetadataStorageView firstView = provider.getStorageView();
+		MetadataStorageView secondView = provider.getStorageView();
+
+		assertSame(firstView, provider.getSharedStorageView());
+		assertSame(secondView, firstView);
+	}
+
+	@Test
+	public void testGetSharedStorageView() {
+		CachedMetadataStorageView cachedView = provider.getSharedStorageView();
+
+		MetadataStorageViewImp metadataStorageView = (MetadataStorageViewImp) cachedView
+				.onlyForTestGetSnapshotLoader();
+		recordStorageInstanceProvider.MCR.assertReturn("getRecordStorage", 0,
+				metadataStorageView.onlyForTestGetRecordStorage());
+		assertTrue(metadataStorageView
+				.onlyForTestGetDataToTextElementConverterFactory() instanceof DataToTextElementConverterFactoryImp);
+		assertEquals(metadataStorageView.onlyForTestGetElementCacheSize(), 10000);
+		assertTrue(metadataStorageView.onlyForTestGetReadSnapshotInOneRead());
+	}
+
+	@Test
+	public void testNoSnapshotFileIsUsedByDefault() {
+		CachedMetadataStorageView cachedView = provider.getSharedStorageView();
+
+		assertNull(cachedView.onlyForTestGetSnapshotFile());
+	}
+
+	@Test
+	public void testUseSnapshotFile() {
+		Path path = Path.of("someDirectory", "metadataSnapshot.bin");
+		provider.useSnapshotFile(path);
+
+		CachedMetadataStorageView cachedView = provider.getSharedStorageView();
+
+		SnapshotFile snapshotFile = cachedView.onlyForTestGetSnapshotFile();
+		MetadataStorageViewImp metadataStorageView = (MetadataStorageViewImp) cachedView
+				.onlyForTestGetSnapshotLoader();
+		assertEquals(snapshotFile.onlyForTestGetPath(), path);
+		assertSame(snapshotFile.onlyForTestGetTextConverterFactory(),
+				metadataStorageView.onlyForTestGetDataToTextElementConverterFactory());
+		assertEquals(snapshotFile.onlyForTestGetElementCacheSize(), 10000);
+		assertSame(cachedView.onlyForTestGetWriteExecutor(),
+				provider.onlyForTestGetBackgroundExecutor());
+	}
+
+	@Test
+	public void testBackgroundExecutorIsCreatedWithSharedView() throws Exception {
+		assertNull(provider.onlyForTestGetBackgroundExecutor());
+
+		provider.getSharedStorageView();
+
+		ExecutorService backgroundExecutor = provider.onlyForTestGetBackgroundExecutor();
+		Thread thread = backgroundExecutor.submit(Thread::currentThread).get();
+		assertEquals(thread.getName(), "metadataSnapshotBackgroundTask");
+		assertTrue(thread.isDaemon());
+		assertSame(backgroundExecutor.submit(Thread::currentThread).get(), thread);
+	}
+
+	@Test
+	public void testCloseShutsDownBackgroundExecutor() {
+		provider.getSharedStorageView();
+		ExecutorService backgroundExecutor = provider.onlyForTestGetBackgroundExecutor();
+
+		provider.close();
+
+		assertTrue(backgroundExecutor.isShutdown());
+		assertNull(provider.onlyForTestGetBackgroundExecutor());
+	}
+
+	@Test
+	public void testDefaultMetricsIsNoOp() {
+		CachedMetadataStorageView cachedView = provider.getSharedStorageView();
+
+		MetadataStorageViewImp metadataStorageView = (MetadataStorageViewImp) cachedView
+				.onlyForTestGetSnapshotLoader();
+		assertTrue(cachedView.onlyForTestGetMetrics() instanceof NoOpMetadataStorageViewMetrics);
+		assertSame(metadataStorageView.onlyForTestGetMetrics(),
+				cachedView.onlyForTestGetMetrics());
+	}
+
+	@Test
+	public void testUseMetricsBeforeSharedViewIsCreated() {
+		MetadataStorageViewMetricsSpy metrics = new MetadataStorageViewMetricsSpy();
+
+		provider.useMetrics(metrics);
+
+		assertSame(provider.onlyForTestGetMetrics(), metrics);
+		metrics.MCR.assertMethodNotCalled("registerCache");
+		CachedMetadataStorageView cachedView = provider.getSharedStorageView();
+		assertMetricsUsedByViewAndLoader(cachedView, metrics);
+	}
+
+	private void assertMetricsUsedByViewAndLoader(CachedMetadataStorageView cachedView,
+			MetadataStorageViewMetricsSpy metrics) {
+		MetadataStorageViewImp metadataStorageView = (MetadataStorageViewImp) cachedView
+				.onlyForTestGetSnapshotLoader();
+		assertSame(metadataStorageView.onlyForTestGetMetrics(), metrics);
+		assertSame(cachedView.onlyForTestGetMetrics(), metrics);
+		metrics.MCR.assertParameter("registerCache", 0, "cacheName", "metadataElement");
+		metrics.MCR.assertParameter("registerCache", 1, "cacheName", "textElement");
+		metrics.MCR.assertParameter("registerCache", 2, "cacheName", "snapshotMetadataElement");
+	}
+
+	@Test
+	public void testUseMetricsAfterSharedViewIsCreated() {
+		CachedMetadataStorageView cachedView = provider.getSharedStorageView();
+		MetadataStorageViewMetricsSpy metrics = new MetadataStorageViewMetricsSpy();
+
+		provider.useMetrics(metrics);
+
+		assertMetricsUsedByViewAndLoader(cachedView, metrics);
+	}
+
+	@Test
+	public void testMetricsAreUsedByNewSharedViewAfterClose() {
+		MetadataStorageViewMetricsSpy metrics = new MetadataStorageViewMetricsSpy();
+		provider.useMetrics(metrics);
+		provider.getSharedStorageView();
+		provider.close();
+
+		CachedMetadataStorageView newView = provider.getSharedStorageView();
+
+		assertSame(newView.onlyForTestGetMetrics(), metrics);
+		metrics.MCR.assertNumberOfCallsToMethod("registerCache", 6);
+	}
+
+	@Test
+	public void testGetSharedStorageViewReturnsSameView() {
+		var firstView = provider.getSharedStorageView();
+		var secondView = provider.getSharedStorageView();
+
+		assertSame(secondView, firstView);
+		recordStorageInstanceProvider.MCR.assertNumberOfCallsToMethod("getRecordStorage", 1);
+	}
+
+	@Test
+	public void testProvidersDoNotShareView() {
+		MetadataStorageViewInstanceProviderImp otherProvider =
+				new MetadataStorageViewInstanceProviderImp();
+
+		var otherView = otherProvider.getSharedStorageView();
+
+		assertNotSame(provider.getSharedStorageView(), otherView);
+		otherProvider.close();
+	}
+
+	@Test
+	public void testWarmUpLoadsSnapshot() {
+		provider.warmUp();
+
+		CachedMetadataStorageView cachedView = provider.getSharedStorageView();
+		assertEquals(cachedView.getCurrentVersion(), 1);
+	}
+
+	@Test
+	public void testNoPeriodicRefreshBeforeSharedViewIsCreated() {
+		assertNull(provider.onlyForTestGetRefresher());
+		assertFalse(provider.isStalenessAlarmRaised());
+	}
+
+	@Test
+	public void testPeriodicRefreshIsStartedWithDefaultsWhenSharedViewIsCreated() {
+		var view = provider.getSharedStorageView();
+
+		SnapshotRefresher refresher = provider.onlyForTestGetRefresher();
+		assertSame(refresher.onlyForTestGetView(), view);
+		assertEquals(refresher.onlyForTestGetInterval(), Duration.ofMinutes(1));
+		assertEquals(refresher.getStalenessAlarm(), Duration.ofMinutes(5));
+		assertTrue(refresher.onlyForTestIsStarted());
+	}
+
+	@Test
+	public void testStopPeriodicRefresh() {
+		provider.getSharedStorageView();
+		SnapshotRefresher refresher = provider.onlyForTestGetRefresher();
+
+		provider.stopPeriodicRefresh();
+
+		assertFalse(refresher.onlyForTestIsStarted());
+		assertNull(provider.onlyForTestGetRefresher());
+		assertFalse(provider.isStalenessAlarmRaised());
+	}
+
+	@Test
+	public void testCloseAndGetStorageViewStartsNewPeriodicRefresh() {
+		provider.getSharedStorageView();
+		SnapshotRefresher first = provider.onlyForTestGetRefresher();
+		provider.close();
+
+		var newView = provider.getSharedStorageView();
+
+		SnapshotRefresher second = provider.onlyForTestGetRefresher();
+		assertNotSame(second, first);
+		assertSame(second.onlyForTestGetView(), newView);
+	}
+
+	@Test
+	public void testStartPeriodicRefresh() {
+		provider.startPeriodicRefresh(Duration.ofMinutes(1),
+				Duration.ofMinutes(5));
+
+		SnapshotRefresher refresher = provider.onlyForTestGetRefresher();
+		assertSame(refresher.onlyForTestGetView(), provider.getSharedStorageView());
+		assertEquals(refresher.onlyForTestGetInterval(), Duration.ofMinutes(1));
+		assertEquals(refresher.getStalenessAlarm(), Duration.ofMinutes(5));
+		assertTrue(refresher.onlyForTestIsStarted());
+		assertFalse(provider.isStalenessAlarmRaised());
+	}
+
+	@Test
+	public void testStartPeriodicRefreshAgainStopsPreviousRefresher() {
+		provider.startPeriodicRefresh(Duration.ofMinutes(1),
+				Duration.ofMinutes(5));
+		SnapshotRefresher first = provider.onlyForTestGetRefresher();
+
+		provider.startPeriodicRefresh(Duration.ofMinutes(2),
+				Duration.ofMinutes(5));
+
+		assertFalse(first.onlyForTestIsStarted());
+		assertNotSame(provider.onlyForTestGetRefresher(), first);
+	}
+
+	@Test
+	public void testCloseStopsPeriodicRefresh() {
+		provider.startPeriodicRefresh(Duration.ofMinutes(1),
+				Duration.ofMinutes(5));
+		SnapshotRefresher refresher = provider.onlyForTestGetRefresher();
+
+		provider.close();
+
+		assertFalse(refresher.onlyForTestIsStarted());
+		assertNull(provider.onlyForTestGetRefresher());
+	}
+
+	@Test
+	public void testRefreshLoadsNewSnapshot() {
+		provider.warmUp();
+
+		provider.refresh();
+
+		CachedMetadataStorageView cachedView = provider.getSharedStorageView();
+		assertEquals(cachedView.getCurrentVersion(), 2);
+	}
+
+	@Test
+	public void testCloseReleasesSharedView() {
+		var viewBeforeClose = provider.getSharedStorageView();
+
+		provider.close();
+
+		assertNotSame(provider.getSharedStorageView(), viewBeforeClose);
+	}
+
 	@Test
 	public void testGetOrderToSelectImplemtationsBy() {
-		assertEquals(instanceProvider.getOrderToSelectImplementionsBy(), 0);
+		assertEquals(provider.getOrderToSelectImplementionsBy(), 0);
 	}
 }
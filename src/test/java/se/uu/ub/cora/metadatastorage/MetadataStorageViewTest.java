@@ -21,14 +21,30 @@ package se.uu.ub.cora.metadatastorage;
 
 import static org.testng.Assert.assertEquals;
 import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertNotSame;
 import static org.testng.Assert.assertSame;
 import static org.testng.Assert.assertTrue;
+import static org.testng.Assert.fail;
 
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.Deque;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
 
 import org.testng.annotations.BeforeMethod;
 import org.testng.annotations.Test;
@@ -52,8 +68,17 @@ import se.uu.ub.cora.data.spies.DataFactorySpy;
 import se.uu.ub.cora.data.spies.DataGroupSpy;
 import se.uu.ub.cora.data.spies.DataRecordGroupSpy;
 import se.uu.ub.cora.data.spies.DataRecordLinkSpy;
+import se.uu.ub.cora.metadatastorage.cache.MetadataSnapshot;
+import se.uu.ub.cora.metadatastorage.cache.MetadataSnapshotLoaderSpy;
+import se.uu.ub.cora.metadatastorage.converter.pipeline.ParallelConversionPipeline;
+import se.uu.ub.cora.metadatastorage.converter.pipeline.SequentialConversionPipeline;
+import se.uu.ub.cora.metadatastorage.metrics.MetadataStorageViewMetricsSpy;
+import se.uu.ub.cora.metadatastorage.metrics.NoOpMetadataStorageViewMetrics;
+import se.uu.ub.cora.metadatastorage.recordtype.RecordType;
+import se.uu.ub.cora.metadatastorage.recordtype.RecordTypeRegistry;
 import se.uu.ub.cora.metadatastorage.spy.DataToMetadataConverterFactorySpy;
 import se.uu.ub.cora.metadatastorage.spy.DataToMetadataConverterSpy;
+import se.uu.ub.cora.metadatastorage.validationtype.ValidationTypeRegistry;
 import se.uu.ub.cora.storage.Filter;
 import se.uu.ub.cora.storage.RecordNotFoundException;
 import se.uu.ub.cora.storage.StorageReadResult;
@@ -65,6 +90,7 @@ public class MetadataStorageViewTest {
 	private DataFactorySpy dataFactorySpy;
 	private StorageReadResult resultWithValues;
 	private DataToTextElementConverterFactorySpy dataToTextConverterFactory;
+	private DataToTextElementConverterSpy textConverter;
 
 	@BeforeMethod
 	public void beforeMethod() {
@@ -74,8 +100,12 @@ public class MetadataStorageViewTest {
 		recordStorage = new RecordStorageSpy();
 		createReadResultWithValues();
 		recordStorage.MRV.setDefaultReturnValuesSupplier("readList", () -> resultWithValues);
+		recordStorage.MRV.setDefaultReturnValuesSupplier("recordExists", () -> true);
 
 		dataToTextConverterFactory = new DataToTextElementConverterFactorySpy();
+		textConverter = new DataToTextElementConverterSpy();
+		dataToTextConverterFactory.MRV.setDefaultReturnValuesSupplier("factor",
+				() -> textConverter);
 		metadataStorage = MetadataStorageViewImp.usingRecordStorageAndTextConverterFactory(
 				recordStorage, dataToTextConverterFactory);
 	}
@@ -165,9 +195,9 @@ public class MetadataStorageViewTest {
 
 		var textRecordGroup = recordStorage.MCR.assertCalledParametersReturn("read", "text",
 				"someElementId");
-		var converter = (DataToTextElementConverterSpy) dataToTextConverterFactory.MCR
-				.assertCalledParametersReturn("factor", textRecordGroup);
-		converter.MCR.assertReturn("convert", 0, textElement);
+		var convertedElement = textConverter.MCR.assertCalledParametersReturn("convert",
+				textRecordGroup);
+		assertSame(convertedElement, textElement);
 	}
 
 	@Test
@@ -182,6 +212,7 @@ public class MetadataStorageViewTest {
 		List<DataRecordGroup> recordsToConvert = setUpRecordStorageWithReturningThreeRecordGroups();
 
 		Collection<TextElement> textElements = metadataStorage.getTextElements();
+		List<TextElement> convertedTextElements = List.copyOf(textElements);
 
 		recordStorage.MCR.assertParameter("readList", 0, "type", "text");
 		var filter = recordStorage.MCR.getParameterForMethodAndCallNumberAndParameter("readList", 0,
@@ -189,13 +220,28 @@ public class MetadataStorageViewTest {
 		assertTrue(filter instanceof Filter);
 
 		for (DataRecordGroup dataRecordGroup : recordsToConvert) {
-			var converter = (DataToTextElementConverterSpy) dataToTextConverterFactory.MCR
-					.assertCalledParametersReturn("factor", dataRecordGroup);
-			var textElement = converter.MCR.assertCalledParametersReturn("convert");
-			assertTrue(textElements.contains(textElement));
+			var textElement = textConverter.MCR.assertCalledParametersReturn("convert",
+					dataRecordGroup);
+			assertTrue(convertedTextElements.contains(textElement));
 		}
 	}
 
+	@Test
+	public void testGetTextElements_ConvertsOnlyAccessedElementsOnce() {
+		List<DataRecordGroup> recordsToConvert = setUpRecordStorageWithReturningThreeRecordGroups();
+
+		List<TextElement> textElements = (List<TextElement>) metadataStorage.getTextElements();
+
+		assertEquals(textElements.size(), 3);
+		textConverter.MCR.assertMethodNotCalled("convert");
+
+		TextElement textElement = textElements.get(1);
+
+		assertSame(textElements.get(1), textElement);
+		textConverter.MCR.assertNumberOfCallsToMethod("convert", 1);
+		textConverter.MCR.assertParameters("convert", 0, recordsToConvert.get(1));
+	}
+
 	private List<DataRecordGroup> setUpRecordStorageWithReturningThreeRecordGroups() {
 		StorageReadResult resultWithValues = new StorageReadResult();
 		resultWithValues.listOfDataRecordGroups = List.of(new DataRecordGroupSpy(),
@@ -474,6 +520,48 @@ public class MetadataStorageViewTest {
 		assertEquals(indexTerm.type, "index");
 	}
 
+	@Test
+	public void testRepeatedCollectTermValuesAreSharedWithinOneRead() {
+		StorageReadResult storageReadResult = new StorageReadResult();
+		recordStorage.MRV.setDefaultReturnValuesSupplier("readList", () -> storageReadResult);
+		storageReadResult.listOfDataRecordGroups.add(createIndexTermWithSharedValues("someId1"));
+		storageReadResult.listOfDataRecordGroups.add(createIndexTermWithSharedValues("someId2"));
+
+		CollectTermHolder collectTermHolder = metadataStorage.getCollectTermHolder();
+
+		IndexTerm first = (IndexTerm) collectTermHolder.getCollectTermById("someId1");
+		IndexTerm second = (IndexTerm) collectTermHolder.getCollectTermById("someId2");
+		assertSame(second.nameInData, first.nameInData);
+		assertSame(second.indexType, first.indexType);
+		assertEquals(second.indexFieldName, first.indexFieldName);
+		assertNotSame(second.indexFieldName, first.indexFieldName);
+	}
+
+	private DataRecordGroupSpy createIndexTermWithSharedValues(String id) {
+		DataRecordGroupSpy recordGroup = createCollectTermAsRecord("index", id,
+				Optional.of(new String("someNameInData")));
+		return createExtraDataAndaddChilds(recordGroup,
+				new Pair("indexFieldName", new String("someIndexFieldName")),
+				new Pair("indexType", new String("someIndexType")));
+	}
+
+	@Test
+	public void testRepeatedValidatedRecordTypeIsSharedWithinOneRead() {
+		DataRecordGroupSpy validationTypeDG1 = createDataGroupWithDataForValidationType("1");
+		DataRecordGroupSpy validationTypeDG2 = createDataGroupWithDataForValidationType("1");
+		StorageReadResult storageReadResult = new StorageReadResult();
+		storageReadResult.listOfDataRecordGroups = List.of(validationTypeDG1, validationTypeDG2);
+		recordStorage.MRV.setDefaultReturnValuesSupplier("readList", () -> storageReadResult);
+
+		List<ValidationType> validationTypes = List.copyOf(metadataStorage.getValidationTypes());
+
+		ValidationType first = validationTypes.get(0);
+		ValidationType second = validationTypes.get(1);
+		assertSame(second.validatesRecordType(), first.validatesRecordType());
+		assertEquals(second.createDefinitionId(), first.createDefinitionId());
+		assertNotSame(second.createDefinitionId(), first.createDefinitionId());
+	}
+
 	@Test(expectedExceptions = MetadataStorageViewException.class, expectedExceptionsMessageRegExp = ""
 			+ "Metadata with id: someId, not found in storage.")
 	public void testGetMetadataElementDoNotExists() {
@@ -499,6 +587,771 @@ public class MetadataStorageViewTest {
 		converter.MCR.assertReturn("toMetadata", 0, metadataElement);
 	}
 
+	@Test
+	public void testFindMetadataElement() {
+		MetadataStorageViewImp metadataStorageImp = (MetadataStorageViewImp) metadataStorage;
+		DataToMetadataConverterFactorySpy converterFactory = new DataToMetadataConverterFactorySpy();
+		DataToMetadataConverterProvider
+				.onlyForTestSetDataGroupToMetadataConverterFactory(converterFactory);
+
+		Optional<MetadataElement> metadataElement = metadataStorageImp
+				.findMetadataElement("someId");
+
+		recordStorage.MCR.assertParameterAsEqual("recordExists", 0, "types",
+				List.of("metadata"));
+		recordStorage.MCR.assertParameter("recordExists", 0, "id", "someId");
+		var readMetadata = recordStorage.MCR.assertCalledParametersReturn("read", "metadata",
+				"someId");
+		var converter = (DataToMetadataConverterSpy) converterFactory.MCR
+				.assertCalledParametersReturn("factorForDataContainingMetadata", readMetadata);
+		converter.MCR.assertReturn("toMetadata", 0, metadataElement.get());
+	}
+
+	@Test
+	public void testFindMetadataElementNotFoundDoesNotRead() {
+		MetadataStorageViewImp metadataStorageImp = (MetadataStorageViewImp) metadataStorage;
+		recordStorage.MRV.setDefaultReturnValuesSupplier("recordExists", () -> false);
+
+		Optional<MetadataElement> metadataElement = metadataStorageImp
+				.findMetadataElement("someId");
+
+		assertTrue(metadataElement.isEmpty());
+		recordStorage.MCR.assertMethodNotCalled("read");
+	}
+
+	@Test
+	public void testFindMetadataElementRemovedBetweenExistsAndRead() {
+		MetadataStorageViewImp metadataStorageImp = (MetadataStorageViewImp) metadataStorage;
+		metadataStorageImp.useMissingIdCache(10, Duration.ofMinutes(1));
+		recordStorage.MRV.setAlwaysThrowException("read",
+				RecordNotFoundException.withMessage("not found"));
+
+		assertTrue(metadataStorageImp.findMetadataElement("someId").isEmpty());
+		assertTrue(metadataStorageImp.findMetadataElement("someId").isEmpty());
+
+		recordStorage.MCR.assertNumberOfCallsToMethod("recordExists", 1);
+		recordStorage.MCR.assertNumberOfCallsToMethod("read", 1);
+	}
+
+	@Test
+	public void testFindUsesMissingIdCache() {
+		MetadataStorageViewImp metadataStorageImp = (MetadataStorageViewImp) metadataStorage;
+		metadataStorageImp.useMissingIdCache(10, Duration.ofMinutes(1));
+		recordStorage.MRV.setDefaultReturnValuesSupplier("recordExists", () -> false);
+		recordStorage.MRV.setThrowException("read", RecordNotFoundException.withMessage("none"),
+				"validationType", "someValidationTypeId");
+
+		for (int i = 0; i < 2; i++) {
+			assertTrue(metadataStorageImp.findMetadataElement("someId").isEmpty());
+			assertTrue(metadataStorageImp.findTextElement("someTextId").isEmpty());
+			assertTrue(metadataStorageImp.getValidationType("someValidationTypeId").isEmpty());
+		}
+
+		recordStorage.MCR.assertNumberOfCallsToMethod("recordExists", 2);
+		recordStorage.MCR.assertNumberOfCallsToMethod("read", 1);
+		assertEquals(metadataStorageImp.onlyForTestGetMissingIdCache().size(), 3);
+	}
+
+	@Test
+	public void testFindMetadataElementStorageErrorIsThrown() {
+		MetadataStorageViewImp metadataStorageImp = (MetadataStorageViewImp) metadataStorage;
+		RuntimeException storageError = new RuntimeException("storage down");
+		recordStorage.MRV.setAlwaysThrowException("recordExists", storageError);
+
+		try {
+			metadataStorageImp.findMetadataElement("someId");
+			fail("An exception should have been thrown");
+		} catch (MetadataStorageViewException e) {
+			assertEquals(e.getMessage(), "Error getting metadata elements from storage.");
+			assertSame(e.getCause(), storageError);
+		}
+	}
+
+	@Test
+	public void testFindTextElement() {
+		MetadataStorageViewImp metadataStorageImp = (MetadataStorageViewImp) metadataStorage;
+
+		Optional<TextElement> textElement = metadataStorageImp.findTextElement("someTextId");
+
+		recordStorage.MCR.assertParameterAsEqual("recordExists", 0, "types", List.of("text"));
+		var readText = recordStorage.MCR.assertCalledParametersReturn("read", "text",
+				"someTextId");
+		var convertedElement = textConverter.MCR.assertCalledParametersReturn("convert",
+				readText);
+		assertSame(textElement.get(), convertedElement);
+	}
+
+	@Test
+	public void testFindTextElementNotFound() {
+		MetadataStorageViewImp metadataStorageImp = (MetadataStorageViewImp) metadataStorage;
+		recordStorage.MRV.setDefaultReturnValuesSupplier("recordExists", () -> false);
+
+		assertTrue(metadataStorageImp.findTextElement("someTextId").isEmpty());
+
+		recordStorage.MCR.assertMethodNotCalled("read");
+		textConverter.MCR.assertMethodNotCalled("convert");
+	}
+
+	@Test
+	public void testFindServesElementsFromElementCache() {
+		MetadataStorageViewImp metadataStorageImp = (MetadataStorageViewImp) metadataStorage;
+		metadataStorageImp.useElementCacheSize(10);
+		DataToMetadataConverterProvider.onlyForTestSetDataGroupToMetadataConverterFactory(
+				new DataToMetadataConverterFactorySpy());
+		MetadataElement metadataElement = metadataStorageImp.getMetadataElement("someId");
+		TextElement textElement = metadataStorageImp.getTextElement("someTextId");
+
+		assertSame(metadataStorageImp.findMetadataElement("someId").get(), metadataElement);
+		assertSame(metadataStorageImp.findTextElement("someTextId").get(), textElement);
+
+		recordStorage.MCR.assertMethodNotCalled("recordExists");
+		recordStorage.MCR.assertNumberOfCallsToMethod("read", 2);
+		assertEquals(metadataStorageImp.getMetadataElementCacheStatistics().hits(), 1);
+	}
+
+	@Test
+	public void testFindMetadataElementAddsToElementCache() {
+		MetadataStorageViewImp metadataStorageImp = (MetadataStorageViewImp) metadataStorage;
+		metadataStorageImp.useElementCacheSize(10);
+		DataToMetadataConverterProvider.onlyForTestSetDataGroupToMetadataConverterFactory(
+				new DataToMetadataConverterFactorySpy());
+
+		MetadataElement metadataElement = metadataStorageImp.findMetadataElement("someId").get();
+
+		assertSame(metadataStorageImp.getMetadataElement("someId"), metadataElement);
+		recordStorage.MCR.assertNumberOfCallsToMethod("read", 1);
+	}
+
+	@Test
+	public void testValidationTypeIsReadWithoutCheckingIfItExists() {
+		setUpRecordStorageForReadForOneValidationType();
+
+		Optional<ValidationType> validationType = metadataStorage
+				.getValidationType("someValidationTypeId1");
+
+		assertTrue(validationType.isPresent());
+		recordStorage.MCR.assertMethodNotCalled("recordExists");
+		recordStorage.MCR.assertNumberOfCallsToMethod("read", 1);
+	}
+
+	@Test
+	public void testValidationTypeNotInStorageIsFoundMissingUsingOneRead() {
+		recordStorage.MRV.setThrowException("read", RecordNotFoundException.withMessage("none"),
+				"validationType", "someValidationTypeId");
+
+		Optional<ValidationType> validationType = metadataStorage
+				.getValidationType("someValidationTypeId");
+
+		assertTrue(validationType.isEmpty());
+		recordStorage.MCR.assertMethodNotCalled("recordExists");
+		recordStorage.MCR.assertNumberOfCallsToMethod("read", 1);
+	}
+
+	@Test
+	public void testFindReportsExistsCheckAsStorageRead() {
+		MetadataStorageViewImp metadataStorageImp = (MetadataStorageViewImp) metadataStorage;
+		MetadataStorageViewMetricsSpy metrics = new MetadataStorageViewMetricsSpy();
+		metadataStorageImp.useMetrics(metrics);
+
+		metadataStorageImp.findTextElement("someTextId");
+		recordStorage.MRV.setDefaultReturnValuesSupplier("recordExists", () -> false);
+		metadataStorageImp.findTextElement("someOtherTextId");
+
+		metrics.MCR.assertNumberOfCallsToMethod("recordStorageRead", 3);
+		metrics.MCR.assertParameter("recordStorageRead", 0, "recordType", "text");
+		metrics.MCR.assertParameter("recordStorageRead", 0, "numberOfRecords", 1);
+		metrics.MCR.assertParameter("recordStorageRead", 1, "numberOfRecords", 1);
+		metrics.MCR.assertParameter("recordStorageRead", 2, "recordType", "text");
+		metrics.MCR.assertParameter("recordStorageRead", 2, "numberOfRecords", 0);
+	}
+
+	@Test
+	public void testElementCacheIsOffByDefault() {
+		MetadataStorageViewImp metadataStorageImp = (MetadataStorageViewImp) metadataStorage;
+		DataToMetadataConverterProvider.onlyForTestSetDataGroupToMetadataConverterFactory(
+				new DataToMetadataConverterFactorySpy());
+
+		metadataStorageImp.getMetadataElement("someId");
+		metadataStorageImp.getMetadataElement("someId");
+		metadataStorageImp.getTextElement("someTextId");
+		metadataStorageImp.getTextElement("someTextId");
+
+		assertEquals(metadataStorageImp.onlyForTestGetElementCacheSize(), 0);
+		recordStorage.MCR.assertNumberOfCallsToMethod("read", 4);
+	}
+
+	@Test
+	public void testElementCacheServesRepeatedLookups() {
+		MetadataStorageViewImp metadataStorageImp = (MetadataStorageViewImp) metadataStorage;
+		metadataStorageImp.useElementCacheSize(10);
+		DataToMetadataConverterProvider.onlyForTestSetDataGroupToMetadataConverterFactory(
+				new DataToMetadataConverterFactorySpy());
+
+		MetadataElement metadataElement = metadataStorageImp.getMetadataElement("someId");
+		TextElement textElement = metadataStorageImp.getTextElement("someTextId");
+
+		assertSame(metadataStorageImp.getMetadataElement("someId"), metadataElement);
+		assertSame(metadataStorageImp.getTextElement("someTextId"), textElement);
+		recordStorage.MCR.assertNumberOfCallsToMethod("read", 2);
+		assertEquals(metadataStorageImp.getMetadataElementCacheStatistics().hits(), 1);
+		assertEquals(metadataStorageImp.getTextElementCacheStatistics().hits(), 1);
+	}
+
+	@Test
+	public void testElementCacheInvalidateById() {
+		MetadataStorageViewImp metadataStorageImp = (MetadataStorageViewImp) metadataStorage;
+		metadataStorageImp.useElementCacheSize(10);
+		DataToMetadataConverterProvider.onlyForTestSetDataGroupToMetadataConverterFactory(
+				new DataToMetadataConverterFactorySpy());
+		metadataStorageImp.getMetadataElement("someId");
+		metadataStorageImp.getTextElement("someTextId");
+
+		metadataStorageImp.invalidateMetadataElement("someId");
+		metadataStorageImp.invalidateTextElement("someTextId");
+		metadataStorageImp.getMetadataElement("someId");
+		metadataStorageImp.getTextElement("someTextId");
+
+		recordStorage.MCR.assertNumberOfCallsToMethod("read", 4);
+	}
+
+	@Test
+	public void testGetMetadataElementsByIdReadsIdsInChunksOfSetSize() {
+		MetadataStorageViewImp metadataStorageImp = (MetadataStorageViewImp) metadataStorage;
+		metadataStorageImp.useBatchReadChunkSize(2);
+		MetadataStorageViewMetricsSpy metrics = new MetadataStorageViewMetricsSpy();
+		metadataStorageImp.useMetrics(metrics);
+		DataToMetadataConverterFactorySpy converterFactory = new DataToMetadataConverterFactorySpy();
+		DataToMetadataConverterProvider
+				.onlyForTestSetDataGroupToMetadataConverterFactory(converterFactory);
+		List<DataRecordGroup> recordGroups = setUpRecordStorageToReadRecordGroupsWithIds(
+				"metadata", "id1", "id3");
+		recordStorage.MRV.setThrowException("read", RecordNotFoundException.withMessage("none"),
+				"metadata", "someMissingId");
+
+		BatchReadResult<MetadataElement> result = metadataStorageImp
+				.getMetadataElements(List.of("id3", "someMissingId", "id1", "id3"));
+
+		recordStorage.MCR.assertMethodNotCalled("readList");
+		recordStorage.MCR.assertNumberOfCallsToMethod("read", 3);
+		recordStorage.MCR.assertParameters("read", 0, "metadata", "id3");
+		recordStorage.MCR.assertParameters("read", 1, "metadata", "someMissingId");
+		recordStorage.MCR.assertParameters("read", 2, "metadata", "id1");
+		metrics.MCR.assertNumberOfCallsToMethod("recordConversion", 2);
+		metrics.MCR.assertParameter("recordConversion", 0, "numberOfRecords", 1);
+		metrics.MCR.assertParameter("recordConversion", 1, "numberOfRecords", 1);
+		converterFactory.MCR.assertNumberOfCallsToMethod("factorForDataContainingMetadata", 2);
+		assertFoundElementIsConvertedFromRecordGroup(converterFactory, result, "id3",
+				recordGroups.get(1));
+		assertFoundElementIsConvertedFromRecordGroup(converterFactory, result, "id1",
+				recordGroups.get(0));
+		assertEquals(new ArrayList<>(result.found().keySet()), List.of("id3", "id1"));
+		assertEquals(result.notFound(), Set.of("someMissingId"));
+	}
+
+	private List<DataRecordGroup> setUpRecordStorageToReadRecordGroupsWithIds(String recordType,
+			String... ids) {
+		List<DataRecordGroup> recordGroups = new ArrayList<>();
+		for (String id : ids) {
+			DataRecordGroupSpy recordGroup = new DataRecordGroupSpy();
+			recordGroup.MRV.setDefaultReturnValuesSupplier("getId", () -> id);
+			recordStorage.MRV.setSpecificReturnValuesSupplier("read", () -> recordGroup,
+					recordType, id);
+			recordGroups.add(recordGroup);
+		}
+		return recordGroups;
+	}
+
+	private void assertFoundElementIsConvertedFromRecordGroup(
+			DataToMetadataConverterFactorySpy converterFactory,
+			BatchReadResult<MetadataElement> result, String id, DataRecordGroup recordGroup) {
+		DataToMetadataConverterSpy converter = (DataToMetadataConverterSpy) converterFactory.MCR
+				.assertCalledParametersReturn("factorForDataContainingMetadata", recordGroup);
+		converter.MCR.assertReturn("toMetadata", 0, result.found().get(id));
+	}
+
+	@Test
+	public void testGetMetadataElementsByIdReadsEachId() {
+		MetadataStorageViewImp metadataStorageImp = (MetadataStorageViewImp) metadataStorage;
+		DataToMetadataConverterFactorySpy converterFactory = new DataToMetadataConverterFactorySpy();
+		DataToMetadataConverterProvider
+				.onlyForTestSetDataGroupToMetadataConverterFactory(converterFactory);
+		DataRecordGroupSpy recordGroup = new DataRecordGroupSpy();
+		recordGroup.MRV.setDefaultReturnValuesSupplier("getId", () -> "id1");
+		recordStorage.MRV.setSpecificReturnValuesSupplier("read", () -> recordGroup, "metadata",
+				"id1");
+		recordStorage.MRV.setThrowException("read", RecordNotFoundException.withMessage("none"),
+				"metadata", "someMissingId");
+
+		BatchReadResult<MetadataElement> result = metadataStorageImp
+				.getMetadataElements(List.of("id1", "someMissingId"));
+
+		recordStorage.MCR.assertMethodNotCalled("readList");
+		recordStorage.MCR.assertNumberOfCallsToMethod("read", 2);
+		recordStorage.MCR.assertParameters("read", 0, "metadata", "id1");
+		recordStorage.MCR.assertParameters("read", 1, "metadata", "someMissingId");
+		assertFoundElementIsConvertedFromRecordGroup(converterFactory, result, "id1",
+				recordGroup);
+		assertEquals(result.notFound(), Set.of("someMissingId"));
+	}
+
+	@Test
+	public void testGetMetadataElementsByIdReadsIdsInOneChunkByDefault() {
+		MetadataStorageViewImp metadataStorageImp = (MetadataStorageViewImp) metadataStorage;
+		MetadataStorageViewMetricsSpy metrics = new MetadataStorageViewMetricsSpy();
+		metadataStorageImp.useMetrics(metrics);
+		DataToMetadataConverterProvider.onlyForTestSetDataGroupToMetadataConverterFactory(
+				new DataToMetadataConverterFactorySpy());
+		List<String> ids = IntStream.range(0, 100).mapToObj(i -> "id" + i).toList();
+
+		metadataStorageImp.getMetadataElements(ids);
+
+		recordStorage.MCR.assertMethodNotCalled("readList");
+		recordStorage.MCR.assertNumberOfCallsToMethod("read", 100);
+		metrics.MCR.assertNumberOfCallsToMethod("recordConversion", 1);
+	}
+
+	@Test
+	public void testGetMetadataElementsByIdReadingEachIdMarksMissing() {
+		MetadataStorageViewImp metadataStorageImp = (MetadataStorageViewImp) metadataStorage;
+		metadataStorageImp.useMissingIdCache(10, Duration.ofMinutes(1));
+		recordStorage.MRV.setThrowException("read", RecordNotFoundException.withMessage("none"),
+				"metadata", "someMissingId");
+
+		metadataStorageImp.getMetadataElements(List.of("someMissingId"));
+		metadataStorageImp.getMetadataElements(List.of("someMissingId"));
+
+		recordStorage.MCR.assertNumberOfCallsToMethod("read", 1);
+	}
+
+	@Test
+	public void testGetMetadataElementsByIdReadingEachIdStorageErrorIsThrown() {
+		MetadataStorageViewImp metadataStorageImp = (MetadataStorageViewImp) metadataStorage;
+		RuntimeException storageError = new RuntimeException("someStorageError");
+		recordStorage.MRV.setAlwaysThrowException("read", storageError);
+
+		try {
+			metadataStorageImp.getMetadataElements(List.of("id1"));
+			fail("An exception should have been thrown");
+		} catch (MetadataStorageViewException e) {
+			assertEquals(e.getMessage(), "Error getting metadata elements from storage.");
+			assertSame(e.getCause(), storageError);
+		}
+	}
+
+	@Test
+	public void testGetMetadataElementsByIdConversionErrorIsReportedAsFailed() {
+		MetadataStorageViewImp metadataStorageImp = (MetadataStorageViewImp) metadataStorage;
+		DataToMetadataConverterFactorySpy converterFactory = new DataToMetadataConverterFactorySpy();
+		DataToMetadataConverterProvider
+				.onlyForTestSetDataGroupToMetadataConverterFactory(converterFactory);
+		List<DataRecordGroup> recordGroups = setUpRecordStorageToReadRecordGroupsWithIds(
+				"metadata", "id1", "id2");
+		RuntimeException conversionError = new RuntimeException("someConversionError");
+		converterFactory.MRV.setThrowException("factorForDataContainingMetadata",
+				conversionError, recordGroups.get(0));
+
+		BatchReadResult<MetadataElement> result = metadataStorageImp
+				.getMetadataElements(List.of("id1", "id2"));
+
+		assertEquals(result.found().keySet(), Set.of("id2"));
+		assertTrue(result.notFound().isEmpty());
+		assertEquals(result.failed().keySet(), Set.of("id1"));
+		assertSame(result.failed().get("id1"), conversionError);
+		assertFalse(result.allFound());
+	}
+
+	@Test
+	public void testGetMetadataElementsByIdUsesAndFillsElementCache() {
+		MetadataStorageViewImp metadataStorageImp = (MetadataStorageViewImp) metadataStorage;
+		metadataStorageImp.useElementCacheSize(10);
+		DataToMetadataConverterProvider.onlyForTestSetDataGroupToMetadataConverterFactory(
+				new DataToMetadataConverterFactorySpy());
+		setUpRecordStorageToReadRecordGroupsWithIds("metadata", "id1", "id2");
+		MetadataElement cachedElement = metadataStorageImp.getMetadataElement("id1");
+
+		BatchReadResult<MetadataElement> result = metadataStorageImp
+				.getMetadataElements(List.of("id1", "id2"));
+
+		assertSame(result.found().get("id1"), cachedElement);
+		assertSame(metadataStorageImp.getMetadataElement("id2"), result.found().get("id2"));
+		recordStorage.MCR.assertNumberOfCallsToMethod("read", 2);
+		recordStorage.MCR.assertParameters("read", 1, "metadata", "id2");
+	}
+
+	@Test
+	public void testGetMetadataElementsByIdAllCachedDoesNotReadStorage() {
+		MetadataStorageViewImp metadataStorageImp = (MetadataStorageViewImp) metadataStorage;
+		metadataStorageImp.useElementCacheSize(10);
+		DataToMetadataConverterProvider.onlyForTestSetDataGroupToMetadataConverterFactory(
+				new DataToMetadataConverterFactorySpy());
+		metadataStorageImp.getMetadataElement("id1");
+
+		BatchReadResult<MetadataElement> result = metadataStorageImp
+				.getMetadataElements(List.of("id1"));
+
+		assertTrue(result.allFound());
+		recordStorage.MCR.assertNumberOfCallsToMethod("read", 1);
+	}
+
+	@Test
+	public void testGetMetadataElementsByIdUsesMissingIdCache() {
+		MetadataStorageViewImp metadataStorageImp = (MetadataStorageViewImp) metadataStorage;
+		metadataStorageImp.useMissingIdCache(10, Duration.ofMinutes(1));
+		recordStorage.MRV.setAlwaysThrowException("read",
+				RecordNotFoundException.withMessage("none"));
+
+		metadataStorageImp.getMetadataElements(List.of("someMissingId"));
+		BatchReadResult<MetadataElement> result = metadataStorageImp
+				.getMetadataElements(List.of("someMissingId"));
+
+		assertEquals(result.notFound(), Set.of("someMissingId"));
+		recordStorage.MCR.assertNumberOfCallsToMethod("read", 1);
+		assertTrue(metadataStorageImp.onlyForTestGetMissingIdCache().isKnownMissing("metadata",
+				"someMissingId"));
+	}
+
+	@Test
+	public void testGetTextElementsById() {
+		MetadataStorageViewImp metadataStorageImp = (MetadataStorageViewImp) metadataStorage;
+		List<DataRecordGroup> recordGroups = setUpRecordStorageToReadRecordGroupsWithIds("text",
+				"someTextId");
+		recordStorage.MRV.setThrowException("read", RecordNotFoundException.withMessage("none"),
+				"text", "someMissingId");
+
+		BatchReadResult<TextElement> result = metadataStorageImp
+				.getTextElements(List.of("someTextId", "someMissingId"));
+
+		recordStorage.MCR.assertNumberOfCallsToMethod("read", 2);
+		recordStorage.MCR.assertParameters("read", 0, "text", "someTextId");
+		textConverter.MCR.assertNumberOfCallsToMethod("convert", 1);
+		var convertedElement = textConverter.MCR.assertCalledParametersReturn("convert",
+				recordGroups.get(0));
+		assertSame(convertedElement, result.found().get("someTextId"));
+		assertEquals(result.notFound(), Set.of("someMissingId"));
+	}
+
+	@Test
+	public void testMetricsForBatchReads() {
+		MetadataStorageViewImp metadataStorageImp = (MetadataStorageViewImp) metadataStorage;
+		MetadataStorageViewMetricsSpy metrics = new MetadataStorageViewMetricsSpy();
+		metadataStorageImp.useMetrics(metrics);
+		setUpRecordStorageToReadRecordGroupsWithIds("text", "someTextId");
+		recordStorage.MRV.setThrowException("read", RecordNotFoundException.withMessage("none"),
+				"text", "someMissingId");
+
+		metadataStorageImp.getTextElements(List.of("someTextId", "someMissingId"));
+
+		metrics.MCR.assertParameter("recordCall", 0, "methodName", "getTextElementsById");
+		metrics.MCR.assertParameter("recordCall", 0, "numberOfRecords", 1);
+		metrics.MCR.assertParameter("recordStorageRead", 0, "recordType", "text");
+		metrics.MCR.assertParameter("recordConversion", 0, "recordType", "text");
+		metrics.MCR.assertParameter("recordConversion", 0, "numberOfRecords", 1);
+	}
+
+	@Test
+	public void testDefaultAsyncExecutorRunsCallsOnVirtualThreads() throws Exception {
+		MetadataStorageViewImp metadataStorageImp = (MetadataStorageViewImp) metadataStorage;
+		CompletableFuture<Boolean> runOnVirtualThread = new CompletableFuture<>();
+
+		metadataStorageImp.onlyForTestGetAsyncExecutor()
+				.execute(() -> runOnVirtualThread.complete(Thread.currentThread().isVirtual()));
+
+		assertTrue(runOnVirtualThread.get(5, TimeUnit.SECONDS));
+	}
+
+	@Test
+	public void testUseAsyncExecutor() {
+		MetadataStorageViewImp metadataStorageImp = (MetadataStorageViewImp) metadataStorage;
+		Executor asyncExecutor = Runnable::run;
+
+		metadataStorageImp.useAsyncExecutor(asyncExecutor);
+
+		assertSame(metadataStorageImp.onlyForTestGetAsyncExecutor(), asyncExecutor);
+	}
+
+	@Test
+	public void testAsyncCallsRunOnAsyncExecutorAndReturnResultOfBlockingCall() {
+		MetadataStorageViewImp metadataStorageImp = (MetadataStorageViewImp) metadataStorage;
+		List<Runnable> startedCalls = new ArrayList<>();
+		metadataStorageImp.useAsyncExecutor(startedCalls::add);
+
+		CompletableFuture<Collection<DataGroup>> recordTypes = metadataStorageImp
+				.getRecordTypesAsync();
+		CompletableFuture<Collection<DataGroup>> presentations = metadataStorageImp
+				.getPresentationElementsAsync();
+
+		assertEquals(startedCalls.size(), 2);
+		recordStorage.MCR.assertMethodNotCalled("readList");
+		startedCalls.forEach(Runnable::run);
+		assertSame(recordTypes.join(), getListOfDataGroupsReturnedFromReadList(0));
+		assertSame(presentations.join(), getListOfDataGroupsReturnedFromReadList(1));
+	}
+
+	private List<DataGroup> getListOfDataGroupsReturnedFromReadList(int callNumber) {
+		StorageReadResult readResult = (StorageReadResult) recordStorage.MCR
+				.getReturnValue("readList", callNumber);
+		return readResult.listOfDataGroups;
+	}
+
+	@Test
+	public void testAllAsyncMethodsCallBlockingCounterpart() {
+		MetadataStorageViewImp metadataStorageImp = (MetadataStorageViewImp) metadataStorage;
+		metadataStorageImp.useAsyncExecutor(Runnable::run);
+		DataToMetadataConverterProvider.onlyForTestSetDataGroupToMetadataConverterFactory(
+				new DataToMetadataConverterFactorySpy());
+		recordStorage.MRV.setDefaultReturnValuesSupplier("readList", StorageReadResult::new);
+		recordStorage.MRV.setThrowException("read", RecordNotFoundException.withMessage("none"),
+				"validationType", "someValidationTypeId");
+		MetadataStorageViewMetricsSpy metrics = new MetadataStorageViewMetricsSpy();
+		metadataStorageImp.useMetrics(metrics);
+
+		metadataStorageImp.getMetadataElementsAsync().join();
+		metadataStorageImp.getMetadataElementAsync("someId").join();
+		metadataStorageImp.findMetadataElementAsync("someId").join();
+		metadataStorageImp.getMetadataElementsAsync(List.of("someId")).join();
+		metadataStorageImp.getPresentationElementsAsync().join();
+		metadataStorageImp.getTextsAsync().join();
+		metadataStorageImp.getTextElementsAsync().join();
+		metadataStorageImp.getTextElementAsync("someTextId").join();
+		metadataStorageImp.findTextElementAsync("someTextId").join();
+		metadataStorageImp.getTextElementsAsync(List.of("someTextId")).join();
+		metadataStorageImp.getRecordTypesAsync().join();
+		metadataStorageImp.getCollectTermsAsDataGroupAsync().join();
+		metadataStorageImp.getValidationTypesAsync().join();
+		metadataStorageImp.getValidationTypeAsync("someValidationTypeId").join();
+		metadataStorageImp.getCollectTermHolderAsync().join();
+
+		assertCalledMethods(metrics, "getMetadataElements", "getMetadataElement",
+				"findMetadataElement", "getMetadataElementsById", "getPresentationElements",
+				"getTexts", "getTextElements", "getTextElement", "findTextElement",
+				"getTextElementsById", "getRecordTypes",
+				"getCollectTermsAsDataGroup", "getValidationTypes", "getValidationType",
+				"getCollectTermHolder");
+	}
+
+	private void assertCalledMethods(MetadataStorageViewMetricsSpy metrics,
+			String... methodNames) {
+		metrics.MCR.assertNumberOfCallsToMethod("recordCall", methodNames.length);
+		for (int i = 0; i < methodNames.length; i++) {
+			metrics.MCR.assertParameter("recordCall", i, "methodName", methodNames[i]);
+		}
+	}
+
+	@Test
+	public void testAsyncCallCompletesExceptionallyWithErrorFromBlockingCall() {
+		MetadataStorageViewImp metadataStorageImp = (MetadataStorageViewImp) metadataStorage;
+		metadataStorageImp.useAsyncExecutor(Runnable::run);
+		recordStorage.MRV.setAlwaysThrowException("read",
+				RecordNotFoundException.withMessage("someException"));
+
+		CompletableFuture<MetadataElement> future = metadataStorageImp
+				.getMetadataElementAsync("someId");
+
+		try {
+			future.join();
+			fail("An exception should have been thrown");
+		} catch (CompletionException e) {
+			assertTrue(e.getCause() instanceof MetadataStorageViewException);
+			assertEquals(e.getCause().getMessage(),
+					"Metadata with id: someId, not found in storage.");
+		}
+	}
+
+	@Test
+	public void testLoadSnapshotCreatesMetadataElementCacheWithConfiguredSize() {
+		MetadataStorageViewImp metadataStorageImp = (MetadataStorageViewImp) metadataStorage;
+		metadataStorageImp.useElementCacheSize(17);
+
+		MetadataSnapshot snapshot = metadataStorageImp.loadSnapshot(1);
+
+		assertEquals(snapshot.metadataElementCache().onlyForTestGetMaxSize(), 17);
+	}
+
+	@Test
+	public void testMissingIdCacheIsOffByDefault() {
+		MetadataStorageViewImp metadataStorageImp = (MetadataStorageViewImp) metadataStorage;
+		recordStorage.MRV.setAlwaysThrowException("read",
+				RecordNotFoundException.withMessage("not found"));
+
+		metadataStorageImp.getValidationType("someValidationTypeId");
+		metadataStorageImp.getValidationType("someValidationTypeId");
+
+		assertEquals(metadataStorageImp.onlyForTestGetMissingIdCache().onlyForTestGetMaxSize(),
+				0);
+		recordStorage.MCR.assertNumberOfCallsToMethod("read", 2);
+	}
+
+	@Test
+	public void testMissingIdCacheAnswersRepeatedLookupsOfMissingIds() {
+		MetadataStorageViewImp metadataStorageImp = (MetadataStorageViewImp) metadataStorage;
+		metadataStorageImp.useMissingIdCache(10, Duration.ofMinutes(1));
+		recordStorage.MRV.setAlwaysThrowException("read",
+				RecordNotFoundException.withMessage("not found"));
+
+		for (int i = 0; i < 2; i++) {
+			assertMetadataStorageViewExceptionForMissingMetadata(metadataStorageImp);
+			assertMetadataStorageViewExceptionForMissingText(metadataStorageImp);
+			assertTrue(metadataStorageImp.getValidationType("someValidationTypeId").isEmpty());
+		}
+
+		recordStorage.MCR.assertNumberOfCallsToMethod("read", 3);
+		assertEquals(metadataStorageImp.onlyForTestGetMissingIdCache().size(), 3);
+	}
+
+	private void assertMetadataStorageViewExceptionForMissingMetadata(
+			MetadataStorageViewImp metadataStorageImp) {
+		try {
+			metadataStorageImp.getMetadataElement("someId");
+			fail("An exception should have been thrown");
+		} catch (MetadataStorageViewException e) {
+			assertEquals(e.getMessage(), "Metadata with id: someId, not found in storage.");
+		}
+	}
+
+	private void assertMetadataStorageViewExceptionForMissingText(
+			MetadataStorageViewImp metadataStorageImp) {
+		try {
+			metadataStorageImp.getTextElement("someTextId");
+			fail("An exception should have been thrown");
+		} catch (MetadataStorageViewException e) {
+			assertEquals(e.getMessage(), "Text with id: someTextId, not found in storage.");
+		}
+	}
+
+	@Test
+	public void testMissingIdCacheForgetsIdWhenRecordCreated() {
+		MetadataStorageViewImp metadataStorageImp = (MetadataStorageViewImp) metadataStorage;
+		metadataStorageImp.useMissingIdCache(10, Duration.ofMinutes(1));
+		recordStorage.MRV.setThrowException("read",
+				RecordNotFoundException.withMessage("not found"), "validationType",
+				"someValidationTypeId");
+		metadataStorageImp.getValidationType("someValidationTypeId");
+
+		metadataStorageImp.recordCreated("validationType", "someValidationTypeId");
+		metadataStorageImp.getValidationType("someValidationTypeId");
+
+		recordStorage.MCR.assertNumberOfCallsToMethod("read", 2);
+	}
+
+	@Test
+	public void testMissingIdCacheDoesNotRememberOtherStorageErrors() {
+		MetadataStorageViewImp metadataStorageImp = (MetadataStorageViewImp) metadataStorage;
+		metadataStorageImp.useMissingIdCache(10, Duration.ofMinutes(1));
+		recordStorage.MRV.setAlwaysThrowException("read", new RuntimeException("storage down"));
+
+		metadataStorageImp.getValidationType("someValidationTypeId");
+		metadataStorageImp.getValidationType("someValidationTypeId");
+
+		recordStorage.MCR.assertNumberOfCallsToMethod("read", 2);
+		assertEquals(metadataStorageImp.onlyForTestGetMissingIdCache().size(), 0);
+	}
+
+	@Test
+	public void testDefaultMetricsIsNoOp() {
+		MetadataStorageViewImp metadataStorageImp = (MetadataStorageViewImp) metadataStorage;
+
+		assertTrue(metadataStorageImp
+				.onlyForTestGetMetrics() instanceof NoOpMetadataStorageViewMetrics);
+	}
+
+	@Test
+	public void testUseMetricsRegistersElementCaches() {
+		MetadataStorageViewImp metadataStorageImp = (MetadataStorageViewImp) metadataStorage;
+		MetadataStorageViewMetricsSpy metrics = new MetadataStorageViewMetricsSpy();
+
+		metadataStorageImp.useMetrics(metrics);
+
+		assertSame(metadataStorageImp.onlyForTestGetMetrics(), metrics);
+		metrics.MCR.assertParameter("registerCache", 0, "cacheName", "metadataElement");
+		metrics.MCR.assertParameter("registerCache", 1, "cacheName", "textElement");
+		Supplier<?> statistics = (Supplier<?>) metrics.MCR
+				.getParameterForMethodAndCallNumberAndParameter("registerCache", 1, "statistics");
+		assertEquals(statistics.get(), metadataStorageImp.getTextElementCacheStatistics());
+	}
+
+	@Test
+	public void testMetricsForListCallRecordsCallAndStorageRead() {
+		MetadataStorageViewImp metadataStorageImp = (MetadataStorageViewImp) metadataStorage;
+		MetadataStorageViewMetricsSpy metrics = new MetadataStorageViewMetricsSpy();
+		metadataStorageImp.useMetrics(metrics);
+
+		metadataStorageImp.getPresentationElements();
+
+		metrics.MCR.assertParameter("recordStorageRead", 0, "recordType", "presentation");
+		metrics.MCR.assertParameter("recordStorageRead", 0, "numberOfRecords", 3);
+		metrics.MCR.assertParameter("recordCall", 0, "methodName", "getPresentationElements");
+		metrics.MCR.assertParameter("recordCall", 0, "numberOfRecords", 3);
+		metrics.MCR.assertMethodNotCalled("recordConversion");
+	}
+
+	@Test
+	public void testMetricsForValidationTypesRecordsConversion() {
+		MetadataStorageViewImp metadataStorageImp = (MetadataStorageViewImp) metadataStorage;
+		MetadataStorageViewMetricsSpy metrics = new MetadataStorageViewMetricsSpy();
+		metadataStorageImp.useMetrics(metrics);
+		recordStorage.MRV.setDefaultReturnValuesSupplier("readList",
+				() -> createReadResultWithRecords(List.of(
+						createDataGroupWithDataForValidationType("1"),
+						createDataGroupWithDataForValidationType("2"))));
+
+		metadataStorageImp.getValidationTypes();
+
+		metrics.MCR.assertParameter("recordStorageRead", 0, "recordType", "validationType");
+		metrics.MCR.assertParameter("recordConversion", 0, "recordType", "validationType");
+		metrics.MCR.assertParameter("recordConversion", 0, "numberOfRecords", 2);
+		metrics.MCR.assertParameter("recordCall", 0, "methodName", "getValidationTypes");
+		metrics.MCR.assertParameter("recordCall", 0, "numberOfRecords", 2);
+		long durationNanos = (long) metrics.MCR
+				.getParameterForMethodAndCallNumberAndParameter("recordCall", 0, "durationNanos");
+		assertTrue(durationNanos >= 0);
+	}
+
+	@Test
+	public void testMetricsForSingleElementRecordsReadConversionAndCall() {
+		MetadataStorageViewImp metadataStorageImp = (MetadataStorageViewImp) metadataStorage;
+		MetadataStorageViewMetricsSpy metrics = new MetadataStorageViewMetricsSpy();
+		metadataStorageImp.useMetrics(metrics);
+
+		metadataStorageImp.getTextElement("someTextId");
+
+		metrics.MCR.assertParameter("recordStorageRead", 0, "recordType", "text");
+		metrics.MCR.assertParameter("recordStorageRead", 0, "numberOfRecords", 1);
+		metrics.MCR.assertParameter("recordConversion", 0, "recordType", "text");
+		metrics.MCR.assertParameter("recordCall", 0, "methodName", "getTextElement");
+		metrics.MCR.assertParameter("recordCall", 0, "numberOfRecords", 1);
+	}
+
+	@Test
+	public void testMetricsDoesNotRecordFailedCall() {
+		MetadataStorageViewImp metadataStorageImp = (MetadataStorageViewImp) metadataStorage;
+		MetadataStorageViewMetricsSpy metrics = new MetadataStorageViewMetricsSpy();
+		metadataStorageImp.useMetrics(metrics);
+		recordStorage.MRV.setAlwaysThrowException("read",
+				RecordNotFoundException.withMessage("not found"));
+
+		try {
+			metadataStorageImp.getMetadataElement("someId");
+			fail("An exception should have been thrown");
+		} catch (MetadataStorageViewException e) {
+			metrics.MCR.assertMethodNotCalled("recordCall");
+			metrics.MCR.assertMethodNotCalled("recordStorageRead");
+		}
+	}
+
+	@Test
+	public void testMetricsForMissingValidationTypeRecordsCallWithoutRecords() {
+		MetadataStorageViewImp metadataStorageImp = (MetadataStorageViewImp) metadataStorage;
+		MetadataStorageViewMetricsSpy metrics = new MetadataStorageViewMetricsSpy();
+		metadataStorageImp.useMetrics(metrics);
+		recordStorage.MRV.setAlwaysThrowException("read",
+				RecordNotFoundException.withMessage("not found"));
+
+		metadataStorageImp.getValidationType("someValidationTypeId");
+
+		metrics.MCR.assertParameter("recordCall", 0, "methodName", "getValidationType");
+		metrics.MCR.assertParameter("recordCall", 0, "numberOfRecords", 0);
+	}
+
 	@Test
 	public void testOnlyForTestGetDataToTextElementConverterFactory() {
 		assertSame(
@@ -507,6 +1360,595 @@ public class MetadataStorageViewTest {
 				dataToTextConverterFactory);
 	}
 
+	@Test
+	public void testLoadSnapshot() {
+		MetadataStorageViewImp metadataStorageImp = (MetadataStorageViewImp) metadataStorage;
+
+		MetadataStorageViewMetricsSpy metrics = new MetadataStorageViewMetricsSpy();
+		metadataStorageImp.useMetrics(metrics);
+		List<DataRecordGroup> records = setUpRecordStorageToReturnThreeRecordGroupsUsableForAllTypes();
+		List<DataGroup> createdGroups = new ArrayList<>();
+		dataFactorySpy.MRV.setDefaultReturnValuesSupplier("factorGroupFromDataRecordGroup",
+				() -> {
+					DataGroupSpy dataGroup = new DataGroupSpy();
+					createdGroups.add(dataGroup);
+					return dataGroup;
+				});
+
+		MetadataSnapshot snapshot = metadataStorageImp.loadSnapshot(7);
+
+		assertEquals(snapshot.version(), 7);
+		recordStorage.MCR.assertNumberOfCallsToMethod("readList", 6);
+		recordStorage.MCR.assertParameter("readList", 0, "type", "metadata");
+		recordStorage.MCR.assertParameter("readList", 1, "type", "text");
+		recordStorage.MCR.assertParameter("readList", 2, "type", "recordType");
+		recordStorage.MCR.assertParameter("readList", 3, "type", "collectTerm");
+		recordStorage.MCR.assertParameterAsEqual("readList", 4, "types",
+				List.of("presentation"));
+		recordStorage.MCR.assertParameter("readList", 5, "type", "validationType");
+		assertEquals(snapshot.metadataElements(), records);
+		assertEquals(snapshot.texts(), createdGroups.subList(0, 3));
+		assertEquals(snapshot.recordTypes(), createdGroups.subList(3, 6));
+		assertEquals(snapshot.collectTermsAsDataGroup(), createdGroups.subList(6, 9));
+		assertTrue(snapshot.collectTermHolder() instanceof CollectTermHolderImp);
+		assertEquals(snapshot.validationTypeRegistry()
+				.getValidationTypesForRecordType("someRecordTypeToValidates1").size(), 1);
+		metrics.MCR.assertMethodNotCalled("recordCall");
+	}
+
+	@Test
+	public void testOneReadForSnapshotIsOffByDefault() {
+		assertFalse(((MetadataStorageViewImp) metadataStorage)
+				.onlyForTestGetReadSnapshotInOneRead());
+	}
+
+	@Test
+	public void testLoadSnapshotUsingOneReadReadsAllTypesInOneCall() {
+		MetadataStorageViewImp metadataStorageImp = (MetadataStorageViewImp) metadataStorage;
+		metadataStorageImp.useOneReadForSnapshot();
+		StorageReadResult readResult = new StorageReadResult();
+		recordStorage.MRV.setDefaultReturnValuesSupplier("readList", () -> readResult);
+		DataRecordGroupSpy metadata = createRecordGroupWithId("someMetadataId");
+		addRecordToReadResult(readResult, "metadata", metadata);
+		DataGroupSpy presentation = addRecordToReadResult(readResult, "presentation",
+				createRecordGroupWithId("somePresentationId"));
+		DataRecordGroupSpy text = createRecordGroupWithId("someTextId");
+		DataGroupSpy textGroup = addRecordToReadResult(readResult, "text", text);
+		DataGroupSpy recordType = addRecordToReadResult(readResult, "recordType",
+				createRecordTypeRecordGroup("someRecordTypeId", "someParentId"));
+		DataGroupSpy collectTerm = addRecordToReadResult(readResult, "collectTerm",
+				createIndexTermAsRecordGroupSpy("i1"));
+		DataRecordGroupSpy validationType = createDataGroupWithDataForValidationType("1");
+		validationType.MRV.setDefaultReturnValuesSupplier("getId", () -> "someValidationTypeId1");
+		addRecordToReadResult(readResult, "validationType", validationType);
+
+		MetadataSnapshot snapshot = metadataStorageImp.loadSnapshot(3);
+
+		assertEquals(snapshot.version(), 3);
+		recordStorage.MCR.assertNumberOfCallsToMethod("readList", 1);
+		recordStorage.MCR.assertParameterAsEqual("readList", 0, "types", List.of("metadata",
+				"presentation", "text", "recordType", "collectTerm", "validationType"));
+		assertEquals(snapshot.metadataElements(), List.of(metadata));
+		assertSame(snapshot.metadataElementsById().get("someMetadataId"), metadata);
+		assertEquals(snapshot.presentationElements(), List.of(presentation));
+		dataFactorySpy.MCR.assertNumberOfCallsToMethod("factorRecordGroupFromDataGroup", 5);
+		assertEquals(snapshot.texts(), List.of(textGroup));
+		assertEquals(snapshot.textElements().size(), 1);
+		snapshot.textElements().get(0);
+		textConverter.MCR.assertParameters("convert", 0, text);
+		assertEquals(snapshot.recordTypes(), List.of(recordType));
+		assertEquals(snapshot.recordTypeRegistry().getRecordType("someRecordTypeId").get(),
+				new RecordType("someRecordTypeId", "someRecordTypeIdGroup", true, "someParentId"));
+		assertEquals(snapshot.collectTermsAsDataGroup(), List.of(collectTerm));
+		assertEquals(snapshot.collectTermHolder().getCollectTermById("someIdi1").id, "someIdi1");
+		assertEquals(snapshot.validationTypeRegistry().getValidationType("someValidationTypeId1")
+				.get().validatesRecordType(), "someRecordTypeToValidates1");
+	}
+
+	private DataRecordGroupSpy createRecordGroupWithId(String recordId) {
+		DataRecordGroupSpy recordGroup = new DataRecordGroupSpy();
+		recordGroup.MRV.setDefaultReturnValuesSupplier("getId", () -> recordId);
+		return recordGroup;
+	}
+
+	private DataRecordGroupSpy createRecordTypeRecordGroup(String recordTypeId,
+			String parentId) {
+		DataRecordGroupSpy recordType = createRecordGroupWithId(recordTypeId);
+		setUpLink(recordType, "metadataId", recordTypeId + "Group");
+		recordType.MRV.setSpecificReturnValuesSupplier("containsChildWithNameInData",
+				() -> true, "public");
+		recordType.MRV.setSpecificReturnValuesSupplier("getFirstAtomicValueWithNameInData",
+				() -> "true", "public");
+		if (parentId != null) {
+			recordType.MRV.setSpecificReturnValuesSupplier("containsChildWithNameInData",
+					() -> true, "parentId");
+			setUpLink(recordType, "parentId", parentId);
+		}
+		return recordType;
+	}
+
+	private void setUpLink(DataRecordGroupSpy recordGroup, String nameInData,
+			String linkedRecordId) {
+		DataRecordLinkSpy link = new DataRecordLinkSpy();
+		link.MRV.setDefaultReturnValuesSupplier("getLinkedRecordId", () -> linkedRecordId);
+		recordGroup.MRV.setSpecificReturnValuesSupplier("getFirstChildOfTypeAndName",
+				() -> link, DataRecordLink.class, nameInData);
+	}
+
+	private DataGroupSpy addRecordToReadResult(StorageReadResult readResult, String recordType,
+			DataRecordGroupSpy recordGroup) {
+		DataGroupSpy dataGroup = createDataGroupWithRecordInfoType(recordType);
+		dataFactorySpy.MRV.setSpecificReturnValuesSupplier("factorRecordGroupFromDataGroup",
+				() -> recordGroup, dataGroup);
+		readResult.listOfDataGroups.add(dataGroup);
+		return dataGroup;
+	}
+
+	private DataGroupSpy createDataGroupWithRecordInfoType(String recordType) {
+		DataRecordLinkSpy typeLink = new DataRecordLinkSpy();
+		typeLink.MRV.setDefaultReturnValuesSupplier("getLinkedRecordId", () -> recordType);
+		DataGroupSpy recordInfo = new DataGroupSpy();
+		recordInfo.MRV.setSpecificReturnValuesSupplier("getFirstChildOfTypeAndName",
+				() -> typeLink, DataRecordLink.class, "type");
+		DataGroupSpy dataGroup = new DataGroupSpy();
+		dataGroup.MRV.setSpecificReturnValuesSupplier("getFirstGroupWithNameInData",
+				() -> recordInfo, "recordInfo");
+		return dataGroup;
+	}
+
+	@Test
+	public void testLoadSnapshotUsingOneReadWithPagedReads() {
+		MetadataStorageViewImp metadataStorageImp = (MetadataStorageViewImp) metadataStorage;
+		metadataStorageImp.useOneReadForSnapshot();
+		metadataStorageImp.usePageSize(2);
+		metadataStorageImp.usePagedReads();
+		StorageReadResult firstPage = new StorageReadResult();
+		addRecordToReadResult(firstPage, "metadata", createRecordGroupWithId("someId1"));
+		addRecordToReadResult(firstPage, "metadata", createRecordGroupWithId("someId2"));
+		StorageReadResult secondPage = new StorageReadResult();
+		addRecordToReadResult(secondPage, "metadata", createRecordGroupWithId("someId3"));
+		Deque<StorageReadResult> pages = new ArrayDeque<>(List.of(firstPage, secondPage));
+		recordStorage.MRV.setDefaultReturnValuesSupplier("readList", pages::poll);
+
+		MetadataSnapshot snapshot = metadataStorageImp.loadSnapshot(1);
+
+		recordStorage.MCR.assertNumberOfCallsToMethod("readList", 2);
+		assertFilterForPage(0, 1, 2);
+		assertFilterForPage(1, 3, 4);
+		assertEquals(snapshot.metadataElementsById().keySet(),
+				Set.of("someId1", "someId2", "someId3"));
+	}
+
+	@Test
+	public void testLoadSnapshotUsingOneReadStorageErrorIsThrown() {
+		MetadataStorageViewImp metadataStorageImp = (MetadataStorageViewImp) metadataStorage;
+		metadataStorageImp.useOneReadForSnapshot();
+		RuntimeException storageError = new RuntimeException("someStorageError");
+		recordStorage.MRV.setAlwaysThrowException("readList", storageError);
+
+		try {
+			metadataStorageImp.loadSnapshot(1);
+			fail("An exception should have been thrown");
+		} catch (MetadataStorageViewException e) {
+			assertEquals(e.getMessage(), "Error getting metadata elements from storage.");
+			assertSame(e.getCause(), storageError);
+		}
+	}
+
+	@Test
+	public void testLoadSnapshotIndexesValidationTypesById() {
+		DataRecordGroupSpy validationTypeDG = createDataGroupWithDataForValidationType("1");
+		validationTypeDG.MRV.setDefaultReturnValuesSupplier("getId",
+				() -> "someValidationTypeId1");
+		StorageReadResult storageReadResult = new StorageReadResult();
+		storageReadResult.listOfDataRecordGroups = List.of(validationTypeDG);
+		recordStorage.MRV.setDefaultReturnValuesSupplier("readList", () -> storageReadResult);
+
+		MetadataSnapshot snapshot = ((MetadataStorageViewImp) metadataStorage).loadSnapshot(1);
+
+		var expectedValidationType = new ValidationType("someRecordTypeToValidates1",
+				"createDefinitionId1", "updateDefinitionId1");
+		ValidationTypeRegistry registry = snapshot.validationTypeRegistry();
+		assertEquals(registry.getValidationType("someValidationTypeId1").get(),
+				expectedValidationType);
+		assertEquals(registry.getValidationTypes(), List.of(expectedValidationType));
+		assertEquals(registry.getValidationTypesForRecordType("someRecordTypeToValidates1"),
+				List.of(expectedValidationType));
+	}
+
+	@Test
+	public void testLoadValidationTypeRegistryReadsOnlyValidationTypes() {
+		DataRecordGroupSpy validationTypeDG = createDataGroupWithDataForValidationType("1");
+		validationTypeDG.MRV.setDefaultReturnValuesSupplier("getId",
+				() -> "someValidationTypeId1");
+		StorageReadResult storageReadResult = new StorageReadResult();
+		storageReadResult.listOfDataRecordGroups = List.of(validationTypeDG);
+		recordStorage.MRV.setDefaultReturnValuesSupplier("readList", () -> storageReadResult);
+
+		ValidationTypeRegistry registry = ((MetadataStorageViewImp) metadataStorage)
+				.loadValidationTypeRegistry();
+
+		recordStorage.MCR.assertNumberOfCallsToMethod("readList", 1);
+		recordStorage.MCR.assertParameter("readList", 0, "type", "validationType");
+		assertEquals(registry.size(), 1);
+		assertTrue(registry.getValidationType("someValidationTypeId1").isPresent());
+	}
+
+	@Test
+	public void testLoadSnapshotIndexesRecordTypesByIdAndParent() {
+		MetadataStorageViewImp metadataStorageImp = (MetadataStorageViewImp) metadataStorage;
+		metadataStorageImp.useOneReadForSnapshot();
+		StorageReadResult readResult = new StorageReadResult();
+		recordStorage.MRV.setDefaultReturnValuesSupplier("readList", () -> readResult);
+		DataRecordGroupSpy parent = createRecordTypeRecordGroup("someParentId", null);
+		parent.MRV.setSpecificReturnValuesSupplier("getFirstAtomicValueWithNameInData",
+				() -> "false", "public");
+		addRecordToReadResult(readResult, "recordType", parent);
+		addRecordToReadResult(readResult, "recordType",
+				createRecordTypeRecordGroup("someRecordTypeId", "someParentId"));
+
+		MetadataSnapshot snapshot = metadataStorageImp.loadSnapshot(1);
+
+		RecordType expectedParent = new RecordType("someParentId", "someParentIdGroup", false,
+				null);
+		RecordType expectedImplementing = new RecordType("someRecordTypeId",
+				"someRecordTypeIdGroup", true, "someParentId");
+		RecordTypeRegistry registry = snapshot.recordTypeRegistry();
+		assertEquals(registry.getRecordTypes(), List.of(expectedParent, expectedImplementing));
+		assertEquals(registry.getRecordType("someParentId").get(), expectedParent);
+		assertEquals(registry.getImplementingRecordTypes("someParentId"),
+				List.of(expectedImplementing));
+	}
+
+	@Test
+	public void testLoadSnapshotRecordTypeWithoutPublicIsNotPublic() {
+		MetadataStorageViewImp metadataStorageImp = (MetadataStorageViewImp) metadataStorage;
+		metadataStorageImp.useOneReadForSnapshot();
+		StorageReadResult readResult = new StorageReadResult();
+		recordStorage.MRV.setDefaultReturnValuesSupplier("readList", () -> readResult);
+		DataRecordGroupSpy recordType = createRecordGroupWithId("someRecordTypeId");
+		setUpLink(recordType, "metadataId", "someRecordTypeIdGroup");
+		addRecordToReadResult(readResult, "recordType", recordType);
+
+		MetadataSnapshot snapshot = metadataStorageImp.loadSnapshot(1);
+
+		RecordType parsed = snapshot.recordTypeRegistry().getRecordType("someRecordTypeId")
+				.get();
+		assertFalse(parsed.publicRecordType());
+		assertFalse(parsed.hasParent());
+		recordType.MCR.assertMethodNotCalled("getFirstAtomicValueWithNameInData");
+	}
+
+	@Test
+	public void testLoadChangedRecordOfTypeNotInSnapshotReturnsSameSnapshot() {
+		MetadataStorageViewImp metadataStorageImp = (MetadataStorageViewImp) metadataStorage;
+		MetadataSnapshot snapshot = MetadataSnapshotLoaderSpy.createEmptySnapshot(1);
+
+		MetadataSnapshot changed = metadataStorageImp.loadChangedRecord(snapshot, 2, "person",
+				"somePersonId");
+
+		assertSame(changed, snapshot);
+		recordStorage.MCR.assertMethodNotCalled("read");
+	}
+
+	@Test
+	public void testLoadChangedRecordReadsOnlyChangedMetadata() {
+		MetadataStorageViewImp metadataStorageImp = (MetadataStorageViewImp) metadataStorage;
+		MetadataSnapshot snapshot = MetadataSnapshotLoaderSpy.createEmptySnapshot(1);
+		DataRecordGroupSpy changedMetadata = new DataRecordGroupSpy();
+		changedMetadata.MRV.setDefaultReturnValuesSupplier("getId", () -> "someMetadataId");
+		recordStorage.MRV.setDefaultReturnValuesSupplier("read", () -> changedMetadata);
+
+		MetadataSnapshot changed = metadataStorageImp.loadChangedRecord(snapshot, 2, "metadata",
+				"someMetadataId");
+
+		recordStorage.MCR.assertParameters("read", 0, "metadata", "someMetadataId");
+		recordStorage.MCR.assertMethodNotCalled("readList");
+		assertEquals(changed.version(), 2);
+		assertSame(changed.metadataElementsById().get("someMetadataId"), changedMetadata);
+		assertSame(changed.texts(), snapshot.texts());
+	}
+
+	@Test
+	public void testLoadChangedRecordForText() {
+		MetadataStorageViewImp metadataStorageImp = (MetadataStorageViewImp) metadataStorage;
+		MetadataSnapshot snapshot = MetadataSnapshotLoaderSpy.createEmptySnapshot(1);
+		DataRecordGroupSpy changedText = new DataRecordGroupSpy();
+		changedText.MRV.setDefaultReturnValuesSupplier("getId", () -> "someNewTextId");
+		recordStorage.MRV.setDefaultReturnValuesSupplier("read", () -> changedText);
+		DataGroupSpy textAsDataGroup = createDataGroupWithRecordInfoId("someNewTextId");
+		dataFactorySpy.MRV.setDefaultReturnValuesSupplier("factorGroupFromDataRecordGroup",
+				() -> textAsDataGroup);
+
+		MetadataSnapshot changed = metadataStorageImp.loadChangedRecord(snapshot, 2, "text",
+				"someNewTextId");
+
+		recordStorage.MCR.assertParameters("read", 0, "text", "someNewTextId");
+		dataFactorySpy.MCR.assertParameters("factorGroupFromDataRecordGroup", 0, changedText);
+		assertEquals(changed.texts(), List.of(textAsDataGroup));
+		assertEquals(changed.textElements().size(), 1);
+		assertTrue(snapshot.texts().isEmpty());
+	}
+
+	private DataGroupSpy createDataGroupWithRecordInfoId(String id) {
+		DataGroupSpy recordInfo = new DataGroupSpy();
+		recordInfo.MRV.setSpecificReturnValuesSupplier("getFirstAtomicValueWithNameInData",
+				() -> id, "id");
+		DataGroupSpy dataGroup = new DataGroupSpy();
+		dataGroup.MRV.setSpecificReturnValuesSupplier("getFirstGroupWithNameInData",
+				() -> recordInfo, "recordInfo");
+		return dataGroup;
+	}
+
+	@Test
+	public void testLoadChangedRecordForValidationType() {
+		MetadataStorageViewImp metadataStorageImp = (MetadataStorageViewImp) metadataStorage;
+		MetadataSnapshot snapshot = MetadataSnapshotLoaderSpy.createEmptySnapshot(1);
+		setUpRecordStorageForReadForOneValidationType();
+
+		MetadataSnapshot changed = metadataStorageImp.loadChangedRecord(snapshot, 2,
+				"validationType", "someValidationTypeId1");
+
+		var expectedValidationType = new ValidationType("someRecordTypeToValidates1",
+				"createDefinitionId1", "updateDefinitionId1");
+		assertEquals(
+				changed.validationTypeRegistry().getValidationType("someValidationTypeId1").get(),
+				expectedValidationType);
+		assertSame(changed.metadataElements(), snapshot.metadataElements());
+	}
+
+	@Test
+	public void testLoadChangedRecordForRecordType() {
+		MetadataStorageViewImp metadataStorageImp = (MetadataStorageViewImp) metadataStorage;
+		MetadataSnapshot snapshot = MetadataSnapshotLoaderSpy.createEmptySnapshot(1);
+		DataRecordGroupSpy changedRecordType = createRecordTypeRecordGroup("someRecordTypeId",
+				null);
+		recordStorage.MRV.setDefaultReturnValuesSupplier("read", () -> changedRecordType);
+		DataGroupSpy recordTypeAsDataGroup = createDataGroupWithRecordInfoId("someRecordTypeId");
+		dataFactorySpy.MRV.setDefaultReturnValuesSupplier("factorGroupFromDataRecordGroup",
+				() -> recordTypeAsDataGroup);
+
+		MetadataSnapshot changed = metadataStorageImp.loadChangedRecord(snapshot, 2,
+				"recordType", "someRecordTypeId");
+
+		recordStorage.MCR.assertParameters("read", 0, "recordType", "someRecordTypeId");
+		assertEquals(changed.recordTypes(), List.of(recordTypeAsDataGroup));
+		assertEquals(changed.recordTypeRegistry().getRecordType("someRecordTypeId").get(),
+				new RecordType("someRecordTypeId", "someRecordTypeIdGroup", true, null));
+		assertEquals(snapshot.recordTypeRegistry().size(), 0);
+	}
+
+	@Test
+	public void testLoadChangedRecordNotFoundInStorageIsHandledAsDeleted() {
+		MetadataStorageViewImp metadataStorageImp = (MetadataStorageViewImp) metadataStorage;
+		DataRecordGroupSpy metadata = new DataRecordGroupSpy();
+		metadata.MRV.setDefaultReturnValuesSupplier("getId", () -> "someMetadataId");
+		MetadataSnapshot snapshot = MetadataSnapshotLoaderSpy.createEmptySnapshot(1)
+				.withMetadataElement(2, metadata);
+		recordStorage.MRV.setAlwaysThrowException("read",
+				RecordNotFoundException.withMessage("not found"));
+
+		MetadataSnapshot changed = metadataStorageImp.loadChangedRecord(snapshot, 3, "metadata",
+				"someMetadataId");
+
+		assertEquals(changed.version(), 3);
+		assertTrue(changed.metadataElements().isEmpty());
+		assertTrue(changed.metadataElementsById().isEmpty());
+	}
+
+	@Test
+	public void testDefaultConversionPipelineIsSequential() {
+		assertTrue(((MetadataStorageViewImp) metadataStorage)
+				.onlyForTestGetConversionPipeline() instanceof SequentialConversionPipeline);
+	}
+
+	@Test
+	public void testLoadSnapshotWithoutPipelineKeepsTextsUnconverted() {
+		setUpRecordStorageToReturnThreeRecordGroupsUsableForAllTypes();
+
+		((MetadataStorageViewImp) metadataStorage).loadSnapshot(1);
+
+		textConverter.MCR.assertMethodNotCalled("convert");
+	}
+
+	@Test
+	public void testLoadSnapshotWithPipelineConvertsAllTexts() {
+		MetadataStorageViewImp metadataStorageImp = (MetadataStorageViewImp) metadataStorage;
+		ExecutorService executor = new ForkJoinPool(2);
+		ParallelConversionPipeline pipeline = ParallelConversionPipeline
+				.usingExecutorAndChunkSize(executor, 1);
+		metadataStorageImp.useConversionPipeline(pipeline);
+		List<DataRecordGroup> textRecords = setUpRecordStorageToReturnThreeRecordGroupsUsableForAllTypes();
+
+		MetadataSnapshot snapshot = metadataStorageImp.loadSnapshot(1);
+		executor.shutdownNow();
+
+		assertSame(metadataStorageImp.onlyForTestGetConversionPipeline(), pipeline);
+		assertEquals(snapshot.textElements().numberOfConvertedElements(), 3);
+		for (DataRecordGroup textRecord : textRecords) {
+			textConverter.MCR.assertCalledParameters("convert", textRecord);
+		}
+	}
+
+	@Test
+	public void testPackedTextStoreIsOffByDefault() {
+		assertFalse(((MetadataStorageViewImp) metadataStorage)
+				.onlyForTestGetPackTextsWhenLoadingSnapshot());
+	}
+
+	@Test
+	public void testLoadSnapshotWithPackedTextStorePacksAllTexts() {
+		MetadataStorageViewImp metadataStorageImp = (MetadataStorageViewImp) metadataStorage;
+		metadataStorageImp.usePackedTextStore();
+		List<DataRecordGroup> textRecords = setUpRecordStorageToReturnThreeRecordGroupsUsableForAllTypes();
+
+		MetadataSnapshot snapshot = metadataStorageImp.loadSnapshot(1);
+
+		assertTrue(metadataStorageImp.onlyForTestGetPackTextsWhenLoadingSnapshot());
+		textConverter.MCR.assertNumberOfCallsToMethod("convert", 3);
+		assertEquals(snapshot.textElements().numberOfConvertedElements(), 3);
+		for (int i = 0; i < textRecords.size(); i++) {
+			TextElement textElement = snapshot.textElements().get(i);
+			assertEquals(textElement.getClass().getSimpleName(), "PackedTextElement");
+			assertEquals(textElement.getId(), "someTextId");
+		}
+	}
+
+	@Test
+	public void testDefaultPageSize() {
+		assertEquals(((MetadataStorageViewImp) metadataStorage).onlyForTestGetPageSize(), 1000);
+	}
+
+	@Test(expectedExceptions = IllegalArgumentException.class, expectedExceptionsMessageRegExp = ""
+			+ "Page size must be at least 1, was: 0")
+	public void testUsePageSizeMustBePositive() {
+		((MetadataStorageViewImp) metadataStorage).usePageSize(0);
+	}
+
+	@Test
+	public void testStreamMetadataElementsReadsInPages() {
+		MetadataStorageViewImp metadataStorageImp = (MetadataStorageViewImp) metadataStorage;
+		metadataStorageImp.usePageSize(2);
+		List<DataRecordGroup> records = setUpRecordStorageToReturnPagesOfTwoAndOne();
+
+		List<DataRecordGroup> result = metadataStorageImp.streamMetadataElements().toList();
+
+		assertEquals(result, records);
+		recordStorage.MCR.assertNumberOfCallsToMethod("readList", 2);
+		recordStorage.MCR.assertParameter("readList", 0, "type", "metadata");
+		assertFilterForPage(0, 1, 2);
+		assertFilterForPage(1, 3, 4);
+	}
+
+	private List<DataRecordGroup> setUpRecordStorageToReturnPagesOfTwoAndOne() {
+		List<DataRecordGroup> records = List.of(createDataGroupWithDataForValidationType("1"),
+				createDataGroupWithDataForValidationType("2"),
+				createDataGroupWithDataForValidationType("3"));
+		Deque<StorageReadResult> pages = new ArrayDeque<>();
+		pages.add(createReadResultWithRecords(records.subList(0, 2)));
+		pages.add(createReadResultWithRecords(records.subList(2, 3)));
+		recordStorage.MRV.setDefaultReturnValuesSupplier("readList", pages::poll);
+		return records;
+	}
+
+	private StorageReadResult createReadResultWithRecords(List<DataRecordGroup> records) {
+		StorageReadResult readResult = new StorageReadResult();
+		readResult.listOfDataRecordGroups = records;
+		return readResult;
+	}
+
+	private void assertFilterForPage(int callNumber, long fromNo, long toNo) {
+		Filter filter = (Filter) recordStorage.MCR
+				.getParameterForMethodAndCallNumberAndParameter("readList", callNumber, "filter");
+		assertEquals(filter.fromNo, fromNo);
+		assertEquals(filter.toNo, toNo);
+	}
+
+	@Test
+	public void testPagedReadsForRecordGroups() {
+		MetadataStorageViewImp metadataStorageImp = (MetadataStorageViewImp) metadataStorage;
+		metadataStorageImp.usePageSize(2);
+		metadataStorageImp.usePagedReads();
+		List<DataRecordGroup> records = setUpRecordStorageToReturnPagesOfTwoAndOne();
+
+		Collection<DataRecordGroup> result = metadataStorageImp.getMetadataElements();
+
+		assertEquals(result, records);
+		recordStorage.MCR.assertNumberOfCallsToMethod("readList", 2);
+		assertFilterForPage(0, 1, 2);
+		assertFilterForPage(1, 3, 4);
+	}
+
+	@Test
+	public void testPagedReadsForDataGroups() {
+		MetadataStorageViewImp metadataStorageImp = (MetadataStorageViewImp) metadataStorage;
+		metadataStorageImp.usePageSize(2);
+		metadataStorageImp.usePagedReads();
+		StorageReadResult firstPage = new StorageReadResult();
+		firstPage.listOfDataGroups = List.of(new DataGroupSpy(), new DataGroupSpy());
+		StorageReadResult secondPage = new StorageReadResult();
+		Deque<StorageReadResult> pages = new ArrayDeque<>(List.of(firstPage, secondPage));
+		recordStorage.MRV.setDefaultReturnValuesSupplier("readList", pages::poll);
+
+		Collection<DataGroup> result = metadataStorageImp.getPresentationElements();
+
+		assertEquals(result, firstPage.listOfDataGroups);
+		recordStorage.MCR.assertParameterAsEqual("readList", 0, "types", List.of("presentation"));
+		assertFilterForPage(0, 1, 2);
+		assertFilterForPage(1, 3, 4);
+	}
+
+	@Test
+	public void testPagedReadsWithPrefetch() {
+		MetadataStorageViewImp metadataStorageImp = (MetadataStorageViewImp) metadataStorage;
+		metadataStorageImp.usePageSize(2);
+		Executor prefetchExecutor = Runnable::run;
+		metadataStorageImp.usePagedReadsWithPrefetch(prefetchExecutor);
+		List<DataRecordGroup> records = setUpRecordStorageToReturnPagesOfTwoAndOne();
+
+		Collection<DataRecordGroup> result = metadataStorageImp.getMetadataElements();
+
+		assertSame(metadataStorageImp.onlyForTestGetPrefetchExecutor(), prefetchExecutor);
+		assertEquals(result, records);
+		assertFilterForPage(1, 3, 4);
+	}
+
+	@Test
+	public void testStreamTextElementsConvertsWhileReading() {
+		MetadataStorageViewImp metadataStorageImp = (MetadataStorageViewImp) metadataStorage;
+		metadataStorageImp.usePageSize(2);
+		List<DataRecordGroup> records = setUpRecordStorageToReturnPagesOfTwoAndOne();
+
+		Stream<TextElement> stream = metadataStorageImp.streamTextElements();
+		recordStorage.MCR.assertMethodNotCalled("readList");
+		List<TextElement> result = stream.toList();
+
+		recordStorage.MCR.assertParameter("readList", 0, "type", "text");
+		assertEquals(result.size(), 3);
+		for (int i = 0; i < records.size(); i++) {
+			var convertedElement = textConverter.MCR.assertCalledParametersReturn("convert",
+					records.get(i));
+			assertSame(convertedElement, result.get(i));
+		}
+	}
+
+	@Test
+	public void testStreamValidationTypes() {
+		MetadataStorageViewImp metadataStorageImp = (MetadataStorageViewImp) metadataStorage;
+		metadataStorageImp.usePageSize(2);
+		setUpRecordStorageToReturnPagesOfTwoAndOne();
+
+		List<ValidationType> result = metadataStorageImp.streamValidationTypes().toList();
+
+		recordStorage.MCR.assertParameter("readList", 0, "type", "validationType");
+		assertEquals(result.get(2), new ValidationType("someRecordTypeToValidates3",
+				"createDefinitionId3", "updateDefinitionId3"));
+	}
+
+	@Test
+	public void testStreamReadErrorIsWrapped() {
+		RuntimeException errorToThrow = new RuntimeException();
+		recordStorage.MRV.setAlwaysThrowException("readList", errorToThrow);
+
+		try {
+			((MetadataStorageViewImp) metadataStorage).streamMetadataElements().toList();
+			fail();
+		} catch (MetadataStorageViewException e) {
+			assertEquals(e.getMessage(), "Error getting metadata elements from storage.");
+			assertSame(e.getCause(), errorToThrow);
+		}
+	}
+
+	private List<DataRecordGroup> setUpRecordStorageToReturnThreeRecordGroupsUsableForAllTypes() {
+		StorageReadResult storageReadResult = new StorageReadResult();
+		storageReadResult.listOfDataRecordGroups = List.of(
+				createDataGroupWithDataForValidationType("1"),
+				createDataGroupWithDataForValidationType("2"),
+				createDataGroupWithDataForValidationType("3"));
+		recordStorage.MRV.setDefaultReturnValuesSupplier("readList", () -> storageReadResult);
+		return storageReadResult.listOfDataRecordGroups;
+	}
+
 	private DataRecordGroupSpy createIndexTermAsRecordGroupSpy(String suffix) {
 		String type = "index";
 		Pair indexFieldName = new Pair("indexFieldName", "someIndexFieldNameValue" + suffix);
@@ -0,0 +1,136 @@
+/*
+ * Copyright 2026 Uppsala University Library
+ *
+ * This file is part of Cora.
+ *
+ *     Cora is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     Cora is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with Cora.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package se.uu.ub.cora.metadatastorage;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertSame;
+import static org.testng.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import se.uu.ub.cora.data.DataGroup;
+import se.uu.ub.cora.data.DataProvider;
+import se.uu.ub.cora.data.DataRecordGroup;
+import se.uu.ub.cora.data.DataRecordLink;
+import se.uu.ub.cora.data.spies.DataFactorySpy;
+import se.uu.ub.cora.data.spies.DataGroupSpy;
+import se.uu.ub.cora.data.spies.DataRecordGroupSpy;
+import se.uu.ub.cora.data.spies.DataRecordLinkSpy;
+
+public class RecordsByTypeTest {
+	private DataFactorySpy dataFactorySpy;
+	private List<DataGroup> dataGroups;
+
+	@BeforeMethod
+	public void beforeMethod() {
+		dataFactorySpy = new DataFactorySpy();
+		DataProvider.onlyForTestSetDataFactory(dataFactorySpy);
+		dataGroups = new ArrayList<>();
+	}
+
+	@Test
+	public void testNoRecords() {
+		RecordsByType records = RecordsByType.usingDataGroups(Collections.emptyList());
+
+		assertTrue(records.getDataGroups("metadata").isEmpty());
+		assertTrue(records.getRecordGroups("metadata").isEmpty());
+	}
+
+	@Test
+	public void testRecordsAreRoutedToTheirTypeInReadOrder() {
+		DataRecordGroupSpy metadata1 = addRecordOfType("metadata");
+		DataRecordGroupSpy text = addRecordOfType("text");
+		DataRecordGroupSpy metadata2 = addRecordOfType("metadata");
+
+		RecordsByType records = RecordsByType.usingDataGroups(dataGroups);
+
+		assertEquals(records.getDataGroups("metadata"),
+				List.of(dataGroups.get(0), dataGroups.get(2)));
+		assertEquals(records.getDataGroups("text"), List.of(dataGroups.get(1)));
+		dataFactorySpy.MCR.assertMethodNotCalled("factorRecordGroupFromDataGroup");
+		assertEquals(records.getRecordGroups("metadata"), List.of(metadata1, metadata2));
+		assertEquals(records.getRecordGroups("text"), List.of(text));
+		assertTrue(records.getRecordGroups("presentation").isEmpty());
+		dataFactorySpy.MCR.assertNumberOfCallsToMethod("factorRecordGroupFromDataGroup", 3);
+	}
+
+	@Test
+	public void testRecordTypeIsReadFromRecordInfo() {
+		addRecordOfType("metadata");
+
+		RecordsByType.usingDataGroups(dataGroups);
+
+		DataGroupSpy dataGroup = (DataGroupSpy) dataGroups.get(0);
+		dataGroup.MCR.assertParameters("getFirstGroupWithNameInData", 0, "recordInfo");
+		DataGroupSpy recordInfo = (DataGroupSpy) dataGroup.MCR
+				.getReturnValue("getFirstGroupWithNameInData", 0);
+		recordInfo.MCR.assertParameters("getFirstChildOfTypeAndName", 0, DataRecordLink.class,
+				"type");
+	}
+
+	@Test
+	public void testRecordsOnlyReadAsDataGroupsAreNotConverted() {
+		addRecordOfType("presentation");
+		addRecordOfType("presentation");
+
+		RecordsByType records = RecordsByType.usingDataGroups(dataGroups);
+
+		assertEquals(records.getDataGroups("presentation"), dataGroups);
+		dataFactorySpy.MCR.assertMethodNotCalled("factorRecordGroupFromDataGroup");
+	}
+
+	@Test
+	public void testRecordGroupsAreCreatedOncePerType() {
+		addRecordOfType("metadata");
+		addRecordOfType("metadata");
+		RecordsByType records = RecordsByType.usingDataGroups(dataGroups);
+
+		List<DataRecordGroup> first = records.getRecordGroups("metadata");
+		List<DataRecordGroup> second = records.getRecordGroups("metadata");
+
+		assertSame(second, first);
+		dataFactorySpy.MCR.assertNumberOfCallsToMethod("factorRecordGroupFromDataGroup", 2);
+	}
+
+	private DataRecordGroupSpy addRecordOfType(String recordType) {
+		DataRecordGroupSpy recordGroup = new DataRecordGroupSpy();
+		DataGroupSpy dataGroup = createDataGroupWithRecordInfoType(recordType);
+		dataFactorySpy.MRV.setSpecificReturnValuesSupplier("factorRecordGroupFromDataGroup",
+				() -> recordGroup, dataGroup);
+		dataGroups.add(dataGroup);
+		return recordGroup;
+	}
+
+	private DataGroupSpy createDataGroupWithRecordInfoType(String recordType) {
+		DataRecordLinkSpy typeLink = new DataRecordLinkSpy();
+		typeLink.MRV.setDefaultReturnValuesSupplier("getLinkedRecordId", () -> recordType);
+		DataGroupSpy recordInfo = new DataGroupSpy();
+		recordInfo.MRV.setSpecificReturnValuesSupplier("getFirstChildOfTypeAndName",
+				() -> typeLink, DataRecordLink.class, "type");
+		DataGroupSpy dataGroup = new DataGroupSpy();
+		dataGroup.MRV.setSpecificReturnValuesSupplier("getFirstGroupWithNameInData",
+				() -> recordInfo, "recordInfo");
+		return dataGroup;
+	}
+}
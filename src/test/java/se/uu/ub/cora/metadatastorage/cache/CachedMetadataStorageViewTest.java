@@ -0,0 +1,908 @@
+/*
+ * Copyright 2026 Uppsala University Library
+ *
+ * This file is part of Cora.
+ *
+ *     Cora is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     Cora is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with Cora.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package se.uu.ub.cora.metadatastorage.cache;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertSame;
+import static org.testng.Assert.assertTrue;
+import static org.testng.Assert.fail;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import se.uu.ub.cora.bookkeeper.metadata.MetadataElement;
+import se.uu.ub.cora.bookkeeper.metadata.converter.DataToMetadataConverterProvider;
+import se.uu.ub.cora.bookkeeper.storage.MetadataStorageViewException;
+import se.uu.ub.cora.bookkeeper.text.TextElement;
+import se.uu.ub.cora.bookkeeper.validator.ValidationType;
+import se.uu.ub.cora.data.DataGroup;
+import se.uu.ub.cora.data.DataRecordGroup;
+import se.uu.ub.cora.data.spies.DataGroupSpy;
+import se.uu.ub.cora.data.spies.DataRecordGroupSpy;
+import se.uu.ub.cora.logger.LoggerProvider;
+import se.uu.ub.cora.logger.spies.LoggerFactorySpy;
+import se.uu.ub.cora.logger.spies.LoggerSpy;
+import se.uu.ub.cora.metadatastorage.BatchReadResult;
+import se.uu.ub.cora.metadatastorage.CollectTermHolderImp;
+import se.uu.ub.cora.metadatastorage.DataToTextElementConverterFactorySpy;
+import se.uu.ub.cora.metadatastorage.DataToTextElementConverterSpy;
+import se.uu.ub.cora.metadatastorage.TextElementSpy;
+import se.uu.ub.cora.metadatastorage.converter.datatotextelement.LazyTextElementList;
+import se.uu.ub.cora.metadatastorage.metrics.MetadataStorageViewMetricsSpy;
+import se.uu.ub.cora.metadatastorage.metrics.NoOpMetadataStorageViewMetrics;
+import se.uu.ub.cora.metadatastorage.recordtype.RecordType;
+import se.uu.ub.cora.metadatastorage.recordtype.RecordTypeRegistry;
+import se.uu.ub.cora.metadatastorage.validationtype.ValidationTypeRegistry;
+import se.uu.ub.cora.metadatastorage.spy.DataToMetadataConverterFactorySpy;
+import se.uu.ub.cora.metadatastorage.spy.DataToMetadataConverterSpy;
+
+public class CachedMetadataStorageViewTest {
+	private static final Instant FILE_LOADED_AT = Instant.ofEpochMilli(1_700_000_000_000L);
+	private MetadataSnapshotLoaderSpy snapshotLoader;
+	private AtomicLong millisClock;
+	private CachedMetadataStorageView cachedView;
+	private DataRecordGroupSpy metadataGroup;
+	private TextElementSpy textElement;
+	private ValidationType validationType;
+	private DataGroupSpy presentation;
+	private DataGroupSpy text;
+	private DataGroupSpy recordType;
+	private DataGroupSpy collectTerm;
+	private CollectTermHolderImp collectTermHolder;
+
+	@BeforeMethod
+	public void beforeMethod() {
+		snapshotLoader = new MetadataSnapshotLoaderSpy();
+		millisClock = new AtomicLong(1_800_000_000_000L);
+		cachedView = CachedMetadataStorageView.usingSnapshotLoaderAndMillisClock(snapshotLoader,
+				millisClock::get);
+	}
+
+	@Test
+	public void testNoSnapshotIsLoadedOnCreate() {
+		snapshotLoader.MCR.assertMethodNotCalled("loadSnapshot");
+		assertEquals(cachedView.getCurrentVersion(), 0);
+	}
+
+	@Test
+	public void testInitWithoutClockUsesSystemTime() {
+		cachedView = CachedMetadataStorageView.usingSnapshotLoader(snapshotLoader);
+		long before = System.currentTimeMillis();
+
+		cachedView.warmUp();
+
+		long loadedAt = cachedView.getSnapshotLoadedAt().get().toEpochMilli();
+		assertTrue(loadedAt >= before);
+		assertTrue(loadedAt <= System.currentTimeMillis());
+	}
+
+	@Test
+	public void testNoLoadTimeBeforeFirstLoad() {
+		assertTrue(cachedView.getSnapshotLoadedAt().isEmpty());
+	}
+
+	@Test
+	public void testLoadTimeIsWhenLoadStarted() {
+		long loadStart = millisClock.get();
+		snapshotLoader.MRV.setDefaultReturnValuesSupplier("loadSnapshot", () -> {
+			millisClock.addAndGet(3000);
+			return MetadataSnapshotLoaderSpy.createEmptySnapshot(1);
+		});
+
+		cachedView.warmUp();
+
+		assertEquals(cachedView.getSnapshotLoadedAt().get(), Instant.ofEpochMilli(loadStart));
+	}
+
+	@Test
+	public void testInvalidateSetsNewLoadTime() {
+		cachedView.warmUp();
+		millisClock.addAndGet(60_000);
+
+		cachedView.invalidate();
+
+		assertEquals(cachedView.getSnapshotLoadedAt().get(),
+				Instant.ofEpochMilli(millisClock.get()));
+	}
+
+	@Test
+	public void testChangedOrDeletedRecordKeepsLoadTime() {
+		cachedView.warmUp();
+		Instant loadedAt = cachedView.getSnapshotLoadedAt().get();
+		millisClock.addAndGet(60_000);
+
+		cachedView.recordChanged("metadata", "someId");
+		cachedView.recordDeleted("metadata", "someId");
+		cachedView.invalidateValidationTypes();
+
+		assertEquals(cachedView.getCurrentVersion(), 4);
+		assertEquals(cachedView.getSnapshotLoadedAt().get(), loadedAt);
+	}
+
+	@Test
+	public void testCloseDropsLoadTime() {
+		cachedView.warmUp();
+
+		cachedView.close();
+
+		assertTrue(cachedView.getSnapshotLoadedAt().isEmpty());
+	}
+
+	@Test
+	public void testFirstCallLoadsSnapshotOnce() {
+		cachedView.getMetadataElements();
+		cachedView.getTexts();
+		cachedView.getRecordTypes();
+
+		snapshotLoader.MCR.assertNumberOfCallsToMethod("loadSnapshot", 1);
+		snapshotLoader.MCR.assertParameters("loadSnapshot", 0, 1L);
+		assertEquals(cachedView.getCurrentVersion(), 1);
+	}
+
+	@Test
+	public void testInvalidateLoadsNewVersion() {
+		cachedView.getMetadataElements();
+
+		cachedView.invalidate();
+
+		snapshotLoader.MCR.assertNumberOfCallsToMethod("loadSnapshot", 2);
+		snapshotLoader.MCR.assertParameters("loadSnapshot", 1, 2L);
+		assertEquals(cachedView.getCurrentVersion(), 2);
+	}
+
+	@Test
+	public void testWarmUpLoadsSnapshotOnlyOnce() {
+		cachedView.warmUp();
+		cachedView.warmUp();
+
+		snapshotLoader.MCR.assertNumberOfCallsToMethod("loadSnapshot", 1);
+		assertEquals(cachedView.getCurrentVersion(), 1);
+	}
+
+	@Test
+	public void testCloseDropsSnapshotAndNextCallLoadsNewVersion() {
+		cachedView.warmUp();
+
+		cachedView.close();
+
+		assertEquals(cachedView.getCurrentVersion(), 0);
+		cachedView.getTexts();
+		snapshotLoader.MCR.assertNumberOfCallsToMethod("loadSnapshot", 2);
+		assertEquals(cachedView.getCurrentVersion(), 2);
+	}
+
+	@Test
+	public void testFailedInvalidateKeepsOldSnapshot() {
+		setUpLoaderToReturnSnapshotWithContent();
+		Object metadataElementsBefore = cachedView.getMetadataElements();
+		RuntimeException error = new RuntimeException("someError");
+		snapshotLoader.MRV.setAlwaysThrowException("loadSnapshot", error);
+
+		try {
+			cachedView.invalidate();
+			fail();
+		} catch (Exception e) {
+			assertSame(e, error);
+		}
+
+		assertEquals(cachedView.getCurrentVersion(), 1);
+		assertSame(cachedView.getMetadataElements(), metadataElementsBefore);
+	}
+
+	@Test
+	public void testCallsAreServedFromSnapshot() {
+		MetadataSnapshot snapshot = setUpLoaderToReturnSnapshotWithContent();
+
+		assertSame(cachedView.getMetadataElements(), snapshot.metadataElements());
+		assertSame(cachedView.getPresentationElements(), snapshot.presentationElements());
+		assertSame(cachedView.getTexts(), snapshot.texts());
+		assertSame(cachedView.getTextElements(), snapshot.textElements());
+		assertSame(cachedView.getRecordTypes(), snapshot.recordTypes());
+		assertSame(cachedView.getCollectTermsAsDataGroup(), snapshot.collectTermsAsDataGroup());
+		assertSame(cachedView.getCollectTermHolder(), collectTermHolder);
+		assertSame(cachedView.getValidationTypes(),
+				snapshot.validationTypeRegistry().getValidationTypes());
+		assertSame(cachedView.getValidationTypeRegistry(), snapshot.validationTypeRegistry());
+		assertSame(cachedView.getRecordTypeRegistry(), snapshot.recordTypeRegistry());
+		snapshotLoader.MCR.assertNumberOfCallsToMethod("loadSnapshot", 1);
+	}
+
+	@Test
+	public void testReturnedCollectionsAreUnmodifiable() {
+		setUpLoaderToReturnSnapshotWithContent();
+
+		assertUnmodifiable(cachedView.getMetadataElements(), new DataRecordGroupSpy());
+		assertUnmodifiable(cachedView.getPresentationElements(), new DataGroupSpy());
+		assertUnmodifiable(cachedView.getTexts(), new DataGroupSpy());
+		assertUnmodifiable(cachedView.getRecordTypes(), new DataGroupSpy());
+		assertUnmodifiable(cachedView.getCollectTermsAsDataGroup(), new DataGroupSpy());
+	}
+
+	private <T> void assertUnmodifiable(Collection<T> collection, T element) {
+		try {
+			collection.add(element);
+			fail("Collection should be unmodifiable");
+		} catch (UnsupportedOperationException e) {
+			assertEquals(collection.size(), 1);
+		}
+	}
+
+	@Test
+	public void testSameDataGroupsAreReturnedToAllCallers() {
+		setUpLoaderToReturnSnapshotWithContent();
+
+		assertSame(cachedView.getMetadataElements().iterator().next(), metadataGroup);
+		assertSame(cachedView.getMetadataElements().iterator().next(), metadataGroup);
+		assertSame(cachedView.getPresentationElements().iterator().next(), presentation);
+		assertSame(cachedView.getTexts().iterator().next(), text);
+		assertSame(cachedView.getRecordTypes().iterator().next(), recordType);
+		assertSame(cachedView.getCollectTermsAsDataGroup().iterator().next(), collectTerm);
+	}
+
+	@Test
+	public void testSnapshotIsNotChangedByChangesToListsItWasCreatedFrom() {
+		List<DataGroup> texts = new ArrayList<>(List.of(new DataGroupSpy()));
+		MetadataSnapshot snapshot = new MetadataSnapshot(1, List.of(), Map.of(),
+				IndexedDataGroupList.copyOf(List.of()), IndexedDataGroupList.copyOf(texts),
+				createTextElementsWithOneText(), IndexedDataGroupList.copyOf(List.of()),
+				RecordTypeRegistry.usingRecordTypesById(Map.of()),
+				IndexedDataGroupList.copyOf(List.of()),
+				CollectTermHolderImp.usingCollectTerms(Collections.emptyList()),
+				ValidationTypeRegistry.usingValidationTypesById(Map.of()),
+				ConvertedElementCache.usingMaxSize(10));
+
+		texts.add(new DataGroupSpy());
+
+		assertEquals(snapshot.texts().size(), 1);
+	}
+
+	@Test
+	public void testRecordTypeRegistryIsSharedUntilSnapshotIsReplaced() {
+		setUpLoaderToReturnSnapshotWithContent();
+
+		RecordTypeRegistry registry = cachedView.getRecordTypeRegistry();
+
+		assertSame(cachedView.getRecordTypeRegistry(), registry);
+		assertEquals(registry.getRecordType("someRecordTypeId").get().metadataId(),
+				"someRecordTypeGroup");
+		assertEquals(registry.getImplementingRecordTypes("someParentId").size(), 1);
+	}
+
+	private MetadataSnapshot setUpLoaderToReturnSnapshotWithContent() {
+		metadataGroup = new DataRecordGroupSpy();
+		LazyTextElementList textElements = createTextElementsWithOneText();
+		validationType = new ValidationType("someRecordType", "someCreateId", "someUpdateId");
+		presentation = new DataGroupSpy();
+		text = new DataGroupSpy();
+		recordType = new DataGroupSpy();
+		collectTerm = new DataGroupSpy();
+		collectTermHolder = CollectTermHolderImp.usingCollectTerms(Collections.emptyList());
+		MetadataSnapshot snapshot = new MetadataSnapshot(1, List.of(metadataGroup),
+				Map.of("someMetadataId", metadataGroup),
+				IndexedDataGroupList.copyOf(List.of(presentation)),
+				IndexedDataGroupList.copyOf(List.of(text)), textElements,
+				IndexedDataGroupList.copyOf(List.of(recordType)),
+				RecordTypeRegistry.usingRecordTypesById(Map.of("someRecordTypeId",
+						new RecordType("someRecordTypeId", "someRecordTypeGroup", false,
+								"someParentId"))),
+				IndexedDataGroupList.copyOf(List.of(collectTerm)), collectTermHolder,
+				ValidationTypeRegistry
+						.usingValidationTypesById(Map.of("someValidationTypeId", validationType)),
+				ConvertedElementCache.usingMaxSize(10));
+		snapshotLoader.MRV.setDefaultReturnValuesSupplier("loadSnapshot", () -> snapshot);
+		return snapshot;
+	}
+
+	private LazyTextElementList createTextElementsWithOneText() {
+		textElement = new TextElementSpy();
+		DataRecordGroupSpy textGroup = new DataRecordGroupSpy();
+		textGroup.MRV.setDefaultReturnValuesSupplier("getId", () -> "someTextId");
+		DataToTextElementConverterSpy textConverter = new DataToTextElementConverterSpy();
+		textConverter.MRV.setDefaultReturnValuesSupplier("convert", () -> textElement);
+		DataToTextElementConverterFactorySpy textConverterFactory = new DataToTextElementConverterFactorySpy();
+		textConverterFactory.MRV.setDefaultReturnValuesSupplier("factor", () -> textConverter);
+		return LazyTextElementList.usingTextRecordGroupsAndConverterFactory(List.of(textGroup),
+				textConverterFactory);
+	}
+
+	@Test
+	public void testGetMetadataElement() {
+		setUpLoaderToReturnSnapshotWithContent();
+		DataToMetadataConverterFactorySpy converterFactory = new DataToMetadataConverterFactorySpy();
+		DataToMetadataConverterProvider
+				.onlyForTestSetDataGroupToMetadataConverterFactory(converterFactory);
+
+		MetadataElement metadataElement = cachedView.getMetadataElement("someMetadataId");
+
+		DataToMetadataConverterSpy converter = (DataToMetadataConverterSpy) converterFactory.MCR
+				.assertCalledParametersReturn("factorForDataContainingMetadata", metadataGroup);
+		converter.MCR.assertReturn("toMetadata", 0, metadataElement);
+	}
+
+	@Test
+	public void testGetMetadataElementIsConvertedOncePerSnapshot() {
+		setUpLoaderToReturnSnapshotWithContent();
+		DataToMetadataConverterFactorySpy converterFactory = new DataToMetadataConverterFactorySpy();
+		DataToMetadataConverterProvider
+				.onlyForTestSetDataGroupToMetadataConverterFactory(converterFactory);
+
+		MetadataElement first = cachedView.getMetadataElement("someMetadataId");
+		MetadataElement second = cachedView.getMetadataElement("someMetadataId");
+
+		assertSame(second, first);
+		converterFactory.MCR.assertNumberOfCallsToMethod("factorForDataContainingMetadata", 1);
+		assertEquals(cachedView.getMetadataElementCacheStatistics().hits(), 1);
+	}
+
+	@Test(expectedExceptions = MetadataStorageViewException.class, expectedExceptionsMessageRegExp = ""
+			+ "Metadata with id: someMissingId, not found in storage.")
+	public void testGetMetadataElementNotInSnapshot() {
+		cachedView.getMetadataElement("someMissingId");
+	}
+
+	@Test
+	public void testGetMetadataElementsById() {
+		setUpLoaderToReturnSnapshotWithContent();
+		DataToMetadataConverterFactorySpy converterFactory = new DataToMetadataConverterFactorySpy();
+		DataToMetadataConverterProvider
+				.onlyForTestSetDataGroupToMetadataConverterFactory(converterFactory);
+
+		BatchReadResult<MetadataElement> result = cachedView
+				.getMetadataElements(List.of("someMetadataId", "someMissingId"));
+
+		DataToMetadataConverterSpy converter = (DataToMetadataConverterSpy) converterFactory.MCR
+				.assertCalledParametersReturn("factorForDataContainingMetadata", metadataGroup);
+		converter.MCR.assertReturn("toMetadata", 0, result.found().get("someMetadataId"));
+		assertEquals(result.found().size(), 1);
+		assertEquals(result.notFound(), Set.of("someMissingId"));
+	}
+
+	@Test
+	public void testGetMetadataElementsByIdUsesSnapshotElementCache() {
+		setUpLoaderToReturnSnapshotWithContent();
+		DataToMetadataConverterFactorySpy converterFactory = new DataToMetadataConverterFactorySpy();
+		DataToMetadataConverterProvider
+				.onlyForTestSetDataGroupToMetadataConverterFactory(converterFactory);
+		MetadataElement metadataElement = cachedView.getMetadataElement("someMetadataId");
+
+		BatchReadResult<MetadataElement> result = cachedView
+				.getMetadataElements(List.of("someMetadataId"));
+
+		assertSame(result.found().get("someMetadataId"), metadataElement);
+		converterFactory.MCR.assertNumberOfCallsToMethod("factorForDataContainingMetadata", 1);
+	}
+
+	@Test
+	public void testGetMetadataElementsByIdConversionErrorIsReportedAsFailed() {
+		setUpLoaderToReturnSnapshotWithContent();
+		DataToMetadataConverterFactorySpy converterFactory = new DataToMetadataConverterFactorySpy();
+		RuntimeException conversionError = new RuntimeException("someConversionError");
+		converterFactory.MRV.setAlwaysThrowException("factorForDataContainingMetadata",
+				conversionError);
+		DataToMetadataConverterProvider
+				.onlyForTestSetDataGroupToMetadataConverterFactory(converterFactory);
+
+		BatchReadResult<MetadataElement> result = cachedView
+				.getMetadataElements(List.of("someMetadataId", "someMissingId"));
+
+		assertTrue(result.found().isEmpty());
+		assertEquals(result.notFound(), Set.of("someMissingId"));
+		assertEquals(result.failed().keySet(), Set.of("someMetadataId"));
+		assertSame(result.failed().get("someMetadataId"), conversionError);
+	}
+
+	@Test
+	public void testGetTextElementsById() {
+		setUpLoaderToReturnSnapshotWithContent();
+
+		BatchReadResult<TextElement> result = cachedView
+				.getTextElements(List.of("someMissingId", "someTextId"));
+
+		assertEquals(result.found(), Map.of("someTextId", textElement));
+		assertEquals(result.notFound(), Set.of("someMissingId"));
+		snapshotLoader.MCR.assertNumberOfCallsToMethod("loadSnapshot", 1);
+	}
+
+	@Test
+	public void testGetTextElement() {
+		setUpLoaderToReturnSnapshotWithContent();
+
+		assertSame(cachedView.getTextElement("someTextId"), textElement);
+	}
+
+	@Test(expectedExceptions = MetadataStorageViewException.class, expectedExceptionsMessageRegExp = ""
+			+ "Text with id: someMissingId, not found in storage.")
+	public void testGetTextElementNotInSnapshot() {
+		cachedView.getTextElement("someMissingId");
+	}
+
+	@Test
+	public void testFindMetadataElement() {
+		setUpLoaderToReturnSnapshotWithContent();
+		DataToMetadataConverterFactorySpy converterFactory = new DataToMetadataConverterFactorySpy();
+		DataToMetadataConverterProvider
+				.onlyForTestSetDataGroupToMetadataConverterFactory(converterFactory);
+		MetadataElement metadataElement = cachedView.getMetadataElement("someMetadataId");
+
+		Optional<MetadataElement> foundElement = cachedView.findMetadataElement("someMetadataId");
+
+		assertSame(foundElement.get(), metadataElement);
+		converterFactory.MCR.assertNumberOfCallsToMethod("factorForDataContainingMetadata", 1);
+	}
+
+	@Test
+	public void testFindMetadataElementNotInSnapshot() {
+		setUpLoaderToReturnSnapshotWithContent();
+		DataToMetadataConverterFactorySpy converterFactory = new DataToMetadataConverterFactorySpy();
+		DataToMetadataConverterProvider
+				.onlyForTestSetDataGroupToMetadataConverterFactory(converterFactory);
+
+		assertTrue(cachedView.findMetadataElement("someMissingId").isEmpty());
+		converterFactory.MCR.assertMethodNotCalled("factorForDataContainingMetadata");
+	}
+
+	@Test
+	public void testFindTextElement() {
+		setUpLoaderToReturnSnapshotWithContent();
+
+		assertSame(cachedView.findTextElement("someTextId").get(), textElement);
+		assertTrue(cachedView.findTextElement("someMissingId").isEmpty());
+		snapshotLoader.MCR.assertNumberOfCallsToMethod("loadSnapshot", 1);
+	}
+
+	@Test
+	public void testGetValidationType() {
+		setUpLoaderToReturnSnapshotWithContent();
+
+		Optional<ValidationType> result = cachedView.getValidationType("someValidationTypeId");
+
+		assertSame(result.get(), validationType);
+		assertTrue(cachedView.getValidationType("someMissingId").isEmpty());
+	}
+
+	@Test
+	public void testGetValidationTypesForRecordType() {
+		setUpLoaderToReturnSnapshotWithContent();
+
+		assertEquals(cachedView.getValidationTypesForRecordType("someRecordType"),
+				List.of(validationType));
+		assertTrue(cachedView.getValidationTypesForRecordType("someOtherRecordType").isEmpty());
+	}
+
+	@Test
+	public void testInvalidateValidationTypesSwapsOnlyRegistry() {
+		MetadataSnapshot snapshot = setUpLoaderToReturnSnapshotWithContent();
+		ValidationType newValidationType = new ValidationType("someRecordType", "newCreateId",
+				"newUpdateId");
+		ValidationTypeRegistry newRegistry = ValidationTypeRegistry
+				.usingValidationTypesById(Map.of("someValidationTypeId", newValidationType));
+		snapshotLoader.MRV.setDefaultReturnValuesSupplier("loadValidationTypeRegistry",
+				() -> newRegistry);
+		cachedView.warmUp();
+
+		cachedView.invalidateValidationTypes();
+
+		snapshotLoader.MCR.assertNumberOfCallsToMethod("loadSnapshot", 1);
+		assertEquals(cachedView.getCurrentVersion(), 2);
+		assertSame(cachedView.getValidationTypeRegistry(), newRegistry);
+		assertSame(cachedView.getValidationType("someValidationTypeId").get(),
+				newValidationType);
+		assertSame(cachedView.getMetadataElements(), snapshot.metadataElements());
+		assertSame(cachedView.getTextElements(), snapshot.textElements());
+	}
+
+	@Test
+	public void testFailedInvalidateValidationTypesKeepsOldRegistry() {
+		MetadataSnapshot snapshot = setUpLoaderToReturnSnapshotWithContent();
+		cachedView.warmUp();
+		RuntimeException error = new RuntimeException("someError");
+		snapshotLoader.MRV.setAlwaysThrowException("loadValidationTypeRegistry", error);
+
+		try {
+			cachedView.invalidateValidationTypes();
+			fail();
+		} catch (Exception e) {
+			assertSame(e, error);
+		}
+
+		assertEquals(cachedView.getCurrentVersion(), 1);
+		assertSame(cachedView.getValidationTypeRegistry(), snapshot.validationTypeRegistry());
+	}
+
+	@Test
+	public void testRecordChangedLoadsChangedRecordIntoNewSnapshot() {
+		MetadataSnapshot snapshot = setUpLoaderToReturnSnapshotWithContent();
+		cachedView.warmUp();
+
+		cachedView.recordChanged("metadata", "someMetadataId");
+
+		var changedSnapshot = (MetadataSnapshot) snapshotLoader.MCR.assertCalledParametersReturn(
+				"loadChangedRecord", snapshot, 2L, "metadata", "someMetadataId");
+		snapshotLoader.MCR.assertNumberOfCallsToMethod("loadSnapshot", 1);
+		assertEquals(cachedView.getCurrentVersion(), changedSnapshot.version());
+		assertSame(cachedView.getMetadataElements(), changedSnapshot.metadataElements());
+	}
+
+	@Test
+	public void testRecordChangedBeforeFirstLoadIsIgnored() {
+		cachedView.recordChanged("metadata", "someMetadataId");
+
+		snapshotLoader.MCR.assertMethodNotCalled("loadChangedRecord");
+		snapshotLoader.MCR.assertMethodNotCalled("loadSnapshot");
+		assertEquals(cachedView.getCurrentVersion(), 0);
+	}
+
+	@Test
+	public void testRecordChangedForTypeNotInSnapshotIsIgnored() {
+		cachedView.warmUp();
+
+		cachedView.recordChanged("someOtherType", "someId");
+
+		snapshotLoader.MCR.assertMethodNotCalled("loadChangedRecord");
+		assertEquals(cachedView.getCurrentVersion(), 1);
+	}
+
+	@Test
+	public void testFailedRecordChangedKeepsOldSnapshot() {
+		MetadataSnapshot snapshot = setUpLoaderToReturnSnapshotWithContent();
+		cachedView.warmUp();
+		RuntimeException error = new RuntimeException("someError");
+		snapshotLoader.MRV.setAlwaysThrowException("loadChangedRecord", error);
+
+		try {
+			cachedView.recordChanged("metadata", "someMetadataId");
+			fail();
+		} catch (Exception e) {
+			assertSame(e, error);
+		}
+
+		assertEquals(cachedView.getCurrentVersion(), 1);
+		assertSame(cachedView.getMetadataElements(), snapshot.metadataElements());
+	}
+
+	@Test
+	public void testRecordDeletedRemovesRecordWithoutReadingStorage() {
+		MetadataSnapshot snapshot = setUpLoaderToReturnSnapshotWithContent();
+		cachedView.warmUp();
+
+		cachedView.recordDeleted("validationType", "someValidationTypeId");
+
+		snapshotLoader.MCR.assertMethodNotCalled("loadChangedRecord");
+		snapshotLoader.MCR.assertNumberOfCallsToMethod("loadSnapshot", 1);
+		assertEquals(cachedView.getCurrentVersion(), 2);
+		assertTrue(cachedView.getValidationType("someValidationTypeId").isEmpty());
+		assertSame(cachedView.getMetadataElements(), snapshot.metadataElements());
+		assertSame(cachedView.getTextElements(), snapshot.textElements());
+	}
+
+	@Test
+	public void testRecordDeletedBeforeFirstLoadOrForTypeNotInSnapshotIsIgnored() {
+		cachedView.recordDeleted("validationType", "someValidationTypeId");
+		assertEquals(cachedView.getCurrentVersion(), 0);
+		cachedView.warmUp();
+
+		cachedView.recordDeleted("someOtherType", "someId");
+
+		assertEquals(cachedView.getCurrentVersion(), 1);
+	}
+
+	@Test
+	public void testUseSnapshotFileWritesSnapshotsLoadedFromStorage() throws IOException {
+		SnapshotFile snapshotFile = createSnapshotFileInTemporaryDirectory();
+		Executor writeExecutor = Runnable::run;
+		cachedView.useSnapshotFile(snapshotFile, writeExecutor);
+
+		cachedView.warmUp();
+
+		assertSame(cachedView.onlyForTestGetSnapshotFile(), snapshotFile);
+		assertSame(cachedView.onlyForTestGetWriteExecutor(), writeExecutor);
+		assertTrue(Files.isRegularFile(snapshotFile.onlyForTestGetPath()));
+	}
+
+	@Test
+	public void testSnapshotFileIsWrittenAfterSnapshotIsSet() throws IOException {
+		SnapshotFile snapshotFile = createSnapshotFileInTemporaryDirectory();
+		List<Runnable> writeTasks = new ArrayList<>();
+		cachedView.useSnapshotFile(snapshotFile, writeTasks::add);
+
+		cachedView.warmUp();
+
+		assertEquals(cachedView.getCurrentVersion(), 1);
+		assertFalse(Files.exists(snapshotFile.onlyForTestGetPath()));
+		assertEquals(writeTasks.size(), 1);
+
+		writeTasks.get(0).run();
+
+		assertEquals(snapshotFile.read(5).get().snapshot().version(), 5);
+		assertEquals(snapshotFile.read(5).get().loadedAt(),
+				cachedView.getSnapshotLoadedAt().get());
+	}
+
+	@Test
+	public void testOnlyLatestSnapshotIsWrittenWhenWritesAreBehind() throws IOException {
+		SnapshotFile snapshotFile = createSnapshotFileInTemporaryDirectory();
+		List<Runnable> writeTasks = new ArrayList<>();
+		cachedView.useSnapshotFile(snapshotFile, writeTasks::add);
+		cachedView.warmUp();
+		snapshotLoader.MRV.setDefaultReturnValuesSupplier("loadSnapshot",
+				() -> MetadataSnapshotLoaderSpy.createEmptySnapshot(2).withValidationType(3,
+						"someValidationTypeId", validationType("someRecordType")));
+
+		cachedView.invalidate();
+
+		assertEquals(writeTasks.size(), 1);
+		writeTasks.get(0).run();
+		MetadataSnapshot written = snapshotFile.read(4).get().snapshot();
+		assertTrue(written.validationTypeRegistry().getValidationType("someValidationTypeId")
+				.isPresent());
+
+		cachedView.invalidate();
+
+		assertEquals(writeTasks.size(), 2);
+	}
+
+	private SnapshotFile createSnapshotFileInTemporaryDirectory() throws IOException {
+		Path directory = Files.createTempDirectory("cachedMetadataStorageViewTest");
+		directory.toFile().deleteOnExit();
+		Path path = directory.resolve("metadataSnapshot.bin");
+		path.toFile().deleteOnExit();
+		return SnapshotFile.usingPathAndTextConverterFactoryAndElementCacheSize(path,
+				new DataToTextElementConverterFactorySpy(), 10);
+	}
+
+	@Test
+	public void testWarmUpFromSnapshotFileWithoutFileLoadsFromStorage() {
+		List<Runnable> backgroundTasks = new ArrayList<>();
+
+		cachedView.warmUpFromSnapshotFile(backgroundTasks::add);
+
+		snapshotLoader.MCR.assertNumberOfCallsToMethod("loadSnapshot", 1);
+		assertEquals(cachedView.getCurrentVersion(), 1);
+		assertTrue(backgroundTasks.isEmpty());
+	}
+
+	@Test
+	public void testWarmUpFromSnapshotFileStartsFromFileAndLoadsFromStorageInBackground()
+			throws IOException {
+		SnapshotFile snapshotFile = createSnapshotFileInTemporaryDirectory();
+		snapshotFile.write(MetadataSnapshotLoaderSpy.createEmptySnapshot(1).withValidationType(2,
+				"someValidationTypeId", validationType("someRecordType")), FILE_LOADED_AT);
+		cachedView.useSnapshotFile(snapshotFile, Runnable::run);
+		List<Runnable> backgroundTasks = new ArrayList<>();
+
+		cachedView.warmUpFromSnapshotFile(backgroundTasks::add);
+
+		snapshotLoader.MCR.assertMethodNotCalled("loadSnapshot");
+		assertEquals(cachedView.getCurrentVersion(), 1);
+		assertEquals(cachedView.getSnapshotLoadedAt().get(), FILE_LOADED_AT);
+		assertTrue(cachedView.getValidationType("someValidationTypeId").isPresent());
+		assertEquals(backgroundTasks.size(), 1);
+
+		backgroundTasks.get(0).run();
+
+		snapshotLoader.MCR.assertParameters("loadSnapshot", 0, 2L);
+		assertEquals(cachedView.getCurrentVersion(), 2);
+		assertTrue(cachedView.getValidationType("someValidationTypeId").isEmpty());
+		assertEquals(cachedView.getSnapshotLoadedAt().get(),
+				Instant.ofEpochMilli(millisClock.get()));
+	}
+
+	private ValidationType validationType(String recordType) {
+		return new ValidationType(recordType, "someCreateId", "someUpdateId");
+	}
+
+	@Test
+	public void testWarmUpFromSnapshotFileWhenSnapshotIsLoadedDoesNothing() throws IOException {
+		cachedView.useSnapshotFile(createSnapshotFileInTemporaryDirectory(), Runnable::run);
+		cachedView.warmUp();
+		List<Runnable> backgroundTasks = new ArrayList<>();
+
+		cachedView.warmUpFromSnapshotFile(backgroundTasks::add);
+
+		snapshotLoader.MCR.assertNumberOfCallsToMethod("loadSnapshot", 1);
+		assertEquals(cachedView.getCurrentVersion(), 1);
+		assertTrue(backgroundTasks.isEmpty());
+	}
+
+	@Test
+	public void testFailedBackgroundLoadIsLoggedAndFileSnapshotKept() throws IOException {
+		LoggerFactorySpy loggerFactorySpy = new LoggerFactorySpy();
+		LoggerProvider.setLoggerFactory(loggerFactorySpy);
+		SnapshotFile snapshotFile = createSnapshotFileInTemporaryDirectory();
+		snapshotFile.write(MetadataSnapshotLoaderSpy.createEmptySnapshot(1), FILE_LOADED_AT);
+		cachedView.useSnapshotFile(snapshotFile, Runnable::run);
+		RuntimeException error = new RuntimeException("someError");
+		snapshotLoader.MRV.setAlwaysThrowException("loadSnapshot", error);
+
+		cachedView.warmUpFromSnapshotFile(Runnable::run);
+
+		assertEquals(cachedView.getCurrentVersion(), 1);
+		assertEquals(cachedView.getSnapshotLoadedAt().get(), FILE_LOADED_AT);
+		LoggerSpy logger = (LoggerSpy) loggerFactorySpy.MCR.getReturnValue("factorForClass", 0);
+		logger.MCR.assertParameters("logErrorUsingMessageAndException", 0,
+				"Could not load snapshot from storage after starting from file.", error);
+	}
+
+	@Test
+	public void testFailedWriteOfSnapshotFileIsLoggedAndSnapshotUsed() throws IOException {
+		LoggerFactorySpy loggerFactorySpy = new LoggerFactorySpy();
+		LoggerProvider.setLoggerFactory(loggerFactorySpy);
+		Path directory = createSnapshotFileInTemporaryDirectory().onlyForTestGetPath()
+				.getParent();
+		cachedView.useSnapshotFile(SnapshotFile.usingPathAndTextConverterFactoryAndElementCacheSize(
+				directory.resolve("missing").resolve("metadataSnapshot.bin"),
+				new DataToTextElementConverterFactorySpy(), 10), Runnable::run);
+
+		cachedView.warmUp();
+
+		assertEquals(cachedView.getCurrentVersion(), 1);
+		LoggerSpy logger = (LoggerSpy) loggerFactorySpy.MCR.getReturnValue("factorForClass", 0);
+		var exception = (Exception) logger.MCR.getParameterForMethodAndCallNumberAndParameter(
+				"logErrorUsingMessageAndException", 0, "exception");
+		logger.MCR.assertParameters("logErrorUsingMessageAndException", 0,
+				"Could not write snapshot file.", exception);
+		assertTrue(exception instanceof MetadataStorageViewException);
+	}
+
+	@Test
+	public void testDefaultMetricsIsNoOp() {
+		assertTrue(cachedView.onlyForTestGetMetrics() instanceof NoOpMetadataStorageViewMetrics);
+	}
+
+	@Test
+	public void testUseMetricsRegistersSnapshotCacheWithoutLoadingSnapshot() {
+		MetadataStorageViewMetricsSpy metrics = new MetadataStorageViewMetricsSpy();
+
+		cachedView.useMetrics(metrics);
+
+		assertSame(cachedView.onlyForTestGetMetrics(), metrics);
+		metrics.MCR.assertParameter("registerCache", 0, "cacheName", "snapshotMetadataElement");
+		Supplier<?> statistics = (Supplier<?>) metrics.MCR
+				.getParameterForMethodAndCallNumberAndParameter("registerCache", 0, "statistics");
+		assertEquals(statistics.get(), new CacheStatistics(0, 0, 0, 0));
+		snapshotLoader.MCR.assertMethodNotCalled("loadSnapshot");
+	}
+
+	@Test
+	public void testRegisteredCacheStatisticsFollowCurrentSnapshot() {
+		setUpLoaderToReturnSnapshotWithContent();
+		DataToMetadataConverterProvider.onlyForTestSetDataGroupToMetadataConverterFactory(
+				new DataToMetadataConverterFactorySpy());
+		MetadataStorageViewMetricsSpy metrics = new MetadataStorageViewMetricsSpy();
+		cachedView.useMetrics(metrics);
+
+		cachedView.getMetadataElement("someMetadataId");
+		cachedView.getMetadataElement("someMetadataId");
+
+		Supplier<?> statistics = (Supplier<?>) metrics.MCR
+				.getParameterForMethodAndCallNumberAndParameter("registerCache", 0, "statistics");
+		CacheStatistics cacheStatistics = (CacheStatistics) statistics.get();
+		assertEquals(cacheStatistics, cachedView.getMetadataElementCacheStatistics());
+		assertEquals(cacheStatistics.hitRatio(), 0.5);
+	}
+
+	@Test
+	public void testMetricsRecordsLoadOfSnapshot() {
+		setUpLoaderToReturnSnapshotWithContent();
+		MetadataStorageViewMetricsSpy metrics = new MetadataStorageViewMetricsSpy();
+		cachedView.useMetrics(metrics);
+
+		cachedView.warmUp();
+
+		metrics.MCR.assertParameter("recordCall", 0, "methodName", "loadSnapshot");
+		metrics.MCR.assertParameter("recordCall", 0, "numberOfRecords", 1);
+		long duration = (long) metrics.MCR
+				.getParameterForMethodAndCallNumberAndParameter("recordCall", 0, "durationNanos");
+		assertTrue(duration >= 0);
+	}
+
+	@Test
+	public void testMetricsRecordsAllCalls() {
+		setUpLoaderToReturnSnapshotWithContent();
+		DataToMetadataConverterProvider.onlyForTestSetDataGroupToMetadataConverterFactory(
+				new DataToMetadataConverterFactorySpy());
+		cachedView.warmUp();
+		MetadataStorageViewMetricsSpy metrics = new MetadataStorageViewMetricsSpy();
+		cachedView.useMetrics(metrics);
+
+		cachedView.getMetadataElements();
+		cachedView.getMetadataElement("someMetadataId");
+		cachedView.findMetadataElement("someMissingId");
+		cachedView.getMetadataElements(List.of("someMetadataId"));
+		cachedView.getPresentationElements();
+		cachedView.getTexts();
+		cachedView.getTextElements();
+		cachedView.getTextElement("someTextId");
+		cachedView.findTextElement("someTextId");
+		cachedView.getTextElements(List.of("someTextId", "someMissingId"));
+		cachedView.getRecordTypes();
+		cachedView.getCollectTermsAsDataGroup();
+		cachedView.getValidationTypes();
+		cachedView.getValidationType("someValidationTypeId");
+		cachedView.getValidationTypesForRecordType("someRecordType");
+		cachedView.getCollectTermHolder();
+
+		assertCalledMethodsWithNumberOfRecords(metrics, "getMetadataElements", 1,
+				"getMetadataElement", 1, "findMetadataElement", 0, "getMetadataElementsById", 1,
+				"getPresentationElements", 1, "getTexts", 1, "getTextElements", 1,
+				"getTextElement", 1, "findTextElement", 1, "getTextElementsById", 1,
+				"getRecordTypes", 1, "getCollectTermsAsDataGroup", 1, "getValidationTypes", 1,
+				"getValidationType", 1, "getValidationTypesForRecordType", 1,
+				"getCollectTermHolder", 1);
+	}
+
+	private void assertCalledMethodsWithNumberOfRecords(MetadataStorageViewMetricsSpy metrics,
+			Object... methodNamesAndNumberOfRecords) {
+		int numberOfCalls = methodNamesAndNumberOfRecords.length / 2;
+		metrics.MCR.assertNumberOfCallsToMethod("recordCall", numberOfCalls);
+		for (int i = 0; i < numberOfCalls; i++) {
+			metrics.MCR.assertParameter("recordCall", i, "methodName",
+					methodNamesAndNumberOfRecords[2 * i]);
+			metrics.MCR.assertParameter("recordCall", i, "numberOfRecords",
+					methodNamesAndNumberOfRecords[2 * i + 1]);
+		}
+	}
+
+	@Test
+	public void testMetricsDoesNotRecordFailedCall() {
+		MetadataStorageViewMetricsSpy metrics = new MetadataStorageViewMetricsSpy();
+		cachedView.useMetrics(metrics);
+
+		try {
+			cachedView.getTextElement("someMissingId");
+			fail();
+		} catch (MetadataStorageViewException e) {
+			metrics.MCR.assertParameter("recordCall", 0, "methodName", "loadSnapshot");
+			metrics.MCR.assertNumberOfCallsToMethod("recordCall", 1);
+		}
+	}
+
+	@Test
+	public void testSnapshotIsImmutable() {
+		MetadataSnapshot snapshot = MetadataSnapshotLoaderSpy.createEmptySnapshot(1);
+
+		try {
+			snapshot.metadataElements().add(new DataRecordGroupSpy());
+			fail();
+		} catch (UnsupportedOperationException e) {
+			assertEquals(snapshot.metadataElements(), Collections.<DataRecordGroup> emptyList());
+		}
+	}
+
+	@Test
+	public void testOnlyForTestGetSnapshotLoader() {
+		assertSame(cachedView.onlyForTestGetSnapshotLoader(), snapshotLoader);
+	}
+}
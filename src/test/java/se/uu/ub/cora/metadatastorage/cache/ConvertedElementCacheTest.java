@@ -0,0 +1,284 @@
+/*
+ * Copyright 2026 Uppsala University Library
+ *
+ * This file is part of Cora.
+ *
+ *     Cora is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     Cora is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with Cora.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package se.uu.ub.cora.metadatastorage.cache;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertNotSame;
+import static org.testng.Assert.assertSame;
+import static org.testng.Assert.assertTrue;
+import static org.testng.Assert.fail;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+public class ConvertedElementCacheTest {
+	private ConvertedElementCache<Object> cache;
+	private List<String> convertedIds;
+
+	@BeforeMethod
+	public void beforeMethod() {
+		cache = ConvertedElementCache.usingMaxSize(2);
+		convertedIds = new ArrayList<>();
+	}
+
+	private Object convert(String id) {
+		convertedIds.add(id);
+		return new Object();
+	}
+
+	@Test(expectedExceptions = IllegalArgumentException.class, expectedExceptionsMessageRegExp = ""
+			+ "Max size must not be negative, was: -1")
+	public void testMaxSizeMustNotBeNegative() {
+		ConvertedElementCache.usingMaxSize(-1);
+	}
+
+	@Test
+	public void testInit() {
+		assertEquals(cache.onlyForTestGetMaxSize(), 2);
+		assertEquals(cache.getStatistics(), new CacheStatistics(0, 0, 0, 0));
+	}
+
+	@Test
+	public void testConvertsOnMissAndReturnsCachedOnHit() {
+		Object first = cache.getOrConvert("id1", this::convert);
+		Object second = cache.getOrConvert("id1", this::convert);
+
+		assertSame(second, first);
+		assertEquals(convertedIds, List.of("id1"));
+		assertEquals(cache.getStatistics(), new CacheStatistics(1, 1, 0, 1));
+		assertEquals(cache.getStatistics().hitRatio(), 0.5);
+	}
+
+	@Test
+	public void testLeastRecentlyUsedIsEvicted() {
+		Object element1 = cache.getOrConvert("id1", this::convert);
+		cache.getOrConvert("id2", this::convert);
+		cache.getOrConvert("id1", this::convert);
+		cache.getOrConvert("id3", this::convert);
+
+		assertSame(cache.getOrConvert("id1", this::convert), element1);
+		cache.getOrConvert("id2", this::convert);
+
+		assertEquals(convertedIds, List.of("id1", "id2", "id3", "id2"));
+		assertEquals(cache.getStatistics().evictions(), 2);
+		assertEquals(cache.getStatistics().size(), 2);
+	}
+
+	@Test
+	public void testUsedElementGetsSecondChanceBeforeEviction() {
+		cache.getOrConvert("id1", this::convert);
+		Object element2 = cache.getOrConvert("id2", this::convert);
+		cache.getIfCached("id2");
+		cache.getOrConvert("id3", this::convert);
+
+		cache.getOrConvert("id4", this::convert);
+
+		assertTrue(cache.getIfCached("id1").isEmpty());
+		assertTrue(cache.getIfCached("id3").isEmpty());
+		assertSame(cache.getIfCached("id2").get(), element2);
+		assertEquals(cache.getStatistics().evictions(), 2);
+	}
+
+	@Test
+	public void testSizeStaysBoundedWhenUsedFromManyThreads() throws Exception {
+		ConvertedElementCache<Object> sharedCache = ConvertedElementCache.usingMaxSize(10);
+		ExecutorService executor = Executors.newFixedThreadPool(4);
+		List<Future<?>> futures = new ArrayList<>();
+		for (int thread = 0; thread < 4; thread++) {
+			futures.add(executor.submit(() -> {
+				for (int i = 0; i < 1000; i++) {
+					sharedCache.getOrConvert("id" + (i % 25), id -> new Object());
+				}
+			}));
+		}
+		for (Future<?> future : futures) {
+			future.get();
+		}
+		executor.shutdown();
+
+		CacheStatistics statistics = sharedCache.getStatistics();
+		assertEquals(statistics.size(), 10);
+		assertEquals(statistics.hits() + statistics.misses(), 4000);
+	}
+
+	@Test
+	public void testInvalidatedElementIsNotEvicted() {
+		cache.getOrConvert("id1", this::convert);
+		cache.getOrConvert("id2", this::convert);
+		cache.invalidate("id1");
+
+		cache.getOrConvert("id3", this::convert);
+
+		assertEquals(cache.getStatistics().evictions(), 0);
+		assertEquals(cache.getStatistics().size(), 2);
+	}
+
+	@Test
+	public void testElementConvertedWhileInvalidatedIsNotCached() throws Exception {
+		CountDownLatch conversionStarted = new CountDownLatch(1);
+		CountDownLatch invalidated = new CountDownLatch(1);
+		Object staleElement = new Object();
+		ExecutorService executor = Executors.newSingleThreadExecutor();
+		Future<Object> future = executor.submit(() -> cache.getOrConvert("id1", id -> {
+			conversionStarted.countDown();
+			awaitLatch(invalidated);
+			return staleElement;
+		}));
+		conversionStarted.await();
+
+		cache.invalidate("id1");
+		invalidated.countDown();
+
+		assertSame(future.get(), staleElement);
+		executor.shutdown();
+		assertTrue(cache.getIfCached("id1").isEmpty());
+		assertEquals(cache.getStatistics().size(), 0);
+		assertNotSame(cache.getOrConvert("id1", this::convert), staleElement);
+	}
+
+	private void awaitLatch(CountDownLatch latch) {
+		try {
+			latch.await();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new RuntimeException(e);
+		}
+	}
+
+	@Test
+	public void testElementConvertedAfterInvalidateIsCached() {
+		cache.invalidate("id1");
+
+		Object element = cache.getOrConvert("id1", this::convert);
+
+		assertSame(cache.getIfCached("id1").get(), element);
+	}
+
+	@Test
+	public void testInvalidatedElementsAreSweptFromClock() {
+		for (int i = 0; i < 100; i++) {
+			cache.getOrConvert("id1", this::convert);
+			cache.invalidate("id1");
+		}
+
+		assertTrue(cache.onlyForTestGetClockSize() <= 4);
+		assertEquals(cache.getStatistics().size(), 0);
+	}
+
+	@Test
+	public void testGetIfCachedDoesNotConvert() {
+		assertTrue(cache.getIfCached("id1").isEmpty());
+
+		assertEquals(convertedIds, List.of());
+		assertEquals(cache.getStatistics(), new CacheStatistics(0, 0, 0, 0));
+	}
+
+	@Test
+	public void testGetIfCachedCountsHit() {
+		Object element = cache.getOrConvert("id1", this::convert);
+
+		assertSame(cache.getIfCached("id1").get(), element);
+		assertEquals(cache.getStatistics(), new CacheStatistics(1, 1, 0, 1));
+	}
+
+	@Test
+	public void testInvalidate() {
+		Object before = cache.getOrConvert("id1", this::convert);
+
+		cache.invalidate("id1");
+
+		assertNotSame(cache.getOrConvert("id1", this::convert), before);
+		assertEquals(convertedIds, List.of("id1", "id1"));
+	}
+
+	@Test
+	public void testInvalidateAll() {
+		cache.getOrConvert("id1", this::convert);
+		cache.getOrConvert("id2", this::convert);
+
+		cache.invalidateAll();
+
+		assertEquals(cache.getStatistics().size(), 0);
+		assertEquals(cache.onlyForTestGetClockSize(), 0);
+	}
+
+	@Test
+	public void testZeroSizeCacheConvertsEveryTime() {
+		ConvertedElementCache<Object> noCache = ConvertedElementCache.usingMaxSize(0);
+
+		noCache.getOrConvert("id1", this::convert);
+		noCache.getOrConvert("id1", this::convert);
+
+		assertEquals(convertedIds, List.of("id1", "id1"));
+		assertEquals(noCache.getStatistics(), new CacheStatistics(0, 2, 0, 0));
+	}
+
+	@Test
+	public void testExceptionIsNotCached() {
+		RuntimeException error = new RuntimeException("someError");
+		try {
+			cache.getOrConvert("id1", id -> {
+				throw error;
+			});
+			fail();
+		} catch (RuntimeException e) {
+			assertSame(e, error);
+		}
+
+		cache.getOrConvert("id1", this::convert);
+
+		assertEquals(convertedIds, List.of("id1"));
+	}
+
+	@Test
+	public void testHitRatioWhenUnused() {
+		assertEquals(cache.getStatistics().hitRatio(), 0.0);
+	}
+
+	@Test
+	public void testCopyWithoutKeepsOtherElementsAndMaxSize() {
+		Object element1 = cache.getOrConvert("id1", this::convert);
+		cache.getOrConvert("id2", this::convert);
+
+		ConvertedElementCache<Object> copy = cache.copyWithout("id2");
+
+		assertEquals(copy.onlyForTestGetMaxSize(), 2);
+		assertSame(copy.getOrConvert("id1", this::convert), element1);
+		copy.getOrConvert("id2", this::convert);
+		assertEquals(convertedIds, List.of("id1", "id2", "id2"));
+		assertEquals(copy.getStatistics(), new CacheStatistics(1, 1, 0, 2));
+	}
+
+	@Test
+	public void testCopyIsIndependentOfOriginal() {
+		cache.getOrConvert("id1", this::convert);
+		ConvertedElementCache<Object> copy = cache.copyWithout("id1");
+
+		cache.getOrConvert("id2", this::convert);
+
+		assertEquals(copy.getStatistics().size(), 0);
+	}
+}
@@ -0,0 +1,134 @@
+/*
+ * Copyright 2026 Uppsala University Library
+ *
+ * This file is part of Cora.
+ *
+ *     Cora is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     Cora is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with Cora.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package se.uu.ub.cora.metadatastorage.cache;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertSame;
+import static org.testng.Assert.fail;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import se.uu.ub.cora.data.DataGroup;
+import se.uu.ub.cora.data.spies.DataGroupSpy;
+
+public class IndexedDataGroupListTest {
+	private DataGroupSpy group1;
+	private DataGroupSpy group2;
+	private DataGroupSpy group3;
+	private IndexedDataGroupList dataGroups;
+
+	@BeforeMethod
+	public void beforeMethod() {
+		group1 = createDataGroup("id1");
+		group2 = createDataGroup("id2");
+		group3 = createDataGroup("id3");
+		dataGroups = IndexedDataGroupList.copyOf(List.of(group1, group2, group3));
+	}
+
+	private DataGroupSpy createDataGroup(String id) {
+		DataGroupSpy recordInfo = new DataGroupSpy();
+		recordInfo.MRV.setSpecificReturnValuesSupplier("getFirstAtomicValueWithNameInData",
+				() -> id, "id");
+		DataGroupSpy dataGroup = new DataGroupSpy();
+		dataGroup.MRV.setSpecificReturnValuesSupplier("getFirstGroupWithNameInData",
+				() -> recordInfo, "recordInfo");
+		return dataGroup;
+	}
+
+	@Test
+	public void testCopyOfKeepsOrderAndDoesNotReadIds() {
+		assertEquals(dataGroups, List.of(group1, group2, group3));
+		group1.MCR.assertMethodNotCalled("getFirstGroupWithNameInData");
+	}
+
+	@Test
+	public void testCopyOfIsIndependentOfOriginal() {
+		List<DataGroup> original = new ArrayList<>(List.of(group1));
+		IndexedDataGroupList copy = IndexedDataGroupList.copyOf(original);
+
+		original.add(group2);
+
+		assertEquals(copy, List.of(group1));
+	}
+
+	@Test
+	public void testCopyOfIndexedListReturnsSameList() {
+		assertSame(IndexedDataGroupList.copyOf(dataGroups), dataGroups);
+	}
+
+	@Test
+	public void testListIsUnmodifiable() {
+		try {
+			dataGroups.add(createDataGroup("id4"));
+			fail("List should be unmodifiable");
+		} catch (UnsupportedOperationException e) {
+			assertEquals(dataGroups.size(), 3);
+		}
+	}
+
+	@Test
+	public void testWithDataGroupReplacesInPlace() {
+		DataGroupSpy changedGroup2 = createDataGroup("id2");
+
+		IndexedDataGroupList changed = dataGroups.withDataGroup(changedGroup2);
+
+		assertEquals(changed, List.of(group1, changedGroup2, group3));
+		assertEquals(dataGroups, List.of(group1, group2, group3));
+	}
+
+	@Test
+	public void testWithDataGroupAddsNewLast() {
+		DataGroupSpy group4 = createDataGroup("id4");
+
+		IndexedDataGroupList changed = dataGroups.withDataGroup(group4);
+
+		assertEquals(changed, List.of(group1, group2, group3, group4));
+	}
+
+	@Test
+	public void testWithoutDataGroupKeepsPositionsOfOthers() {
+		DataGroupSpy changedGroup3 = createDataGroup("id3");
+
+		IndexedDataGroupList changed = dataGroups.withoutDataGroup("id2")
+				.withDataGroup(changedGroup3);
+
+		assertEquals(changed, List.of(group1, changedGroup3));
+	}
+
+	@Test
+	public void testWithoutMissingIdReturnsSameList() {
+		assertSame(dataGroups.withoutDataGroup("someMissingId"), dataGroups);
+	}
+
+	@Test
+	public void testIdsAreReadOnceForManyChanges() {
+		IndexedDataGroupList changed = dataGroups.withDataGroup(createDataGroup("id4"))
+				.withDataGroup(createDataGroup("id1")).withoutDataGroup("id3")
+				.withDataGroup(createDataGroup("id5"));
+
+		assertEquals(changed.size(), 4);
+		group1.MCR.assertNumberOfCallsToMethod("getFirstGroupWithNameInData", 1);
+		group2.MCR.assertNumberOfCallsToMethod("getFirstGroupWithNameInData", 1);
+		group3.MCR.assertNumberOfCallsToMethod("getFirstGroupWithNameInData", 1);
+	}
+}
@@ -0,0 +1,76 @@
+/*
+ * Copyright 2026 Uppsala University Library
+ *
+ * This file is part of Cora.
+ *
+ *     Cora is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     Cora is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with Cora.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package se.uu.ub.cora.metadatastorage.cache;
+
+import java.util.Collections;
+
+import se.uu.ub.cora.metadatastorage.CollectTermHolderImp;
+import se.uu.ub.cora.metadatastorage.DataToTextElementConverterFactorySpy;
+import se.uu.ub.cora.metadatastorage.converter.datatotextelement.LazyTextElementList;
+import se.uu.ub.cora.metadatastorage.recordtype.RecordTypeRegistry;
+import se.uu.ub.cora.metadatastorage.validationtype.ValidationTypeRegistry;
+import se.uu.ub.cora.testutils.mcr.MethodCallRecorder;
+import se.uu.ub.cora.testutils.mrv.MethodReturnValues;
+
+public class MetadataSnapshotLoaderSpy implements MetadataSnapshotLoader {
+	public MethodCallRecorder MCR = new MethodCallRecorder();
+	public MethodReturnValues MRV = new MethodReturnValues();
+
+	private long loadedSnapshots = 0;
+
+	public MetadataSnapshotLoaderSpy() {
+		MCR.useMRV(MRV);
+		MRV.setDefaultReturnValuesSupplier("loadSnapshot",
+				() -> createEmptySnapshot(++loadedSnapshots));
+		MRV.setDefaultReturnValuesSupplier("loadChangedRecord",
+				() -> createEmptySnapshot(++loadedSnapshots));
+		MRV.setDefaultReturnValuesSupplier("loadValidationTypeRegistry",
+				() -> ValidationTypeRegistry.usingValidationTypesById(Collections.emptyMap()));
+	}
+
+	@Override
+	public MetadataSnapshot loadSnapshot(long version) {
+		return (MetadataSnapshot) MCR.addCallAndReturnFromMRV("version", version);
+	}
+
+	@Override
+	public MetadataSnapshot loadChangedRecord(MetadataSnapshot snapshot, long version,
+			String recordType, String recordId) {
+		return (MetadataSnapshot) MCR.addCallAndReturnFromMRV("snapshot", snapshot, "version",
+				version, "recordType", recordType, "recordId", recordId);
+	}
+
+	@Override
+	public ValidationTypeRegistry loadValidationTypeRegistry() {
+		return (ValidationTypeRegistry) MCR.addCallAndReturnFromMRV();
+	}
+
+	public static MetadataSnapshot createEmptySnapshot(long version) {
+		LazyTextElementList textElements = LazyTextElementList
+				.usingTextRecordGroupsAndConverterFactory(Collections.emptyList(),
+						new DataToTextElementConverterFactorySpy());
+		IndexedDataGroupList noDataGroups = IndexedDataGroupList.copyOf(Collections.emptyList());
+		return new MetadataSnapshot(version, Collections.emptyList(), Collections.emptyMap(),
+				noDataGroups, noDataGroups, textElements, noDataGroups,
+				RecordTypeRegistry.usingRecordTypesById(Collections.emptyMap()), noDataGroups,
+				CollectTermHolderImp.usingCollectTerms(Collections.emptyList()),
+				ValidationTypeRegistry.usingValidationTypesById(Collections.emptyMap()),
+				ConvertedElementCache.usingMaxSize(10));
+	}
+}
@@ -0,0 +1,230 @@
+/*
+ * Copyright 2026 Uppsala University Library
+ *
+ * This file is part of Cora.
+ *
+ *     Cora is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     Cora is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with Cora.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package se.uu.ub.cora.metadatastorage.cache;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertNotSame;
+import static org.testng.Assert.assertNull;
+import static org.testng.Assert.assertSame;
+import static org.testng.Assert.assertTrue;
+
+import java.util.List;
+import java.util.Map;
+
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import se.uu.ub.cora.bookkeeper.metadata.CollectTerm;
+import se.uu.ub.cora.bookkeeper.metadata.MetadataElement;
+import se.uu.ub.cora.bookkeeper.metadata.StorageTerm;
+import se.uu.ub.cora.bookkeeper.validator.ValidationType;
+import se.uu.ub.cora.data.spies.DataGroupSpy;
+import se.uu.ub.cora.data.spies.DataRecordGroupSpy;
+import se.uu.ub.cora.metadatastorage.CollectTermHolderImp;
+import se.uu.ub.cora.metadatastorage.DataToTextElementConverterFactorySpy;
+import se.uu.ub.cora.metadatastorage.converter.datatotextelement.LazyTextElementList;
+import se.uu.ub.cora.metadatastorage.recordtype.RecordType;
+import se.uu.ub.cora.metadatastorage.recordtype.RecordTypeRegistry;
+import se.uu.ub.cora.metadatastorage.spy.MetadataElementSpy;
+import se.uu.ub.cora.metadatastorage.validationtype.ValidationTypeRegistry;
+
+public class MetadataSnapshotTest {
+	private DataRecordGroupSpy metadata1;
+	private DataRecordGroupSpy metadata2;
+	private DataGroupSpy presentation;
+	private DataGroupSpy text;
+	private DataGroupSpy recordType;
+	private RecordType parsedRecordType;
+	private DataGroupSpy collectTermGroup;
+	private StorageTerm storageTerm;
+	private ValidationType validationType;
+	private MetadataSnapshot snapshot;
+
+	@BeforeMethod
+	public void beforeMethod() {
+		metadata1 = createRecordGroup("metadata1");
+		metadata2 = createRecordGroup("metadata2");
+		presentation = createDataGroup("presentation1");
+		text = createDataGroup("text1");
+		recordType = createDataGroup("recordType1");
+		parsedRecordType = new RecordType("recordType1", "recordType1Group", true, null);
+		collectTermGroup = createDataGroup("collectTerm1");
+		storageTerm = StorageTerm.usingIdAndStorageKey("collectTerm1", "someStorageKey");
+		validationType = new ValidationType("book", "bookNewGroup", "bookGroup");
+		LazyTextElementList textElements = LazyTextElementList
+				.usingTextRecordGroupsAndConverterFactory(List.of(createRecordGroup("text1")),
+						new DataToTextElementConverterFactorySpy());
+		snapshot = new MetadataSnapshot(1, List.of(metadata1, metadata2),
+				Map.of("metadata1", metadata1, "metadata2", metadata2),
+				IndexedDataGroupList.copyOf(List.of(presentation)),
+				IndexedDataGroupList.copyOf(List.of(text)), textElements,
+				IndexedDataGroupList.copyOf(List.of(recordType)),
+				RecordTypeRegistry.usingRecordTypesById(Map.of("recordType1", parsedRecordType)),
+				IndexedDataGroupList.copyOf(List.of(collectTermGroup)),
+				CollectTermHolderImp.usingCollectTerms(List.<CollectTerm> of(storageTerm)),
+				ValidationTypeRegistry.usingValidationTypesById(Map.of("book", validationType)),
+				ConvertedElementCache.usingMaxSize(10));
+	}
+
+	private DataRecordGroupSpy createRecordGroup(String id) {
+		DataRecordGroupSpy recordGroup = new DataRecordGroupSpy();
+		recordGroup.MRV.setDefaultReturnValuesSupplier("getId", () -> id);
+		return recordGroup;
+	}
+
+	private DataGroupSpy createDataGroup(String id) {
+		DataGroupSpy recordInfo = new DataGroupSpy();
+		recordInfo.MRV.setSpecificReturnValuesSupplier("getFirstAtomicValueWithNameInData",
+				() -> id, "id");
+		DataGroupSpy dataGroup = new DataGroupSpy();
+		dataGroup.MRV.setSpecificReturnValuesSupplier("getFirstGroupWithNameInData",
+				() -> recordInfo, "recordInfo");
+		return dataGroup;
+	}
+
+	@Test
+	public void testHoldsRecordType() {
+		assertTrue(MetadataSnapshot.holdsRecordType("metadata"));
+		assertTrue(MetadataSnapshot.holdsRecordType("presentation"));
+		assertTrue(MetadataSnapshot.holdsRecordType("text"));
+		assertTrue(MetadataSnapshot.holdsRecordType("recordType"));
+		assertTrue(MetadataSnapshot.holdsRecordType("collectTerm"));
+		assertTrue(MetadataSnapshot.holdsRecordType("validationType"));
+		assertFalse(MetadataSnapshot.holdsRecordType("person"));
+	}
+
+	@Test
+	public void testWithMetadataElementReplacesAndKeepsOtherCachedElements() {
+		MetadataElement cached1 = new MetadataElementSpy();
+		snapshot.metadataElementCache().getOrConvert("metadata1", id -> cached1);
+		snapshot.metadataElementCache().getOrConvert("metadata2", id -> new MetadataElementSpy());
+		DataRecordGroupSpy changedMetadata2 = createRecordGroup("metadata2");
+
+		MetadataSnapshot changed = snapshot.withMetadataElement(2, changedMetadata2);
+
+		assertEquals(changed.version(), 2);
+		assertEquals(changed.metadataElements(), List.of(metadata1, changedMetadata2));
+		assertSame(changed.metadataElementsById().get("metadata2"), changedMetadata2);
+		assertEquals(changed.metadataElementCache().getStatistics().size(), 1);
+		assertSame(changed.metadataElementCache().getOrConvert("metadata1", id -> null),
+				cached1);
+		assertSame(changed.presentationElements(), snapshot.presentationElements());
+		assertSame(changed.textElements(), snapshot.textElements());
+		assertSame(changed.metadataElementsById().get("metadata1"), metadata1);
+		assertSame(snapshot.metadataElementsById().get("metadata2"), metadata2);
+	}
+
+	@Test
+	public void testWithMetadataElementAddsNew() {
+		DataRecordGroupSpy metadata3 = createRecordGroup("metadata3");
+
+		MetadataSnapshot changed = snapshot.withMetadataElement(2, metadata3);
+
+		assertEquals(changed.metadataElements(), List.of(metadata1, metadata2, metadata3));
+		assertEquals(changed.metadataElementsById().size(), 3);
+	}
+
+	@Test
+	public void testWithPresentationElementAndRecordType() {
+		DataGroupSpy changedPresentation = createDataGroup("presentation1");
+		DataGroupSpy newRecordType = createDataGroup("recordType2");
+		RecordType newParsedRecordType = new RecordType("recordType2", "recordType2Group",
+				false, "recordType1");
+
+		MetadataSnapshot changed = snapshot.withPresentationElement(2, changedPresentation)
+				.withRecordType(3, newRecordType, newParsedRecordType);
+
+		assertEquals(changed.version(), 3);
+		assertEquals(changed.presentationElements(), List.of(changedPresentation));
+		assertEquals(changed.recordTypes(), List.of(recordType, newRecordType));
+		assertEquals(changed.recordTypeRegistry().getRecordTypes(),
+				List.of(parsedRecordType, newParsedRecordType));
+		assertEquals(changed.recordTypeRegistry().getImplementingRecordTypes("recordType1"),
+				List.of(newParsedRecordType));
+		assertEquals(snapshot.recordTypeRegistry().size(), 1);
+		assertSame(changed.metadataElementCache(), snapshot.metadataElementCache());
+	}
+
+	@Test
+	public void testWithText() {
+		DataRecordGroupSpy newTextRecordGroup = createRecordGroup("text2");
+		DataGroupSpy newText = createDataGroup("text2");
+
+		MetadataSnapshot changed = snapshot.withText(2, newTextRecordGroup, newText);
+
+		assertEquals(changed.texts(), List.of(text, newText));
+		assertEquals(changed.textElements().size(), 2);
+		assertTrue(changed.textElements().findById("text2").isPresent());
+		assertEquals(snapshot.textElements().size(), 1);
+	}
+
+	@Test
+	public void testWithCollectTerm() {
+		DataGroupSpy changedGroup = createDataGroup("collectTerm1");
+		StorageTerm changedTerm = StorageTerm.usingIdAndStorageKey("collectTerm1",
+				"someOtherStorageKey");
+
+		MetadataSnapshot changed = snapshot.withCollectTerm(2, changedGroup, changedTerm);
+
+		assertEquals(changed.collectTermsAsDataGroup(), List.of(changedGroup));
+		assertSame(changed.collectTermHolder().getCollectTermById("collectTerm1"), changedTerm);
+		assertSame(snapshot.collectTermHolder().getCollectTermById("collectTerm1"), storageTerm);
+	}
+
+	@Test
+	public void testWithValidationType() {
+		ValidationType newValidationType = new ValidationType("person", "personNewGroup",
+				"personGroup");
+
+		MetadataSnapshot changed = snapshot.withValidationType(2, "person", newValidationType);
+
+		assertEquals(changed.validationTypeRegistry().size(), 2);
+		assertNotSame(changed.validationTypeRegistry(), snapshot.validationTypeRegistry());
+		assertSame(changed.texts(), snapshot.texts());
+		assertSame(changed.recordTypeRegistry(), snapshot.recordTypeRegistry());
+	}
+
+	@Test
+	public void testWithoutRecordForAllTypes() {
+		MetadataSnapshot changed = snapshot.withoutRecord(2, "metadata", "metadata1")
+				.withoutRecord(3, "presentation", "presentation1")
+				.withoutRecord(4, "text", "text1").withoutRecord(5, "recordType", "recordType1")
+				.withoutRecord(6, "collectTerm", "collectTerm1")
+				.withoutRecord(7, "validationType", "book");
+
+		assertEquals(changed.version(), 7);
+		assertEquals(changed.metadataElements(), List.of(metadata2));
+		assertNull(changed.metadataElementsById().get("metadata1"));
+		assertTrue(changed.presentationElements().isEmpty());
+		assertTrue(changed.texts().isEmpty());
+		assertTrue(changed.textElements().isEmpty());
+		assertTrue(changed.recordTypes().isEmpty());
+		assertEquals(changed.recordTypeRegistry().size(), 0);
+		assertTrue(changed.collectTermsAsDataGroup().isEmpty());
+		assertNull(changed.collectTermHolder().getCollectTermById("collectTerm1"));
+		assertEquals(changed.validationTypeRegistry().size(), 0);
+		assertEquals(snapshot.metadataElements().size(), 2);
+	}
+
+	@Test
+	public void testWithoutRecordOfOtherTypeReturnsSameSnapshot() {
+		assertSame(snapshot.withoutRecord(2, "person", "person1"), snapshot);
+	}
+}
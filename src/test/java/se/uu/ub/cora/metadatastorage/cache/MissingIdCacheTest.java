@@ -0,0 +1,159 @@
+/*
+ * Copyright 2026 Uppsala University Library
+ *
+ * This file is part of Cora.
+ *
+ *     Cora is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     Cora is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with Cora.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package se.uu.ub.cora.metadatastorage.cache;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertTrue;
+
+import java.time.Duration;
+
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+public class MissingIdCacheTest {
+	private long now;
+	private MissingIdCache cache;
+
+	@BeforeMethod
+	public void beforeMethod() {
+		now = 0;
+		cache = MissingIdCache.usingMaxSizeAndTimeToLiveAndNanoClock(2, Duration.ofNanos(10),
+				() -> now);
+	}
+
+	@Test(expectedExceptions = IllegalArgumentException.class, expectedExceptionsMessageRegExp = ""
+			+ "Max size must not be negative, was: -1")
+	public void testMaxSizeMustNotBeNegative() {
+		MissingIdCache.usingMaxSizeAndTimeToLive(-1, Duration.ofSeconds(1));
+	}
+
+	@Test
+	public void testInit() {
+		assertEquals(cache.onlyForTestGetMaxSize(), 2);
+		assertEquals(cache.size(), 0);
+		assertFalse(cache.isKnownMissing("text", "id1"));
+	}
+
+	@Test
+	public void testMarkedIdIsKnownMissingForSameTypeOnly() {
+		cache.markMissing("text", "id1");
+
+		assertTrue(cache.isKnownMissing("text", "id1"));
+		assertFalse(cache.isKnownMissing("metadata", "id1"));
+		assertFalse(cache.isKnownMissing("text", "id2"));
+	}
+
+	@Test
+	public void testMarkedIdExpiresAfterTimeToLive() {
+		cache.markMissing("text", "id1");
+
+		now = 9;
+		assertTrue(cache.isKnownMissing("text", "id1"));
+		now = 10;
+		assertFalse(cache.isKnownMissing("text", "id1"));
+		assertEquals(cache.size(), 0);
+	}
+
+	@Test
+	public void testRecordCreatedForgetsMissingId() {
+		cache.markMissing("text", "id1");
+
+		cache.recordCreated("text", "id1");
+
+		assertFalse(cache.isKnownMissing("text", "id1"));
+	}
+
+	@Test
+	public void testFullCacheRemovesOldestToRememberNewId() {
+		cache.markMissing("text", "id1");
+		cache.markMissing("text", "id2");
+
+		cache.markMissing("text", "id3");
+
+		assertEquals(cache.size(), 2);
+		assertFalse(cache.isKnownMissing("text", "id1"));
+		assertTrue(cache.isKnownMissing("text", "id2"));
+		assertTrue(cache.isKnownMissing("text", "id3"));
+	}
+
+	@Test
+	public void testMarkingIdAgainMakesItNewest() {
+		cache.markMissing("text", "id1");
+		now = 5;
+		cache.markMissing("text", "id2");
+		cache.markMissing("text", "id1");
+
+		cache.markMissing("text", "id3");
+
+		assertFalse(cache.isKnownMissing("text", "id2"));
+		assertTrue(cache.isKnownMissing("text", "id1"));
+		assertTrue(cache.isKnownMissing("text", "id3"));
+		now = 14;
+		assertTrue(cache.isKnownMissing("text", "id1"));
+	}
+
+	@Test
+	public void testManyMissesOnFullCacheKeepCacheBounded() {
+		for (int i = 0; i < 1000; i++) {
+			cache.markMissing("text", "id" + i);
+		}
+
+		assertEquals(cache.size(), 2);
+		assertTrue(cache.onlyForTestGetNumberOfKeysInExpiryOrder() <= 4);
+		assertTrue(cache.isKnownMissing("text", "id998"));
+		assertTrue(cache.isKnownMissing("text", "id999"));
+	}
+
+	@Test
+	public void testCreatedAndMarkedAgainKeepsCacheBounded() {
+		for (int i = 0; i < 1000; i++) {
+			cache.markMissing("text", "id1");
+			cache.recordCreated("text", "id1");
+		}
+
+		assertEquals(cache.size(), 0);
+		assertTrue(cache.onlyForTestGetNumberOfKeysInExpiryOrder() <= 4);
+	}
+
+	@Test
+	public void testFullCacheRemovesExpiredIdsBeforeAddingNew() {
+		cache.markMissing("text", "id1");
+		now = 5;
+		cache.markMissing("text", "id2");
+		now = 10;
+
+		cache.markMissing("text", "id3");
+
+		assertEquals(cache.size(), 2);
+		assertTrue(cache.isKnownMissing("text", "id2"));
+		assertTrue(cache.isKnownMissing("text", "id3"));
+	}
+
+	@Test
+	public void testMaxSizeZeroRemembersNothing() {
+		MissingIdCache disabledCache = MissingIdCache.usingMaxSizeAndTimeToLive(0,
+				Duration.ofSeconds(1));
+
+		disabledCache.markMissing("text", "id1");
+
+		assertFalse(disabledCache.isKnownMissing("text", "id1"));
+		assertEquals(disabledCache.size(), 0);
+	}
+}
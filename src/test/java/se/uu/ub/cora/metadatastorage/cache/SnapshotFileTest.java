@@ -0,0 +1,456 @@
+/*
+ * Copyright 2026 Uppsala University Library
+ *
+ * This file is part of Cora.
+ *
+ *     Cora is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     Cora is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with Cora.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package se.uu.ub.cora.metadatastorage.cache;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertSame;
+import static org.testng.Assert.assertTrue;
+import static org.testng.Assert.fail;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import se.uu.ub.cora.bookkeeper.metadata.CollectTerm;
+import se.uu.ub.cora.bookkeeper.metadata.IndexTerm;
+import se.uu.ub.cora.bookkeeper.metadata.PermissionTerm;
+import se.uu.ub.cora.bookkeeper.metadata.StorageTerm;
+import se.uu.ub.cora.bookkeeper.storage.MetadataStorageViewException;
+import se.uu.ub.cora.bookkeeper.text.TextElement;
+import se.uu.ub.cora.bookkeeper.text.TextElementImp;
+import se.uu.ub.cora.bookkeeper.validator.ValidationType;
+import se.uu.ub.cora.data.DataChild;
+import se.uu.ub.cora.data.DataGroup;
+import se.uu.ub.cora.data.DataProvider;
+import se.uu.ub.cora.data.spies.DataAtomicSpy;
+import se.uu.ub.cora.data.spies.DataAttributeSpy;
+import se.uu.ub.cora.data.spies.DataFactorySpy;
+import se.uu.ub.cora.data.spies.DataGroupSpy;
+import se.uu.ub.cora.data.spies.DataRecordGroupSpy;
+import se.uu.ub.cora.data.spies.DataRecordLinkSpy;
+import se.uu.ub.cora.data.spies.DataResourceLinkSpy;
+import se.uu.ub.cora.logger.LoggerProvider;
+import se.uu.ub.cora.logger.spies.LoggerFactorySpy;
+import se.uu.ub.cora.logger.spies.LoggerSpy;
+import se.uu.ub.cora.metadatastorage.CollectTermHolderImp;
+import se.uu.ub.cora.metadatastorage.DataToTextElementConverterFactorySpy;
+import se.uu.ub.cora.metadatastorage.converter.datatotextelement.LazyTextElementList;
+import se.uu.ub.cora.metadatastorage.recordtype.RecordType;
+import se.uu.ub.cora.metadatastorage.recordtype.RecordTypeRegistry;
+import se.uu.ub.cora.metadatastorage.validationtype.ValidationTypeRegistry;
+import se.uu.ub.cora.testutils.mrv.MethodReturnValues;
+
+public class SnapshotFileTest {
+	private static final Instant LOADED_AT = Instant.ofEpochMilli(1_700_000_000_000L);
+	private Path directory;
+	private Path path;
+	private DataFactorySpy dataFactorySpy;
+	private LoggerFactorySpy loggerFactorySpy;
+	private DataToTextElementConverterFactorySpy textConverterFactory;
+	private SnapshotFile snapshotFile;
+
+	@BeforeMethod
+	public void beforeMethod() throws IOException {
+		dataFactorySpy = new DataFactorySpy();
+		DataProvider.onlyForTestSetDataFactory(dataFactorySpy);
+		loggerFactorySpy = new LoggerFactorySpy();
+		LoggerProvider.setLoggerFactory(loggerFactorySpy);
+		directory = Files.createTempDirectory("snapshotFileTest");
+		path = directory.resolve("metadataSnapshot.bin");
+		textConverterFactory = new DataToTextElementConverterFactorySpy();
+		snapshotFile = SnapshotFile.usingPathAndTextConverterFactoryAndElementCacheSize(path,
+				textConverterFactory, 17);
+	}
+
+	@AfterMethod
+	public void afterMethod() throws IOException {
+		try (Stream<Path> files = Files.walk(directory)) {
+			for (Path file : files.sorted(Comparator.reverseOrder()).toList()) {
+				Files.delete(file);
+			}
+		}
+	}
+
+	@Test
+	public void testInit() {
+		assertSame(snapshotFile.onlyForTestGetPath(), path);
+		assertSame(snapshotFile.onlyForTestGetTextConverterFactory(), textConverterFactory);
+		assertEquals(snapshotFile.onlyForTestGetElementCacheSize(), 17);
+	}
+
+	@Test
+	public void testReadMissingFileReturnsEmptyWithoutLogging() {
+		Optional<StoredSnapshot> snapshot = snapshotFile.read(1);
+
+		assertTrue(snapshot.isEmpty());
+		loggerFactorySpy.MCR.assertMethodNotCalled("factorForClass");
+	}
+
+	@Test
+	public void testWriteAndReadConvertedParts() {
+		MetadataSnapshot written = createSnapshotWithConvertedParts();
+
+		assertTrue(snapshotFile.write(written, LOADED_AT));
+		StoredSnapshot stored = snapshotFile.read(7).get();
+
+		assertEquals(stored.loadedAt(), LOADED_AT);
+		MetadataSnapshot read = stored.snapshot();
+		assertEquals(read.version(), 7);
+		assertEquals(read.metadataElementCache().onlyForTestGetMaxSize(), 17);
+		CollectTermHolderImp collectTermHolder = read.collectTermHolder();
+		assertEquals(collectTermHolder.getStorageTerms().get(0).storageKey, "someStorageKey");
+		IndexTerm indexTerm = collectTermHolder.getIndexTerms().get(0);
+		assertEquals(indexTerm.id, "someIndexTermId");
+		assertEquals(indexTerm.nameInData, "someNameInData");
+		assertEquals(indexTerm.indexFieldName, "someIndexFieldName");
+		assertEquals(indexTerm.indexType, "indexTypeString");
+		PermissionTerm permissionTerm = collectTermHolder.getPermissionTerms().get(0);
+		assertEquals(permissionTerm.permissionKey, "somePermissionKey");
+		assertEquals(permissionTerm.mode, PermissionTerm.Mode.STATE);
+		assertEquals(read.validationTypeRegistry().getValidationTypesById(),
+				written.validationTypeRegistry().getValidationTypesById());
+		assertEquals(read.recordTypeRegistry().getRecordTypes(),
+				written.recordTypeRegistry().getRecordTypes());
+		assertEquals(read.recordTypeRegistry().getImplementingRecordTypes("book").get(0).id(),
+				"article");
+		TextElement textElement = read.textElements().findById("someTextId").get();
+		assertEquals(textElement.getTranslationByLanguage("sv"), "någon text");
+		assertEquals(textElement.getTranslationByLanguage("en"), "some text");
+		textConverterFactory.MCR.assertMethodNotCalled("factor");
+	}
+
+	@Test
+	public void testWriteDoesNotConvertTextElements() {
+		DataRecordGroupSpy textRecordGroup = new DataRecordGroupSpy();
+		textRecordGroup.MRV.setDefaultReturnValuesSupplier("getId", () -> "someTextId");
+		LazyTextElementList unconverted = LazyTextElementList
+				.usingTextRecordGroupsAndConverterFactory(List.of(textRecordGroup),
+						textConverterFactory);
+		MetadataSnapshot written = createSnapshotWithTextElements(unconverted);
+
+		snapshotFile.write(written, LOADED_AT);
+		MetadataSnapshot read = snapshotFile.read(2).get().snapshot();
+
+		textConverterFactory.MCR.assertMethodNotCalled("factor");
+		assertEquals(read.textElements().size(), 1);
+		assertEquals(read.textElements().numberOfConvertedElements(), 0);
+		read.textElements().findById("someTextId").get();
+		textConverterFactory.MCR.assertNumberOfCallsToMethod("factor", 1);
+	}
+
+	private MetadataSnapshot createSnapshotWithTextElements(LazyTextElementList textElements) {
+		DataGroupSpy text = createDataGroupSpy("text");
+		setUpDataFactoryToCreateRecordGroupWithId("someTextId");
+		MetadataSnapshot empty = MetadataSnapshotLoaderSpy.createEmptySnapshot(1);
+		return new MetadataSnapshot(1, empty.metadataElements(), empty.metadataElementsById(),
+				empty.presentationElements(), IndexedDataGroupList.copyOf(List.of(text)),
+				textElements,
+				empty.recordTypes(), empty.recordTypeRegistry(), empty.collectTermsAsDataGroup(),
+				empty.collectTermHolder(), empty.validationTypeRegistry(),
+				empty.metadataElementCache());
+	}
+
+	private MetadataSnapshot createSnapshotWithConvertedParts() {
+		List<CollectTerm> collectTerms = List.of(
+				StorageTerm.usingIdAndStorageKey("someStorageTermId", "someStorageKey"),
+				IndexTerm.usingIdAndNameInDataAndIndexFieldNameAndIndexType("someIndexTermId",
+						"someNameInData", "someIndexFieldName", "indexTypeString"),
+				PermissionTerm.usingIdAndNameInDataAndPermissionKeyAndMode(
+						"somePermissionTermId", "someNameInData", "somePermissionKey",
+						PermissionTerm.Mode.STATE));
+		Map<String, ValidationType> validationTypes = new LinkedHashMap<>();
+		validationTypes.put("book", new ValidationType("book", "bookNewGroup", "bookGroup"));
+		validationTypes.put("person", new ValidationType("person", null, "personGroup"));
+		Map<String, RecordType> recordTypes = new LinkedHashMap<>();
+		recordTypes.put("book", new RecordType("book", "bookGroup", true, null));
+		recordTypes.put("article", new RecordType("article", "articleGroup", false, "book"));
+		DataGroupSpy text = createDataGroupSpy("text");
+		setUpDataFactoryToCreateRecordGroupWithId("someTextId");
+		return new MetadataSnapshot(1, Collections.emptyList(), Collections.emptyMap(),
+				IndexedDataGroupList.copyOf(Collections.emptyList()),
+				IndexedDataGroupList.copyOf(List.of(text)),
+				createTextElementsWithOneConvertedText(),
+				IndexedDataGroupList.copyOf(Collections.emptyList()),
+				RecordTypeRegistry.usingRecordTypesById(recordTypes),
+				IndexedDataGroupList.copyOf(Collections.emptyList()),
+				CollectTermHolderImp.usingCollectTerms(collectTerms),
+				ValidationTypeRegistry.usingValidationTypesById(validationTypes),
+				ConvertedElementCache.usingMaxSize(10));
+	}
+
+	private void setUpDataFactoryToCreateRecordGroupWithId(String id) {
+		DataRecordGroupSpy recordGroup = new DataRecordGroupSpy();
+		recordGroup.MRV.setDefaultReturnValuesSupplier("getId", () -> id);
+		dataFactorySpy.MRV.setDefaultReturnValuesSupplier("factorRecordGroupFromDataGroup",
+				() -> recordGroup);
+	}
+
+	private LazyTextElementList createTextElementsWithOneConvertedText() {
+		DataRecordGroupSpy textRecordGroup = new DataRecordGroupSpy();
+		textRecordGroup.MRV.setDefaultReturnValuesSupplier("getId", () -> "someTextId");
+		TextElement textElement = TextElementImp.withId("someTextId");
+		textElement.addTranslation("sv", "någon text");
+		textElement.addTranslation("en", "some text");
+		return LazyTextElementList.usingTextRecordGroupsAndConvertedElements(
+				List.of(textRecordGroup), Map.of("someTextId", textElement),
+				textConverterFactory);
+	}
+
+	private DataGroupSpy createDataGroupSpy(String nameInData, DataChild... children) {
+		DataGroupSpy dataGroup = new DataGroupSpy();
+		setUpChild(dataGroup.MRV, nameInData);
+		dataGroup.MRV.setDefaultReturnValuesSupplier("getChildren", () -> List.of(children));
+		return dataGroup;
+	}
+
+	private void setUpChild(MethodReturnValues childMRV, String nameInData) {
+		childMRV.setDefaultReturnValuesSupplier("getNameInData", () -> nameInData);
+		childMRV.setDefaultReturnValuesSupplier("getRepeatId", () -> null);
+		childMRV.setDefaultReturnValuesSupplier("hasAttributes", () -> false);
+	}
+
+	@Test
+	public void testWriteAndReadData() {
+		DataRecordGroupSpy metadata = new DataRecordGroupSpy();
+		metadata.MRV.setDefaultReturnValuesSupplier("getId", () -> "someMetadataId");
+		DataGroupSpy metadataAsDataGroup = createMetadataAsDataGroup();
+		dataFactorySpy.MRV.setSpecificReturnValuesSupplier("factorGroupFromDataRecordGroup",
+				() -> metadataAsDataGroup, metadata);
+		setUpDataFactoryToCreateRecordGroupWithId("someMetadataId");
+		MetadataSnapshot written = MetadataSnapshotLoaderSpy.createEmptySnapshot(1)
+				.withMetadataElement(2, metadata);
+
+		snapshotFile.write(written, LOADED_AT);
+		MetadataSnapshot read = snapshotFile.read(3).get().snapshot();
+
+		dataFactorySpy.MCR.assertParameters("factorGroupUsingNameInData", 0, "metadata");
+		dataFactorySpy.MCR.assertParameters("factorAtomicUsingNameInDataAndValue", 0,
+				"nameInData", "someNameInData");
+		dataFactorySpy.MCR.assertParameters("factorRecordLinkUsingNameInDataAndTypeAndId", 0,
+				"textId", "text", "someTextId");
+		var readGroup = (DataGroupSpy) dataFactorySpy.MCR
+				.getReturnValue("factorGroupUsingNameInData", 0);
+		readGroup.MCR.assertParameters("addAttributeByIdWithValue", 0, "type", "textVariable");
+		var readAtomic = (DataAtomicSpy) dataFactorySpy.MCR
+				.getReturnValue("factorAtomicUsingNameInDataAndValue", 0);
+		readAtomic.MCR.assertParameters("setRepeatId", 0, "1");
+		var readLink = dataFactorySpy.MCR
+				.getReturnValue("factorRecordLinkUsingNameInDataAndTypeAndId", 0);
+		readGroup.MCR.assertParameters("addChild", 0, readAtomic);
+		readGroup.MCR.assertParameters("addChild", 1, readLink);
+		dataFactorySpy.MCR.assertParameters("factorRecordGroupFromDataGroup", 0, readGroup);
+		var readMetadata = dataFactorySpy.MCR.getReturnValue("factorRecordGroupFromDataGroup",
+				0);
+		assertEquals(read.metadataElements(), List.of(readMetadata));
+		assertSame(read.metadataElementsById().get("someMetadataId"), readMetadata);
+	}
+
+	private DataGroupSpy createMetadataAsDataGroup() {
+		DataAtomicSpy nameInData = new DataAtomicSpy();
+		setUpChild(nameInData.MRV, "nameInData");
+		nameInData.MRV.setDefaultReturnValuesSupplier("getRepeatId", () -> "1");
+		nameInData.MRV.setDefaultReturnValuesSupplier("getValue", () -> "someNameInData");
+		DataRecordLinkSpy textLink = new DataRecordLinkSpy();
+		setUpChild(textLink.MRV, "textId");
+		textLink.MRV.setDefaultReturnValuesSupplier("getLinkedRecordType", () -> "text");
+		textLink.MRV.setDefaultReturnValuesSupplier("getLinkedRecordId", () -> "someTextId");
+		DataGroupSpy metadataAsDataGroup = createDataGroupSpy("metadata", nameInData, textLink);
+		DataAttributeSpy typeAttribute = new DataAttributeSpy();
+		typeAttribute.MRV.setDefaultReturnValuesSupplier("getNameInData", () -> "type");
+		typeAttribute.MRV.setDefaultReturnValuesSupplier("getValue", () -> "textVariable");
+		metadataAsDataGroup.MRV.setDefaultReturnValuesSupplier("hasAttributes", () -> true);
+		metadataAsDataGroup.MRV.setDefaultReturnValuesSupplier("getAttributes",
+				() -> List.of(typeAttribute));
+		return metadataAsDataGroup;
+	}
+
+	@Test
+	public void testWriteAndReadResourceLink() {
+		DataResourceLinkSpy resourceLink = new DataResourceLinkSpy();
+		setUpChild(resourceLink.MRV, "master");
+		resourceLink.MRV.setDefaultReturnValuesSupplier("getRepeatId", () -> "0");
+		resourceLink.MRV.setDefaultReturnValuesSupplier("getType", () -> "binary");
+		resourceLink.MRV.setDefaultReturnValuesSupplier("getId", () -> "someBinaryId");
+		resourceLink.MRV.setDefaultReturnValuesSupplier("getMimeType", () -> "image/png");
+		DataGroupSpy presentation = createDataGroupSpy("presentation", resourceLink);
+
+		snapshotFile.write(createSnapshotWithPresentation(presentation), LOADED_AT);
+		MetadataSnapshot read = snapshotFile.read(2).get().snapshot();
+
+		dataFactorySpy.MCR.assertParameters(
+				"factorResourceLinkUsingNameInDataAndTypeAndIdAndMimeType", 0, "master",
+				"binary", "someBinaryId", "image/png");
+		var readResourceLink = (DataResourceLinkSpy) dataFactorySpy.MCR.getReturnValue(
+				"factorResourceLinkUsingNameInDataAndTypeAndIdAndMimeType", 0);
+		readResourceLink.MCR.assertParameters("setRepeatId", 0, "0");
+		var readPresentation = (DataGroupSpy) read.presentationElements().get(0);
+		readPresentation.MCR.assertParameters("addChild", 0, readResourceLink);
+	}
+
+	private MetadataSnapshot createSnapshotWithPresentation(DataGroup presentation) {
+		MetadataSnapshot empty = MetadataSnapshotLoaderSpy.createEmptySnapshot(1);
+		return new MetadataSnapshot(1, empty.metadataElements(), empty.metadataElementsById(),
+				IndexedDataGroupList.copyOf(List.of(presentation)), empty.texts(),
+				empty.textElements(), empty.recordTypes(),
+				empty.recordTypeRegistry(), empty.collectTermsAsDataGroup(),
+				empty.collectTermHolder(),
+				empty.validationTypeRegistry(), empty.metadataElementCache());
+	}
+
+	@Test
+	public void testWriteSameContentAgainLeavesFile() throws IOException {
+		MetadataSnapshot snapshot = createSnapshotWithConvertedParts();
+		snapshotFile.write(snapshot, LOADED_AT);
+		byte[] contentBefore = Files.readAllBytes(path);
+
+		boolean written = snapshotFile.write(snapshot, LOADED_AT);
+
+		assertFalse(written);
+		assertEquals(Files.readAllBytes(path), contentBefore);
+	}
+
+	@Test
+	public void testWriteSameContentLaterUpdatesOnlyLoadTime() throws IOException {
+		MetadataSnapshot snapshot = createSnapshotWithConvertedParts();
+		snapshotFile.write(snapshot, LOADED_AT);
+		byte[] contentBefore = Files.readAllBytes(path);
+		Instant loadedLater = LOADED_AT.plusSeconds(60);
+
+		boolean written = snapshotFile.write(snapshot, loadedLater);
+
+		assertFalse(written);
+		byte[] contentAfter = Files.readAllBytes(path);
+		ByteBuffer.wrap(contentBefore).putLong(8, loadedLater.toEpochMilli());
+		assertEquals(contentAfter, contentBefore);
+		assertEquals(snapshotFile.read(2).get().loadedAt(), loadedLater);
+	}
+
+	@Test
+	public void testWriteChangedContentReplacesFile() {
+		snapshotFile.write(createSnapshotWithConvertedParts(), LOADED_AT);
+		MetadataSnapshot changed = createSnapshotWithConvertedParts().withValidationType(2,
+				"article", new ValidationType("article", "articleNewGroup", "articleGroup"));
+
+		boolean written = snapshotFile.write(changed, LOADED_AT);
+
+		assertTrue(written);
+		assertEquals(snapshotFile.read(3).get().snapshot().validationTypeRegistry().size(), 3);
+		assertFalse(Files.exists(directory.resolve("metadataSnapshot.bin.tmp")));
+	}
+
+	@Test
+	public void testWriteToMissingDirectoryThrowsException() {
+		Path missingDirectory = directory.resolve("missing").resolve("metadataSnapshot.bin");
+		SnapshotFile fileInMissingDirectory = SnapshotFile
+				.usingPathAndTextConverterFactoryAndElementCacheSize(missingDirectory,
+						textConverterFactory, 17);
+
+		try {
+			fileInMissingDirectory.write(createSnapshotWithConvertedParts(), LOADED_AT);
+			fail();
+		} catch (MetadataStorageViewException e) {
+			assertEquals(e.getMessage(), "Could not write snapshot file: " + missingDirectory);
+			assertTrue(e.getCause() instanceof IOException);
+		}
+	}
+
+	@Test
+	public void testFileStartsWithHeader() throws IOException {
+		snapshotFile.write(createSnapshotWithConvertedParts(), LOADED_AT);
+
+		ByteBuffer content = ByteBuffer.wrap(Files.readAllBytes(path));
+
+		assertEquals(content.getInt(), SnapshotFile.MAGIC);
+		assertEquals(content.getInt(), SnapshotFile.FORMAT_VERSION);
+		assertEquals(content.getLong(), LOADED_AT.toEpochMilli());
+		assertEquals(content.getLong(), content.capacity() - SnapshotFile.HEADER_SIZE);
+	}
+
+	@Test
+	public void testReadChangedContentIsNotUsed() throws IOException {
+		snapshotFile.write(createSnapshotWithConvertedParts(), LOADED_AT);
+		byte[] content = Files.readAllBytes(path);
+		content[content.length - 1] ^= 1;
+		Files.write(path, content);
+
+		Optional<StoredSnapshot> snapshot = snapshotFile.read(2);
+
+		assertTrue(snapshot.isEmpty());
+		assertWarningLogged("Content hash does not match the stored hash.");
+	}
+
+	private void assertWarningLogged(String reason) {
+		loggerFactorySpy.MCR.assertParameters("factorForClass", 0, SnapshotFile.class);
+		LoggerSpy logger = (LoggerSpy) loggerFactorySpy.MCR.getReturnValue("factorForClass", 0);
+		logger.MCR.assertParameters("logWarnUsingMessage", 0,
+				"Snapshot file: " + path + ", could not be used. " + reason);
+	}
+
+	@Test
+	public void testReadOtherFormatVersionIsNotUsed() throws IOException {
+		snapshotFile.write(createSnapshotWithConvertedParts(), LOADED_AT);
+		byte[] content = Files.readAllBytes(path);
+		ByteBuffer.wrap(content).putInt(4, 1);
+		Files.write(path, content);
+
+		Optional<StoredSnapshot> snapshot = snapshotFile.read(2);
+
+		assertTrue(snapshot.isEmpty());
+		assertWarningLogged("Format version 1 is not supported, expected 3.");
+	}
+
+	@Test
+	public void testReadOtherFileIsNotUsed() throws IOException {
+		Files.writeString(path, "not a snapshot file");
+
+		Optional<StoredSnapshot> snapshot = snapshotFile.read(2);
+
+		assertTrue(snapshot.isEmpty());
+		assertWarningLogged("Not a snapshot file.");
+	}
+
+	@Test
+	public void testReadTruncatedFileIsNotUsed() throws IOException {
+		snapshotFile.write(createSnapshotWithConvertedParts(), LOADED_AT);
+		byte[] content = Files.readAllBytes(path);
+		Files.write(path, Arrays.copyOf(content, content.length - 1));
+
+		Optional<StoredSnapshot> snapshot = snapshotFile.read(2);
+
+		assertTrue(snapshot.isEmpty());
+		long payloadLength = content.length - SnapshotFile.HEADER_SIZE;
+		assertWarningLogged("Payload length " + payloadLength + " does not match the file, "
+				+ (payloadLength - 1) + " bytes found.");
+	}
+}
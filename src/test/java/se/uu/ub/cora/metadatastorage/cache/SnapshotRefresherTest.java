@@ -0,0 +1,253 @@
+/*
+ * Copyright 2026 Uppsala University Library
+ *
+ * This file is part of Cora.
+ *
+ *     Cora is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     Cora is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with Cora.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package se.uu.ub.cora.metadatastorage.cache;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertSame;
+import static org.testng.Assert.assertTrue;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import se.uu.ub.cora.logger.LoggerProvider;
+import se.uu.ub.cora.logger.spies.LoggerFactorySpy;
+import se.uu.ub.cora.logger.spies.LoggerSpy;
+import se.uu.ub.cora.metadatastorage.DataToTextElementConverterFactorySpy;
+
+public class SnapshotRefresherTest {
+	private static final Duration INTERVAL = Duration.ofMinutes(1);
+	private static final Duration STALENESS_ALARM = Duration.ofMinutes(5);
+	private LoggerFactorySpy loggerFactorySpy;
+	private MetadataSnapshotLoaderSpy snapshotLoader;
+	private CachedMetadataStorageView cachedView;
+	private AtomicLong millisClock;
+	private SnapshotRefresher refresher;
+	private AtomicInteger numberOfLoads;
+
+	@BeforeMethod
+	public void beforeMethod() {
+		loggerFactorySpy = new LoggerFactorySpy();
+		LoggerProvider.setLoggerFactory(loggerFactorySpy);
+		snapshotLoader = new MetadataSnapshotLoaderSpy();
+		millisClock = new AtomicLong(1_800_000_000_000L);
+		cachedView = CachedMetadataStorageView.usingSnapshotLoaderAndMillisClock(snapshotLoader,
+				millisClock::get);
+		numberOfLoads = new AtomicInteger();
+		refresher = SnapshotRefresher.usingViewAndIntervalAndStalenessAlarmAndMillisClock(
+				cachedView, INTERVAL, STALENESS_ALARM, millisClock::get);
+	}
+
+	@AfterMethod
+	public void afterMethod() {
+		refresher.stop();
+	}
+
+	@Test
+	public void testInit() {
+		refresher = SnapshotRefresher.usingViewAndIntervalAndStalenessAlarm(cachedView, INTERVAL,
+				STALENESS_ALARM);
+
+		assertSame(refresher.onlyForTestGetView(), cachedView);
+		assertEquals(refresher.onlyForTestGetInterval(), INTERVAL);
+		assertEquals(refresher.getStalenessAlarm(), STALENESS_ALARM);
+		assertFalse(refresher.onlyForTestIsStarted());
+		snapshotLoader.MCR.assertMethodNotCalled("loadSnapshot");
+	}
+
+	@Test(expectedExceptions = IllegalArgumentException.class, expectedExceptionsMessageRegExp = ""
+			+ "Interval must be positive, was: PT0S")
+	public void testIntervalMustBePositive() {
+		SnapshotRefresher.usingViewAndIntervalAndStalenessAlarm(cachedView, Duration.ZERO,
+				STALENESS_ALARM);
+	}
+
+	@Test(expectedExceptions = IllegalArgumentException.class, expectedExceptionsMessageRegExp = ""
+			+ "Staleness alarm must not be shorter than the interval, was: PT30S with interval: "
+			+ "PT1M")
+	public void testStalenessAlarmMustNotBeShorterThanInterval() {
+		SnapshotRefresher.usingViewAndIntervalAndStalenessAlarm(cachedView, INTERVAL,
+				Duration.ofSeconds(30));
+	}
+
+	@Test
+	public void testRefreshLoadsNewSnapshot() {
+		cachedView.warmUp();
+
+		refresher.refresh();
+
+		snapshotLoader.MCR.assertNumberOfCallsToMethod("loadSnapshot", 2);
+		assertEquals(cachedView.getCurrentVersion(), 2);
+	}
+
+	@Test
+	public void testViewWithoutSnapshotIsNotStale() {
+		millisClock.addAndGet(STALENESS_ALARM.toMillis() + 1);
+
+		assertEquals(refresher.getStaleness(), Duration.ZERO);
+		assertFalse(refresher.isStalenessAlarmRaised());
+	}
+
+	@Test
+	public void testStalenessIsMeasuredFromLoadOfSnapshotNotFromCreation() {
+		millisClock.addAndGet(Duration.ofSeconds(20).toMillis());
+		cachedView.warmUp();
+		millisClock.addAndGet(Duration.ofSeconds(10).toMillis());
+
+		assertEquals(refresher.getStaleness(), Duration.ofSeconds(10));
+		assertFalse(refresher.isStalenessAlarmRaised());
+	}
+
+	@Test
+	public void testStalenessIsMeasuredFromStartOfLastSuccessfulRefresh() {
+		cachedView.warmUp();
+		millisClock.addAndGet(STALENESS_ALARM.toMillis() + 1);
+		assertTrue(refresher.isStalenessAlarmRaised());
+		long refreshStart = millisClock.get();
+		snapshotLoader.MRV.setDefaultReturnValuesSupplier("loadSnapshot", () -> {
+			millisClock.addAndGet(Duration.ofSeconds(3).toMillis());
+			return MetadataSnapshotLoaderSpy.createEmptySnapshot(2);
+		});
+
+		refresher.refresh();
+
+		assertEquals(millisClock.get() - refreshStart, Duration.ofSeconds(3).toMillis());
+		assertEquals(refresher.getStaleness(), Duration.ofSeconds(3));
+		assertFalse(refresher.isStalenessAlarmRaised());
+	}
+
+	@Test
+	public void testStalenessOfViewStartedFromFileIsAgeOfSnapshotInFile() throws IOException {
+		Path directory = Files.createTempDirectory("snapshotRefresherTest");
+		directory.toFile().deleteOnExit();
+		Path path = directory.resolve("metadataSnapshot.bin");
+		path.toFile().deleteOnExit();
+		SnapshotFile snapshotFile = SnapshotFile
+				.usingPathAndTextConverterFactoryAndElementCacheSize(path,
+						new DataToTextElementConverterFactorySpy(), 10);
+		Instant loadedAt = Instant.ofEpochMilli(millisClock.get()).minus(Duration.ofHours(1));
+		snapshotFile.write(MetadataSnapshotLoaderSpy.createEmptySnapshot(1), loadedAt);
+		cachedView.useSnapshotFile(snapshotFile, Runnable::run);
+
+		cachedView.warmUpFromSnapshotFile(new ArrayList<Runnable>()::add);
+
+		assertEquals(refresher.getStaleness(), Duration.ofHours(1));
+		assertTrue(refresher.isStalenessAlarmRaised());
+	}
+
+	@Test
+	public void testFailedRefreshKeepsSnapshotAndLogsWarning() {
+		cachedView.warmUp();
+		RuntimeException error = new RuntimeException("someError");
+		snapshotLoader.MRV.setAlwaysThrowException("loadSnapshot", error);
+		millisClock.addAndGet(INTERVAL.toMillis());
+
+		refresher.refresh();
+
+		assertEquals(cachedView.getCurrentVersion(), 1);
+		assertEquals(refresher.getStaleness(), INTERVAL);
+		LoggerSpy logger = (LoggerSpy) loggerFactorySpy.MCR.getReturnValue("factorForClass", 0);
+		logger.MCR.assertParameters("logWarnUsingMessageAndException", 0,
+				"Could not refresh metadata snapshot, the previous snapshot is kept.", error);
+		logger.MCR.assertMethodNotCalled("logErrorUsingMessageAndException");
+	}
+
+	@Test
+	public void testFailedRefreshBeyondStalenessAlarmLogsError() {
+		cachedView.warmUp();
+		RuntimeException error = new RuntimeException("someError");
+		snapshotLoader.MRV.setAlwaysThrowException("loadSnapshot", error);
+		millisClock.addAndGet(STALENESS_ALARM.toMillis() + 1);
+
+		refresher.refresh();
+
+		assertTrue(refresher.isStalenessAlarmRaised());
+		LoggerSpy logger = (LoggerSpy) loggerFactorySpy.MCR.getReturnValue("factorForClass", 0);
+		logger.MCR.assertParameters("logErrorUsingMessageAndException", 0,
+				"Could not refresh metadata snapshot, the previous snapshot is kept. "
+						+ "The snapshot is older than the staleness alarm of PT5M.",
+				error);
+		logger.MCR.assertMethodNotCalled("logWarnUsingMessageAndException");
+	}
+
+	@Test
+	public void testStartSchedulesRefreshes() throws Exception {
+		refresher = SnapshotRefresher.usingViewAndIntervalAndStalenessAlarm(cachedView,
+				Duration.ofMillis(1), STALENESS_ALARM);
+		countLoadsMadeOnSchedulerThread();
+
+		refresher.start();
+
+		assertTrue(refresher.onlyForTestIsStarted());
+		waitForNumberOfLoads(2);
+		assertTrue(cachedView.getCurrentVersion() >= 2);
+	}
+
+	private void waitForNumberOfLoads(int numberOfLoads) throws InterruptedException {
+		long deadline = System.nanoTime() + Duration.ofSeconds(5).toNanos();
+		while (getNumberOfLoads() < numberOfLoads && System.nanoTime() < deadline) {
+			Thread.sleep(1);
+		}
+	}
+
+	private int getNumberOfLoads() {
+		return numberOfLoads.get();
+	}
+
+	private void countLoadsMadeOnSchedulerThread() {
+		snapshotLoader.MRV.setDefaultReturnValuesSupplier("loadSnapshot", () -> {
+			int version = numberOfLoads.incrementAndGet();
+			return MetadataSnapshotLoaderSpy.createEmptySnapshot(version);
+		});
+	}
+
+	@Test
+	public void testStartTwiceHasNoEffect() {
+		refresher.start();
+		refresher.start();
+
+		assertTrue(refresher.onlyForTestIsStarted());
+	}
+
+	@Test
+	public void testStopCancelsRefreshes() throws Exception {
+		refresher = SnapshotRefresher.usingViewAndIntervalAndStalenessAlarm(cachedView,
+				Duration.ofMillis(1), STALENESS_ALARM);
+		countLoadsMadeOnSchedulerThread();
+		refresher.start();
+		waitForNumberOfLoads(1);
+
+		refresher.stop();
+		int loadsAfterStop = getNumberOfLoads();
+		Thread.sleep(20);
+
+		assertFalse(refresher.onlyForTestIsStarted());
+		assertTrue(getNumberOfLoads() <= loadsAfterStop + 1);
+	}
+}
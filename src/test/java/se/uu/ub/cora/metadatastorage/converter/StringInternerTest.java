@@ -0,0 +1,77 @@
+/*
+ * Copyright 2026 Uppsala University Library
+ *
+ * This file is part of Cora.
+ *
+ *     Cora is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     Cora is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with Cora.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package se.uu.ub.cora.metadatastorage.converter;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertNotSame;
+import static org.testng.Assert.assertNull;
+import static org.testng.Assert.assertSame;
+
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+public class StringInternerTest {
+	private StringInterner interner;
+
+	@BeforeMethod
+	private void beforeMethod() {
+		interner = new StringInterner();
+	}
+
+	@Test
+	public void testEmptyPool() {
+		assertEquals(interner.size(), 0);
+	}
+
+	@Test
+	public void testInternNull() {
+		assertNull(interner.intern(null));
+		assertEquals(interner.size(), 0);
+	}
+
+	@Test
+	public void testFirstValueIsReturned() {
+		String value = new String("someValue");
+
+		assertSame(interner.intern(value), value);
+		assertEquals(interner.size(), 1);
+	}
+
+	@Test
+	public void testEqualValuesReturnFirstInstance() {
+		String first = new String("someValue");
+		String second = new String("someValue");
+		assertNotSame(first, second);
+
+		interner.intern(first);
+
+		assertSame(interner.intern(second), first);
+		assertEquals(interner.size(), 1);
+	}
+
+	@Test
+	public void testDifferentValuesAreKeptApart() {
+		String first = interner.intern("someValue");
+		String second = interner.intern("someOtherValue");
+
+		assertEquals(first, "someValue");
+		assertEquals(second, "someOtherValue");
+		assertEquals(interner.size(), 2);
+	}
+}
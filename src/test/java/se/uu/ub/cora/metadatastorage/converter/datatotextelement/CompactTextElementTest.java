@@ -0,0 +1,125 @@
+/*
+ * Copyright 2026 Uppsala University Library
+ *
+ * This file is part of Cora.
+ *
+ *     Cora is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     Cora is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with Cora.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package se.uu.ub.cora.metadatastorage.converter.datatotextelement;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertNull;
+import static org.testng.Assert.assertTrue;
+
+import java.util.Iterator;
+import java.util.Set;
+
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import se.uu.ub.cora.bookkeeper.text.Translation;
+
+public class CompactTextElementTest {
+	private LanguageDictionary dictionary;
+	private CompactTextElement textElement;
+
+	@BeforeMethod
+	public void beforeMethod() {
+		dictionary = new LanguageDictionary();
+		dictionary.indexOf("en");
+		short sv = dictionary.indexOf("sv");
+		short en = dictionary.indexOf("en");
+		textElement = new CompactTextElement("someId", dictionary, new short[] { sv, en },
+				new int[] { 10, 18 }, "räksmörgåsshrimps!");
+	}
+
+	@Test
+	public void testGetId() {
+		assertEquals(textElement.getId(), "someId");
+	}
+
+	@Test
+	public void testGetTranslationByLanguage() {
+		assertEquals(textElement.getTranslationByLanguage("sv"), "räksmörgås");
+		assertEquals(textElement.getTranslationByLanguage("en"), "shrimps!");
+	}
+
+	@Test
+	public void testGetTranslationByLanguageNotInText() {
+		dictionary.indexOf("no");
+
+		assertNull(textElement.getTranslationByLanguage("no"));
+		assertNull(textElement.getTranslationByLanguage("fi"));
+	}
+
+	@Test
+	public void testGetTranslationsKeepsOrder() {
+		Set<Translation> translations = textElement.getTranslations();
+
+		assertEquals(translations.size(), 2);
+		Iterator<Translation> iterator = translations.iterator();
+		assertEquals(iterator.next(), new Translation("sv", "räksmörgås"));
+		assertEquals(iterator.next(), new Translation("en", "shrimps!"));
+	}
+
+	@Test(expectedExceptions = UnsupportedOperationException.class)
+	public void testGetTranslationsIsUnmodifiable() {
+		textElement.getTranslations().add(new Translation("fi", "teksti"));
+	}
+
+	@Test
+	public void testEmptyTranslationsAndEmptyTexts() {
+		short sv = dictionary.indexOf("sv");
+		CompactTextElement empty = new CompactTextElement("emptyId", dictionary, new short[0],
+				new int[0], "");
+		CompactTextElement emptyText = new CompactTextElement("emptyTextId", dictionary,
+				new short[] { sv }, new int[] { 0 }, "");
+
+		assertTrue(empty.getTranslations().isEmpty());
+		assertNull(empty.getTranslationByLanguage("sv"));
+		assertEquals(emptyText.getTranslationByLanguage("sv"), "");
+	}
+
+	@Test
+	public void testAddTranslation() {
+		textElement.addTranslation("fi", "teksti");
+
+		assertEquals(textElement.getTranslationByLanguage("fi"), "teksti");
+		assertEquals(textElement.getTranslationByLanguage("sv"), "räksmörgås");
+		assertEquals(textElement.getTranslationByLanguage("en"), "shrimps!");
+		assertEquals(dictionary.findIndexOf("fi"), 2);
+	}
+
+	@Test
+	public void testAddTranslationKeepsOrder() {
+		textElement.addTranslation("fi", "teksti");
+
+		Iterator<Translation> iterator = textElement.getTranslations().iterator();
+		assertEquals(iterator.next(), new Translation("sv", "räksmörgås"));
+		assertEquals(iterator.next(), new Translation("en", "shrimps!"));
+		assertEquals(iterator.next(), new Translation("fi", "teksti"));
+		assertTrue(!iterator.hasNext());
+	}
+
+	@Test
+	public void testAddTranslationToEmptyElement() {
+		CompactTextElement empty = new CompactTextElement("emptyId", dictionary, new short[0],
+				new int[0], "");
+
+		empty.addTranslation("sv", "text");
+
+		assertEquals(empty.getTranslationByLanguage("sv"), "text");
+		assertEquals(empty.getTranslations().size(), 1);
+	}
+}
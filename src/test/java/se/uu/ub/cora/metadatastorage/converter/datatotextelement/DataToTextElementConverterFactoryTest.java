@@ -19,28 +19,69 @@
 package se.uu.ub.cora.metadatastorage.converter.datatotextelement;
 
 import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertNotSame;
+import static org.testng.Assert.assertTrue;
+import static org.testng.Assert.fail;
 
 import org.testng.annotations.BeforeMethod;
 import org.testng.annotations.Test;
 
+import se.uu.ub.cora.bookkeeper.text.TextElement;
 import se.uu.ub.cora.data.spies.DataRecordGroupSpy;
-
+import se.uu.ub.cora.metadatastorage.DataToTextElementConverterFactorySpy;
+import se.uu.ub.cora.metadatastorage.DataToTextElementConverterSpy;
 public class DataToTextElementConverterFactoryTest {
 
 	private DataToTextElementConverterFactory factory;
-	private DataRecordGroupSpy dataRecordGroup;
 
 	@BeforeMethod
 	private void beforeMethod() {
 		factory = new DataToTextElementConverterFactoryImp();
-		dataRecordGroup = new DataRecordGroupSpy();
 	}
 
 	@Test
 	public void testFactor() {
-		DataToTextElementConverter converter = factory.factor(dataRecordGroup);
+		DataToTextElementConverter converter = factory.factor();
+
+		assertTrue(converter instanceof DataToTextElementConverterImp);
+	}
+
+	@Test
+	public void testFactorReturnsNewConverterWithOwnLanguageDictionaryOnEveryCall() {
+		DataToTextElementConverterImp converter1 = (DataToTextElementConverterImp) factory
+				.factor();
+		DataToTextElementConverterImp converter2 = (DataToTextElementConverterImp) factory
+				.factor();
+
+		assertNotSame(converter1, converter2);
+		assertNotSame(converter1.onlyForTestGetLanguageDictionary(),
+				converter2.onlyForTestGetLanguageDictionary());
+	}
 
-		assertEquals(((DataToTextElementConverterImp) converter).onlyForTestGetDataRecordGroup(),
-				dataRecordGroup);
+	@SuppressWarnings("removal")
+	@Test
+	public void testDeprecatedFactorForRecordConvertsRecordUsingFactoredConverter() {
+		DataToTextElementConverterFactorySpy factorySpy = new DataToTextElementConverterFactorySpy();
+		DataRecordGroupSpy textRecordGroup = new DataRecordGroupSpy();
+
+		TextElement textElement = factorySpy.factor(textRecordGroup).convert();
+
+		DataToTextElementConverterSpy converterSpy = (DataToTextElementConverterSpy) factorySpy.MCR
+				.getReturnValue("factor", 0);
+		converterSpy.MCR.assertParameters("convert", 0, textRecordGroup);
+		converterSpy.MCR.assertReturn("convert", 0, textElement);
+	}
+
+	@SuppressWarnings("removal")
+	@Test
+	public void testDeprecatedConvertWithoutRecordIsOnlySupportedForRecordConverters() {
+		try {
+			factory.factor().convert();
+			fail();
+		} catch (UnsupportedOperationException e) {
+			assertEquals(e.getMessage(), "convert without a text record is only supported by "
+					+ "converters created for one text record, use convert(DataRecordGroup) "
+					+ "instead.");
+		}
 	}
 }
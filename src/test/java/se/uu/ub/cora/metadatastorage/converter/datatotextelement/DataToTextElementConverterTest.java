@@ -20,6 +20,9 @@
 package se.uu.ub.cora.metadatastorage.converter.datatotextelement;
 
 import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertNotSame;
+import static org.testng.Assert.assertSame;
+import static org.testng.Assert.assertTrue;
 import static org.testng.Assert.fail;
 
 import java.util.ArrayList;
@@ -29,16 +32,18 @@ import org.testng.annotations.BeforeMethod;
 import org.testng.annotations.Test;
 
 import se.uu.ub.cora.bookkeeper.text.TextElement;
-import se.uu.ub.cora.data.DataGroup;
+import se.uu.ub.cora.data.DataChild;
+import se.uu.ub.cora.data.spies.DataAtomicSpy;
 import se.uu.ub.cora.data.spies.DataAttributeSpy;
 import se.uu.ub.cora.data.spies.DataGroupSpy;
 import se.uu.ub.cora.data.spies.DataRecordGroupSpy;
+import se.uu.ub.cora.metadatastorage.converter.DataConversionException;
 
 public class DataToTextElementConverterTest {
 
 	private DataRecordGroupSpy dataRecordGroup;
 	private DataToTextElementConverter converter;
-	private List<DataGroup> textPartGroupsList = new ArrayList<>();
+	private List<DataChild> children = new ArrayList<>();
 
 	@BeforeMethod
 	private void beforeMethod() {
@@ -47,45 +52,61 @@ public class DataToTextElementConverterTest {
 		addTranslationToTextDataRecordGroup(new TranslationForTest("no", "en tekst"));
 		addTranslationToTextDataRecordGroup(new TranslationForTest("sv", "en text"));
 
-		converter = new DataToTextElementConverterImp(dataRecordGroup);
+		converter = new DataToTextElementConverterImp();
 	}
 
 	private void createTextDataRecordGroup() {
 		dataRecordGroup = new DataRecordGroupSpy();
-		dataRecordGroup.MRV.setDefaultReturnValuesSupplier("getId", () -> "someId");
-		textPartGroupsList = new ArrayList<>();
-		dataRecordGroup.MRV.setSpecificReturnValuesSupplier("getAllGroupsWithNameInData",
-				() -> textPartGroupsList, "textPart");
+		dataRecordGroup.MRV.setDefaultReturnValuesSupplier("getId", () -> new String("someId"));
+		List<DataChild> recordChildren = new ArrayList<>();
+		recordChildren.add(createGroup("recordInfo", new ArrayList<>()));
+		children = recordChildren;
+		dataRecordGroup.MRV.setDefaultReturnValuesSupplier("getChildren", () -> recordChildren);
+	}
+
+	private DataGroupSpy createGroup(String nameInData, List<DataChild> groupChildren) {
+		DataGroupSpy group = new DataGroupSpy();
+		group.MRV.setDefaultReturnValuesSupplier("getNameInData", () -> nameInData);
+		group.MRV.setDefaultReturnValuesSupplier("getChildren", () -> groupChildren);
+		return group;
+	}
+
+	private DataAtomicSpy createAtomic(String nameInData, String value) {
+		DataAtomicSpy atomic = new DataAtomicSpy();
+		atomic.MRV.setDefaultReturnValuesSupplier("getNameInData", () -> nameInData);
+		atomic.MRV.setDefaultReturnValuesSupplier("getValue", () -> value);
+		return atomic;
 	}
 
 	private void addTranslationToTextDataRecordGroup(TranslationForTest... translations) {
 		for (var translation : translations) {
 			DataGroupSpy textPart = createTextPartUsingAttrAndText(translation);
-			textPartGroupsList.add(textPart);
+			children.add(textPart);
 		}
 	}
 
 	private DataGroupSpy createTextPartUsingAttrAndText(TranslationForTest translation) {
 		DataAttributeSpy langAttribute = createAttribute(translation);
-		DataGroupSpy textPart = new DataGroupSpy();
+		List<DataChild> textPartChildren = new ArrayList<>();
+		textPartChildren.add(createAtomic("text", translation.text()));
+		DataGroupSpy textPart = createGroup("textPart", textPartChildren);
 		textPart.MRV.setSpecificReturnValuesSupplier("getAttribute", () -> langAttribute, "lang");
-		textPart.MRV.setSpecificReturnValuesSupplier("getFirstAtomicValueWithNameInData",
-				translation::text, "text");
 		return textPart;
 	}
 
 	private DataAttributeSpy createAttribute(TranslationForTest translation) {
 		DataAttributeSpy langAttribute = new DataAttributeSpy();
-		langAttribute.MRV.setDefaultReturnValuesSupplier("getValue", translation::lang);
+		langAttribute.MRV.setDefaultReturnValuesSupplier("getValue",
+				() -> new String(translation.lang()));
 		return langAttribute;
 	}
 
 	@Test
 	public void testConvertToText_wentWrong() {
 		RuntimeException exceptionThrown = new RuntimeException("someSpyError");
-		dataRecordGroup.MRV.setAlwaysThrowException("getAllGroupsWithNameInData", exceptionThrown);
+		dataRecordGroup.MRV.setAlwaysThrowException("getChildren", exceptionThrown);
 		try {
-			converter.convert();
+			converter.convert(dataRecordGroup);
 			fail();
 		} catch (Exception e) {
 			assertEquals(e.getMessage(),
@@ -96,7 +117,7 @@ public class DataToTextElementConverterTest {
 
 	@Test
 	public void testConvertToText() {
-		TextElement textElement = converter.convert();
+		TextElement textElement = converter.convert(dataRecordGroup);
 
 		assertEquals(textElement.getId(), "someId");
 		var translations = textElement.getTranslations();
@@ -107,13 +128,137 @@ public class DataToTextElementConverterTest {
 		assertEquals(textElement.getTranslationByLanguage("en"), "a text");
 	}
 
+	@Test
+	public void testConvertWalksChildrenOnceWithoutLookupsByName() {
+		converter.convert(dataRecordGroup);
+
+		dataRecordGroup.MCR.assertMethodWasCalled("getChildren");
+		dataRecordGroup.MCR.assertMethodNotCalled("getAllGroupsWithNameInData");
+		DataGroupSpy textPart = (DataGroupSpy) children.get(1);
+		textPart.MCR.assertMethodWasCalled("getChildren");
+		textPart.MCR.assertMethodNotCalled("getFirstAtomicValueWithNameInData");
+	}
+
+	@Test
+	public void testOnlyTextPartGroupsAreConverted() {
+		children.add(createAtomic("textPart", "notAGroup"));
+		children.add(createGroup("otherGroup", new ArrayList<>()));
+
+		TextElement textElement = converter.convert(dataRecordGroup);
+
+		assertEquals(textElement.getTranslations().size(), 3);
+		DataGroupSpy recordInfo = (DataGroupSpy) children.get(0);
+		recordInfo.MCR.assertMethodNotCalled("getAttribute");
+		recordInfo.MCR.assertMethodNotCalled("getChildren");
+	}
+
+	@Test
+	public void testFirstTextInTextPartIsUsed() {
+		DataGroupSpy textPart = (DataGroupSpy) children.get(1);
+		List<DataChild> textPartChildren = textPart.getChildren();
+		textPartChildren.add(0, createGroup("text", new ArrayList<>()));
+		textPartChildren.add(0, createAtomic("otherAtomic", "other value"));
+		textPartChildren.add(createAtomic("text", "a second text"));
+
+		TextElement textElement = converter.convert(dataRecordGroup);
+
+		assertEquals(textElement.getTranslationByLanguage("en"), "a text");
+	}
+
+	@Test
+	public void testConvertTextWithoutTextParts() {
+		children.clear();
+
+		TextElement textElement = converter.convert(dataRecordGroup);
+
+		assertEquals(textElement.getId(), "someId");
+		assertTrue(textElement.getTranslations().isEmpty());
+	}
+
+	@Test
+	public void testConvertTextPartWithoutText() {
+		DataGroupSpy textPart = (DataGroupSpy) children.get(2);
+		textPart.getChildren().clear();
+		try {
+			converter.convert(dataRecordGroup);
+			fail();
+		} catch (DataConversionException e) {
+			assertEquals(e.getMessage(), "Data to textElement converter failed for record: "
+					+ "someId due to: No text found in textPart.");
+		}
+	}
+
 	record TranslationForTest(String lang, String text) {
 	}
 
 	@Test
-	public void testOnlyForTestGetDataRecordGroup() {
-		var dataRecordGroup2 = ((DataToTextElementConverterImp) converter)
-				.onlyForTestGetDataRecordGroup();
-		assertEquals(dataRecordGroup2, dataRecordGroup);
+	public void testOneConverterConvertsManyRecords() {
+		DataRecordGroupSpy firstRecordGroup = dataRecordGroup;
+		createTextDataRecordGroup();
+		dataRecordGroup.MRV.setDefaultReturnValuesSupplier("getId", () -> "someOtherId");
+		addTranslationToTextDataRecordGroup(new TranslationForTest("sv", "en annan text"));
+
+		TextElement otherTextElement = converter.convert(dataRecordGroup);
+		TextElement firstTextElement = converter.convert(firstRecordGroup);
+
+		assertEquals(otherTextElement.getId(), "someOtherId");
+		assertEquals(otherTextElement.getTranslations().size(), 1);
+		assertEquals(otherTextElement.getTranslationByLanguage("sv"), "en annan text");
+		assertEquals(firstTextElement.getId(), "someId");
+		assertEquals(firstTextElement.getTranslations().size(), 3);
+	}
+
+	@Test
+	public void testEachConverterHasItsOwnLanguageDictionary() {
+		DataToTextElementConverterImp otherConverter = new DataToTextElementConverterImp();
+
+		assertNotSame(
+				((DataToTextElementConverterImp) converter).onlyForTestGetLanguageDictionary(),
+				otherConverter.onlyForTestGetLanguageDictionary());
+	}
+
+	@Test
+	public void testConvertedTextIsCompactAndTranslationsCanBeAdded() {
+		LanguageDictionary languageDictionary = new LanguageDictionary();
+		converter = new DataToTextElementConverterImp(languageDictionary);
+		TextElement textElement = converter.convert(dataRecordGroup);
+
+		textElement.addTranslation("fi", "teksti");
+
+		assertTrue(textElement instanceof CompactTextElement);
+		assertEquals(textElement.getTranslationByLanguage("fi"), "teksti");
+		assertEquals(textElement.getTranslations().size(), 4);
+		assertEquals(languageDictionary.languageAt(3), "fi");
+	}
+
+	@Test
+	public void testLanguagesAreAddedToLanguageDictionary() {
+		LanguageDictionary languageDictionary = new LanguageDictionary();
+		converter = new DataToTextElementConverterImp(languageDictionary);
+
+		converter.convert(dataRecordGroup);
+
+		assertEquals(languageDictionary.size(), 3);
+		assertEquals(languageDictionary.languageAt(0), "en");
+		assertEquals(languageDictionary.languageAt(1), "no");
+		assertEquals(languageDictionary.languageAt(2), "sv");
+	}
+
+	@Test
+	public void testTextsConvertedWithSameDictionaryShareLanguages() {
+		LanguageDictionary languageDictionary = new LanguageDictionary();
+		TextElement textElement1 = new DataToTextElementConverterImp(languageDictionary)
+				.convert(dataRecordGroup);
+		TextElement textElement2 = new DataToTextElementConverterImp(languageDictionary)
+				.convert(dataRecordGroup);
+
+		assertSame(getLanguageOfTranslation(textElement1, "a text"),
+				getLanguageOfTranslation(textElement2, "a text"));
+		assertEquals(languageDictionary.size(), 3);
+	}
+
+	private String getLanguageOfTranslation(TextElement textElement, String text) {
+		return textElement.getTranslations().stream().filter(t -> t.text().equals(text))
+				.findFirst().orElseThrow().language();
 	}
 }
@@ -0,0 +1,102 @@
+/*
+ * Copyright 2026 Uppsala University Library
+ *
+ * This file is part of Cora.
+ *
+ *     Cora is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     Cora is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with Cora.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package se.uu.ub.cora.metadatastorage.converter.datatotextelement;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertSame;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+public class LanguageDictionaryTest {
+	private LanguageDictionary dictionary;
+
+	@BeforeMethod
+	public void beforeMethod() {
+		dictionary = new LanguageDictionary();
+	}
+
+	@Test
+	public void testEmptyDictionary() {
+		assertEquals(dictionary.size(), 0);
+		assertEquals(dictionary.findIndexOf("sv"), LanguageDictionary.NOT_FOUND);
+	}
+
+	@Test
+	public void testIndexOfAddsLanguagesInOrder() {
+		assertEquals(dictionary.indexOf("sv"), 0);
+		assertEquals(dictionary.indexOf("en"), 1);
+
+		assertEquals(dictionary.size(), 2);
+		assertEquals(dictionary.languageAt(0), "sv");
+		assertEquals(dictionary.languageAt(1), "en");
+	}
+
+	@Test
+	public void testIndexOfSameLanguageGivesSameIndex() {
+		dictionary.indexOf("sv");
+		dictionary.indexOf("en");
+
+		assertEquals(dictionary.indexOf(new String("sv")), 0);
+		assertEquals(dictionary.size(), 2);
+	}
+
+	@Test
+	public void testLanguageAtReturnsFirstInstanceAdded() {
+		String language = new String("sv");
+		dictionary.indexOf(language);
+		dictionary.indexOf(new String("sv"));
+
+		assertSame(dictionary.languageAt(0), language);
+	}
+
+	@Test
+	public void testFindIndexOfDoesNotAddLanguage() {
+		dictionary.indexOf("sv");
+
+		assertEquals(dictionary.findIndexOf("sv"), 0);
+		assertEquals(dictionary.findIndexOf("en"), LanguageDictionary.NOT_FOUND);
+		assertEquals(dictionary.findIndexOf(null), LanguageDictionary.NOT_FOUND);
+		assertEquals(dictionary.size(), 1);
+	}
+
+	@Test
+	public void testIndexOfFromManyThreadsGivesOneIndexPerLanguage() throws Exception {
+		ExecutorService executor = Executors.newFixedThreadPool(4);
+		try {
+			List<Future<Short>> indexes = new ArrayList<>();
+			for (int i = 0; i < 100; i++) {
+				String language = "lang" + (i % 10);
+				indexes.add(executor.submit(() -> dictionary.indexOf(language)));
+			}
+			for (int i = 0; i < 100; i++) {
+				assertEquals(dictionary.languageAt(indexes.get(i).get()), "lang" + (i % 10));
+			}
+		} finally {
+			executor.shutdownNow();
+		}
+		assertEquals(dictionary.size(), 10);
+	}
+}
@@ -0,0 +1,320 @@
+/*
+ * Copyright 2026 Uppsala University Library
+ *
+ * This file is part of Cora.
+ *
+ *     Cora is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     Cora is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with Cora.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package se.uu.ub.cora.metadatastorage.converter.datatotextelement;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertNotSame;
+import static org.testng.Assert.assertNull;
+import static org.testng.Assert.assertSame;
+import static org.testng.Assert.assertTrue;
+import static org.testng.Assert.fail;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import se.uu.ub.cora.bookkeeper.text.TextElement;
+import se.uu.ub.cora.bookkeeper.text.TextElementImp;
+import se.uu.ub.cora.data.DataRecordGroup;
+import se.uu.ub.cora.data.spies.DataRecordGroupSpy;
+import se.uu.ub.cora.metadatastorage.DataToTextElementConverterFactorySpy;
+import se.uu.ub.cora.metadatastorage.DataToTextElementConverterSpy;
+import se.uu.ub.cora.metadatastorage.TextElementSpy;
+import se.uu.ub.cora.metadatastorage.converter.pipeline.SequentialConversionPipeline;
+
+public class LazyTextElementListTest {
+	private DataToTextElementConverterFactorySpy converterFactory;
+	private DataToTextElementConverterSpy converter;
+	private List<DataRecordGroup> textRecordGroups;
+	private LazyTextElementList textElements;
+
+	@BeforeMethod
+	public void beforeMethod() {
+		converterFactory = new DataToTextElementConverterFactorySpy();
+		converter = new DataToTextElementConverterSpy();
+		converterFactory.MRV.setDefaultReturnValuesSupplier("factor", () -> converter);
+		textRecordGroups = List.of(createTextRecordGroup("text1"), createTextRecordGroup("text2"),
+				createTextRecordGroup("text3"));
+		textElements = LazyTextElementList
+				.usingTextRecordGroupsAndConverterFactory(textRecordGroups, converterFactory);
+	}
+
+	private DataRecordGroupSpy createTextRecordGroup(String id) {
+		DataRecordGroupSpy textRecordGroup = new DataRecordGroupSpy();
+		textRecordGroup.MRV.setDefaultReturnValuesSupplier("getId", () -> id);
+		return textRecordGroup;
+	}
+
+	@Test
+	public void testNothingIsConvertedOnCreate() {
+		assertEquals(textElements.size(), 3);
+		assertEquals(textElements.numberOfConvertedElements(), 0);
+		converter.MCR.assertMethodNotCalled("convert");
+	}
+
+	@Test
+	public void testGetConvertedElementsDoesNotConvert() {
+		TextElement converted = textElements.get(1);
+
+		assertEquals(textElements.getConvertedElements(), List.of(converted));
+		converter.MCR.assertNumberOfCallsToMethod("convert", 1);
+	}
+
+	@Test
+	public void testUsingConvertedElementsConvertsOnlyMissingElements() {
+		TextElementSpy convertedText2 = new TextElementSpy();
+
+		LazyTextElementList partlyConverted = LazyTextElementList
+				.usingTextRecordGroupsAndConvertedElements(textRecordGroups,
+						Map.of("text2", convertedText2), converterFactory);
+
+		assertEquals(partlyConverted.numberOfConvertedElements(), 1);
+		assertSame(partlyConverted.findById("text2").get(), convertedText2);
+		converter.MCR.assertMethodNotCalled("convert");
+		partlyConverted.get(0);
+		converter.MCR.assertCalledParameters("convert", textRecordGroups.get(0));
+	}
+
+	@Test
+	public void testWithElementsPackedConvertsAllAndKeepsOrder() {
+		setUpConverterFactoryToConvertToTextElementsWithId();
+		textElements.get(1);
+
+		LazyTextElementList packed = textElements
+				.withElementsPacked(new SequentialConversionPipeline());
+
+		converter.MCR.assertNumberOfCallsToMethod("convert", 3);
+		assertEquals(packed.numberOfConvertedElements(), 3);
+		assertEquals(packed.get(0).getId(), "text1");
+		assertEquals(packed.findById("text3").get().getTranslationByLanguage("sv"),
+				"someText_text3");
+		assertEquals(packed.get(1).getClass(), PackedTextElement.class);
+	}
+
+	@Test
+	public void testWithElementsPackedKeepsNoTextRecords() {
+		setUpConverterFactoryToConvertToTextElementsWithId();
+
+		LazyTextElementList packed = textElements
+				.withElementsPacked(new SequentialConversionPipeline());
+
+		assertEquals(packed.onlyForTestNumberOfTextRecordsKept(), 0);
+		assertEquals(packed.get(2).getId(), "text3");
+		converter.MCR.assertNumberOfCallsToMethod("convert", 3);
+	}
+
+	@Test
+	public void testWithElementsPackedCreatesNewViewOnEachAccess() {
+		setUpConverterFactoryToConvertToTextElementsWithId();
+		LazyTextElementList packed = textElements
+				.withElementsPacked(new SequentialConversionPipeline());
+
+		TextElement first = packed.get(0);
+		first.addTranslation("fi", "teksti");
+		TextElement second = packed.get(0);
+
+		assertNotSame(second, first);
+		assertEquals(first.getTranslationByLanguage("fi"), "teksti");
+		assertNull(second.getTranslationByLanguage("fi"));
+		assertEquals(second.getTranslationByLanguage("sv"), "someText_text1");
+	}
+
+	@Test
+	public void testWithTextRecordGroupOnPackedListConvertsOnlyChangedText() {
+		setUpConverterFactoryToConvertToTextElementsWithId();
+		LazyTextElementList packed = textElements
+				.withElementsPacked(new SequentialConversionPipeline());
+		DataRecordGroupSpy changedText2 = createTextRecordGroup("text2");
+
+		LazyTextElementList changed = packed.withTextRecordGroup(changedText2);
+
+		assertEquals(changed.numberOfConvertedElements(), 2);
+		assertEquals(changed.get(0).getClass(), PackedTextElement.class);
+		TextElement changedTextElement = changed.get(1);
+		converter.MCR.assertNumberOfCallsToMethod("convert", 4);
+		converter.MCR.assertParameters("convert", 3, changedText2);
+		converter.MCR.assertReturn("convert", 3, changedTextElement);
+	}
+
+	@Test
+	public void testWithoutTextRecordOnPackedListKeepsOtherPackedTexts() {
+		setUpConverterFactoryToConvertToTextElementsWithId();
+		LazyTextElementList packed = textElements
+				.withElementsPacked(new SequentialConversionPipeline());
+
+		LazyTextElementList changed = packed.withoutTextRecord("text1");
+
+		assertEquals(changed.size(), 2);
+		assertEquals(changed.numberOfConvertedElements(), 2);
+		assertEquals(changed.get(0).getId(), "text2");
+		assertEquals(changed.findById("text3").get().getTranslationByLanguage("sv"),
+				"someText_text3");
+		converter.MCR.assertNumberOfCallsToMethod("convert", 3);
+	}
+
+	@Test
+	public void testConverterIsFactoredOnFirstConversionOnly() {
+		converterFactory.MCR.assertMethodNotCalled("factor");
+
+		textElements.get(0);
+		textElements.get(1);
+		textElements.convertAll(new SequentialConversionPipeline());
+
+		converterFactory.MCR.assertNumberOfCallsToMethod("factor", 1);
+		converter.MCR.assertNumberOfCallsToMethod("convert", 3);
+	}
+
+	@Test
+	public void testChangedListsUseSameConverter() {
+		LazyTextElementList changed = textElements
+				.withTextRecordGroup(createTextRecordGroup("text4")).withoutTextRecord("text1");
+
+		changed.get(0);
+		textElements.get(0);
+
+		converterFactory.MCR.assertNumberOfCallsToMethod("factor", 1);
+		converter.MCR.assertNumberOfCallsToMethod("convert", 2);
+	}
+
+	@Test
+	public void testTextRecordIsNotKeptAfterConversion() {
+		assertEquals(textElements.onlyForTestNumberOfTextRecordsKept(), 3);
+
+		textElements.get(1);
+
+		assertEquals(textElements.onlyForTestNumberOfTextRecordsKept(), 2);
+	}
+
+	private void setUpConverterFactoryToConvertToTextElementsWithId() {
+		for (DataRecordGroup textRecordGroup : textRecordGroups) {
+			String id = textRecordGroup.getId();
+			converter.MRV.setSpecificReturnValuesSupplier("convert", () -> {
+				TextElement textElement = TextElementImp.withId(id);
+				textElement.addTranslation("sv", "someText_" + id);
+				return textElement;
+			}, textRecordGroup);
+		}
+	}
+
+	@Test
+	public void testGetConvertsOnFirstAccess() {
+		TextElement textElement = textElements.get(2);
+
+		converter.MCR.assertCalledParametersReturn("convert", textRecordGroups.get(2));
+		converter.MCR.assertReturn("convert", 0, textElement);
+		assertEquals(textElements.numberOfConvertedElements(), 1);
+	}
+
+	@Test
+	public void testGetReturnsKeptElementOnSecondAccess() {
+		TextElement firstAccess = textElements.get(0);
+		TextElement secondAccess = textElements.get(0);
+
+		assertSame(secondAccess, firstAccess);
+		converter.MCR.assertNumberOfCallsToMethod("convert", 1);
+	}
+
+	@Test
+	public void testIterateConvertsAll() {
+		for (TextElement textElement : textElements) {
+			assertTrue(textElement != null);
+		}
+
+		converter.MCR.assertNumberOfCallsToMethod("convert", 3);
+		assertEquals(textElements.numberOfConvertedElements(), 3);
+	}
+
+	@Test
+	public void testFindById() {
+		Optional<TextElement> textElement = textElements.findById("text2");
+
+		assertSame(textElement.get(), textElements.get(1));
+		converter.MCR.assertNumberOfCallsToMethod("convert", 1);
+	}
+
+	@Test
+	public void testFindByIdNotFound() {
+		Optional<TextElement> textElement = textElements.findById("someMissingId");
+
+		assertTrue(textElement.isEmpty());
+		converter.MCR.assertMethodNotCalled("convert");
+	}
+
+	@Test
+	public void testListIsUnmodifiable() {
+		try {
+			textElements.add(textElements.get(0));
+			fail();
+		} catch (UnsupportedOperationException e) {
+			assertEquals(textElements.size(), 3);
+		}
+	}
+
+	@Test
+	public void testWithTextRecordGroupReplacesAndKeepsOtherConvertedElements() {
+		TextElement text1 = textElements.get(0);
+		textElements.get(1);
+		DataRecordGroupSpy changedText2 = createTextRecordGroup("text2");
+
+		LazyTextElementList changed = textElements.withTextRecordGroup(changedText2);
+
+		assertEquals(changed.size(), 3);
+		assertEquals(changed.numberOfConvertedElements(), 1);
+		assertSame(changed.get(0), text1);
+		TextElement newText2 = changed.findById("text2").get();
+		converter.MCR.assertCalledParametersReturn("convert", changedText2);
+		converter.MCR.assertReturn("convert", 2, newText2);
+		assertEquals(textElements.numberOfConvertedElements(), 2);
+	}
+
+	@Test
+	public void testWithTextRecordGroupAddsNewTextLast() {
+		TextElement text3 = textElements.get(2);
+		DataRecordGroupSpy newText = createTextRecordGroup("text4");
+
+		LazyTextElementList changed = textElements.withTextRecordGroup(newText);
+
+		assertEquals(changed.size(), 4);
+		assertSame(changed.get(2), text3);
+		assertTrue(changed.findById("text4").isPresent());
+		assertEquals(textElements.size(), 3);
+	}
+
+	@Test
+	public void testWithoutTextRecordRemovesAndKeepsOtherConvertedElements() {
+		textElements.get(0);
+		TextElement text3 = textElements.get(2);
+
+		LazyTextElementList changed = textElements.withoutTextRecord("text1");
+
+		assertEquals(changed.size(), 2);
+		assertEquals(changed.numberOfConvertedElements(), 1);
+		assertSame(changed.get(1), text3);
+		assertTrue(changed.findById("text1").isEmpty());
+		assertSame(changed.findById("text3").get(), text3);
+	}
+
+	@Test
+	public void testWithoutTextRecordThatDoesNotExistReturnsSameList() {
+		assertSame(textElements.withoutTextRecord("someMissingId"), textElements);
+	}
+}
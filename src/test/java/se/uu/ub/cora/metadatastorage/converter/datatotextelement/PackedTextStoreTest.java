@@ -0,0 +1,151 @@
+/*
+ * Copyright 2026 Uppsala University Library
+ *
+ * This file is part of Cora.
+ *
+ *     Cora is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     Cora is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with Cora.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package se.uu.ub.cora.metadatastorage.converter.datatotextelement;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertNull;
+import static org.testng.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import se.uu.ub.cora.bookkeeper.text.TextElement;
+import se.uu.ub.cora.bookkeeper.text.TextElementImp;
+import se.uu.ub.cora.bookkeeper.text.Translation;
+
+public class PackedTextStoreTest {
+	private List<TextElement> textElements;
+	private PackedTextStore store;
+
+	@BeforeMethod
+	public void beforeMethod() {
+		textElements = List.of(createTextElement("text1", "sv", "text ett", "en", "text one"),
+				createTextElement("text2", "en", "text two"),
+				createTextElement("textÅÄÖ", "sv", "räksmörgås"));
+		store = PackedTextStore.usingTextElements(textElements);
+	}
+
+	private TextElement createTextElement(String id, String... languagesAndTexts) {
+		TextElement textElement = TextElementImp.withId(id);
+		for (int i = 0; i < languagesAndTexts.length; i += 2) {
+			textElement.addTranslation(languagesAndTexts[i], languagesAndTexts[i + 1]);
+		}
+		return textElement;
+	}
+
+	@Test
+	public void testSizeAndPackedSize() {
+		assertEquals(store.size(), 3);
+		assertTrue(store.getPackedSizeInBytes() > 0);
+	}
+
+	@Test
+	public void testGetTextElementKeepsPosition() {
+		for (int i = 0; i < textElements.size(); i++) {
+			TextElement packed = store.getTextElement(i);
+
+			assertEquals(packed.getId(), textElements.get(i).getId());
+			assertEquals(packed.getTranslations(), textElements.get(i).getTranslations());
+		}
+	}
+
+	@Test
+	public void testGetIdByPosition() {
+		for (int i = 0; i < textElements.size(); i++) {
+			assertEquals(store.getId(i), textElements.get(i).getId());
+		}
+	}
+
+	@Test
+	public void testGetTranslationByLanguage() {
+		TextElement packed = store.getTextElement(0);
+
+		assertEquals(packed.getTranslationByLanguage("sv"), "text ett");
+		assertEquals(packed.getTranslationByLanguage("en"), "text one");
+		assertNull(store.getTextElement(1).getTranslationByLanguage("sv"));
+		assertNull(packed.getTranslationByLanguage("someMissingLanguage"));
+	}
+
+	@Test
+	public void testNonAsciiIdsAndTexts() {
+		TextElement packed = store.findById("textÅÄÖ").get();
+
+		assertEquals(packed.getTranslationByLanguage("sv"), "räksmörgås");
+		assertEquals(packed.getTranslations(), Set.of(new Translation("sv", "räksmörgås")));
+	}
+
+	@Test
+	public void testFindById() {
+		assertEquals(store.findById("text2").get().getTranslationByLanguage("en"), "text two");
+		assertTrue(store.findById("someMissingId").isEmpty());
+	}
+
+	@Test
+	public void testFindByIdWithManyTextsAndSameHash() {
+		List<TextElement> manyTexts = new ArrayList<>();
+		for (int i = 0; i < 1000; i++) {
+			manyTexts.add(createTextElement("text" + i, "sv", "text " + i));
+		}
+		manyTexts.add(createTextElement("Aa", "sv", "Aa"));
+		manyTexts.add(createTextElement("BB", "sv", "BB"));
+		PackedTextStore manyTextsStore = PackedTextStore.usingTextElements(manyTexts);
+
+		for (int i = 0; i < 1000; i++) {
+			assertEquals(manyTextsStore.findById("text" + i).get().getTranslationByLanguage("sv"),
+					"text " + i);
+		}
+		assertEquals(manyTextsStore.findById("Aa").get().getId(), "Aa");
+		assertEquals(manyTextsStore.findById("BB").get().getId(), "BB");
+	}
+
+	@Test
+	public void testEmptyStore() {
+		PackedTextStore emptyStore = PackedTextStore.usingTextElements(Collections.emptyList());
+
+		assertEquals(emptyStore.size(), 0);
+		assertTrue(emptyStore.findById("someId").isEmpty());
+	}
+
+	@Test
+	public void testAddTranslationToPackedTextElementKeepsStoredTranslations() {
+		TextElement textElement = store.getTextElement(0);
+
+		textElement.addTranslation("fi", "teksti");
+
+		assertEquals(textElement.getId(), "text1");
+		assertEquals(textElement.getTranslationByLanguage("fi"), "teksti");
+		assertEquals(textElement.getTranslationByLanguage("sv"), "text ett");
+		assertEquals(textElement.getTranslationByLanguage("en"), "text one");
+		assertEquals(textElement.getTranslations().size(), 3);
+	}
+
+	@Test
+	public void testAddTranslationToPackedTextElementDoesNotChangeStore() {
+		store.getTextElement(0).addTranslation("fi", "teksti");
+
+		TextElement textElement = store.getTextElement(0);
+		assertNull(textElement.getTranslationByLanguage("fi"));
+		assertEquals(textElement.getTranslations().size(), 2);
+	}
+}
@@ -0,0 +1,129 @@
+/*
+ * Copyright 2026 Uppsala University Library
+ *
+ * This file is part of Cora.
+ *
+ *     Cora is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     Cora is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with Cora.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package se.uu.ub.cora.metadatastorage.converter.pipeline;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertSame;
+import static org.testng.Assert.fail;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ForkJoinPool;
+
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import se.uu.ub.cora.metadatastorage.converter.DataConversionException;
+
+public class ParallelConversionPipelineTest {
+	private ExecutorService executor;
+	private ParallelConversionPipeline pipeline;
+
+	@BeforeMethod
+	public void beforeMethod() {
+		executor = new ForkJoinPool(4);
+		pipeline = ParallelConversionPipeline.usingExecutorAndChunkSize(executor, 10);
+	}
+
+	@AfterMethod
+	public void afterMethod() {
+		executor.shutdownNow();
+	}
+
+	@Test
+	public void testInit() {
+		assertSame(pipeline.onlyForTestGetExecutor(), executor);
+		assertEquals(pipeline.onlyForTestGetChunkSize(), 10);
+	}
+
+	@Test(expectedExceptions = IllegalArgumentException.class, expectedExceptionsMessageRegExp = ""
+			+ "Chunk size must be at least 1, was: 0")
+	public void testChunkSizeMustBePositive() {
+		ParallelConversionPipeline.usingExecutorAndChunkSize(executor, 0);
+	}
+
+	@Test
+	public void testEmptyList() {
+		List<String> converted = pipeline.convert(List.<Integer> of(), String::valueOf);
+
+		assertEquals(converted, List.of());
+	}
+
+	@Test
+	public void testSmallListIsConvertedOnCallingThread() {
+		List<Thread> threads = new ArrayList<>();
+
+		pipeline.convert(List.of(1, 2, 3), number -> {
+			threads.add(Thread.currentThread());
+			return number;
+		});
+
+		assertEquals(threads, List.of(Thread.currentThread(), Thread.currentThread(),
+				Thread.currentThread()));
+	}
+
+	@Test
+	public void testResultOrderIsKept() {
+		List<Integer> items = createNumbers(1000);
+
+		List<String> converted = pipeline.convert(items, String::valueOf);
+
+		assertEquals(converted.size(), 1000);
+		for (int i = 0; i < 1000; i++) {
+			assertEquals(converted.get(i), String.valueOf(i));
+		}
+	}
+
+	private List<Integer> createNumbers(int numberOfItems) {
+		List<Integer> items = new ArrayList<>(numberOfItems);
+		for (int i = 0; i < numberOfItems; i++) {
+			items.add(i);
+		}
+		return items;
+	}
+
+	@Test
+	public void testExceptionFromConversionIsRethrown() {
+		DataConversionException error = DataConversionException.withMessage("someError");
+		List<Integer> items = createNumbers(100);
+
+		try {
+			pipeline.convert(items, number -> {
+				if (number == 57) {
+					throw error;
+				}
+				return number;
+			});
+			fail();
+		} catch (DataConversionException e) {
+			assertSame(e, error);
+		}
+	}
+
+	@Test
+	public void testSequentialPipelineKeepsOrder() {
+		SequentialConversionPipeline sequentialPipeline = new SequentialConversionPipeline();
+
+		List<String> converted = sequentialPipeline.convert(createNumbers(3), String::valueOf);
+
+		assertEquals(converted, List.of("0", "1", "2"));
+	}
+}
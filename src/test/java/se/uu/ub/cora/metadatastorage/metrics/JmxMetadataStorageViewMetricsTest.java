@@ -0,0 +1,134 @@
+/*
+ * Copyright 2026 Uppsala University Library
+ *
+ * This file is part of Cora.
+ *
+ *     Cora is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     Cora is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with Cora.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package se.uu.ub.cora.metadatastorage.metrics;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertTrue;
+
+import java.lang.management.ManagementFactory;
+import java.util.Map;
+
+import javax.management.MBeanServer;
+import javax.management.openmbean.TabularData;
+
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import se.uu.ub.cora.bookkeeper.storage.MetadataStorageViewException;
+import se.uu.ub.cora.metadatastorage.cache.CacheStatistics;
+
+public class JmxMetadataStorageViewMetricsTest {
+	private static final String OBJECT_NAME = "se.uu.ub.cora.metadatastorage:type=TestMetrics";
+	private MBeanServer mBeanServer;
+	private JmxMetadataStorageViewMetrics metrics;
+
+	@BeforeMethod
+	public void beforeMethod() {
+		mBeanServer = ManagementFactory.getPlatformMBeanServer();
+		metrics = JmxMetadataStorageViewMetrics.registerUsingObjectName(OBJECT_NAME);
+	}
+
+	@AfterMethod
+	public void afterMethod() {
+		if (mBeanServer.isRegistered(metrics.onlyForTestGetObjectName())) {
+			metrics.unregister();
+		}
+	}
+
+	@Test
+	public void testIsRegisteredInPlatformMBeanServer() {
+		assertTrue(mBeanServer.isRegistered(metrics.onlyForTestGetObjectName()));
+	}
+
+	@Test
+	public void testUnregister() {
+		metrics.unregister();
+
+		assertFalse(mBeanServer.isRegistered(metrics.onlyForTestGetObjectName()));
+	}
+
+	@Test(expectedExceptions = MetadataStorageViewException.class, expectedExceptionsMessageRegExp = ""
+			+ "Could not register metrics with object name: " + OBJECT_NAME)
+	public void testRegisterSameNameTwiceThrows() {
+		JmxMetadataStorageViewMetrics.registerUsingObjectName(OBJECT_NAME);
+	}
+
+	@Test(expectedExceptions = MetadataStorageViewException.class, expectedExceptionsMessageRegExp = ""
+			+ "Invalid metrics object name: notAValidName")
+	public void testInvalidObjectNameThrows() {
+		JmxMetadataStorageViewMetrics.registerUsingObjectName("notAValidName");
+	}
+
+	@Test
+	public void testOperationsAreKeptApart() {
+		metrics.recordCall("getTextElements", 2_000_000, 10);
+		metrics.recordCall("getTextElements", 4_000_000, 10);
+		metrics.recordStorageRead("text", 3_000_000, 10);
+		metrics.recordConversion("collectTerm", 1_000_000, 5);
+
+		assertEquals(metrics.getCounts(), Map.of("call.getTextElements", 2L,
+				"storageRead.text", 1L, "conversion.collectTerm", 1L));
+		assertEquals(metrics.getRecordCounts().get("call.getTextElements"), 20L);
+		assertEquals(metrics.getTotalTimeMillis().get("call.getTextElements"), 6.0);
+		assertEquals(metrics.getMeanTimeMicros().get("call.getTextElements"), 3000.0);
+		assertEquals(metrics.getMaxTimeMicros().get("call.getTextElements"), 4000.0);
+		assertEquals(metrics.getTotalStorageReadTimeMillis(), 3.0);
+		assertEquals(metrics.getTotalConversionTimeMillis(), 1.0);
+	}
+
+	@Test
+	public void testPercentiles() {
+		metrics.recordCall("getTextElement", 1000, 1);
+
+		assertEquals(metrics.getP50TimeMicros().get("call.getTextElement"), 1.0);
+		assertEquals(metrics.getP99TimeMicros().get("call.getTextElement"), 1.0);
+	}
+
+	@Test
+	public void testCacheHitRatios() {
+		metrics.registerCache("metadataElement", () -> new CacheStatistics(3, 1, 0, 1));
+
+		assertEquals(metrics.getCacheHitRatios(), Map.of("metadataElement", 0.75));
+	}
+
+	@Test
+	public void testReset() {
+		metrics.recordCall("getTextElements", 2_000_000, 10);
+
+		metrics.reset();
+
+		assertEquals(metrics.getCounts(), Map.of("call.getTextElements", 0L));
+		assertEquals(metrics.getMeanTimeMicros().get("call.getTextElements"), 0.0);
+	}
+
+	@Test
+	public void testAttributesAreReadableThroughMBeanServer() throws Exception {
+		metrics.recordCall("getTextElements", 2_000_000, 10);
+
+		TabularData counts = (TabularData) mBeanServer
+				.getAttribute(metrics.onlyForTestGetObjectName(), "Counts");
+		double storageReadTime = (double) mBeanServer
+				.getAttribute(metrics.onlyForTestGetObjectName(), "TotalStorageReadTimeMillis");
+
+		assertEquals(counts.size(), 1);
+		assertEquals(storageReadTime, 0.0);
+	}
+}
@@ -0,0 +1,77 @@
+/*
+ * Copyright 2026 Uppsala University Library
+ *
+ * This file is part of Cora.
+ *
+ *     Cora is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     Cora is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with Cora.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package se.uu.ub.cora.metadatastorage.metrics;
+
+import static org.testng.Assert.assertEquals;
+
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+public class LatencyHistogramTest {
+	private LatencyHistogram histogram;
+
+	@BeforeMethod
+	public void beforeMethod() {
+		histogram = new LatencyHistogram();
+	}
+
+	@Test
+	public void testEmptyHistogram() {
+		assertEquals(histogram.percentileNanos(50), 0);
+		assertEquals(histogram.maxNanos(), 0);
+	}
+
+	@Test
+	public void testPercentileIsUpperBoundOfBucket() {
+		for (int i = 0; i < 99; i++) {
+			histogram.record(100);
+		}
+		histogram.record(5000);
+
+		assertEquals(histogram.percentileNanos(50), 128);
+		assertEquals(histogram.percentileNanos(99), 128);
+		assertEquals(histogram.percentileNanos(100), 5000);
+		assertEquals(histogram.maxNanos(), 5000);
+	}
+
+	@Test
+	public void testPercentileIsNeverAboveMax() {
+		histogram.record(1000);
+
+		assertEquals(histogram.percentileNanos(50), 1000);
+	}
+
+	@Test
+	public void testNegativeDurationIsRecordedAsZero() {
+		histogram.record(-5);
+
+		assertEquals(histogram.percentileNanos(100), 0);
+		assertEquals(histogram.maxNanos(), 0);
+	}
+
+	@Test
+	public void testReset() {
+		histogram.record(1000);
+
+		histogram.reset();
+
+		assertEquals(histogram.percentileNanos(50), 0);
+		assertEquals(histogram.maxNanos(), 0);
+	}
+}
@@ -0,0 +1,243 @@
+/*
+ * Copyright 2026 Uppsala University Library
+ *
+ * This file is part of Cora.
+ *
+ *     Cora is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     Cora is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with Cora.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package se.uu.ub.cora.metadatastorage.paging;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertSame;
+import static org.testng.Assert.assertTrue;
+import static org.testng.Assert.fail;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import se.uu.ub.cora.data.DataRecordGroup;
+import se.uu.ub.cora.data.spies.DataRecordGroupSpy;
+
+public class RecordPageIteratorTest {
+	private List<DataRecordGroup> records;
+	private List<long[]> readPages;
+
+	@BeforeMethod
+	public void beforeMethod() {
+		readPages = new ArrayList<>();
+		records = new ArrayList<>();
+		for (int i = 0; i < 5; i++) {
+			records.add(new DataRecordGroupSpy());
+		}
+	}
+
+	private List<DataRecordGroup> readPage(long fromNo, long toNo) {
+		readPages.add(new long[] { fromNo, toNo });
+		int from = (int) Math.min(fromNo - 1, records.size());
+		int to = (int) Math.min(toNo, records.size());
+		return records.subList(from, to);
+	}
+
+	@Test(expectedExceptions = IllegalArgumentException.class, expectedExceptionsMessageRegExp = ""
+			+ "Page size must be at least 1, was: 0")
+	public void testPageSizeMustBePositive() {
+		RecordPageIterator.usingPageReaderAndPageSize(this::readPage, 0);
+	}
+
+	@Test
+	public void testNoPageIsReadBeforeFirstUse() {
+		RecordPageIterator.usingPageReaderAndPageSize(this::readPage, 2);
+
+		assertTrue(readPages.isEmpty());
+	}
+
+	@Test
+	public void testIteratesAllRecordsInPages() {
+		RecordPageIterator<DataRecordGroup> iterator = RecordPageIterator.usingPageReaderAndPageSize(this::readPage,
+				2);
+		List<DataRecordGroup> result = new ArrayList<>();
+
+		iterator.forEachRemaining(result::add);
+
+		assertEquals(result, records);
+		assertEquals(readPages.size(), 3);
+		assertPageRead(0, 1, 2);
+		assertPageRead(1, 3, 4);
+		assertPageRead(2, 5, 6);
+	}
+
+	private void assertPageRead(int readNo, long fromNo, long toNo) {
+		assertEquals(readPages.get(readNo)[0], fromNo);
+		assertEquals(readPages.get(readNo)[1], toNo);
+	}
+
+	@Test
+	public void testFullLastPageReadsOneEmptyPage() {
+		records.remove(4);
+		List<DataRecordGroup> result = RecordPageIterator
+				.usingPageReaderAndPageSize(this::readPage, 2).toStream()
+				.collect(Collectors.toList());
+
+		assertEquals(result, records);
+		assertEquals(readPages.size(), 3);
+		assertPageRead(2, 5, 6);
+	}
+
+	@Test
+	public void testNextPageIsReadFirstWhenNeeded() {
+		RecordPageIterator<DataRecordGroup> iterator = RecordPageIterator.usingPageReaderAndPageSize(this::readPage,
+				2);
+
+		iterator.next();
+		iterator.next();
+
+		assertEquals(readPages.size(), 1);
+	}
+
+	@Test
+	public void testStorageIgnoringWindowStopsAfterFirstPage() {
+		RecordPageIterator<DataRecordGroup> iterator = RecordPageIterator
+				.usingPageReaderAndPageSize((fromNo, toNo) -> records, 2);
+		List<DataRecordGroup> result = new ArrayList<>();
+
+		iterator.forEachRemaining(result::add);
+
+		assertEquals(result, records);
+	}
+
+	@Test
+	public void testToList() {
+		List<DataRecordGroup> result = RecordPageIterator
+				.usingPageReaderAndPageSize(this::readPage, 2).toList();
+
+		assertEquals(result, records);
+	}
+
+	@Test
+	public void testPrefetchReadsNextPageWhileCurrentIsConsumed() {
+		Executor recordingExecutor = command -> {
+			readPages.add(new long[] { -1, -1 });
+			command.run();
+		};
+		RecordPageIterator<DataRecordGroup> iterator = RecordPageIterator
+				.usingPageReaderAndPageSizeAndPrefetchExecutor(this::readPage, 2,
+						recordingExecutor);
+
+		iterator.next();
+
+		assertEquals(readPages.size(), 3);
+		assertPageRead(0, 1, 2);
+		assertPageRead(1, -1, -1);
+		assertPageRead(2, 3, 4);
+	}
+
+	@Test
+	public void testPrefetchReturnsAllRecordsInOrder() {
+		ExecutorService executor = Executors.newSingleThreadExecutor();
+		try {
+			List<DataRecordGroup> result = RecordPageIterator
+					.usingPageReaderAndPageSizeAndPrefetchExecutor(this::readPage, 2, executor)
+					.toList();
+
+			assertEquals(result, records);
+			assertEquals(readPages.size(), 3);
+		} finally {
+			executor.shutdownNow();
+		}
+	}
+
+	@Test
+	public void testPrefetchErrorIsRethrownUnwrapped() {
+		RuntimeException error = new RuntimeException("someError");
+		RecordPageIterator<DataRecordGroup> iterator = RecordPageIterator
+				.usingPageReaderAndPageSizeAndPrefetchExecutor((fromNo, toNo) -> {
+					if (fromNo > 1) {
+						throw error;
+					}
+					return records.subList(0, 2);
+				}, 2, Runnable::run);
+		iterator.next();
+		iterator.next();
+
+		try {
+			iterator.hasNext();
+			fail();
+		} catch (RuntimeException e) {
+			assertSame(e, error);
+		}
+	}
+
+	@Test
+	public void testCloseStopsReadingPages() {
+		RecordPageIterator<DataRecordGroup> iterator = RecordPageIterator
+				.usingPageReaderAndPageSize(this::readPage, 2);
+		iterator.next();
+
+		iterator.close();
+
+		assertFalse(iterator.hasNext());
+		assertEquals(readPages.size(), 1);
+	}
+
+	@Test
+	public void testCloseCancelsPrefetchedPage() {
+		List<Runnable> prefetches = new ArrayList<>();
+		RecordPageIterator<DataRecordGroup> iterator = RecordPageIterator
+				.usingPageReaderAndPageSizeAndPrefetchExecutor(this::readPage, 2, prefetches::add);
+		iterator.next();
+
+		iterator.close();
+		prefetches.get(0).run();
+
+		assertEquals(prefetches.size(), 1);
+		assertEquals(readPages.size(), 1);
+		assertFalse(iterator.hasNext());
+	}
+
+	@Test
+	public void testClosingStreamCancelsPrefetchedPage() {
+		List<Runnable> prefetches = new ArrayList<>();
+		try (Stream<DataRecordGroup> stream = RecordPageIterator
+				.usingPageReaderAndPageSizeAndPrefetchExecutor(this::readPage, 2, prefetches::add)
+				.toStream()) {
+			assertSame(stream.findFirst().get(), records.get(0));
+		}
+
+		prefetches.get(0).run();
+
+		assertEquals(prefetches.size(), 1);
+		assertEquals(readPages.size(), 1);
+	}
+
+	@Test(expectedExceptions = NoSuchElementException.class, expectedExceptionsMessageRegExp = ""
+			+ "No more records to read")
+	public void testNextWhenNoMoreRecords() {
+		RecordPageIterator<DataRecordGroup> iterator = RecordPageIterator
+				.usingPageReaderAndPageSize((fromNo, toNo) -> Collections.emptyList(), 2);
+
+		assertFalse(iterator.hasNext());
+		iterator.next();
+	}
+}
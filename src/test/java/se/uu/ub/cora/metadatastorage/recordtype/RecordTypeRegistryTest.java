@@ -0,0 +1,146 @@
+/*
+ * Copyright 2026 Uppsala University Library
+ *
+ * This file is part of Cora.
+ *
+ *     Cora is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     Cora is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with Cora.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package se.uu.ub.cora.metadatastorage.recordtype;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertSame;
+import static org.testng.Assert.assertTrue;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+public class RecordTypeRegistryTest {
+	private RecordType output;
+	private RecordType book;
+	private RecordType article;
+	private RecordTypeRegistry registry;
+
+	@BeforeMethod
+	public void beforeMethod() {
+		output = new RecordType("output", "outputGroup", true, null);
+		book = new RecordType("book", "bookGroup", true, "output");
+		article = new RecordType("article", "articleGroup", false, "output");
+		Map<String, RecordType> recordTypesById = new LinkedHashMap<>();
+		recordTypesById.put("output", output);
+		recordTypesById.put("book", book);
+		recordTypesById.put("article", article);
+		registry = RecordTypeRegistry.usingRecordTypesById(recordTypesById);
+	}
+
+	@Test
+	public void testRecordTypeHasParent() {
+		assertFalse(output.hasParent());
+		assertTrue(book.hasParent());
+	}
+
+	@Test
+	public void testGetRecordTypesKeepsOrder() {
+		assertEquals(registry.getRecordTypes(), List.of(output, book, article));
+		assertEquals(registry.size(), 3);
+	}
+
+	@Test(expectedExceptions = UnsupportedOperationException.class)
+	public void testGetRecordTypesIsUnmodifiable() {
+		registry.getRecordTypes().clear();
+	}
+
+	@Test
+	public void testGetRecordTypesByIdKeepsOrder() {
+		Map<String, RecordType> byId = registry.getRecordTypesById();
+
+		assertEquals(List.copyOf(byId.keySet()), List.of("output", "book", "article"));
+		assertSame(byId.get("book"), book);
+	}
+
+	@Test(expectedExceptions = UnsupportedOperationException.class)
+	public void testGetRecordTypesByIdIsUnmodifiable() {
+		registry.getRecordTypesById().clear();
+	}
+
+	@Test
+	public void testGetRecordTypeById() {
+		assertSame(registry.getRecordType("article").get(), article);
+		assertTrue(registry.getRecordType("someMissingId").isEmpty());
+	}
+
+	@Test
+	public void testGetImplementingRecordTypes() {
+		assertEquals(registry.getImplementingRecordTypes("output"), List.of(book, article));
+		assertTrue(registry.getImplementingRecordTypes("book").isEmpty());
+		assertTrue(registry.getImplementingRecordTypes("someMissingType").isEmpty());
+	}
+
+	@Test
+	public void testRegistryIsNotChangedByChangesToEnteredMap() {
+		Map<String, RecordType> recordTypesById = new LinkedHashMap<>();
+		recordTypesById.put("output", output);
+		RecordTypeRegistry copyingRegistry = RecordTypeRegistry
+				.usingRecordTypesById(recordTypesById);
+
+		recordTypesById.put("book", book);
+
+		assertEquals(copyingRegistry.size(), 1);
+		assertTrue(copyingRegistry.getRecordType("book").isEmpty());
+	}
+
+	@Test
+	public void testEmptyRegistry() {
+		RecordTypeRegistry emptyRegistry = RecordTypeRegistry
+				.usingRecordTypesById(Collections.emptyMap());
+
+		assertEquals(emptyRegistry.size(), 0);
+		assertTrue(emptyRegistry.getRecordTypes().isEmpty());
+	}
+
+	@Test
+	public void testWithRecordTypeReplacesExisting() {
+		RecordType changedBook = new RecordType("book", "bookGroup2", false, null);
+
+		RecordTypeRegistry changed = registry.withRecordType("book", changedBook);
+
+		assertEquals(changed.getRecordTypes(), List.of(output, changedBook, article));
+		assertEquals(changed.getImplementingRecordTypes("output"), List.of(article));
+		assertSame(registry.getRecordType("book").get(), book);
+	}
+
+	@Test
+	public void testWithRecordTypeAddsNewLast() {
+		RecordType person = new RecordType("person", "personGroup", false, null);
+
+		RecordTypeRegistry changed = registry.withRecordType("person", person);
+
+		assertEquals(changed.size(), 4);
+		assertSame(changed.getRecordTypes().get(3), person);
+	}
+
+	@Test
+	public void testWithoutRecordType() {
+		RecordTypeRegistry changed = registry.withoutRecordType("book");
+
+		assertEquals(changed.getRecordTypes(), List.of(output, article));
+		assertEquals(changed.getImplementingRecordTypes("output"), List.of(article));
+		assertEquals(registry.size(), 3);
+	}
+}
@@ -0,0 +1,147 @@
+/*
+ * Copyright 2026 Uppsala University Library
+ *
+ * This file is part of Cora.
+ *
+ *     Cora is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     Cora is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with Cora.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package se.uu.ub.cora.metadatastorage.registry;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertSame;
+import static org.testng.Assert.assertTrue;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+public class IndexedRegistryTest {
+	private record Element(String id, String group) {
+	}
+
+	private Element first;
+	private Element second;
+	private Element ungrouped;
+	private IndexedRegistry<Element> registry;
+
+	@BeforeMethod
+	public void beforeMethod() {
+		first = new Element("first", "someGroup");
+		second = new Element("second", "someGroup");
+		ungrouped = new Element("ungrouped", null);
+		Map<String, Element> elementsById = new LinkedHashMap<>();
+		elementsById.put("first", first);
+		elementsById.put("second", second);
+		elementsById.put("ungrouped", ungrouped);
+		registry = IndexedRegistry.usingElementsByIdAndGroupingKey(elementsById, Element::group);
+	}
+
+	@Test
+	public void testGetElementsKeepsOrder() {
+		assertEquals(registry.getElements(), List.of(first, second, ungrouped));
+		assertEquals(List.copyOf(registry.getElementsById().keySet()),
+				List.of("first", "second", "ungrouped"));
+		assertEquals(registry.size(), 3);
+	}
+
+	@Test(expectedExceptions = UnsupportedOperationException.class)
+	public void testGetElementsIsUnmodifiable() {
+		registry.getElements().clear();
+	}
+
+	@Test(expectedExceptions = UnsupportedOperationException.class)
+	public void testGetElementsByIdIsUnmodifiable() {
+		registry.getElementsById().clear();
+	}
+
+	@Test
+	public void testGetElementById() {
+		assertSame(registry.getElement("second").get(), second);
+		assertTrue(registry.getElement("someMissingId").isEmpty());
+	}
+
+	@Test
+	public void testGetElementsGroupedBy() {
+		assertEquals(registry.getElementsGroupedBy("someGroup"), List.of(first, second));
+		assertTrue(registry.getElementsGroupedBy("someMissingGroup").isEmpty());
+	}
+
+	@Test(expectedExceptions = UnsupportedOperationException.class)
+	public void testGetElementsGroupedByIsUnmodifiable() {
+		registry.getElementsGroupedBy("someGroup").clear();
+	}
+
+	@Test
+	public void testRegistryIsNotChangedByChangesToEnteredMap() {
+		Map<String, Element> elementsById = new LinkedHashMap<>();
+		elementsById.put("first", first);
+		IndexedRegistry<Element> copyingRegistry = IndexedRegistry
+				.usingElementsByIdAndGroupingKey(elementsById, Element::group);
+
+		elementsById.put("second", second);
+
+		assertEquals(copyingRegistry.size(), 1);
+		assertTrue(copyingRegistry.getElement("second").isEmpty());
+	}
+
+	@Test
+	public void testEmptyRegistry() {
+		IndexedRegistry<Element> emptyRegistry = IndexedRegistry
+				.usingElementsByIdAndGroupingKey(Collections.emptyMap(), Element::group);
+
+		assertEquals(emptyRegistry.size(), 0);
+		assertTrue(emptyRegistry.getElements().isEmpty());
+	}
+
+	@Test
+	public void testWithElementReplacesExistingAndRegroups() {
+		Element changedFirst = new Element("first", "someOtherGroup");
+
+		IndexedRegistry<Element> changed = registry.withElement("first", changedFirst);
+
+		assertEquals(changed.getElements(), List.of(changedFirst, second, ungrouped));
+		assertEquals(changed.getElementsGroupedBy("someGroup"), List.of(second));
+		assertEquals(changed.getElementsGroupedBy("someOtherGroup"), List.of(changedFirst));
+		assertSame(registry.getElement("first").get(), first);
+	}
+
+	@Test
+	public void testWithElementAddsNewLast() {
+		Element added = new Element("added", "someGroup");
+
+		IndexedRegistry<Element> changed = registry.withElement("added", added);
+
+		assertEquals(changed.getElements(), List.of(first, second, ungrouped, added));
+		assertEquals(changed.getElementsGroupedBy("someGroup"), List.of(first, second, added));
+		assertEquals(registry.size(), 3);
+	}
+
+	@Test
+	public void testWithoutElement() {
+		IndexedRegistry<Element> changed = registry.withoutElement("first");
+
+		assertEquals(changed.getElements(), List.of(second, ungrouped));
+		assertEquals(changed.getElementsGroupedBy("someGroup"), List.of(second));
+		assertEquals(registry.size(), 3);
+	}
+
+	@Test
+	public void testWithoutMissingElementReturnsSameRegistry() {
+		assertSame(registry.withoutElement("someMissingId"), registry);
+	}
+}
@@ -0,0 +1,147 @@
+/*
+ * Copyright 2026 Uppsala University Library
+ *
+ * This file is part of Cora.
+ *
+ *     Cora is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     Cora is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with Cora.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package se.uu.ub.cora.metadatastorage.validationtype;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertSame;
+import static org.testng.Assert.assertTrue;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import se.uu.ub.cora.bookkeeper.validator.ValidationType;
+
+public class ValidationTypeRegistryTest {
+	private ValidationType bookCreate;
+	private ValidationType bookImport;
+	private ValidationType person;
+	private ValidationTypeRegistry registry;
+
+	@BeforeMethod
+	public void beforeMethod() {
+		bookCreate = new ValidationType("book", "bookNewGroup", "bookGroup");
+		person = new ValidationType("person", "personNewGroup", "personGroup");
+		bookImport = new ValidationType("book", "bookImportNewGroup", "bookImportGroup");
+		Map<String, ValidationType> validationTypesById = new LinkedHashMap<>();
+		validationTypesById.put("book", bookCreate);
+		validationTypesById.put("person", person);
+		validationTypesById.put("bookImport", bookImport);
+		registry = ValidationTypeRegistry.usingValidationTypesById(validationTypesById);
+	}
+
+	@Test
+	public void testGetValidationTypesKeepsOrder() {
+		assertEquals(registry.getValidationTypes(), List.of(bookCreate, person, bookImport));
+		assertEquals(registry.size(), 3);
+	}
+
+	@Test(expectedExceptions = UnsupportedOperationException.class)
+	public void testGetValidationTypesIsUnmodifiable() {
+		registry.getValidationTypes().clear();
+	}
+
+	@Test
+	public void testGetValidationTypesByIdKeepsOrder() {
+		Map<String, ValidationType> byId = registry.getValidationTypesById();
+
+		assertEquals(List.copyOf(byId.keySet()), List.of("book", "person", "bookImport"));
+		assertSame(byId.get("person"), person);
+	}
+
+	@Test(expectedExceptions = UnsupportedOperationException.class)
+	public void testGetValidationTypesByIdIsUnmodifiable() {
+		registry.getValidationTypesById().clear();
+	}
+
+	@Test
+	public void testGetValidationTypeById() {
+		assertSame(registry.getValidationType("bookImport").get(), bookImport);
+		assertTrue(registry.getValidationType("someMissingId").isEmpty());
+	}
+
+	@Test
+	public void testGetValidationTypesForRecordType() {
+		assertEquals(registry.getValidationTypesForRecordType("book"),
+				List.of(bookCreate, bookImport));
+		assertEquals(registry.getValidationTypesForRecordType("person"), List.of(person));
+		assertTrue(registry.getValidationTypesForRecordType("someMissingType").isEmpty());
+	}
+
+	@Test
+	public void testRegistryIsNotChangedByChangesToEnteredMap() {
+		Map<String, ValidationType> validationTypesById = new LinkedHashMap<>();
+		validationTypesById.put("book", bookCreate);
+		ValidationTypeRegistry copyingRegistry = ValidationTypeRegistry
+				.usingValidationTypesById(validationTypesById);
+
+		validationTypesById.put("person", person);
+
+		assertEquals(copyingRegistry.size(), 1);
+		assertTrue(copyingRegistry.getValidationType("person").isEmpty());
+	}
+
+	@Test
+	public void testEmptyRegistry() {
+		ValidationTypeRegistry emptyRegistry = ValidationTypeRegistry
+				.usingValidationTypesById(Collections.emptyMap());
+
+		assertEquals(emptyRegistry.size(), 0);
+		assertTrue(emptyRegistry.getValidationTypes().isEmpty());
+	}
+
+	@Test
+	public void testWithValidationTypeReplacesExisting() {
+		ValidationType changedPerson = new ValidationType("organisation", "personNewGroup2",
+				"personGroup2");
+
+		ValidationTypeRegistry changed = registry.withValidationType("person", changedPerson);
+
+		assertEquals(changed.getValidationTypes(), List.of(bookCreate, changedPerson, bookImport));
+		assertTrue(changed.getValidationTypesForRecordType("person").isEmpty());
+		assertEquals(changed.getValidationTypesForRecordType("organisation"),
+				List.of(changedPerson));
+		assertSame(registry.getValidationType("person").get(), person);
+	}
+
+	@Test
+	public void testWithValidationTypeAddsNewLast() {
+		ValidationType organisation = new ValidationType("organisation", "orgNewGroup",
+				"orgGroup");
+
+		ValidationTypeRegistry changed = registry.withValidationType("organisation",
+				organisation);
+
+		assertEquals(changed.size(), 4);
+		assertSame(changed.getValidationTypes().get(3), organisation);
+	}
+
+	@Test
+	public void testWithoutValidationType() {
+		ValidationTypeRegistry changed = registry.withoutValidationType("book");
+
+		assertEquals(changed.getValidationTypes(), List.of(person, bookImport));
+		assertEquals(changed.getValidationTypesForRecordType("book"), List.of(bookImport));
+		assertEquals(registry.size(), 3);
+	}
+}